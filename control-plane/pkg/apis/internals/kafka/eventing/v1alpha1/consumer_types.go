@@ -161,11 +161,33 @@ type DeliverySpec struct {
 	// InitialOffset initial offset.
 	InitialOffset sources.Offset `json:"initialOffset"`
 
+	// Batch is the batch delivery options, events are sent one at a time when it's nil.
+	// +optional
+	Batch *BatchSpec `json:"batch,omitempty"`
+
 	// TODO Add rate limiting
 
 	// TODO PT OPT
 }
 
+// BatchSpec are the options to send events to the subscriber in batches, in a single
+// application/cloudevents-batch+json request.
+// Responses to batch requests are not handled as replies, and events are never batched
+// with the ordered delivery ordering.
+type BatchSpec struct {
+	// MaxEvents is the maximum number of events in a batch, 0 or 1 means don't batch.
+	MaxEvents int32 `json:"maxEvents,omitempty"`
+
+	// MaxBytes is the maximum size in bytes of a batch request, 0 means using the data plane default.
+	// +optional
+	MaxBytes int64 `json:"maxBytes,omitempty"`
+
+	// Linger is the maximum time to wait for more events before sending a batch that is not full,
+	// expressed as an ISO-8601 duration.
+	// +optional
+	Linger *string `json:"linger,omitempty"`
+}
+
 // ConsumerConfigs are the Consumer configurations.
 // More info: https://kafka.apache.org/documentation/#consumerconfigs
 type ConsumerConfigs struct {
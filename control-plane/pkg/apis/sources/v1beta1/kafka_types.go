@@ -83,7 +83,8 @@ type KafkaSourceSpec struct {
 	Delivery *eventingduckv1.DeliverySpec `json:"delivery,omitempty"`
 
 	// Ordering is the type of the consumer verticle.
-	// Should be ordered or unordered.
+	// Should be ordered, unordered or key-ordered: key-ordered dispatches events
+	// of a partition concurrently, while events with the same key are dispatched in order.
 	// By default, it is ordered.
 	// +optional
 	Ordering *DeliveryOrdering `json:"ordering,omitempty"`
@@ -53,7 +53,7 @@ func (kss *KafkaSourceSpec) Validate(ctx context.Context) *apis.FieldError {
 	}
 	if kss.Ordering != nil {
 		switch *kss.Ordering {
-		case Unordered, Ordered:
+		case Unordered, Ordered, KeyOrdered:
 		default:
 			errs = errs.Also(apis.ErrInvalidValue(*kss.Ordering, "ordering"))
 		}
@@ -32,12 +32,17 @@ const (
 	// Unordered is non-blocking consumer that delivers
 	// events out of any particular order.
 	Unordered DeliveryOrdering = "unordered"
+	// KeyOrdered is a per partition non-blocking consumer
+	// that delivers events with the same key in order while
+	// events with different keys are delivered concurrently.
+	KeyOrdered DeliveryOrdering = "key-ordered"
 )
 
 var (
 	deliveryOrders = sets.NewString(
 		string(Ordered),
 		string(Unordered),
+		string(KeyOrdered),
 	)
 
 	deliveryOrdersString = strings.Join(deliveryOrders.List(), ",")
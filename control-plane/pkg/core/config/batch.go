@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 The Knative Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package config
+
+import (
+	"fmt"
+	"strconv"
+
+	internals "knative.dev/eventing-kafka-broker/control-plane/pkg/apis/internals/kafka/eventing/v1alpha1"
+	"knative.dev/eventing-kafka-broker/control-plane/pkg/contract"
+)
+
+const (
+	// BatchMaxEventsAnnotation is the maximum number of events sent to the subscriber in a single
+	// application/cloudevents-batch+json request, 0 or 1 means don't batch.
+	BatchMaxEventsAnnotation = "kafka.eventing.knative.dev/delivery.batch.max-events"
+	// BatchMaxBytesAnnotation is the maximum size in bytes of a batch request.
+	BatchMaxBytesAnnotation = "kafka.eventing.knative.dev/delivery.batch.max-bytes"
+	// BatchLingerAnnotation is the maximum time to wait for more events before sending a batch that is not full,
+	// expressed as an ISO-8601 duration.
+	BatchLingerAnnotation = "kafka.eventing.knative.dev/delivery.batch.linger"
+)
+
+// BatchSpecFromAnnotations returns the batch delivery options set with the batch annotations, or nil when none of
+// them is set.
+func BatchSpecFromAnnotations(annotations map[string]string) (*internals.BatchSpec, error) {
+	maxEvents, hasMaxEvents := annotations[BatchMaxEventsAnnotation]
+	maxBytes, hasMaxBytes := annotations[BatchMaxBytesAnnotation]
+	linger, hasLinger := annotations[BatchLingerAnnotation]
+	if !hasMaxEvents && !hasMaxBytes && !hasLinger {
+		return nil, nil
+	}
+
+	batch := &internals.BatchSpec{}
+	if hasMaxEvents {
+		v, err := strconv.ParseInt(maxEvents, 10, 32)
+		if err != nil || v < 0 {
+			return nil, fmt.Errorf("invalid annotation %s value: %s. Allowed values are non-negative integers", BatchMaxEventsAnnotation, maxEvents)
+		}
+		batch.MaxEvents = int32(v)
+	}
+	if hasMaxBytes {
+		v, err := strconv.ParseInt(maxBytes, 10, 64)
+		if err != nil || v < 0 {
+			return nil, fmt.Errorf("invalid annotation %s value: %s. Allowed values are non-negative integers", BatchMaxBytesAnnotation, maxBytes)
+		}
+		batch.MaxBytes = v
+	}
+	if hasLinger {
+		if _, err := DurationMillisFromISO8601String(&linger, 0); err != nil {
+			return nil, fmt.Errorf("invalid annotation %s value: %s: %w", BatchLingerAnnotation, linger, err)
+		}
+		batch.Linger = &linger
+	}
+	return batch, nil
+}
+
+// SetBatchEgressConfig sets the given batch delivery options in the given egress config.
+//
+// It returns the given egress config, or a new one when the given egress config is nil and batch is not nil.
+func SetBatchEgressConfig(egressConfig *contract.EgressConfig, batch *internals.BatchSpec) (*contract.EgressConfig, error) {
+	if batch == nil {
+		return egressConfig, nil
+	}
+
+	linger, err := DurationMillisFromISO8601String(batch.Linger, 0)
+	if err != nil {
+		return nil, fmt.Errorf("failed to parse batch linger: %w", err)
+	}
+
+	if egressConfig == nil {
+		egressConfig = &contract.EgressConfig{}
+	}
+	egressConfig.BatchMaxEvents = uint32(batch.MaxEvents)
+	egressConfig.BatchMaxBytes = uint64(batch.MaxBytes)
+	egressConfig.BatchLinger = linger
+	return egressConfig, nil
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 The Knative Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package config
+
+import (
+	"testing"
+
+	"github.com/google/go-cmp/cmp"
+	"google.golang.org/protobuf/testing/protocmp"
+	"k8s.io/utils/pointer"
+
+	internals "knative.dev/eventing-kafka-broker/control-plane/pkg/apis/internals/kafka/eventing/v1alpha1"
+	"knative.dev/eventing-kafka-broker/control-plane/pkg/contract"
+)
+
+func TestBatchSpecFromAnnotations(t *testing.T) {
+	tests := []struct {
+		name        string
+		annotations map[string]string
+		want        *internals.BatchSpec
+		wantErr     bool
+	}{
+		{
+			name:        "no annotations",
+			annotations: map[string]string{"foo": "bar"},
+			want:        nil,
+		},
+		{
+			name: "all annotations",
+			annotations: map[string]string{
+				BatchMaxEventsAnnotation: "10",
+				BatchMaxBytesAnnotation:  "1024",
+				BatchLingerAnnotation:    "PT0.1S",
+			},
+			want: &internals.BatchSpec{
+				MaxEvents: 10,
+				MaxBytes:  1024,
+				Linger:    pointer.String("PT0.1S"),
+			},
+		},
+		{
+			name:        "max events only",
+			annotations: map[string]string{BatchMaxEventsAnnotation: "5"},
+			want:        &internals.BatchSpec{MaxEvents: 5},
+		},
+		{
+			name:        "invalid max events",
+			annotations: map[string]string{BatchMaxEventsAnnotation: "-1"},
+			wantErr:     true,
+		},
+		{
+			name:        "invalid max bytes",
+			annotations: map[string]string{BatchMaxBytesAnnotation: "lots"},
+			wantErr:     true,
+		},
+		{
+			name:        "invalid linger",
+			annotations: map[string]string{BatchLingerAnnotation: "1s"},
+			wantErr:     true,
+		},
+	}
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			got, err := BatchSpecFromAnnotations(tt.annotations)
+			if (err != nil) != tt.wantErr {
+				t.Fatalf("BatchSpecFromAnnotations() error = %v, wantErr %v", err, tt.wantErr)
+			}
+			if diff := cmp.Diff(tt.want, got); diff != "" {
+				t.Errorf("BatchSpecFromAnnotations() (-want, +got) %s", diff)
+			}
+		})
+	}
+}
+
+func TestSetBatchEgressConfig(t *testing.T) {
+	tests := []struct {
+		name         string
+		egressConfig *contract.EgressConfig
+		batch        *internals.BatchSpec
+		want         *contract.EgressConfig
+	}{
+		{
+			name:         "no batch",
+			egressConfig: nil,
+			batch:        nil,
+			want:         nil,
+		},
+		{
+			name:         "batch without egress config",
+			egressConfig: nil,
+			batch:        &internals.BatchSpec{MaxEvents: 10, Linger: pointer.String("PT0.1S")},
+			want:         &contract.EgressConfig{BatchMaxEvents: 10, BatchLinger: 100},
+		},
+		{
+			name:         "batch with egress config",
+			egressConfig: &contract.EgressConfig{Retry: 3},
+			batch:        &internals.BatchSpec{MaxEvents: 10, MaxBytes: 2048},
+			want:         &contract.EgressConfig{Retry: 3, BatchMaxEvents: 10, BatchMaxBytes: 2048},
+		},
+	}
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			got, err := SetBatchEgressConfig(tt.egressConfig, tt.batch)
+			if err != nil {
+				t.Fatalf("SetBatchEgressConfig() error = %v", err)
+			}
+			if diff := cmp.Diff(tt.want, got, protocmp.Transform()); diff != "" {
+				t.Errorf("SetBatchEgressConfig() (-want, +got) %s", diff)
+			}
+		})
+	}
+}
@@ -163,6 +163,10 @@ func (r *Reconciler) reconcileContractEgress(ctx context.Context, c *kafkaintern
 		if err != nil {
 			return nil, err
 		}
+		egressConfig, err = coreconfig.SetBatchEgressConfig(egressConfig, c.Spec.Delivery.Batch)
+		if err != nil {
+			return nil, err
+		}
 	}
 	if egressConfig != nil {
 		c.Status.DeliveryStatus.DeadLetterSinkURI, _ = apis.ParseURL(egressConfig.DeadLetter)
@@ -307,6 +311,8 @@ func reconcileDeliveryOrder(c *kafkainternals.Consumer) contract.DeliveryOrder {
 		return contract.DeliveryOrder_ORDERED
 	case kafkasource.Unordered:
 		return contract.DeliveryOrder_UNORDERED
+	case kafkasource.KeyOrdered:
+		return contract.DeliveryOrder_KEY_ORDERED
 	}
 	return contract.DeliveryOrder_UNORDERED
 }
@@ -378,6 +378,21 @@ func (r *Reconciler) reconcileTriggerEgress(ctx context.Context, broker *eventin
 	// Merge Broker and Trigger egress configuration prioritizing the Trigger configuration.
 	egress.EgressConfig = coreconfig.MergeEgressConfig(triggerEgressConfig, brokerEgressConfig)
 
+	batch, err := coreconfig.BatchSpecFromAnnotations(trigger.Annotations)
+	if err != nil {
+		return nil, err
+	}
+	if batch != nil && batch.MaxEvents > 1 {
+		kafkalogging.CreateReconcileMethodLogger(ctx, trigger).Warn(
+			"Batch delivery is enabled, replies of the subscriber to batches are dropped",
+			zap.Int32("batchMaxEvents", batch.MaxEvents),
+		)
+	}
+	egress.EgressConfig, err = coreconfig.SetBatchEgressConfig(egress.EgressConfig, batch)
+	if err != nil {
+		return nil, err
+	}
+
 	deliveryOrderAnnotationValue, ok := trigger.Annotations[deliveryOrderAnnotation]
 	if ok {
 		deliveryOrder, err := deliveryOrderFromString(deliveryOrderAnnotationValue)
@@ -485,7 +500,9 @@ func deliveryOrderFromString(val string) (contract.DeliveryOrder, error) {
 		return contract.DeliveryOrder_ORDERED, nil
 	case string(sources.Unordered):
 		return contract.DeliveryOrder_UNORDERED, nil
+	case string(sources.KeyOrdered):
+		return contract.DeliveryOrder_KEY_ORDERED, nil
 	default:
-		return contract.DeliveryOrder_UNORDERED, fmt.Errorf("invalid annotation %s value: %s. Allowed values [ %q | %q ]", deliveryOrderAnnotation, val, sources.Ordered, sources.Unordered)
+		return contract.DeliveryOrder_UNORDERED, fmt.Errorf("invalid annotation %s value: %s. Allowed values [ %q | %q | %q ]", deliveryOrderAnnotation, val, sources.Ordered, sources.Unordered, sources.KeyOrdered)
 	}
 }
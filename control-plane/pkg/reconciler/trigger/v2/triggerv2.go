@@ -46,6 +46,7 @@ import (
 	internalsclient "knative.dev/eventing-kafka-broker/control-plane/pkg/client/internals/kafka/clientset/versioned"
 	internalslst "knative.dev/eventing-kafka-broker/control-plane/pkg/client/internals/kafka/listers/eventing/v1alpha1"
 	"knative.dev/eventing-kafka-broker/control-plane/pkg/config"
+	coreconfig "knative.dev/eventing-kafka-broker/control-plane/pkg/core/config"
 	"knative.dev/eventing-kafka-broker/control-plane/pkg/kafka"
 	kafkalogging "knative.dev/eventing-kafka-broker/control-plane/pkg/logging"
 	brokerreconciler "knative.dev/eventing-kafka-broker/control-plane/pkg/reconciler/broker"
@@ -140,6 +141,17 @@ func (r *Reconciler) reconcileConsumerGroup(ctx context.Context, broker *eventin
 		}
 	}
 
+	batch, err := coreconfig.BatchSpecFromAnnotations(trigger.Annotations)
+	if err != nil {
+		return nil, err
+	}
+	if batch != nil && batch.MaxEvents > 1 {
+		kafkalogging.CreateReconcileMethodLogger(ctx, trigger).Warn(
+			"Batch delivery is enabled, replies of the subscriber to batches are dropped",
+			zap.Int32("batchMaxEvents", batch.MaxEvents),
+		)
+	}
+
 	offset := sources.OffsetLatest
 	isLatestOffset, err := kafka.IsOffsetLatest(r.ConfigMapLister, r.Env.DataPlaneConfigMapNamespace, r.Env.DataPlaneConfigConfigMapName, brokerreconciler.ConsumerConfigKey)
 	if err != nil {
@@ -212,6 +224,7 @@ func (r *Reconciler) reconcileConsumerGroup(ctx context.Context, broker *eventin
 						DeliverySpec:  deliverySpec(broker, trigger),
 						Ordering:      deliveryOrdering,
 						InitialOffset: offset,
+						Batch:         batch,
 					},
 					Filters: &internalscg.Filters{
 						Filter:  trigger.Spec.Filter,
@@ -314,7 +327,9 @@ func deliveryOrderingFromString(val string) (sources.DeliveryOrdering, error) {
 		return sources.Ordered, nil
 	case string(sources.Unordered):
 		return sources.Unordered, nil
+	case string(sources.KeyOrdered):
+		return sources.KeyOrdered, nil
 	default:
-		return sources.Unordered, fmt.Errorf("invalid annotation %s value: %s. Allowed values [ %q | %q ]", deliveryOrderAnnotation, val, sources.Ordered, sources.Unordered)
+		return sources.Unordered, fmt.Errorf("invalid annotation %s value: %s. Allowed values [ %q | %q | %q ]", deliveryOrderAnnotation, val, sources.Ordered, sources.Unordered, sources.KeyOrdered)
 	}
 }
@@ -311,7 +311,7 @@ func TestReconcileKind(t *testing.T) {
 					corev1.EventTypeWarning,
 					"InternalError",
 					fmt.Sprintf(
-						"invalid annotation %s value: invalid. Allowed values [ \"ordered\" | \"unordered\" ]",
+						"invalid annotation %s value: invalid. Allowed values [ \"ordered\" | \"unordered\" | \"key-ordered\" ]",
 						deliveryOrderAnnotation,
 					),
 				),
@@ -322,7 +322,7 @@ func TestReconcileKind(t *testing.T) {
 						reconcilertesting.WithInitTriggerConditions,
 						reconcilertesting.WithTriggerOIDCIdentityCreatedSucceededBecauseOIDCFeatureDisabled(),
 						reconcilertesting.WithTriggerBrokerReady(),
-						reconcilertesting.WithTriggerDependencyFailed("failed to reconcile consumer group", "invalid annotation kafka.eventing.knative.dev/delivery.order value: invalid. Allowed values [ \"ordered\" | \"unordered\" ]"),
+						reconcilertesting.WithTriggerDependencyFailed("failed to reconcile consumer group", "invalid annotation kafka.eventing.knative.dev/delivery.order value: invalid. Allowed values [ \"ordered\" | \"unordered\" | \"key-ordered\" ]"),
 						reconcilertesting.WithAnnotation(deliveryOrderAnnotation, "invalid"),
 					),
 				},
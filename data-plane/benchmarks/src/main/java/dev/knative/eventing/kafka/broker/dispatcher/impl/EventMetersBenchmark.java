@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks for the meters updated by {@link RecordDispatcherImpl} for every dispatched event, comparing
+ * {@link EventMeters} with building and registering meters for every event.
+ * <p>
+ * Run {@link #main(String[])} to include the allocation rate of each benchmark, as reported by the GC profiler.
+ */
+public class EventMetersBenchmark {
+
+    @State(Scope.Thread)
+    public static class MetersState {
+
+        private PrometheusMeterRegistry registry;
+        private Tags tags;
+        private EventMeters eventMeters;
+        private String[] types;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            this.tags = Metrics.egressRefTags(DataPlaneContract.Reference.newBuilder()
+                            .setName("trigger")
+                            .setNamespace("default")
+                            .build())
+                    .and(Metrics.resourceRefTags(DataPlaneContract.Reference.newBuilder()
+                            .setName("broker")
+                            .setNamespace("default")
+                            .build()));
+            this.eventMeters = new EventMeters(registry, tags);
+            this.types = new String[] {"dev.knative.sources.ping", "dev.knative.apiserver.resource.add"};
+        }
+
+        /**
+         * @return an event type, as a new string, like the types of events read from records.
+         */
+        private String type() {
+            return new String(types[next++ & 1]);
+        }
+    }
+
+    /**
+     * Meters built and registered for every event, this is how meters were updated before {@link EventMeters}.
+     */
+    @Benchmark
+    public void register(final MetersState state) {
+        final var eventTypeTag = Tag.of(Metrics.Tags.EVENT_TYPE, state.type());
+        Metrics.eventProcessingLatency(state.tags.and(eventTypeTag))
+                .register(state.registry)
+                .record(1);
+        final var tags = state.tags.and(
+                Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, 202 / 100 + "xx"),
+                Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(202)),
+                eventTypeTag);
+        Metrics.eventCount(tags).register(state.registry).increment();
+        Metrics.eventDispatchLatency(tags).register(state.registry).record(10);
+    }
+
+    @Benchmark
+    public void cached(final MetersState state) {
+        final var type = state.type();
+        state.eventMeters.eventProcessingLatency(type).record(1);
+        state.eventMeters.eventCount(type, 202).increment();
+        state.eventMeters.eventDispatchLatency(type, 202).record(10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+                .include(EventMetersBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(options).run();
+    }
+}
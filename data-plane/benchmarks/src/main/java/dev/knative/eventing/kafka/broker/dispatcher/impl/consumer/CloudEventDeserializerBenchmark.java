@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilter;
+import io.cloudevents.CloudEventData;
+import io.cloudevents.SpecVersion;
+import io.cloudevents.core.CloudEventUtils;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.KafkaMessageFactory;
+import io.cloudevents.rw.CloudEventWriter;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks for {@link CloudEventDeserializer}, covering what happens to a binary record before the subscriber is
+ * called: the record is deserialized, the overrides are applied, the filter is evaluated and the event is encoded in
+ * the binary content mode of HTTP, like {@code WebClientCloudEventSender} does.
+ * <p>
+ * Run {@link #main(String[])} to include the allocation rate of each benchmark, as reported by the GC profiler.
+ */
+public class CloudEventDeserializerBenchmark {
+
+    @State(Scope.Thread)
+    public static class RecordState {
+
+        private Headers headers;
+        private byte[] data;
+        private CloudEventDeserializer eager;
+        private CloudEventDeserializer lazy;
+        private CloudEventOverridesMutator mutator;
+        private ExactFilter rejecting;
+        private ExactFilter accepting;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            final var event = CloudEventBuilder.v1()
+                    .withId("7d7c5a1e-7d2c-4b8a-9d2b-3d1f0f6f2b11")
+                    .withSource(URI.create("/apis/v1/namespaces/default/pingsources/ping"))
+                    .withType("dev.knative.sources.ping")
+                    .withSubject("subject")
+                    .withTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"))
+                    .withDataContentType("application/json")
+                    .withExtension("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")
+                    .withExtension("partitionkey", "key")
+                    .withData(new byte[1024])
+                    .build();
+            final var record = KafkaMessageFactory.createWriter("topic").writeBinary(event);
+            this.headers = record.headers();
+            this.data = record.value();
+
+            this.eager = new CloudEventDeserializer();
+            this.eager.configure(Map.of(), false);
+            this.lazy = new CloudEventDeserializer();
+            this.lazy.configure(Map.of(CloudEventDeserializer.LAZY_BINARY_ENABLED, "true"), false);
+
+            this.mutator = new CloudEventOverridesMutator(
+                    DataPlaneContract.CloudEventOverrides.newBuilder().build());
+            this.rejecting = new ExactFilter(Map.of("type", "dev.knative.sources.other"));
+            this.accepting = new ExactFilter(Map.of("type", "dev.knative.sources.ping"));
+        }
+    }
+
+    @Benchmark
+    public void eagerRejected(final RecordState state, final Blackhole bh) {
+        bh.consume(dispatch(state, state.eager, state.rejecting));
+    }
+
+    @Benchmark
+    public void lazyRejected(final RecordState state, final Blackhole bh) {
+        bh.consume(dispatch(state, state.lazy, state.rejecting));
+    }
+
+    @Benchmark
+    public void eagerAccepted(final RecordState state, final Blackhole bh) {
+        bh.consume(dispatch(state, state.eager, state.accepting));
+    }
+
+    @Benchmark
+    public void lazyAccepted(final RecordState state, final Blackhole bh) {
+        bh.consume(dispatch(state, state.lazy, state.accepting));
+    }
+
+    private static Buffer dispatch(
+            final RecordState state, final CloudEventDeserializer deserializer, final ExactFilter filter) {
+        final var value = deserializer.deserialize("topic", state.headers, state.data);
+        final var event = state.mutator.apply(new ConsumerRecord<>("topic", 0, 0, null, value));
+        if (!filter.test(event)) {
+            return null;
+        }
+        final var headers = MultiMap.caseInsensitiveMultiMap();
+        if (event instanceof OverlayCloudEvent overlay && overlay.delegate() instanceof LazyCloudEvent lazy) {
+            lazy.writeAttributes((name, v) -> headers.set(header(name), v));
+            overlay.extensions().forEach((name, v) -> headers.set(header(name), String.valueOf(v)));
+            return Buffer.buffer(Unpooled.wrappedBuffer(lazy.data()));
+        }
+        return CloudEventUtils.toReader(event).read(specVersion -> new HeadersWriter(headers, specVersion));
+    }
+
+    private static String header(final String name) {
+        return name.equals("datacontenttype") ? "content-type" : "ce-" + name;
+    }
+
+    /**
+     * Writer of headers and body of a request, like the writer of {@code VertxMessageFactory}.
+     */
+    private record HeadersWriter(MultiMap headers, SpecVersion specVersion) implements CloudEventWriter<Buffer> {
+
+        private HeadersWriter {
+            headers.add("ce-specversion", specVersion.toString());
+        }
+
+        @Override
+        public HeadersWriter withContextAttribute(final String name, final String value) {
+            headers.add(header(name), value);
+            return this;
+        }
+
+        @Override
+        public Buffer end(final CloudEventData data) {
+            return Buffer.buffer(data.toBytes());
+        }
+
+        @Override
+        public Buffer end() {
+            return Buffer.buffer();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+                .include(CloudEventDeserializerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.RecordDispatcherMutatorChain;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.vertx.core.Future;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks for {@link CloudEventOverridesMutator} and {@link RecordDispatcherMutatorChain}, comparing the overlay
+ * applied by the mutator with copying the event with a builder for every record.
+ * <p>
+ * Run {@link #main(String[])} to include the allocation rate of each benchmark, as reported by the GC profiler.
+ */
+public class CloudEventOverridesMutatorBenchmark {
+
+    @State(Scope.Thread)
+    public static class RecordState {
+
+        private DataPlaneContract.CloudEventOverrides overrides;
+        private ConsumerRecord<Object, CloudEvent> record;
+        private CloudEventOverridesMutator mutator;
+        private RecordDispatcherMutatorChain chain;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            final var event = CloudEventBuilder.v1()
+                    .withId("7d7c5a1e-7d2c-4b8a-9d2b-3d1f0f6f2b11")
+                    .withSource(URI.create("/apis/v1/namespaces/default/pingsources/ping"))
+                    .withType("dev.knative.sources.ping")
+                    .withSubject("subject")
+                    .withTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"))
+                    .withDataContentType("application/json")
+                    .withExtension("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")
+                    .withData(new byte[1024])
+                    .build();
+            this.record = new ConsumerRecord<>("topic", 3, 42, "key", event);
+            this.overrides = DataPlaneContract.CloudEventOverrides.newBuilder()
+                    .putAllExtensions(Map.of("team", "orders", "region", "eu"))
+                    .build();
+            this.mutator = new CloudEventOverridesMutator(overrides);
+            this.chain = new RecordDispatcherMutatorChain(new NoopRecordDispatcher(), mutator);
+        }
+    }
+
+    /**
+     * Copy of the event with a builder, this is how overrides were applied before the overlay.
+     */
+    @Benchmark
+    public void builder(final RecordState state, final Blackhole bh) {
+        final var builder = CloudEventBuilder.from(state.record.value());
+        builder.withExtension("knativekafkapartition", state.record.partition());
+        builder.withExtension("knativekafkaoffset", state.record.offset());
+        state.overrides.getExtensionsMap().forEach(builder::withExtension);
+        bh.consume(builder.build());
+    }
+
+    @Benchmark
+    public void overlay(final RecordState state, final Blackhole bh) {
+        bh.consume(state.mutator.apply(state.record));
+    }
+
+    @Benchmark
+    public void overlayReadExtensions(final RecordState state, final Blackhole bh) {
+        final var event = state.mutator.apply(state.record);
+        bh.consume(event.getExtension("knativekafkaoffset"));
+        bh.consume(event.getExtension("traceparent"));
+        bh.consume(event.getType());
+    }
+
+    @Benchmark
+    public void chain(final RecordState state, final Blackhole bh) {
+        bh.consume(state.chain.dispatch(state.record));
+    }
+
+    private static class NoopRecordDispatcher implements RecordDispatcher {
+
+        @Override
+        public Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record) {
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public Future<Void> close() {
+            return Future.succeededFuture();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+                .include(CloudEventOverridesMutatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
+import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time between a record being available in Kafka and the record being dispatched by an
+ * {@link OrderedConsumerVerticle} when records arrive at a low rate, look at the p99 of the sample time.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@Fork(1)
+@State(Scope.Benchmark)
+@Measurement(iterations = 3, time = 20)
+@Warmup(iterations = 1, time = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderedConsumerVerticleLatencyBenchmark {
+
+    private static final String TOPIC = "topic";
+
+    /**
+     * Records are produced every [0, maxIdleMs) milliseconds.
+     */
+    @Param({"50", "500"})
+    public int maxIdleMs;
+
+    private Vertx vertx;
+    private InMemoryKafkaConsumer consumer;
+    private volatile CompletableFuture<Void> dispatched;
+    private long offset;
+    private final Random random = new Random();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.vertx = Vertx.vertx();
+        this.consumer = new InMemoryKafkaConsumer();
+
+        final var reference = DataPlaneContract.Reference.newBuilder()
+                .setNamespace("benchmark")
+                .setName("benchmark")
+                .build();
+        final var egress = DataPlaneContract.Egress.newBuilder()
+                .setUid("egress")
+                .setConsumerGroup("benchmark")
+                .setDestination("http://localhost:8080")
+                .setDeliveryOrder(DataPlaneContract.DeliveryOrder.ORDERED)
+                .setReference(reference)
+                .build();
+        final var resource = DataPlaneContract.Resource.newBuilder()
+                .setUid("resource")
+                .addTopics(TOPIC)
+                .setBootstrapServers("localhost:9092")
+                .setReference(reference)
+                .addEgresses(egress)
+                .build();
+
+        final var context = new ConsumerVerticleContext()
+                .withConsumerConfigs(new HashMap<>())
+                .withProducerConfigs(new HashMap<>())
+                .withResource(new EgressContext(resource, egress, Set.of()));
+
+        final var recordDispatcher = new RecordDispatcher() {
+            @Override
+            public Future<Void> dispatch(ConsumerRecord<Object, CloudEvent> record) {
+                dispatched.complete(null);
+                return Future.succeededFuture();
+            }
+
+            @Override
+            public Future<Void> close() {
+                return Future.succeededFuture();
+            }
+        };
+
+        final var verticle = new OrderedConsumerVerticle(context, (vx, consumerVerticle) -> {
+            consumerVerticle.setConsumer(consumer);
+            consumerVerticle.setRecordDispatcher(recordDispatcher);
+            consumerVerticle.setCloser(Future::succeededFuture);
+            consumerVerticle.setRebalanceListener(new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(Collection<TopicPartition> partitions) {}
+
+                @Override
+                public void onPartitionsAssigned(Collection<TopicPartition> partitions) {}
+            });
+            return Future.succeededFuture();
+        });
+
+        vertx.deployVerticle(verticle, new DeploymentOptions().setWorker(true))
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Setup(Level.Invocation)
+    public void waitForNextRecord() throws InterruptedException {
+        Thread.sleep(random.nextInt(maxIdleMs));
+    }
+
+    @Benchmark
+    public void benchmarkDispatchLatency() throws Exception {
+        final var dispatched = new CompletableFuture<Void>();
+        this.dispatched = dispatched;
+        consumer.produce(new ConsumerRecord<>(TOPIC, 0, offset++, null, null));
+        dispatched.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A single partition consumer whose poll waits for records to be produced, like a Kafka consumer does.
+     */
+    static class InMemoryKafkaConsumer implements ReactiveKafkaConsumer<Object, CloudEvent> {
+
+        private final TopicPartition topicPartition = new TopicPartition(TOPIC, 0);
+        private final List<ConsumerRecord<Object, CloudEvent>> records = new ArrayList<>();
+        private final Set<TopicPartition> paused = new HashSet<>();
+        private Promise<ConsumerRecords<Object, CloudEvent>> pendingPoll;
+
+        synchronized void produce(final ConsumerRecord<Object, CloudEvent> record) {
+            records.add(record);
+            maybeCompletePendingPoll();
+        }
+
+        @Override
+        public synchronized Future<ConsumerRecords<Object, CloudEvent>> poll(Duration timeout) {
+            final var ctx = (ContextInternal) Vertx.currentContext();
+            final Promise<ConsumerRecords<Object, CloudEvent>> promise = ctx.promise();
+            pendingPoll = promise;
+            maybeCompletePendingPoll();
+            if (pendingPoll == promise) {
+                ctx.setTimer(timeout.toMillis(), t -> {
+                    synchronized (this) {
+                        if (pendingPoll == promise) {
+                            pendingPoll = null;
+                            promise.complete(ConsumerRecords.empty());
+                        }
+                    }
+                });
+            }
+            return promise.future();
+        }
+
+        private void maybeCompletePendingPoll() {
+            if (pendingPoll == null || records.isEmpty() || paused.contains(topicPartition)) {
+                return;
+            }
+            final var promise = pendingPoll;
+            pendingPoll = null;
+            final var polled = new ArrayList<>(records);
+            records.clear();
+            promise.complete(new ConsumerRecords<>(Map.of(topicPartition, polled)));
+        }
+
+        @Override
+        public synchronized Future<Void> pause(Collection<TopicPartition> partitions) {
+            paused.addAll(partitions);
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public synchronized Future<Void> resume(Collection<TopicPartition> partitions) {
+            paused.removeAll(partitions);
+            maybeCompletePendingPoll();
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public Future<Map<TopicPartition, OffsetAndMetadata>> commit(Map<TopicPartition, OffsetAndMetadata> offset) {
+            return Future.succeededFuture(offset);
+        }
+
+        @Override
+        public Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions) {
+            return Future.succeededFuture(Map.of());
+        }
+
+        @Override
+        public Future<Void> close() {
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public Future<Void> subscribe(Collection<String> topics) {
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public Future<Void> subscribe(Collection<String> topics, ConsumerRebalanceListener listener) {
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public Consumer<Object, CloudEvent> unwrap() {
+            return null;
+        }
+
+        @Override
+        public ReactiveKafkaConsumer<Object, CloudEvent> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+    }
+}
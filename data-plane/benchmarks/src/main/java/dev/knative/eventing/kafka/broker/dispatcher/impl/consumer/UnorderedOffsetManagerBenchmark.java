@@ -23,6 +23,8 @@ import io.vertx.core.Vertx;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -34,10 +36,22 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+/**
+ * Benchmarks for {@link OffsetManager}.
+ * <p>
+ * Run {@link #main(String[])} to include the allocation rate of each benchmark, as reported by the GC profiler.
+ */
 public class UnorderedOffsetManagerBenchmark {
 
+    private static final int CONCURRENT_THREADS = 4;
+
     @State(Scope.Thread)
     public static class RecordsState {
 
@@ -55,6 +69,59 @@ public class UnorderedOffsetManagerBenchmark {
         }
     }
 
+    /**
+     * Offset tracker shared by the benchmark threads, like a partition with many in-flight records whose responses
+     * come back on different threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedTrackerState {
+
+        private OffsetManager.OffsetTracker tracker;
+        private AtomicLong nextOffset;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            this.tracker = new OffsetManager.OffsetTracker(0, OffsetManager.DEFAULT_WINDOW_SIZE);
+            this.nextOffset = new AtomicLong();
+        }
+    }
+
+    /**
+     * Offset tracker used by a single thread, offsets are completed in pairs in reverse order: 1 0 3 2 5 4 ...
+     */
+    @State(Scope.Thread)
+    public static class TrackerState {
+
+        private OffsetManager.OffsetTracker tracker;
+        private long nextOffset;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            this.tracker = new OffsetManager.OffsetTracker(0, OffsetManager.DEFAULT_WINDOW_SIZE);
+            this.nextOffset = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(CONCURRENT_THREADS)
+    public void benchmarkConcurrentSamePartition(SharedTrackerState state, Blackhole blackhole) {
+        final var offset = state.nextOffset.getAndIncrement();
+        // The consumer pauses the partition when the window is full, so offsets beyond the window aren't received.
+        while (offset - state.tracker.offsetToCommit() >= state.tracker.windowSize() - 1) {
+            Thread.onSpinWait();
+        }
+        // Complete offsets slightly out of order.
+        state.tracker.recordNewOffset(offset % 2 == 0 ? offset + 1 : offset - 1);
+        blackhole.consume(state.tracker.offsetToCommit());
+    }
+
+    @Benchmark
+    public void benchmarkSteadyState(TrackerState state, Blackhole blackhole) {
+        final var offset = state.nextOffset++;
+        state.tracker.recordNewOffset(offset % 2 == 0 ? offset + 1 : offset - 1);
+        blackhole.consume(state.tracker.offsetToCommit());
+    }
+
     @Benchmark
     public void benchmarkReverseOrder(RecordsState recordsState, Blackhole blackhole) {
         final OffsetManager offsetManager = new OffsetManager(Vertx.vertx(), new MockKafkaConsumer(), null, 10000L);
@@ -124,11 +191,25 @@ public class UnorderedOffsetManagerBenchmark {
         }
     }
 
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+                .include(UnorderedOffsetManagerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(options).run();
+    }
+
     static class MockKafkaConsumer implements ReactiveKafkaConsumer<String, CloudEvent> {
 
         @Override
         public Future<Map<TopicPartition, OffsetAndMetadata>> commit(Map<TopicPartition, OffsetAndMetadata> offset) {
 
+            return Future.succeededFuture(offset);
+        }
+
+        @Override
+        public Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions) {
             return null;
         }
 
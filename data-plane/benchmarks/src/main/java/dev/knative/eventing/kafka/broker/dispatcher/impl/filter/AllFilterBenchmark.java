@@ -18,6 +18,7 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
 
 import dev.knative.eventing.kafka.broker.dispatcher.Filter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.CeSqlFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.PrefixFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.SuffixFilter;
@@ -123,4 +124,31 @@ public class AllFilterBenchmark {
             return SampleEvent.event();
         }
     }
+
+    public static class AllFilterExpensiveFilterFirst extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new AllFilter(List.of(new CeSqlFilter("subject LIKE 'test_ubject'"), makePrefixFilterNoMatch()));
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class AllFilterExpensiveFilterFirstAdaptive extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new AllFilter(
+                    List.of(new CeSqlFilter("subject LIKE 'test_ubject'"), makePrefixFilterNoMatch()), true);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
 }
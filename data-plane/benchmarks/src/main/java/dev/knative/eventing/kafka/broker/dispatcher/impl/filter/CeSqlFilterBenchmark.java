@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
+
+import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.CeSqlFilter;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.sql.EvaluationException;
+import io.cloudevents.sql.EvaluationRuntime;
+import io.cloudevents.sql.Parser;
+import io.cloudevents.sql.Type;
+
+/**
+ * Benchmarks of {@link CeSqlFilter}, each expression is also evaluated with the CESQL runtime as a baseline.
+ */
+public class CeSqlFilterBenchmark {
+
+    static final String EXACT = "type = 'com.github.pull.create' AND source = 'http://localhost'";
+    static final String LIKE = "type LIKE 'com.github.%' AND subject LIKE '%Subject'";
+    static final String LIKE_SINGLE_CHARACTER = "id LIKE 'abc_efgh%' AND type LIKE 'com.github.pull.c_eate'";
+    static final String IN = "type IN ('com.github.push', 'com.github.pull.update', 'com.github.pull.create')";
+
+    /**
+     * @return a filter evaluating the given expression with the CESQL runtime.
+     */
+    public static Filter interpreted(final String sqlExpression) {
+        final var expression = Parser.parseDefault(sqlExpression);
+        final var runtime = EvaluationRuntime.getDefault();
+        return event -> {
+            try {
+                return (Boolean) runtime.cast(expression.tryEvaluate(runtime, event), Type.BOOLEAN);
+            } catch (final EvaluationException e) {
+                return false;
+            }
+        };
+    }
+
+    public static class CeSqlFilterExact extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new CeSqlFilter(EXACT);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterExactInterpreted extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return interpreted(EXACT);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterLike extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new CeSqlFilter(LIKE);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterLikeInterpreted extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return interpreted(LIKE);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterLikeSingleCharacter extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new CeSqlFilter(LIKE_SINGLE_CHARACTER);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterLikeSingleCharacterCached extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new CeSqlFilter(LIKE_SINGLE_CHARACTER, 16);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterLikeSingleCharacterInterpreted extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return interpreted(LIKE_SINGLE_CHARACTER);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterIn extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new CeSqlFilter(IN);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+
+    public static class CeSqlFilterInInterpreted extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return interpreted(IN);
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return SampleEvent.event();
+        }
+    }
+}
@@ -22,6 +22,8 @@ import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import io.cloudevents.core.v1.CloudEventV1;
 import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
 
 public class ExactFilterBenchmark {
@@ -83,4 +85,19 @@ public class ExactFilterBenchmark {
             return event();
         }
     }
+
+    public static class ExactFilterBenchmarkTime extends FilterBenchmark {
+
+        @Override
+        protected Filter createFilter() {
+            return new ExactFilter(Map.of(CloudEventV1.TIME, "1985-04-12T23:20:50.520Z"));
+        }
+
+        @Override
+        protected CloudEvent createEvent() {
+            return CloudEventBuilder.v1(event())
+                    .withTime(OffsetDateTime.of(1985, 4, 12, 23, 20, 50, 520_000_000, ZoneOffset.UTC))
+                    .build();
+        }
+    }
 }
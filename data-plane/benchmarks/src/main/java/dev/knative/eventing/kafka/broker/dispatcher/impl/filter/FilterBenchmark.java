@@ -30,11 +30,13 @@ import org.openjdk.jmh.infra.Blackhole;
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
 public abstract class FilterBenchmark {
     Filter filter;
+    Filter compiledFilter;
     CloudEvent cloudEvent;
 
     @Setup(Level.Trial)
     public void setupFilter() {
         this.filter = createFilter();
+        this.compiledFilter = CompiledFilter.compile(this.filter);
     }
 
     @Setup(Level.Trial)
@@ -55,4 +57,13 @@ public abstract class FilterBenchmark {
     public void benchmarkFilterEvaluation(Blackhole bh) {
         bh.consume(this.filter.test(this.cloudEvent));
     }
+
+    /**
+     * Compare gc.alloc.rate.norm of this benchmark with the one of {@link #benchmarkFilterEvaluation} running with
+     * {@code -prof gc} (see run.sh), compiled filters don't allocate per event.
+     */
+    @Benchmark
+    public void benchmarkCompiledFilterEvaluation(Blackhole bh) {
+        bh.consume(this.compiledFilter.test(this.cloudEvent));
+    }
 }
@@ -152,6 +152,10 @@ public final class DataPlaneContract {
          * <code>ORDERED = 1;</code>
          */
         ORDERED(1),
+        /**
+         * <code>KEY_ORDERED = 2;</code>
+         */
+        KEY_ORDERED(2),
         UNRECOGNIZED(-1),
         ;
 
@@ -163,6 +167,10 @@ public final class DataPlaneContract {
          * <code>ORDERED = 1;</code>
          */
         public static final int ORDERED_VALUE = 1;
+        /**
+         * <code>KEY_ORDERED = 2;</code>
+         */
+        public static final int KEY_ORDERED_VALUE = 2;
 
         public final int getNumber() {
             if (this == UNRECOGNIZED) {
@@ -191,6 +199,8 @@ public final class DataPlaneContract {
                     return UNORDERED;
                 case 1:
                     return ORDERED;
+                case 2:
+                    return KEY_ORDERED;
                 default:
                     return null;
             }
@@ -9318,6 +9328,42 @@ public final class DataPlaneContract {
          * @return The timeout.
          */
         long getTimeout();
+
+        /**
+         * <pre>
+         * batchMaxEvents is the maximum number of events sent to the subscriber
+         * in a single application/cloudevents-batch+json request, responses to batch
+         * requests are not handled as replies, and events of ordered egresses
+         * are never batched.
+         * Setting batchMaxEvents to 0 or 1 means don't batch.
+         * </pre>
+         *
+         * <code>uint32 batchMaxEvents = 8;</code>
+         * @return The batchMaxEvents.
+         */
+        int getBatchMaxEvents();
+
+        /**
+         * <pre>
+         * batchMaxBytes is the maximum size in bytes of a batch request.
+         * Setting batchMaxBytes to 0 means using the data plane default.
+         * </pre>
+         *
+         * <code>uint64 batchMaxBytes = 9;</code>
+         * @return The batchMaxBytes.
+         */
+        long getBatchMaxBytes();
+
+        /**
+         * <pre>
+         * batchLinger is the maximum time in milliseconds to wait for more events
+         * before sending a batch that is not full.
+         * </pre>
+         *
+         * <code>uint64 batchLinger = 10;</code>
+         * @return The batchLinger.
+         */
+        long getBatchLinger();
     }
     /**
      * Protobuf type {@code EgressConfig}
@@ -9403,6 +9449,18 @@ public final class DataPlaneContract {
                             deadLetterAudience_ = s;
                             break;
                         }
+                        case 64: {
+                            batchMaxEvents_ = input.readUInt32();
+                            break;
+                        }
+                        case 72: {
+                            batchMaxBytes_ = input.readUInt64();
+                            break;
+                        }
+                        case 80: {
+                            batchLinger_ = input.readUInt64();
+                            break;
+                        }
                         default: {
                             if (!parseUnknownField(input, unknownFields, extensionRegistry, tag)) {
                                 done = true;
@@ -9639,6 +9697,57 @@ public final class DataPlaneContract {
             return timeout_;
         }
 
+        public static final int BATCHMAXEVENTS_FIELD_NUMBER = 8;
+        private int batchMaxEvents_;
+        /**
+         * <pre>
+         * batchMaxEvents is the maximum number of events sent to the subscriber
+         * in a single application/cloudevents-batch+json request, responses to batch
+         * requests are not handled as replies, and events of ordered egresses
+         * are never batched.
+         * Setting batchMaxEvents to 0 or 1 means don't batch.
+         * </pre>
+         *
+         * <code>uint32 batchMaxEvents = 8;</code>
+         * @return The batchMaxEvents.
+         */
+        @java.lang.Override
+        public int getBatchMaxEvents() {
+            return batchMaxEvents_;
+        }
+
+        public static final int BATCHMAXBYTES_FIELD_NUMBER = 9;
+        private long batchMaxBytes_;
+        /**
+         * <pre>
+         * batchMaxBytes is the maximum size in bytes of a batch request.
+         * Setting batchMaxBytes to 0 means using the data plane default.
+         * </pre>
+         *
+         * <code>uint64 batchMaxBytes = 9;</code>
+         * @return The batchMaxBytes.
+         */
+        @java.lang.Override
+        public long getBatchMaxBytes() {
+            return batchMaxBytes_;
+        }
+
+        public static final int BATCHLINGER_FIELD_NUMBER = 10;
+        private long batchLinger_;
+        /**
+         * <pre>
+         * batchLinger is the maximum time in milliseconds to wait for more events
+         * before sending a batch that is not full.
+         * </pre>
+         *
+         * <code>uint64 batchLinger = 10;</code>
+         * @return The batchLinger.
+         */
+        @java.lang.Override
+        public long getBatchLinger() {
+            return batchLinger_;
+        }
+
         private byte memoizedIsInitialized = -1;
 
         @java.lang.Override
@@ -9676,6 +9785,15 @@ public final class DataPlaneContract {
             if (!getDeadLetterAudienceBytes().isEmpty()) {
                 com.google.protobuf.GeneratedMessageV3.writeString(output, 7, deadLetterAudience_);
             }
+            if (batchMaxEvents_ != 0) {
+                output.writeUInt32(8, batchMaxEvents_);
+            }
+            if (batchMaxBytes_ != 0L) {
+                output.writeUInt64(9, batchMaxBytes_);
+            }
+            if (batchLinger_ != 0L) {
+                output.writeUInt64(10, batchLinger_);
+            }
             unknownFields.writeTo(output);
         }
 
@@ -9708,6 +9826,15 @@ public final class DataPlaneContract {
             if (!getDeadLetterAudienceBytes().isEmpty()) {
                 size += com.google.protobuf.GeneratedMessageV3.computeStringSize(7, deadLetterAudience_);
             }
+            if (batchMaxEvents_ != 0) {
+                size += com.google.protobuf.CodedOutputStream.computeUInt32Size(8, batchMaxEvents_);
+            }
+            if (batchMaxBytes_ != 0L) {
+                size += com.google.protobuf.CodedOutputStream.computeUInt64Size(9, batchMaxBytes_);
+            }
+            if (batchLinger_ != 0L) {
+                size += com.google.protobuf.CodedOutputStream.computeUInt64Size(10, batchLinger_);
+            }
             size += unknownFields.getSerializedSize();
             memoizedSize = size;
             return size;
@@ -9731,6 +9858,9 @@ public final class DataPlaneContract {
             if (backoffPolicy_ != other.backoffPolicy_) return false;
             if (getBackoffDelay() != other.getBackoffDelay()) return false;
             if (getTimeout() != other.getTimeout()) return false;
+            if (getBatchMaxEvents() != other.getBatchMaxEvents()) return false;
+            if (getBatchMaxBytes() != other.getBatchMaxBytes()) return false;
+            if (getBatchLinger() != other.getBatchLinger()) return false;
             if (!unknownFields.equals(other.unknownFields)) return false;
             return true;
         }
@@ -9756,6 +9886,12 @@ public final class DataPlaneContract {
             hash = (53 * hash) + com.google.protobuf.Internal.hashLong(getBackoffDelay());
             hash = (37 * hash) + TIMEOUT_FIELD_NUMBER;
             hash = (53 * hash) + com.google.protobuf.Internal.hashLong(getTimeout());
+            hash = (37 * hash) + BATCHMAXEVENTS_FIELD_NUMBER;
+            hash = (53 * hash) + getBatchMaxEvents();
+            hash = (37 * hash) + BATCHMAXBYTES_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashLong(getBatchMaxBytes());
+            hash = (37 * hash) + BATCHLINGER_FIELD_NUMBER;
+            hash = (53 * hash) + com.google.protobuf.Internal.hashLong(getBatchLinger());
             hash = (29 * hash) + unknownFields.hashCode();
             memoizedHashCode = hash;
             return hash;
@@ -9905,6 +10041,12 @@ public final class DataPlaneContract {
 
                 timeout_ = 0L;
 
+                batchMaxEvents_ = 0;
+
+                batchMaxBytes_ = 0L;
+
+                batchLinger_ = 0L;
+
                 return this;
             }
 
@@ -9940,6 +10082,9 @@ public final class DataPlaneContract {
                 result.backoffPolicy_ = backoffPolicy_;
                 result.backoffDelay_ = backoffDelay_;
                 result.timeout_ = timeout_;
+                result.batchMaxEvents_ = batchMaxEvents_;
+                result.batchMaxBytes_ = batchMaxBytes_;
+                result.batchLinger_ = batchLinger_;
                 onBuilt();
                 return result;
             }
@@ -10014,6 +10159,15 @@ public final class DataPlaneContract {
                 if (other.getTimeout() != 0L) {
                     setTimeout(other.getTimeout());
                 }
+                if (other.getBatchMaxEvents() != 0) {
+                    setBatchMaxEvents(other.getBatchMaxEvents());
+                }
+                if (other.getBatchMaxBytes() != 0L) {
+                    setBatchMaxBytes(other.getBatchMaxBytes());
+                }
+                if (other.getBatchLinger() != 0L) {
+                    setBatchLinger(other.getBatchLinger());
+                }
                 this.mergeUnknownFields(other.unknownFields);
                 onChanged();
                 return this;
@@ -10532,6 +10686,153 @@ public final class DataPlaneContract {
                 return this;
             }
 
+            private int batchMaxEvents_;
+            /**
+             * <pre>
+             * batchMaxEvents is the maximum number of events sent to the subscriber
+             * in a single application/cloudevents-batch+json request, responses to batch
+             * requests are not handled as replies, and events of ordered egresses
+             * are never batched.
+             * Setting batchMaxEvents to 0 or 1 means don't batch.
+             * </pre>
+             *
+             * <code>uint32 batchMaxEvents = 8;</code>
+             * @return The batchMaxEvents.
+             */
+            @java.lang.Override
+            public int getBatchMaxEvents() {
+                return batchMaxEvents_;
+            }
+            /**
+             * <pre>
+             * batchMaxEvents is the maximum number of events sent to the subscriber
+             * in a single application/cloudevents-batch+json request, responses to batch
+             * requests are not handled as replies, and events of ordered egresses
+             * are never batched.
+             * Setting batchMaxEvents to 0 or 1 means don't batch.
+             * </pre>
+             *
+             * <code>uint32 batchMaxEvents = 8;</code>
+             * @param value The batchMaxEvents to set.
+             * @return This builder for chaining.
+             */
+            public Builder setBatchMaxEvents(int value) {
+
+                batchMaxEvents_ = value;
+                onChanged();
+                return this;
+            }
+            /**
+             * <pre>
+             * batchMaxEvents is the maximum number of events sent to the subscriber
+             * in a single application/cloudevents-batch+json request, responses to batch
+             * requests are not handled as replies, and events of ordered egresses
+             * are never batched.
+             * Setting batchMaxEvents to 0 or 1 means don't batch.
+             * </pre>
+             *
+             * <code>uint32 batchMaxEvents = 8;</code>
+             * @return This builder for chaining.
+             */
+            public Builder clearBatchMaxEvents() {
+
+                batchMaxEvents_ = 0;
+                onChanged();
+                return this;
+            }
+
+            private long batchMaxBytes_;
+            /**
+             * <pre>
+             * batchMaxBytes is the maximum size in bytes of a batch request.
+             * Setting batchMaxBytes to 0 means using the data plane default.
+             * </pre>
+             *
+             * <code>uint64 batchMaxBytes = 9;</code>
+             * @return The batchMaxBytes.
+             */
+            @java.lang.Override
+            public long getBatchMaxBytes() {
+                return batchMaxBytes_;
+            }
+            /**
+             * <pre>
+             * batchMaxBytes is the maximum size in bytes of a batch request.
+             * Setting batchMaxBytes to 0 means using the data plane default.
+             * </pre>
+             *
+             * <code>uint64 batchMaxBytes = 9;</code>
+             * @param value The batchMaxBytes to set.
+             * @return This builder for chaining.
+             */
+            public Builder setBatchMaxBytes(long value) {
+
+                batchMaxBytes_ = value;
+                onChanged();
+                return this;
+            }
+            /**
+             * <pre>
+             * batchMaxBytes is the maximum size in bytes of a batch request.
+             * Setting batchMaxBytes to 0 means using the data plane default.
+             * </pre>
+             *
+             * <code>uint64 batchMaxBytes = 9;</code>
+             * @return This builder for chaining.
+             */
+            public Builder clearBatchMaxBytes() {
+
+                batchMaxBytes_ = 0L;
+                onChanged();
+                return this;
+            }
+
+            private long batchLinger_;
+            /**
+             * <pre>
+             * batchLinger is the maximum time in milliseconds to wait for more events
+             * before sending a batch that is not full.
+             * </pre>
+             *
+             * <code>uint64 batchLinger = 10;</code>
+             * @return The batchLinger.
+             */
+            @java.lang.Override
+            public long getBatchLinger() {
+                return batchLinger_;
+            }
+            /**
+             * <pre>
+             * batchLinger is the maximum time in milliseconds to wait for more events
+             * before sending a batch that is not full.
+             * </pre>
+             *
+             * <code>uint64 batchLinger = 10;</code>
+             * @param value The batchLinger to set.
+             * @return This builder for chaining.
+             */
+            public Builder setBatchLinger(long value) {
+
+                batchLinger_ = value;
+                onChanged();
+                return this;
+            }
+            /**
+             * <pre>
+             * batchLinger is the maximum time in milliseconds to wait for more events
+             * before sending a batch that is not full.
+             * </pre>
+             *
+             * <code>uint64 batchLinger = 10;</code>
+             * @return This builder for chaining.
+             */
+            public Builder clearBatchLinger() {
+
+                batchLinger_ = 0L;
+                onChanged();
+                return this;
+            }
+
             @java.lang.Override
             public final Builder setUnknownFields(final com.google.protobuf.UnknownFieldSet unknownFields) {
                 return super.setUnknownFields(unknownFields);
@@ -28049,67 +28350,70 @@ public final class DataPlaneContract {
                     + "not\030\006 \001(\0132\004.NotH\000\022\027\n\005cesql\030\007 \001(\0132\006.CESQL"
                     + "H\000B\010\n\006filter\"h\n\006Filter\022+\n\nattributes\030\001 \003"
                     + "(\0132\027.Filter.AttributesEntry\0321\n\017Attribute"
-                    + "sEntry\022\013\n\003key\030\001 \001(\t\022\r\n\005value\030\002 \001(\t:\0028\001\"\266"
+                    + "sEntry\022\013\n\003key\030\001 \001(\t\022\r\n\005value\030\002 \001(\t:\0028\001\"\372"
                     + "\001\n\014EgressConfig\022\022\n\ndeadLetter\030\001 \001(\t\022\031\n\021d"
                     + "eadLetterCACerts\030\006 \001(\t\022\032\n\022deadLetterAudi"
                     + "ence\030\007 \001(\t\022\r\n\005retry\030\002 \001(\r\022%\n\rbackoffPoli"
                     + "cy\030\003 \001(\0162\016.BackoffPolicy\022\024\n\014backoffDelay"
-                    + "\030\004 \001(\004\022\017\n\007timeout\030\005 \001(\004\"\302\004\n\006Egress\022\025\n\rco"
-                    + "nsumerGroup\030\001 \001(\t\022\023\n\013destination\030\002 \001(\t\022\032"
-                    + "\n\022destinationCACerts\030\017 \001(\t\022\033\n\023destinatio"
-                    + "nAudience\030\021 \001(\t\022\022\n\010replyUrl\030\003 \001(\tH\000\022&\n\024r"
-                    + "eplyToOriginalTopic\030\004 \001(\0132\006.EmptyH\000\022\036\n\014d"
-                    + "iscardReply\030\t \001(\0132\006.EmptyH\000\022\027\n\017replyUrlC"
-                    + "ACerts\030\020 \001(\t\022\030\n\020replyUrlAudience\030\022 \001(\t\022\027"
-                    + "\n\006filter\030\005 \001(\0132\007.Filter\022\013\n\003uid\030\006 \001(\t\022#\n\014"
-                    + "egressConfig\030\007 \001(\0132\r.EgressConfig\022%\n\rdel"
-                    + "iveryOrder\030\010 \001(\0162\016.DeliveryOrder\022\031\n\007keyT"
-                    + "ype\030\n \001(\0162\010.KeyType\022\035\n\treference\030\013 \001(\0132\n"
-                    + ".Reference\022)\n\017dialectedFilter\030\014 \003(\0132\020.Di"
-                    + "alectedFilter\022\021\n\tvReplicas\030\r \001(\005\022)\n\014feat"
-                    + "ureFlags\030\016 \001(\0132\023.EgressFeatureFlags\022\036\n\026o"
-                    + "idcServiceAccountName\030\023 \001(\tB\017\n\rreplyStra"
-                    + "tegy\"U\n\022EgressFeatureFlags\022\031\n\021enableRate"
-                    + "Limiter\030\001 \001(\010\022$\n\034enableOrderedExecutorMe"
-                    + "trics\030\002 \001(\010\"~\n\007Ingress\022!\n\013contentMode\030\001 "
-                    + "\001(\0162\014.ContentMode\022\014\n\004path\030\002 \001(\t\022\014\n\004host\030"
-                    + "\003 \001(\t\022\"\n\032enableAutoCreateEventTypes\030\004 \001("
-                    + "\010\022\020\n\010audience\030\005 \001(\t\"o\n\tReference\022\014\n\004uuid"
-                    + "\030\001 \001(\t\022\021\n\tnamespace\030\002 \001(\t\022\014\n\004name\030\003 \001(\t\022"
-                    + "\017\n\007version\030\004 \001(\t\022\014\n\004kind\030\005 \001(\t\022\024\n\014groupV"
-                    + "ersion\030\006 \001(\t\"`\n\017SecretReference\022\035\n\trefer"
-                    + "ence\030\001 \001(\0132\n.Reference\022.\n\022keyFieldRefere"
-                    + "nces\030\002 \003(\0132\022.KeyFieldReference\"C\n\021KeyFie"
-                    + "ldReference\022\021\n\tsecretKey\030\002 \001(\t\022\033\n\005field\030"
-                    + "\003 \001(\0162\014.SecretField\"Y\n\024MultiSecretRefere"
-                    + "nce\022\033\n\010protocol\030\001 \001(\0162\t.Protocol\022$\n\nrefe"
-                    + "rences\030\002 \003(\0132\020.SecretReference\"\202\001\n\023Cloud"
-                    + "EventOverrides\0228\n\nextensions\030\001 \003(\0132$.Clo"
-                    + "udEventOverrides.ExtensionsEntry\0321\n\017Exte"
-                    + "nsionsEntry\022\013\n\003key\030\001 \001(\t\022\r\n\005value\030\002 \001(\t:"
-                    + "\0028\001\"\350\002\n\010Resource\022\013\n\003uid\030\001 \001(\t\022\016\n\006topics\030"
-                    + "\002 \003(\t\022\030\n\020bootstrapServers\030\003 \001(\t\022\031\n\007ingre"
-                    + "ss\030\004 \001(\0132\010.Ingress\022#\n\014egressConfig\030\005 \001(\013"
-                    + "2\r.EgressConfig\022\031\n\010egresses\030\006 \003(\0132\007.Egre"
-                    + "ss\022\034\n\nabsentAuth\030\007 \001(\0132\006.EmptyH\000\022 \n\nauth"
-                    + "Secret\030\010 \001(\0132\n.ReferenceH\000\0220\n\017multiAuthS"
-                    + "ecret\030\t \001(\0132\025.MultiSecretReferenceH\000\0221\n\023"
-                    + "cloudEventOverrides\030\n \001(\0132\024.CloudEventOv"
-                    + "errides\022\035\n\treference\030\013 \001(\0132\n.ReferenceB\006"
-                    + "\n\004Auth\"R\n\010Contract\022\022\n\ngeneration\030\001 \001(\004\022\034"
-                    + "\n\tresources\030\002 \003(\0132\t.Resource\022\024\n\014trustBun"
-                    + "dles\030\003 \003(\t*,\n\rBackoffPolicy\022\017\n\013Exponenti"
-                    + "al\020\000\022\n\n\006Linear\020\001*+\n\rDeliveryOrder\022\r\n\tUNO"
-                    + "RDERED\020\000\022\013\n\007ORDERED\020\001*=\n\007KeyType\022\n\n\006Stri"
-                    + "ng\020\000\022\013\n\007Integer\020\001\022\n\n\006Double\020\002\022\r\n\tByteArr"
-                    + "ay\020\003*)\n\013ContentMode\022\n\n\006BINARY\020\000\022\016\n\nSTRUC"
-                    + "TURED\020\001*a\n\013SecretField\022\022\n\016SASL_MECHANISM"
-                    + "\020\000\022\n\n\006CA_CRT\020\001\022\014\n\010USER_CRT\020\002\022\014\n\010USER_KEY"
-                    + "\020\003\022\010\n\004USER\020\004\022\014\n\010PASSWORD\020\005*D\n\010Protocol\022\r"
-                    + "\n\tPLAINTEXT\020\000\022\022\n\016SASL_PLAINTEXT\020\001\022\007\n\003SSL"
-                    + "\020\002\022\014\n\010SASL_SSL\020\003B[\n*dev.knative.eventing"
-                    + ".kafka.broker.contractB\021DataPlaneContrac"
-                    + "tZ\032control-plane/pkg/contractb\006proto3"
+                    + "\030\004 \001(\004\022\017\n\007timeout\030\005 \001(\004\022\026\n\016batchMaxEvent"
+                    + "s\030\010 \001(\r\022\025\n\rbatchMaxBytes\030\t \001(\004\022\023\n\013batchL"
+                    + "inger\030\n \001(\004\"\302\004\n\006Egress\022\025\n\rconsumerGroup\030"
+                    + "\001 \001(\t\022\023\n\013destination\030\002 \001(\t\022\032\n\022destinatio"
+                    + "nCACerts\030\017 \001(\t\022\033\n\023destinationAudience\030\021 "
+                    + "\001(\t\022\022\n\010replyUrl\030\003 \001(\tH\000\022&\n\024replyToOrigin"
+                    + "alTopic\030\004 \001(\0132\006.EmptyH\000\022\036\n\014discardReply\030"
+                    + "\t \001(\0132\006.EmptyH\000\022\027\n\017replyUrlCACerts\030\020 \001(\t"
+                    + "\022\030\n\020replyUrlAudience\030\022 \001(\t\022\027\n\006filter\030\005 \001"
+                    + "(\0132\007.Filter\022\013\n\003uid\030\006 \001(\t\022#\n\014egressConfig"
+                    + "\030\007 \001(\0132\r.EgressConfig\022%\n\rdeliveryOrder\030\010"
+                    + " \001(\0162\016.DeliveryOrder\022\031\n\007keyType\030\n \001(\0162\010."
+                    + "KeyType\022\035\n\treference\030\013 \001(\0132\n.Reference\022)"
+                    + "\n\017dialectedFilter\030\014 \003(\0132\020.DialectedFilte"
+                    + "r\022\021\n\tvReplicas\030\r \001(\005\022)\n\014featureFlags\030\016 \001"
+                    + "(\0132\023.EgressFeatureFlags\022\036\n\026oidcServiceAc"
+                    + "countName\030\023 \001(\tB\017\n\rreplyStrategy\"U\n\022Egre"
+                    + "ssFeatureFlags\022\031\n\021enableRateLimiter\030\001 \001("
+                    + "\010\022$\n\034enableOrderedExecutorMetrics\030\002 \001(\010\""
+                    + "~\n\007Ingress\022!\n\013contentMode\030\001 \001(\0162\014.Conten"
+                    + "tMode\022\014\n\004path\030\002 \001(\t\022\014\n\004host\030\003 \001(\t\022\"\n\032ena"
+                    + "bleAutoCreateEventTypes\030\004 \001(\010\022\020\n\010audienc"
+                    + "e\030\005 \001(\t\"o\n\tReference\022\014\n\004uuid\030\001 \001(\t\022\021\n\tna"
+                    + "mespace\030\002 \001(\t\022\014\n\004name\030\003 \001(\t\022\017\n\007version\030\004"
+                    + " \001(\t\022\014\n\004kind\030\005 \001(\t\022\024\n\014groupVersion\030\006 \001(\t"
+                    + "\"`\n\017SecretReference\022\035\n\treference\030\001 \001(\0132\n"
+                    + ".Reference\022.\n\022keyFieldReferences\030\002 \003(\0132\022"
+                    + ".KeyFieldReference\"C\n\021KeyFieldReference\022"
+                    + "\021\n\tsecretKey\030\002 \001(\t\022\033\n\005field\030\003 \001(\0162\014.Secr"
+                    + "etField\"Y\n\024MultiSecretReference\022\033\n\010proto"
+                    + "col\030\001 \001(\0162\t.Protocol\022$\n\nreferences\030\002 \003(\013"
+                    + "2\020.SecretReference\"\202\001\n\023CloudEventOverrid"
+                    + "es\0228\n\nextensions\030\001 \003(\0132$.CloudEventOverr"
+                    + "ides.ExtensionsEntry\0321\n\017ExtensionsEntry\022"
+                    + "\013\n\003key\030\001 \001(\t\022\r\n\005value\030\002 \001(\t:\0028\001\"\350\002\n\010Reso"
+                    + "urce\022\013\n\003uid\030\001 \001(\t\022\016\n\006topics\030\002 \003(\t\022\030\n\020boo"
+                    + "tstrapServers\030\003 \001(\t\022\031\n\007ingress\030\004 \001(\0132\010.I"
+                    + "ngress\022#\n\014egressConfig\030\005 \001(\0132\r.EgressCon"
+                    + "fig\022\031\n\010egresses\030\006 \003(\0132\007.Egress\022\034\n\nabsent"
+                    + "Auth\030\007 \001(\0132\006.EmptyH\000\022 \n\nauthSecret\030\010 \001(\013"
+                    + "2\n.ReferenceH\000\0220\n\017multiAuthSecret\030\t \001(\0132"
+                    + "\025.MultiSecretReferenceH\000\0221\n\023cloudEventOv"
+                    + "errides\030\n \001(\0132\024.CloudEventOverrides\022\035\n\tr"
+                    + "eference\030\013 \001(\0132\n.ReferenceB\006\n\004Auth\"R\n\010Co"
+                    + "ntract\022\022\n\ngeneration\030\001 \001(\004\022\034\n\tresources\030"
+                    + "\002 \003(\0132\t.Resource\022\024\n\014trustBundles\030\003 \003(\t*,"
+                    + "\n\rBackoffPolicy\022\017\n\013Exponential\020\000\022\n\n\006Line"
+                    + "ar\020\001*<\n\rDeliveryOrder\022\r\n\tUNORDERED\020\000\022\013\n\007"
+                    + "ORDERED\020\001\022\017\n\013KEY_ORDERED\020\002*=\n\007KeyType\022\n\n"
+                    + "\006String\020\000\022\013\n\007Integer\020\001\022\n\n\006Double\020\002\022\r\n\tBy"
+                    + "teArray\020\003*)\n\013ContentMode\022\n\n\006BINARY\020\000\022\016\n\n"
+                    + "STRUCTURED\020\001*a\n\013SecretField\022\022\n\016SASL_MECH"
+                    + "ANISM\020\000\022\n\n\006CA_CRT\020\001\022\014\n\010USER_CRT\020\002\022\014\n\010USE"
+                    + "R_KEY\020\003\022\010\n\004USER\020\004\022\014\n\010PASSWORD\020\005*D\n\010Proto"
+                    + "col\022\r\n\tPLAINTEXT\020\000\022\022\n\016SASL_PLAINTEXT\020\001\022\007"
+                    + "\n\003SSL\020\002\022\014\n\010SASL_SSL\020\003B[\n*dev.knative.eve"
+                    + "nting.kafka.broker.contractB\021DataPlaneCo"
+                    + "ntractZ\032control-plane/pkg/contractb\006prot"
+                    + "o3"
         };
         descriptor = com.google.protobuf.Descriptors.FileDescriptor.internalBuildGeneratedFileFrom(
                 descriptorData, new com.google.protobuf.Descriptors.FileDescriptor[] {});
@@ -28202,6 +28506,9 @@ public final class DataPlaneContract {
                     "BackoffPolicy",
                     "BackoffDelay",
                     "Timeout",
+                    "BatchMaxEvents",
+                    "BatchMaxBytes",
+                    "BatchLinger",
                 });
         internal_static_Egress_descriptor = getDescriptor().getMessageTypes().get(11);
         internal_static_Egress_fieldAccessorTable = new com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
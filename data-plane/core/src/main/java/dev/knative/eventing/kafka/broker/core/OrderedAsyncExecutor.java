@@ -23,22 +23,47 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.vertx.core.Future;
 import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.apache.kafka.common.TopicPartition;
 
 /**
  * This executor performs an ordered execution of the enqueued tasks.
  * <p>
+ * When created with a max concurrency greater than 1, tasks are ordered by key: tasks offered with the same key are
+ * executed in order, while tasks with different keys are executed concurrently, up to the max concurrency.
+ * <p>
+ * The executor keeps track of the time it takes to execute a task, so that it can ask for new tasks before its queue
+ * is drained (see {@link #isWaitingForTasks()} and {@link #setRefillLatency(long)}), and it signals when it starts
+ * waiting for tasks (see {@link #setWaitingForTasksHandler(Runnable)}).
+ * <p>
  * This class assumes its execution is tied to a single verticle, hence it cannot be shared among verticles.
  */
 public class OrderedAsyncExecutor {
 
-    private final Queue<Task> queue;
+    // Tasks offered without a key are ordered among each other.
+    private static final Object NULL_KEY = new Object();
+
+    // Weight of the last observed task latency in the average task latency.
+    private static final double TASK_LATENCY_EWMA_ALPHA = 0.2;
+
+    // Queued tasks per key, a key is mapped while it has queued tasks or an in-flight task.
+    private final Map<Object, ArrayDeque<Task>> queues;
+    // Keys with queued tasks and no in-flight task, in the order they became ready.
+    private final ArrayDeque<Object> readyKeys;
+    private int queueSize;
 
     private final AtomicBoolean isStopped;
-    private final AtomicBoolean inFlight;
+    private final AtomicInteger inFlight;
+    private final int maxConcurrency;
+    private final int maxQueueSize;
+    private volatile double avgTaskLatencyNanos;
+    private volatile long refillLatencyNanos;
+    private boolean waitingForTasks;
+    private Runnable waitingForTasksHandler;
     private final MeterRegistry meterRegistry;
     private final DistributionSummary executorLatency;
     private final Gauge executorQueueLength;
@@ -48,10 +73,33 @@ public class OrderedAsyncExecutor {
             final TopicPartition topicPartition,
             final MeterRegistry meterRegistry,
             final DataPlaneContract.Egress egress) {
+        this(topicPartition, meterRegistry, egress, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxConcurrency max number of tasks with different keys executed concurrently
+     * @param maxQueueSize   max number of queued tasks the executor asks for, see {@link #isFull()}
+     */
+    public OrderedAsyncExecutor(
+            final TopicPartition topicPartition,
+            final MeterRegistry meterRegistry,
+            final DataPlaneContract.Egress egress,
+            final int maxConcurrency,
+            final int maxQueueSize) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0, got " + maxConcurrency);
+        }
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException("maxQueueSize must be greater than 0, got " + maxQueueSize);
+        }
         this.meterRegistry = meterRegistry;
-        this.queue = new ArrayDeque<>();
+        this.queues = new HashMap<>();
+        this.readyKeys = new ArrayDeque<>();
         this.isStopped = new AtomicBoolean(false);
-        this.inFlight = new AtomicBoolean(false);
+        this.inFlight = new AtomicInteger(0);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueSize = maxQueueSize;
+        this.waitingForTasks = true;
         this.egress = egress;
 
         if (meterRegistry != null && egress != null && egress.getFeatureFlags().getEnableOrderedExecutorMetrics()) {
@@ -62,7 +110,7 @@ public class OrderedAsyncExecutor {
                     Metrics.Tags.RESOURCE_NAMESPACE, egress.getReference().getNamespace());
             this.executorLatency = Metrics.executorQueueLatency(tags).register(meterRegistry);
             this.executorQueueLength =
-                    Metrics.queueLength(tags, this.queue::size).register(meterRegistry);
+                    Metrics.queueLength(tags, () -> this.queueSize).register(meterRegistry);
         } else {
             this.executorLatency = null;
             this.executorQueueLength = null;
@@ -75,44 +123,151 @@ public class OrderedAsyncExecutor {
      * @param task the task to offer
      */
     public void offer(Supplier<Future<?>> task) {
+        offer(null, task);
+    }
+
+    /**
+     * Offer a new task to the executor. The executor will start the task as soon as every previously offered task
+     * with the same key is completed.
+     *
+     * @param key  the ordering key of the task, tasks with a {@code null} key are ordered among each other
+     * @param task the task to offer
+     */
+    public void offer(Object key, Supplier<Future<?>> task) {
         if (this.isStopped.get()) {
             // Executor is stopped, return without adding the task to the queue.
             return;
         }
-        boolean wasEmpty = this.queue.isEmpty();
-        this.queue.offer(new Task(task));
+        // With a max concurrency of 1, every task is ordered among each other regardless of its key.
+        final var taskKey = key == null || this.maxConcurrency == 1 ? NULL_KEY : key;
+        var keyQueue = this.queues.get(taskKey);
+        if (keyQueue == null) {
+            keyQueue = new ArrayDeque<>(2);
+            this.queues.put(taskKey, keyQueue);
+            this.readyKeys.offer(taskKey);
+        }
+        keyQueue.offer(new Task(taskKey, task));
+        this.queueSize++;
         if (egress != null && egress.getFeatureFlags().getEnableOrderedExecutorMetrics()) {
             this.executorQueueLength.value();
         }
-        if (wasEmpty) { // If no elements in the queue, then we need to start consuming it
-            consume();
+        consume();
+        if (this.waitingForTasks && !isWaitingForTasks()) {
+            this.waitingForTasks = false;
         }
     }
 
+    /**
+     * Set the handler called every time the executor starts waiting for tasks after a task is completed, see
+     * {@link #isWaitingForTasks()}.
+     *
+     * @param handler the handler to call.
+     */
+    public void setWaitingForTasksHandler(final Runnable handler) {
+        this.waitingForTasksHandler = handler;
+    }
+
     private void consume() {
-        if (queue.isEmpty() || this.inFlight.get() || this.isStopped.get()) {
-            return;
+        while (!this.readyKeys.isEmpty() && !this.isStopped.get() && this.inFlight.get() < this.maxConcurrency) {
+            execute(next());
         }
-        if (this.inFlight.compareAndSet(false, true)) {
-            final var task = this.queue.remove();
-            task.task.get().onComplete(ar -> {
-                this.inFlight.set(false);
-                if (egress != null
-                        && egress.getFeatureFlags().getEnableOrderedExecutorMetrics()
-                        && !this.isStopped.get()) {
-                    this.executorLatency.record(System.currentTimeMillis() - task.queueTimestamp);
-                    this.executorQueueLength.value();
+    }
+
+    private void execute(final Task task) {
+        this.inFlight.incrementAndGet();
+        final var startNanos = System.nanoTime();
+        task.task.get().onComplete(ar -> {
+            recordTaskLatency(System.nanoTime() - startNanos);
+            this.inFlight.decrementAndGet();
+            release(task.key);
+            if (egress != null && egress.getFeatureFlags().getEnableOrderedExecutorMetrics() && !this.isStopped.get()) {
+                this.executorLatency.record(System.currentTimeMillis() - task.queueTimestamp);
+                this.executorQueueLength.value();
+            }
+            consume();
+            if (!this.waitingForTasks && !this.isStopped.get() && isWaitingForTasks()) {
+                this.waitingForTasks = true;
+                if (this.waitingForTasksHandler != null) {
+                    this.waitingForTasksHandler.run();
                 }
-                consume();
-            });
+            }
+        });
+    }
+
+    /**
+     * @return the first queued task of the first ready key, its key stays mapped until the task is completed.
+     */
+    private Task next() {
+        final var task = this.queues.get(this.readyKeys.poll()).poll();
+        this.queueSize--;
+        return task;
+    }
+
+    /**
+     * Make the key of a completed task ready again if it has queued tasks, or forget it otherwise.
+     */
+    private void release(final Object key) {
+        final var keyQueue = this.queues.get(key);
+        if (keyQueue == null) {
+            // The executor has been stopped.
+            return;
+        }
+        if (keyQueue.isEmpty()) {
+            this.queues.remove(key);
+        } else {
+            this.readyKeys.offer(key);
+        }
+    }
+
+    private void recordTaskLatency(final long latencyNanos) {
+        final var avg = this.avgTaskLatencyNanos;
+        this.avgTaskLatencyNanos = avg == 0 ? latencyNanos : avg + TASK_LATENCY_EWMA_ALPHA * (latencyNanos - avg);
+    }
+
+    /**
+     * Set the expected time it takes to get new tasks once the executor asks for them, for example, a poll round trip.
+     *
+     * @param refillLatencyMs refill latency in milliseconds.
+     */
+    public void setRefillLatency(final long refillLatencyMs) {
+        this.refillLatencyNanos = Math.max(0, refillLatencyMs) * 1_000_000;
+    }
+
+    /**
+     * The low watermark is the number of tasks the executor is expected to complete while it waits for new tasks,
+     * based on the observed task latency and the refill latency.
+     *
+     * @return the low watermark of the queue, it's 0 until both latencies are known.
+     */
+    public int getLowWatermark() {
+        final var avg = this.avgTaskLatencyNanos;
+        final var refill = this.refillLatencyNanos;
+        if (avg <= 0 || refill <= 0) {
+            return 0;
         }
+        final var drained = Math.ceil(refill / avg * this.maxConcurrency);
+        return (int) Math.min(drained, this.maxQueueSize / 2);
+    }
+
+    /**
+     * @return the high watermark of the queue, it's at least 1 and at most the max queue size.
+     */
+    public int getHighWatermark() {
+        return Math.max(1, Math.min(this.maxQueueSize, 2 * getLowWatermark()));
     }
 
+    /**
+     * @return true when the queue is at or below the low watermark, so new tasks should be offered before it's drained.
+     */
     public boolean isWaitingForTasks() {
-        // TODO To perform this flag would be nice to take into account also the time that it takes for a sink to
-        // process a
-        //  message so that we can fetch records in advance and keep queues busy.
-        return this.queue.isEmpty();
+        return this.queueSize <= getLowWatermark();
+    }
+
+    /**
+     * @return true when the queue is at or above the high watermark, so no more tasks should be offered for now.
+     */
+    public boolean isFull() {
+        return this.queueSize >= getHighWatermark();
     }
 
     /**
@@ -120,7 +275,9 @@ public class OrderedAsyncExecutor {
      */
     public void stop() {
         this.isStopped.set(true);
-        this.queue.clear();
+        this.queues.clear();
+        this.readyKeys.clear();
+        this.queueSize = 0;
         if (meterRegistry != null && egress != null && egress.getFeatureFlags().getEnableOrderedExecutorMetrics()) {
             this.meterRegistry.remove(executorLatency);
             this.meterRegistry.remove(executorQueueLength);
@@ -129,10 +286,12 @@ public class OrderedAsyncExecutor {
 
     private static final class Task {
 
+        private final Object key;
         private final Supplier<Future<?>> task;
         private final long queueTimestamp = System.currentTimeMillis();
 
-        Task(final Supplier<Future<?>> task) {
+        Task(final Object key, final Supplier<Future<?>> task) {
+            this.key = key;
             this.task = task;
         }
     }
@@ -20,6 +20,7 @@ import io.vertx.core.Handler;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -42,6 +43,14 @@ public interface ReactiveKafkaConsumer<K, V> {
      */
     Future<Map<TopicPartition, OffsetAndMetadata>> commit(Map<TopicPartition, OffsetAndMetadata> offset);
 
+    /**
+     * Gets the last committed offsets of the specified partitions.
+     *
+     * @param partitions The partitions to get the committed offsets of.
+     * @return A future containing the committed offsets, partitions without committed offsets are not included.
+     */
+    Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions);
+
     /**
      * Closes the consumer.
      *
@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.core.metrics;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * EventMeters is a cache of the meters of the events of a resource, keyed by event type and response code.
+ * <p>
+ * Meters are built and registered the first time a key is seen, then they're looked up without building tags or
+ * meter ids, and without allocating.
+ * <p>
+ * Event types come from producers, so the number of event types tagging the meters of a resource is bounded: the
+ * first {@code maxEventTypes} event types seen are admitted, and events of any other type are tagged with
+ * {@link #OTHER_EVENT_TYPE} and counted by the {@link Metrics#eventTypeOverflowCount(Tags)} counter. Admitted event
+ * types are never replaced, since replacing them would drop their time series and reset their counters.
+ * <p>
+ * The cache must be cleared when the meters of the resource are removed from the registry, otherwise removed meters
+ * are updated, see {@link #clear()}.
+ */
+public final class EventMeters {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventMeters.class);
+
+    /**
+     * Default number of event types admitted per resource.
+     */
+    public static final int DEFAULT_MAX_EVENT_TYPES = 100;
+
+    /**
+     * Event type tagging the meters of events whose type isn't admitted.
+     */
+    public static final String OTHER_EVENT_TYPE = "other";
+
+    /**
+     * Response code of events that didn't get a response, meters of these events are tagged with the {@code 5xx}
+     * response code class only.
+     */
+    public static final int NO_RESPONSE_CODE = -1;
+
+    private static final Tags NO_RESPONSE_TAGS = Tags.of(Metrics.Tags.RESPONSE_CODE_CLASS, "5xx");
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final ConcurrentHashMap<String, TypeMeters> types;
+    private final int maxEventTypes;
+    private final AtomicInteger admitted;
+    private final TypeMeters other;
+
+    private volatile Counter eventTypeOverflowCount;
+
+    /**
+     * @param registry registry of the meters.
+     * @param tags     tags of the resource.
+     */
+    public EventMeters(final MeterRegistry registry, final Tags tags) {
+        this(registry, tags, DEFAULT_MAX_EVENT_TYPES);
+    }
+
+    /**
+     * @param registry      registry of the meters.
+     * @param tags          tags of the resource.
+     * @param maxEventTypes number of event types admitted, 0 tags every event with {@link #OTHER_EVENT_TYPE}.
+     */
+    public EventMeters(final MeterRegistry registry, final Tags tags, final int maxEventTypes) {
+        if (maxEventTypes < 0) {
+            throw new IllegalArgumentException(
+                    "maxEventTypes must be greater than or equal to 0, got " + maxEventTypes);
+        }
+        this.registry = registry;
+        this.tags = tags;
+        this.types = new ConcurrentHashMap<>();
+        this.maxEventTypes = maxEventTypes;
+        this.admitted = new AtomicInteger();
+        this.other = new TypeMeters(tags.and(Tag.of(Metrics.Tags.EVENT_TYPE, OTHER_EVENT_TYPE)));
+    }
+
+    /**
+     * @return the {@link Metrics#eventCount(Tags)} counter of the given event type and response code.
+     */
+    public Counter eventCount(final String eventType, final int responseCode) {
+        return countOverflow(typeMeters(eventType)).responseMeters(responseCode).eventCount;
+    }
+
+    /**
+     * @return the {@link Metrics#eventDispatchLatency(Tags)} summary of the given event type and response code.
+     */
+    public DistributionSummary eventDispatchLatency(final String eventType, final int responseCode) {
+        return typeMeters(eventType).responseMeters(responseCode).eventDispatchLatency;
+    }
+
+    /**
+     * @return the {@link Metrics#eventProcessingLatency(Tags)} summary of the given event type.
+     */
+    public DistributionSummary eventProcessingLatency(final String eventType) {
+        final var meters = typeMeters(eventType);
+        var summary = meters.eventProcessingLatency;
+        if (summary == null) {
+            // Registering is idempotent, so racing threads get the same meter.
+            summary = Metrics.eventProcessingLatency(meters.tags).register(registry);
+            meters.eventProcessingLatency = summary;
+        }
+        return summary;
+    }
+
+    /**
+     * @return the {@link Metrics#discardedEventCount(Tags)} counter of the given event type.
+     */
+    public Counter discardedEventCount(final String eventType) {
+        final var meters = countOverflow(typeMeters(eventType));
+        var counter = meters.discardedEventCount;
+        if (counter == null) {
+            counter = Metrics.discardedEventCount(meters.tags).register(registry);
+            meters.discardedEventCount = counter;
+        }
+        return counter;
+    }
+
+    /**
+     * Clear the cache, meters are registered again the next time they're used, and event types are admitted again.
+     */
+    public void clear() {
+        types.clear();
+        admitted.set(0);
+        other.clear();
+        eventTypeOverflowCount = null;
+    }
+
+    /**
+     * @return the number of event types admitted.
+     */
+    public int size() {
+        return types.size();
+    }
+
+    private TypeMeters typeMeters(final String eventType) {
+        final var meters = types.get(eventType);
+        if (meters != null) {
+            return meters;
+        }
+        if (admitted.get() >= maxEventTypes) {
+            return other;
+        }
+        final var admittedMeters = types.computeIfAbsent(eventType, this::admit);
+        return admittedMeters == null ? other : admittedMeters;
+    }
+
+    private TypeMeters admit(final String eventType) {
+        if (admitted.getAndUpdate(n -> n < maxEventTypes ? n + 1 : n) >= maxEventTypes) {
+            return null;
+        }
+        if (admitted.get() == maxEventTypes) {
+            logger.warn(
+                    "Event types limit reached, events of other types are tagged with {} {} {}",
+                    keyValue("eventType", OTHER_EVENT_TYPE),
+                    keyValue("maxEventTypes", maxEventTypes),
+                    keyValue("tags", tags));
+        }
+        return new TypeMeters(tags.and(Tag.of(Metrics.Tags.EVENT_TYPE, eventType)));
+    }
+
+    /**
+     * Count an event whose type isn't admitted, called once per event.
+     */
+    private TypeMeters countOverflow(final TypeMeters meters) {
+        if (meters == other) {
+            var counter = eventTypeOverflowCount;
+            if (counter == null) {
+                counter = Metrics.eventTypeOverflowCount(tags).register(registry);
+                eventTypeOverflowCount = counter;
+            }
+            counter.increment();
+        }
+        return meters;
+    }
+
+    private final class TypeMeters {
+
+        private final Tags tags;
+
+        // Event types see a handful of response codes, so they're scanned, the array is copied on write.
+        private volatile ResponseMeters[] responses;
+
+        private volatile DistributionSummary eventProcessingLatency;
+        private volatile Counter discardedEventCount;
+
+        private TypeMeters(final Tags tags) {
+            this.tags = tags;
+            this.responses = new ResponseMeters[0];
+        }
+
+        private synchronized void clear() {
+            responses = new ResponseMeters[0];
+            eventProcessingLatency = null;
+            discardedEventCount = null;
+        }
+
+        private ResponseMeters responseMeters(final int responseCode) {
+            for (final var meters : responses) {
+                if (meters.responseCode == responseCode) {
+                    return meters;
+                }
+            }
+            return addResponseMeters(responseCode);
+        }
+
+        private synchronized ResponseMeters addResponseMeters(final int responseCode) {
+            final var current = responses;
+            for (final var meters : current) {
+                if (meters.responseCode == responseCode) {
+                    return meters;
+                }
+            }
+            final var responseTags = responseCode == NO_RESPONSE_CODE
+                    ? tags.and(NO_RESPONSE_TAGS)
+                    : tags.and(
+                            Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, responseCode / 100 + "xx"),
+                            Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(responseCode)));
+            final var meters = new ResponseMeters(
+                    responseCode,
+                    Metrics.eventCount(responseTags).register(registry),
+                    Metrics.eventDispatchLatency(responseTags).register(registry));
+            final var updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = meters;
+            responses = updated;
+            return meters;
+        }
+    }
+
+    private record ResponseMeters(int responseCode, Counter eventCount, DistributionSummary eventDispatchLatency) {}
+}
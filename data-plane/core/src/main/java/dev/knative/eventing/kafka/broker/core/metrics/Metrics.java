@@ -130,6 +130,11 @@ public class Metrics {
      */
     public static final String DISCARDED_EVENTS_COUNT = "discarded_invalid_event_count";
 
+    /**
+     * @see Metrics#eventTypeOverflowCount(io.micrometer.core.instrument.Tags)
+     */
+    public static final String EVENT_TYPE_OVERFLOW_COUNT = "event_type_overflow_count";
+
     /**
      * @link https://knative.dev/docs/eventing/observability/metrics/eventing-metrics/
      * @see Metrics#executorQueueLatency(io.micrometer.core.instrument.Tags)
@@ -142,6 +147,26 @@ public class Metrics {
      */
     public static final String QUEUE_LENGTH = "queue_length";
 
+    /**
+     * @see Metrics#pausedPartitions(io.micrometer.core.instrument.Tags, Supplier)
+     */
+    public static final String PAUSED_PARTITIONS = "paused_partition_count";
+
+    /**
+     * @see Metrics#concurrencyLimit(io.micrometer.core.instrument.Tags, Supplier)
+     */
+    public static final String CONCURRENCY_LIMIT = "concurrency_limit";
+
+    /**
+     * @see Metrics#retryPendingCount(io.micrometer.core.instrument.Tags, Supplier)
+     */
+    public static final String RETRY_PENDING_COUNT = "retry_pending_count";
+
+    /**
+     * @see Metrics#retrySchedulingLag(io.micrometer.core.instrument.Tags)
+     */
+    public static final String RETRY_SCHEDULING_LAG = "retry_scheduling_lag";
+
     /**
      * @link https://knative.dev/docs/eventing/observability/metrics/eventing-metrics/
      */
@@ -352,6 +377,13 @@ public class Metrics {
                 .baseUnit(Metrics.Units.DIMENSIONLESS);
     }
 
+    public static Counter.Builder eventTypeOverflowCount(final io.micrometer.core.instrument.Tags tags) {
+        return Counter.builder(EVENT_TYPE_OVERFLOW_COUNT)
+                .description("Number of events whose type exceeded the limit of event types of a resource")
+                .tags(tags)
+                .baseUnit(Metrics.Units.DIMENSIONLESS);
+    }
+
     public static DistributionSummary.Builder executorQueueLatency(final io.micrometer.core.instrument.Tags tags) {
         return DistributionSummary.builder(EXECUTOR_QUEUE_LATENCY)
                 .description("The time an event spends in an executor queue")
@@ -368,6 +400,38 @@ public class Metrics {
                 .baseUnit(Metrics.Units.DIMENSIONLESS);
     }
 
+    public static Gauge.Builder<Supplier<Number>> pausedPartitions(
+            final io.micrometer.core.instrument.Tags tags, final Supplier<Number> pausedPartitions) {
+        return Gauge.builder(PAUSED_PARTITIONS, pausedPartitions)
+                .description("Number of partitions paused because their executor queue is full")
+                .tags(tags)
+                .baseUnit(Metrics.Units.DIMENSIONLESS);
+    }
+
+    public static Gauge.Builder<Supplier<Number>> concurrencyLimit(
+            final io.micrometer.core.instrument.Tags tags, final Supplier<Number> limit) {
+        return Gauge.builder(CONCURRENCY_LIMIT, limit)
+                .description("Maximum number of in-flight events allowed by the adaptive concurrency limiter")
+                .tags(tags)
+                .baseUnit(Metrics.Units.DIMENSIONLESS);
+    }
+
+    public static Gauge.Builder<Supplier<Number>> retryPendingCount(
+            final io.micrometer.core.instrument.Tags tags, final Supplier<Number> pending) {
+        return Gauge.builder(RETRY_PENDING_COUNT, pending)
+                .description("Number of events waiting for their retry to be sent")
+                .tags(tags)
+                .baseUnit(Metrics.Units.DIMENSIONLESS);
+    }
+
+    public static DistributionSummary.Builder retrySchedulingLag(final io.micrometer.core.instrument.Tags tags) {
+        return DistributionSummary.builder(RETRY_SCHEDULING_LAG)
+                .description("The time between the scheduled time of a retry and the time it's sent")
+                .tags(tags)
+                .baseUnit(BaseUnits.MILLISECONDS)
+                .serviceLevelObjectives(LATENCY_SLOs);
+    }
+
     public static io.micrometer.core.instrument.Tags resourceRefTags(final DataPlaneContract.Reference ref) {
         return io.micrometer.core.instrument.Tags.of(
                 Tag.of(Metrics.Tags.RESOURCE_NAME, ref.getName()),
@@ -17,6 +17,7 @@ package dev.knative.eventing.kafka.broker.core.utils;
 
 import static java.util.Objects.requireNonNull;
 
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import java.util.function.Function;
 
 public class BaseEnv {
@@ -45,6 +46,9 @@ public class BaseEnv {
     public static final String METRICS_HTTP_SERVER_ENABLED = "METRICS_HTTP_SERVER_ENABLED";
     private final boolean metricsHTTPServerEnabled;
 
+    public static final String METRICS_MAX_EVENT_TYPES = "METRICS_MAX_EVENT_TYPES";
+    private final int metricsMaxEventTypes;
+
     public static final String CONFIG_TRACING_PATH = "CONFIG_TRACING_PATH";
     private final String configTracingPath;
 
@@ -61,6 +65,9 @@ public class BaseEnv {
         this.metricsJvmEnabled = Boolean.parseBoolean(envProvider.apply(METRICS_JVM_ENABLED));
         this.metricsHTTPClientEnabled = Boolean.parseBoolean(envProvider.apply(METRICS_HTTP_CLIENT_ENABLED));
         this.metricsHTTPServerEnabled = Boolean.parseBoolean(envProvider.apply(METRICS_HTTP_SERVER_ENABLED));
+        final var maxEventTypes = envProvider.apply(METRICS_MAX_EVENT_TYPES);
+        this.metricsMaxEventTypes =
+                maxEventTypes == null ? EventMeters.DEFAULT_MAX_EVENT_TYPES : Integer.parseInt(maxEventTypes);
         this.producerConfigFilePath = requireNonNull(envProvider.apply(PRODUCER_CONFIG_FILE_PATH));
         this.dataPlaneConfigFilePath = requireNonNull(envProvider.apply(DATA_PLANE_CONFIG_FILE_PATH));
         this.configTracingPath = requireNonNull(envProvider.apply(CONFIG_TRACING_PATH));
@@ -100,6 +107,14 @@ public class BaseEnv {
         return metricsHTTPServerEnabled;
     }
 
+    /**
+     * @return the number of event types tagging the event meters of a resource, events of other types are tagged with
+     * {@link EventMeters#OTHER_EVENT_TYPE}.
+     */
+    public int getMetricsMaxEventTypes() {
+        return metricsMaxEventTypes;
+    }
+
     public String getConfigTracingPath() {
         return configTracingPath;
     }
@@ -119,6 +134,7 @@ public class BaseEnv {
                 + dataPlaneConfigFilePath + '\'' + ", metricsPort="
                 + metricsPort + ", metricsPath='"
                 + metricsPath + '\'' + ", metricsPublishQuantiles="
-                + metricsPublishQuantiles + '}';
+                + metricsPublishQuantiles + ", metricsMaxEventTypes="
+                + metricsMaxEventTypes + '}';
     }
 }
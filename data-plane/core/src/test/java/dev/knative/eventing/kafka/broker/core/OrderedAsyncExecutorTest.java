@@ -24,10 +24,13 @@ import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -100,6 +103,131 @@ public class OrderedAsyncExecutorTest {
         });
     }
 
+    @Test
+    public void shouldExecuteInOrderByKey(final Vertx parentVertx) throws InterruptedException {
+        final int tasks = 1000;
+        final int keys = 10;
+        final int maxConcurrency = 4;
+        Random random = new Random();
+
+        // Deploy the verticle
+        AVerticle verticle = new AVerticle();
+        CountDownLatch startVerticleLatch = new CountDownLatch(1);
+        parentVertx.deployVerticle(verticle, v -> startVerticleLatch.countDown());
+        startVerticleLatch.await();
+
+        // Rewrite the vertx instance in order to make sure we run always in the same context
+        final var vertx = verticle.getVertx();
+
+        CountDownLatch tasksLatch = new CountDownLatch(tasks);
+        Map<Integer, List<Integer>> executed = new HashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        OrderedAsyncExecutor asyncExecutor = new OrderedAsyncExecutor(
+                new TopicPartition("t1", 0),
+                null,
+                DataPlaneContract.Egress.newBuilder()
+                        .setFeatureFlags(DataPlaneContract.EgressFeatureFlags.newBuilder()
+                                .setEnableOrderedExecutorMetrics(false)
+                                .build())
+                        .build(),
+                maxConcurrency,
+                tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            final var n = i;
+            final var key = i % keys;
+            final long delay = 1 + random.nextInt(5);
+            vertx.runOnContext(v -> asyncExecutor.offer(key, () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Promise<Void> prom = Promise.promise();
+                vertx.setTimer(delay, t -> {
+                    inFlight.decrementAndGet();
+                    executed.computeIfAbsent(key, k -> new ArrayList<>()).add(n);
+                    tasksLatch.countDown();
+                    prom.complete();
+                });
+                return prom.future();
+            }));
+        }
+
+        assertThat(tasksLatch.await(20, TimeUnit.SECONDS)).isTrue();
+
+        // Check if tasks with the same key were executed in order
+        executed.forEach((key, values) -> assertThat(values).isSorted().hasSize(tasks / keys));
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(maxConcurrency);
+    }
+
+    @Test
+    public void shouldNotBlockOtherKeysBehindQueuedTasksOfAKey() {
+        final var asyncExecutor =
+                new OrderedAsyncExecutor(new TopicPartition("t1", 0), null, null, 2, Integer.MAX_VALUE);
+        final List<String> started = new ArrayList<>();
+        final Map<String, Promise<Void>> promises = new HashMap<>();
+        for (final var name : List.of("hot-0", "hot-1", "hot-2", "other-0")) {
+            final var key = name.substring(0, name.indexOf('-'));
+            asyncExecutor.offer(key, () -> {
+                started.add(name);
+                final Promise<Void> promise = Promise.promise();
+                promises.put(name, promise);
+                return promise.future();
+            });
+        }
+
+        assertThat(started).containsExactly("hot-0", "other-0");
+
+        promises.get("other-0").complete();
+        assertThat(started).containsExactly("hot-0", "other-0");
+
+        promises.get("hot-0").complete();
+        assertThat(started).containsExactly("hot-0", "other-0", "hot-1");
+        promises.get("hot-1").complete();
+        assertThat(started).containsExactly("hot-0", "other-0", "hot-1", "hot-2");
+    }
+
+    @Test
+    public void shouldComputeWatermarksFromLatencies(final Vertx vertx) throws InterruptedException {
+        final int maxQueueSize = 100;
+        OrderedAsyncExecutor asyncExecutor = new OrderedAsyncExecutor(
+                new TopicPartition("t1", 0),
+                null,
+                DataPlaneContract.Egress.newBuilder()
+                        .setFeatureFlags(DataPlaneContract.EgressFeatureFlags.newBuilder()
+                                .setEnableOrderedExecutorMetrics(false)
+                                .build())
+                        .build(),
+                1,
+                maxQueueSize);
+
+        // Without latencies, the executor waits for tasks only when the queue is empty.
+        assertThat(asyncExecutor.getLowWatermark()).isEqualTo(0);
+        assertThat(asyncExecutor.getHighWatermark()).isEqualTo(1);
+        assertThat(asyncExecutor.isWaitingForTasks()).isTrue();
+
+        // Execute a task taking ~10ms so that the executor knows the task latency.
+        CountDownLatch latch = new CountDownLatch(1);
+        vertx.runOnContext(v -> asyncExecutor.offer(() -> {
+            Promise<Void> prom = Promise.promise();
+            vertx.setTimer(10, t -> {
+                prom.complete();
+                latch.countDown();
+            });
+            return prom.future();
+        }));
+        assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // Refilling takes more than a task, so the executor should ask for tasks in advance.
+        asyncExecutor.setRefillLatency(100);
+        assertThat(asyncExecutor.getLowWatermark()).isGreaterThan(1).isLessThanOrEqualTo(10);
+        assertThat(asyncExecutor.getHighWatermark()).isEqualTo(2 * asyncExecutor.getLowWatermark());
+
+        // Watermarks are bounded by the max queue size.
+        asyncExecutor.setRefillLatency(1_000_000);
+        assertThat(asyncExecutor.getLowWatermark()).isEqualTo(maxQueueSize / 2);
+        assertThat(asyncExecutor.getHighWatermark()).isEqualTo(maxQueueSize);
+    }
+
     @Test
     public void shouldStop(Vertx vertx) throws InterruptedException {
         int tasks = 10;
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.core.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class EventMetersTest {
+
+    private static final Tags TAGS = Tags.of(Metrics.Tags.RESOURCE_NAME, "name");
+
+    @Test
+    public void shouldRegisterMetersWithTags() {
+        final var registry = new SimpleMeterRegistry();
+        final var meters = new EventMeters(registry, TAGS);
+
+        meters.eventCount("type", 202).increment();
+        meters.eventDispatchLatency("type", 202).record(10);
+        meters.eventCount("type", EventMeters.NO_RESPONSE_CODE).increment();
+        meters.eventProcessingLatency("type").record(5);
+        meters.discardedEventCount("other").increment();
+
+        assertThat(registry.get(Metrics.EVENTS_COUNT)
+                        .tags(TAGS.and(
+                                Tag.of(Metrics.Tags.EVENT_TYPE, "type"),
+                                Tag.of(Metrics.Tags.RESPONSE_CODE, "202"),
+                                Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "2xx")))
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+        assertThat(registry.get(Metrics.EVENT_DISPATCH_LATENCY)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.RESPONSE_CODE, "202")))
+                        .summary()
+                        .totalAmount())
+                .isEqualTo(10);
+        final var noResponse = registry.get(Metrics.EVENTS_COUNT)
+                .tags(TAGS.and(
+                        Tag.of(Metrics.Tags.EVENT_TYPE, "type"), Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "5xx")))
+                .counter();
+        assertThat(noResponse.count()).isEqualTo(1);
+        assertThat(noResponse.getId().getTag(Metrics.Tags.RESPONSE_CODE)).isNull();
+        assertThat(registry.get(Metrics.EVENT_PROCESSING_LATENCY)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, "type")))
+                        .summary()
+                        .count())
+                .isEqualTo(1);
+        assertThat(registry.get(Metrics.DISCARDED_EVENTS_COUNT)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, "other")))
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReuseMetersUntilCleared() {
+        final var registry = new SimpleMeterRegistry();
+        final var meters = new EventMeters(registry, TAGS);
+
+        final var counter = meters.eventCount("type", 200);
+        assertThat(meters.eventCount(new String("type"), 200)).isSameAs(counter);
+        assertThat(meters.eventCount("type", 500)).isNotSameAs(counter);
+        assertThat(meters.size()).isEqualTo(1);
+
+        registry.remove(counter);
+        meters.clear();
+
+        assertThat(meters.size()).isZero();
+        final var registered = meters.eventCount("type", 200);
+        assertThat(registered).isNotSameAs(counter);
+        assertThat(registry.getMeters()).contains(registered);
+    }
+
+    @Test
+    public void shouldTagEventsOfTypesOverTheLimitWithOther() {
+        final var registry = new SimpleMeterRegistry();
+        final var meters = new EventMeters(registry, TAGS, 2);
+
+        meters.eventCount("a", 200).increment();
+        meters.eventCount("b", 200).increment();
+        for (int i = 0; i < 10; i++) {
+            meters.eventCount("uuid-" + i, 200).increment();
+            meters.eventDispatchLatency("uuid-" + i, 200).record(1);
+        }
+        meters.discardedEventCount("c").increment();
+        meters.eventCount("a", 200).increment();
+
+        assertThat(meters.size()).isEqualTo(2);
+        assertThat(registry.get(Metrics.EVENTS_COUNT)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, "a")))
+                        .counter()
+                        .count())
+                .isEqualTo(2);
+        assertThat(registry.get(Metrics.EVENTS_COUNT)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, EventMeters.OTHER_EVENT_TYPE)))
+                        .counter()
+                        .count())
+                .isEqualTo(10);
+        assertThat(registry.get(Metrics.EVENT_TYPE_OVERFLOW_COUNT)
+                        .tags(TAGS)
+                        .counter()
+                        .count())
+                .isEqualTo(11);
+        assertThat(registry.find(Metrics.EVENTS_COUNT)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, "uuid-0")))
+                        .counter())
+                .isNull();
+
+        registry.getMeters().forEach(registry::remove);
+        meters.clear();
+
+        meters.eventCount("uuid-0", 200).increment();
+        assertThat(registry.get(Metrics.EVENTS_COUNT)
+                        .tags(TAGS.and(Tag.of(Metrics.Tags.EVENT_TYPE, "uuid-0")))
+                        .counter()
+                        .count())
+                .isEqualTo(1);
+    }
+}
@@ -17,6 +17,7 @@ package dev.knative.eventing.kafka.broker.core.utils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 
@@ -85,4 +86,13 @@ public class BaseEnvTest {
         final var metricsConfigs = new BaseEnv(provider);
         assertThat(metricsConfigs.isMetricsHTTPServerEnabled()).isFalse();
     }
+
+    @Test
+    public void shouldGetMetricsMaxEventTypes() {
+        assertThat(new BaseEnv(provider).getMetricsMaxEventTypes()).isEqualTo(EventMeters.DEFAULT_MAX_EVENT_TYPES);
+
+        final var metricsConfigs =
+                new BaseEnv(s -> s.equals(BaseEnv.METRICS_MAX_EVENT_TYPES) ? "10" : provider.apply(s));
+        assertThat(metricsConfigs.getMetricsMaxEventTypes()).isEqualTo(10);
+    }
 }
@@ -24,7 +24,9 @@ import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -90,6 +92,27 @@ public class LoomKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
         return promise.future();
     }
 
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions) {
+        final Promise<Map<TopicPartition, OffsetAndMetadata>> promise = Promise.promise();
+        addTask(
+                () -> {
+                    try {
+                        final var committed = new HashMap<TopicPartition, OffsetAndMetadata>();
+                        consumer.committed(partitions).forEach((tp, offset) -> {
+                            if (offset != null) {
+                                committed.put(tp, offset);
+                            }
+                        });
+                        promise.complete(committed);
+                    } catch (final KafkaException exception) {
+                        promise.fail(exception);
+                    }
+                },
+                promise);
+        return promise.future();
+    }
+
     @Override
     public Future<Void> close() {
 
@@ -18,11 +18,15 @@ package dev.knative.eventing.kafka.broker.dispatchervertx;
 import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.kafka.client.common.KafkaClientOptions;
 import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerImpl;
+import io.vertx.kafka.client.consumer.impl.KafkaReadStreamImpl;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -35,10 +39,14 @@ import org.apache.kafka.common.TopicPartition;
 
 public class VertxKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
 
+    private final CommittedReadStream<K, V> stream;
     private KafkaConsumer<K, V> consumer;
 
     public VertxKafkaConsumer(Vertx v, KafkaClientOptions configs) {
-        consumer = KafkaConsumer.create(v, configs);
+        // Same as KafkaConsumer.create(v, configs), except for the stream that exposes batched committed offsets.
+        stream = new CommittedReadStream<>(
+                v, new org.apache.kafka.clients.consumer.KafkaConsumer<>(new HashMap<>(configs.getConfig())), configs);
+        consumer = new KafkaConsumerImpl<>(stream).registerCloseHook();
     }
 
     @Override
@@ -62,6 +70,19 @@ public class VertxKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
                                         entry.getValue().getMetadata()))));
     }
 
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions) {
+        return stream.committed(partitions).map(offsets -> {
+            final var committed = new HashMap<TopicPartition, OffsetAndMetadata>(offsets.size());
+            offsets.forEach((tp, offset) -> {
+                if (offset != null) {
+                    committed.put(tp, offset);
+                }
+            });
+            return committed;
+        });
+    }
+
     @Override
     public Future<Void> close() {
         return consumer.close();
@@ -108,6 +129,14 @@ public class VertxKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
             listener.onPartitionsRevoked(apachePartitions);
         };
         consumer = consumer.partitionsRevokedHandler(handler);
+        consumer = consumer.partitionsAssignedHandler(partitions -> {
+            Set<TopicPartition> apachePartitions = new HashSet<>();
+            for (io.vertx.kafka.client.common.TopicPartition vertxPartition : partitions) {
+                apachePartitions.add(new TopicPartition(vertxPartition.getTopic(), vertxPartition.getPartition()));
+            }
+
+            listener.onPartitionsAssigned(apachePartitions);
+        });
 
         return consumer.subscribe(new HashSet<>(topics));
     }
@@ -122,4 +151,29 @@ public class VertxKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
         consumer = consumer.exceptionHandler(handler);
         return this;
     }
+
+    /**
+     * The Vert.x consumer reads committed offsets one partition at a time, this stream reads the committed offsets of
+     * many partitions with a single request on the consumer thread.
+     */
+    private static final class CommittedReadStream<K, V> extends KafkaReadStreamImpl<K, V> {
+
+        CommittedReadStream(final Vertx vertx, final Consumer<K, V> consumer, final KafkaClientOptions options) {
+            super(vertx, consumer, options);
+        }
+
+        Future<Map<TopicPartition, OffsetAndMetadata>> committed(final Set<TopicPartition> partitions) {
+            final Promise<Map<TopicPartition, OffsetAndMetadata>> promise = Promise.promise();
+            submitTask(
+                    (consumer, p) -> {
+                        try {
+                            p.complete(consumer.committed(partitions));
+                        } catch (final Exception ex) {
+                            p.fail(ex);
+                        }
+                    },
+                    promise);
+            return promise.future();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.jackson.JsonFormat;
+import io.vertx.core.buffer.Buffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of {@link CloudEvent}s serialized incrementally in the JSON batch format, so that the size of the request
+ * body is known while events are added to the batch.
+ *
+ * @see <a href="https://github.com/cloudevents/spec/blob/v1.0.2/cloudevents/formats/json-format.md#4-json-batch-format">JSON Batch Format</a>
+ */
+public final class CloudEventBatch {
+
+    public static final String CONTENT_TYPE = "application/cloudevents-batch+json";
+
+    private static final JsonFormat format = new JsonFormat();
+
+    private final long maxBytes;
+    private final List<CloudEvent> events;
+    private final Buffer body;
+
+    /**
+     * @param maxBytes maximum size in bytes of the request body.
+     */
+    public CloudEventBatch(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.events = new ArrayList<>();
+        this.body = Buffer.buffer().appendByte((byte) '[');
+    }
+
+    /**
+     * Add the given event to the batch if it fits in the maximum size, an empty batch accepts any event.
+     *
+     * @param event event to add.
+     * @return true if the event has been added to the batch, false otherwise.
+     */
+    public boolean tryAdd(final CloudEvent event) {
+        final var serialized = format.serialize(event);
+        if (!events.isEmpty()) {
+            // separator, event and closing bracket.
+            if (body.length() + 1L + serialized.length + 1L > maxBytes) {
+                return false;
+            }
+            body.appendByte((byte) ',');
+        }
+        body.appendBytes(serialized);
+        events.add(event);
+        return true;
+    }
+
+    /**
+     * @return the number of events in the batch.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * @return the size in bytes of the request body.
+     */
+    public int sizeInBytes() {
+        return body.length() + 1;
+    }
+
+    public List<CloudEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return the request body, a JSON array of the events in the batch.
+     */
+    public Buffer toBuffer() {
+        return body.copy().appendByte((byte) ']');
+    }
+}
@@ -34,6 +34,27 @@ public interface CloudEventSender extends AsyncCloseable {
      */
     Future<HttpResponse<Buffer>> send(CloudEvent event);
 
+    /**
+     * Send the given batch of events in a single request, without retrying it.
+     *
+     * @param batch batch to send
+     * @return a successful future or a failed future.
+     */
+    default Future<HttpResponse<Buffer>> sendBatch(CloudEventBatch batch) {
+        return Future.failedFuture("Batch delivery not supported");
+    }
+
+    /**
+     * Send the given event on its own, after the batch containing it failed.
+     *
+     * @param event        event to send
+     * @param batchFailure failure of the batch, see {@link #sendBatch(CloudEventBatch)}
+     * @return a successful future or a failed future.
+     */
+    default Future<HttpResponse<Buffer>> sendAfterFailedBatch(CloudEvent event, Throwable batchFailure) {
+        return send(event);
+    }
+
     /**
      * Create a noop {@link CloudEventSender} that fails every send with the specified message.
      *
@@ -25,7 +25,12 @@ public enum DeliveryOrder {
     /**
      * Unordered consumer is a non-blocking consumer that potentially deliver messages unordered, while preserving proper offset management.
      */
-    UNORDERED;
+    UNORDERED,
+    /**
+     * Key ordered consumer is a per-partition non-blocking consumer that deliver messages with the same key in order,
+     * while messages with different keys are delivered concurrently.
+     */
+    KEY_ORDERED;
 
     public static DeliveryOrder fromContract(DataPlaneContract.DeliveryOrder deliveryOrder) {
         if (deliveryOrder == null) {
@@ -33,6 +38,7 @@ public enum DeliveryOrder {
         }
         return switch (deliveryOrder) {
             case ORDERED -> ORDERED;
+            case KEY_ORDERED -> KEY_ORDERED;
             case UNORDERED, UNRECOGNIZED -> UNORDERED;
         };
     }
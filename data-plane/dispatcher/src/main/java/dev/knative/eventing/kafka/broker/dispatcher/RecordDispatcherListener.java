@@ -30,6 +30,15 @@ public interface RecordDispatcherListener extends AsyncCloseable {
      */
     void recordReceived(ConsumerRecord<?, ?> record);
 
+    /**
+     * @param record record polled.
+     * @return true when the given record has already been handled, for example, by a previous owner of the partition,
+     * so it must not be delivered again.
+     */
+    default boolean isCompleted(ConsumerRecord<?, ?> record) {
+        return false;
+    }
+
     /**
      * The given record cannot be delivered to dead letter sink.
      *
@@ -52,6 +61,14 @@ public interface RecordDispatcherListener extends AsyncCloseable {
      */
     void successfullySentToSubscriber(ConsumerRecord<?, ?> record);
 
+    /**
+     * The given record has been parked in the retry topic, see
+     * {@link dev.knative.eventing.kafka.broker.dispatcher.impl.RetryTopic}.
+     *
+     * @param record record parked for retry.
+     */
+    void parkedForRetry(ConsumerRecord<?, ?> record);
+
     /**
      * The given record has been successfully sent to dead letter sink.
      *
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventBatch;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventSender;
+import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class groups events in {@link CloudEventBatch}es and sends them with {@link CloudEventSender#sendBatch}.
+ * <p>
+ * A batch is sent when it reaches the maximum number of events or the maximum size in bytes, or when the linger time
+ * elapses after the first event has been added to it. With a linger time of 0, the batch is sent once the current
+ * task on the event loop completes, which groups the events dispatched from the same poll.
+ * <p>
+ * Responses to batch requests are not handled as replies, they're dropped.
+ */
+final class CloudEventBatcher {
+
+    static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private final CloudEventSender sender;
+    private final int maxEvents;
+    private final long maxBytes;
+    private final long lingerMs;
+
+    private CloudEventBatch batch;
+    private List<Promise<HttpResponse<Buffer>>> promises;
+    // Incremented every time a batch is sent, it allows to ignore scheduled flushes for batches already sent.
+    private long generation;
+
+    CloudEventBatcher(final CloudEventSender sender, final DataPlaneContract.EgressConfig egressConfig) {
+        this.sender = sender;
+        this.maxEvents = egressConfig.getBatchMaxEvents();
+        this.maxBytes = egressConfig.getBatchMaxBytes() > 0 ? egressConfig.getBatchMaxBytes() : DEFAULT_MAX_BYTES;
+        this.lingerMs = egressConfig.getBatchLinger();
+        this.batch = new CloudEventBatch(maxBytes);
+        this.promises = new ArrayList<>(maxEvents);
+    }
+
+    /**
+     * @return true when the egress sends events in batches, events of ordered egresses are never batched since they're
+     * dispatched one at a time, so every batch would hold a single event and wait for the linger time.
+     */
+    static boolean isEnabled(final DataPlaneContract.Egress egress, final DataPlaneContract.EgressConfig egressConfig) {
+        return egressConfig != null
+                && egressConfig.getBatchMaxEvents() > 1
+                && DeliveryOrder.fromContract(egress.getDeliveryOrder()) != DeliveryOrder.ORDERED;
+    }
+
+    /**
+     * Add the given event to the current batch.
+     *
+     * @param event event to send.
+     * @return a future that completes with the response of the batch request that contains the event.
+     */
+    synchronized Future<HttpResponse<Buffer>> add(final CloudEvent event) {
+        if (!batch.tryAdd(event)) {
+            flush();
+            batch.tryAdd(event);
+        }
+        final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+        promises.add(promise);
+
+        if (batch.size() >= maxEvents) {
+            flush();
+        } else if (batch.size() == 1) {
+            scheduleFlush();
+        }
+        return promise.future();
+    }
+
+    private void scheduleFlush() {
+        final var context = Vertx.currentContext();
+        if (context == null) {
+            // We can't wait for more events without a context.
+            flush();
+            return;
+        }
+        final var scheduledGeneration = generation;
+        if (lingerMs <= 0) {
+            context.runOnContext(v -> flush(scheduledGeneration));
+        } else {
+            context.owner().setTimer(lingerMs, t -> flush(scheduledGeneration));
+        }
+    }
+
+    private synchronized void flush(final long scheduledGeneration) {
+        if (scheduledGeneration == generation) {
+            flush();
+        }
+    }
+
+    /**
+     * Send the current batch, if any.
+     */
+    synchronized void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final var toSend = batch;
+        final var toComplete = promises;
+        batch = new CloudEventBatch(maxBytes);
+        promises = new ArrayList<>(maxEvents);
+        generation++;
+
+        sender.sendBatch(toSend).onComplete(ar -> {
+            for (final var promise : toComplete) {
+                promise.handle(ar);
+            }
+        });
+    }
+}
@@ -21,10 +21,20 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 class ConsumerRecordContext {
 
     private ConsumerRecord<Object, CloudEvent> record;
+    private CloudEvent event;
     private long receivedAtMs;
 
     ConsumerRecordContext(ConsumerRecord<Object, CloudEvent> record) {
+        this(record, record.value());
+    }
+
+    /**
+     * @param record record.
+     * @param event  event to dispatch, it may differ from the value of the record, for example, when it's been mutated.
+     */
+    ConsumerRecordContext(ConsumerRecord<Object, CloudEvent> record, CloudEvent event) {
         this.record = record;
+        this.event = event;
         this.resetTimer();
     }
 
@@ -42,5 +52,14 @@ class ConsumerRecordContext {
 
     void setRecord(final ConsumerRecord<Object, CloudEvent> record) {
         this.record = record;
+        this.event = record.value();
+    }
+
+    CloudEvent getEvent() {
+        return event;
+    }
+
+    void setEvent(final CloudEvent event) {
+        this.event = event;
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
+import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import javax.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * {@link FanOutRecordDispatcher} dispatches every record to multiple {@link RecordDispatcher}s, one for each trigger
+ * sharing the same consumer.
+ * <p>
+ * Every member dispatches records up to its own concurrency limit, and it queues the other ones, so that a slow
+ * member doesn't hold back the others: the dispatch of a record completes once every member has started dispatching
+ * it, and the number of records in-flight of the shared consumer bounds the records queued by members.
+ * <p>
+ * Records below the start offset of a member for the record partition have already been handled by that member and
+ * they're not dispatched to it.
+ */
+public final class FanOutRecordDispatcher implements RecordDispatcher {
+
+    /**
+     * @param recordDispatcher   record dispatcher of the trigger.
+     * @param startOffsets       offsets the trigger starts from, see {@link FanOutRecordDispatcher}.
+     * @param concurrencyLimiter limiter of the records in-flight of the trigger, if any.
+     */
+    public record Member(
+            RecordDispatcher recordDispatcher,
+            Map<TopicPartition, Long> startOffsets,
+            @Nullable AdaptiveConcurrencyLimiter concurrencyLimiter) {
+
+        public Member {
+            Objects.requireNonNull(recordDispatcher, "provide recordDispatcher");
+            Objects.requireNonNull(startOffsets, "provide startOffsets");
+        }
+
+        public Member(final RecordDispatcher recordDispatcher, final Map<TopicPartition, Long> startOffsets) {
+            this(recordDispatcher, startOffsets, null);
+        }
+    }
+
+    private final List<MemberDispatcher> members;
+
+    public FanOutRecordDispatcher(final List<Member> members) {
+        Objects.requireNonNull(members, "provide members");
+        this.members = members.stream().map(MemberDispatcher::new).toList();
+    }
+
+    @Override
+    public Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record) {
+        final var tp = new TopicPartition(record.topic(), record.partition());
+        final var started = new ArrayList<Future<Void>>(members.size());
+        for (final var member : members) {
+            if (record.offset() < member.member.startOffsets().getOrDefault(tp, -1L)) {
+                continue;
+            }
+            started.add(member.dispatch(record));
+        }
+        return Future.join(started).mapEmpty();
+    }
+
+    @Override
+    public Future<Void> close() {
+        members.forEach(MemberDispatcher::close);
+        return AsyncCloseable.compose(
+                        members.stream().map(m -> m.member.recordDispatcher()).toArray(AsyncCloseable[]::new))
+                .close();
+    }
+
+    private static final class MemberDispatcher {
+
+        private final Member member;
+        // Records not yet dispatched because the concurrency limit of the member has been reached.
+        private final Queue<PendingRecord> pendingRecords;
+
+        private int inFlightRecords;
+        private boolean isDispatching;
+        private boolean closed;
+
+        private MemberDispatcher(final Member member) {
+            this.member = member;
+            this.pendingRecords = new ArrayDeque<>();
+        }
+
+        /**
+         * @return a future that completes once the member has started dispatching the given record.
+         */
+        private synchronized Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record) {
+            if (closed) {
+                return Future.failedFuture("Dispatcher closed");
+            }
+            final Promise<Void> started = Promise.promise();
+            pendingRecords.add(new PendingRecord(record, started));
+            dispatchPendingRecords();
+            return started.future();
+        }
+
+        private synchronized void dispatchPendingRecords() {
+            // Dispatch might complete synchronously (for example, when the filter doesn't match),
+            // in that case, the outer loop takes care of dispatching the remaining records.
+            if (isDispatching) {
+                return;
+            }
+            isDispatching = true;
+            try {
+                while (!closed && !pendingRecords.isEmpty() && inFlightRecords < getLimit()) {
+                    final var pending = pendingRecords.poll();
+                    inFlightRecords++;
+                    member.recordDispatcher().dispatch(pending.record()).onComplete(r -> onDispatched());
+                    pending.started().complete();
+                }
+            } finally {
+                isDispatching = false;
+            }
+        }
+
+        private synchronized void onDispatched() {
+            inFlightRecords--;
+            dispatchPendingRecords();
+        }
+
+        private int getLimit() {
+            return member.concurrencyLimiter() != null
+                    ? member.concurrencyLimiter().getLimit()
+                    : Integer.MAX_VALUE;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            // Records not dispatched are not committed, so they're consumed again.
+            for (final var pending : pendingRecords) {
+                pending.started().tryFail("Dispatcher closed");
+            }
+            pendingRecords.clear();
+        }
+    }
+
+    private record PendingRecord(ConsumerRecord<Object, CloudEvent> record, Promise<Void> started) {}
+}
@@ -18,8 +18,10 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl;
 import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
 
 import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
 import dev.knative.eventing.kafka.broker.core.tracing.kafka.ConsumerTracer;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventMutator;
 import dev.knative.eventing.kafka.broker.dispatcher.CloudEventSender;
 import dev.knative.eventing.kafka.broker.dispatcher.Filter;
 import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
@@ -28,12 +30,10 @@ import dev.knative.eventing.kafka.broker.dispatcher.ResponseHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.CloudEventDeserializer;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.InvalidCloudEvent;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.KafkaConsumerRecordUtils;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.OverlayCloudEvent;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
-import io.cloudevents.core.builder.CloudEventBuilder;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
-import io.micrometer.core.instrument.Tags;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
@@ -46,6 +46,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -64,12 +65,8 @@ public class RecordDispatcherImpl implements RecordDispatcher {
 
     private static final CloudEventDeserializer cloudEventDeserializer = new CloudEventDeserializer();
 
-    // When we don't have an HTTP response, due to other errors for networking, etc,
-    // we only add the code class tag in the "error" class (5xx).
-    private static final Tag NO_RESPONSE_CODE_CLASS_TAG = Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "5xx");
-
-    // Invalid cloud event records that are discarded by dispatch may not have a record type. So we set Tag as below.
-    private static final Tag INVALID_EVENT_TYPE_TAG = Tag.of(Metrics.Tags.EVENT_TYPE, "InvalidCloudEvent");
+    // Invalid cloud event records that are discarded by dispatch may not have a record type. So we set type as below.
+    private static final String INVALID_EVENT_TYPE = "InvalidCloudEvent";
 
     private static final String KN_ERROR_DEST_EXT_NAME = "knativeerrordest";
     private static final String KN_ERROR_CODE_EXT_NAME = "knativeerrorcode";
@@ -77,21 +74,66 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     private static final String EKB_ERROR_PREFIX = "kne-";
     private static final int KN_ERROR_DATA_MAX_BYTES = 1024;
 
-    private final Filter filter;
-    private final Function<ConsumerRecord<Object, CloudEvent>, Future<HttpResponse<?>>> subscriberSender;
-    private final Function<ConsumerRecord<Object, CloudEvent>, Future<HttpResponse<?>>> dlsSender;
+    // Parts depending on the egress spec, swapped at once by update.
+    private volatile Target target;
+    // null when retry topics are disabled.
+    private final RetryTopic retryTopic;
     private final RecordDispatcherListener recordDispatcherListener;
     private final AsyncCloseable closeable;
     private final ConsumerTracer consumerTracer;
     private final MeterRegistry meterRegistry;
     private final ConsumerVerticleContext consumerVerticleContext;
-
-    private final Tags noResponseResourceTags;
+    // null when meterRegistry is null.
+    private final EventMeters eventMeters;
 
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final AtomicInteger inFlightEvents = new AtomicInteger(0);
     private final Promise<Void> closePromise = Promise.promise();
 
+    public RecordDispatcherImpl(
+            final ConsumerVerticleContext consumerVerticleContext,
+            final Filter filter,
+            final CloudEventSender subscriberSender,
+            final CloudEventSender deadLetterSinkSender,
+            final ResponseHandler responseHandler,
+            final RecordDispatcherListener recordDispatcherListener,
+            final ConsumerTracer consumerTracer,
+            final MeterRegistry meterRegistry) {
+        this(
+                consumerVerticleContext,
+                filter,
+                subscriberSender,
+                deadLetterSinkSender,
+                responseHandler,
+                recordDispatcherListener,
+                consumerTracer,
+                meterRegistry,
+                null);
+    }
+
+    public RecordDispatcherImpl(
+            final ConsumerVerticleContext consumerVerticleContext,
+            final Filter filter,
+            final CloudEventSender subscriberSender,
+            final CloudEventSender deadLetterSinkSender,
+            final ResponseHandler responseHandler,
+            final RecordDispatcherListener recordDispatcherListener,
+            final ConsumerTracer consumerTracer,
+            final MeterRegistry meterRegistry,
+            @Nullable final RetryTopic retryTopic) {
+        this(
+                consumerVerticleContext,
+                filter,
+                subscriberSender,
+                deadLetterSinkSender,
+                responseHandler,
+                recordDispatcherListener,
+                consumerTracer,
+                meterRegistry,
+                retryTopic,
+                null);
+    }
+
     /**
      * All args constructor.
      *
@@ -101,6 +143,8 @@ public class RecordDispatcherImpl implements RecordDispatcher {
      * @param responseHandler          handler of the response from {@code subscriberSender}
      * @param recordDispatcherListener hook receiver {@link RecordDispatcherListener}. It allows to plug in custom offset
      * @param consumerTracer           consumer tracer
+     * @param retryTopic               retry topic to park records that failed to be delivered, if any
+     * @param cloudEventMutator        mutator applied to events before dispatching them, if any
      */
     public RecordDispatcherImpl(
             final ConsumerVerticleContext consumerVerticleContext,
@@ -110,25 +154,72 @@ public class RecordDispatcherImpl implements RecordDispatcher {
             final ResponseHandler responseHandler,
             final RecordDispatcherListener recordDispatcherListener,
             final ConsumerTracer consumerTracer,
-            final MeterRegistry meterRegistry) {
+            final MeterRegistry meterRegistry,
+            @Nullable final RetryTopic retryTopic,
+            @Nullable final CloudEventMutator cloudEventMutator) {
         Objects.requireNonNull(consumerVerticleContext, "provide consumerVerticleContext");
-        Objects.requireNonNull(filter, "provide filter");
-        Objects.requireNonNull(subscriberSender, "provide subscriberSender");
-        Objects.requireNonNull(deadLetterSinkSender, "provide deadLetterSinkSender");
         Objects.requireNonNull(recordDispatcherListener, "provide offsetStrategy");
-        Objects.requireNonNull(responseHandler, "provide sinkResponseHandler");
 
         this.consumerVerticleContext = consumerVerticleContext;
-        this.filter = filter;
-        this.subscriberSender = composeSenderAndSinkHandler(subscriberSender, responseHandler, "subscriber");
-        this.dlsSender = composeSenderAndSinkHandler(deadLetterSinkSender, responseHandler, "dead letter sink");
+        this.target = new Target(
+                consumerVerticleContext,
+                filter,
+                subscriberSender,
+                deadLetterSinkSender,
+                responseHandler,
+                cloudEventMutator);
+        this.retryTopic = retryTopic;
         this.recordDispatcherListener = recordDispatcherListener;
-        this.closeable = AsyncCloseable.compose(
-                subscriberSender, deadLetterSinkSender, recordDispatcherListener, responseHandler);
+        this.closeable = AsyncCloseable.compose(recordDispatcherListener, retryTopic);
         this.consumerTracer = consumerTracer;
         this.meterRegistry = meterRegistry;
+        this.eventMeters = meterRegistry == null
+                ? null
+                : new EventMeters(
+                        meterRegistry,
+                        this.consumerVerticleContext.getTags(),
+                        this.consumerVerticleContext.getMaxEventTypes());
+    }
+
+    /**
+     * Swap the parts depending on the egress spec at once, records received from now on are dispatched using the
+     * given parts, while records in-flight complete using the previous ones, which are closed once those records are
+     * handled.
+     *
+     * @param consumerVerticleContext context of the updated egress
+     * @param filter                  event filter
+     * @param subscriberSender        sender to trigger subscriber
+     * @param deadLetterSinkSender    sender to dead letter sink
+     * @param responseHandler         handler of the response from {@code subscriberSender}
+     * @param cloudEventMutator       mutator applied to events before dispatching them, if any
+     * @return a future completed once the previous parts are closed.
+     */
+    public Future<Void> update(
+            final ConsumerVerticleContext consumerVerticleContext,
+            final Filter filter,
+            final CloudEventSender subscriberSender,
+            final CloudEventSender deadLetterSinkSender,
+            final ResponseHandler responseHandler,
+            @Nullable final CloudEventMutator cloudEventMutator) {
+        final var next = new Target(
+                consumerVerticleContext,
+                filter,
+                subscriberSender,
+                deadLetterSinkSender,
+                responseHandler,
+                cloudEventMutator);
+        final Target previous;
+        synchronized (this) {
+            if (closed.get()) {
+                return next.retire();
+            }
+            previous = this.target;
+            this.target = next;
+        }
+
+        logger.info("Egress updated in place {}", consumerVerticleContext.getLoggingKeyValue());
 
-        this.noResponseResourceTags = this.consumerVerticleContext.getTags().and(NO_RESPONSE_CODE_CLASS_TAG);
+        return previous.retire();
     }
 
     /**
@@ -137,11 +228,16 @@ public class RecordDispatcherImpl implements RecordDispatcher {
      * @param record record to handle.
      */
     @Override
-    public Future<Void> dispatch(ConsumerRecord<Object, CloudEvent> record) {
+    public Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record) {
         if (closed.get()) {
             return Future.failedFuture("Dispatcher closed");
         }
 
+        final var target = acquireTarget();
+        return dispatch(record, target).onComplete(r -> target.release());
+    }
+
+    private Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record, final Target target) {
         /*
         That's pretty much what happens here:
 
@@ -163,6 +259,12 @@ public class RecordDispatcherImpl implements RecordDispatcher {
           |        |                       +-------------+----------> end
           +->end<--+
          */
+        if (recordDispatcherListener.isCompleted(record)) {
+            // The record has been handled by a previous owner of the partition.
+            logDebug("Skipping completed record", record);
+            return Future.succeededFuture();
+        }
+
         final var recordContext = new ConsumerRecordContext(record);
 
         if (record.value() instanceof InvalidCloudEvent) {
@@ -178,7 +280,7 @@ public class RecordDispatcherImpl implements RecordDispatcher {
 
         try {
             Promise<Void> promise = Promise.promise();
-            onRecordReceived(maybeDeserializeValueFromHeaders(recordContext), promise);
+            onRecordReceived(mutate(maybeDeserializeValueFromHeaders(recordContext), target), target, promise);
             return promise.future();
         } catch (final Exception ex) {
             // This is a fatal exception that shouldn't happen in normal cases.
@@ -196,7 +298,8 @@ public class RecordDispatcherImpl implements RecordDispatcher {
         }
     }
 
-    private void onRecordReceived(final ConsumerRecordContext recordContext, Promise<Void> finalProm) {
+    private void onRecordReceived(
+            final ConsumerRecordContext recordContext, final Target target, Promise<Void> finalProm) {
         recordReceived(recordContext);
 
         // Trace record received event
@@ -216,41 +319,62 @@ public class RecordDispatcherImpl implements RecordDispatcher {
 
         recordDispatcherListener.recordReceived(recordContext.getRecord());
         // Execute filtering
-        final var pass = filter.test(recordContext.getRecord().value());
+        final var pass = target.filter.test(recordContext.getEvent());
 
         if (meterRegistry != null) {
-            Metrics.eventProcessingLatency(getTags(recordContext))
-                    .register(meterRegistry)
-                    .record(recordContext.performLatency());
+            eventMeters.eventProcessingLatency(eventType(recordContext)).record(recordContext.performLatency());
         }
 
         // reset timer to start calculating the dispatch latency.
         recordContext.resetTimer();
 
         if (pass) {
-            onFilterMatching(recordContext, finalProm);
+            onFilterMatching(recordContext, target, finalProm);
         } else {
             onFilterNotMatching(recordContext, finalProm);
         }
     }
 
-    private void onFilterMatching(final ConsumerRecordContext recordContext, final Promise<Void> finalProm) {
-        logDebug("Record matched filtering", recordContext.getRecord());
-        subscriberSender
-                .apply(recordContext.getRecord())
+    private void onFilterMatching(
+            final ConsumerRecordContext recordContext, final Target target, final Promise<Void> finalProm) {
+        logDebug("Record matched filtering", recordContext);
+        if (target.subscriberBatcher != null) {
+            // Responses to batches are not handled as replies, they're dropped.
+            target.subscriberBatcher
+                    .add(recordContext.getEvent())
+                    .onSuccess(response -> onSubscriberSuccess(response, recordContext, finalProm))
+                    .onFailure(ex -> {
+                        // The batch failed as a whole, so we fall back to sending the event on its own, once the
+                        // subscriber is available again, which retries it and sends it to the dead letter sink if
+                        // it keeps failing.
+                        logDebug("Failed to send batch, sending record on its own", recordContext);
+                        target.subscriberBatchFallbackSender
+                                .apply(recordContext, ex)
+                                .onSuccess(response -> onSubscriberSuccess(response, recordContext, finalProm))
+                                .onFailure(cause -> onSubscriberFailure(cause, recordContext, target, finalProm));
+                    });
+            return;
+        }
+        sendToSubscriber(recordContext, target, finalProm);
+    }
+
+    private void sendToSubscriber(
+            final ConsumerRecordContext recordContext, final Target target, final Promise<Void> finalProm) {
+        target.subscriberSender
+                .apply(recordContext)
                 .onSuccess(response -> onSubscriberSuccess(response, recordContext, finalProm))
-                .onFailure(ex -> onSubscriberFailure(ex, recordContext, finalProm));
+                .onFailure(ex -> onSubscriberFailure(ex, recordContext, target, finalProm));
     }
 
     private void onFilterNotMatching(final ConsumerRecordContext recordContext, final Promise<Void> finalProm) {
-        logDebug("Record did not match filtering", recordContext.getRecord());
+        logDebug("Record did not match filtering", recordContext);
         recordDispatcherListener.recordDiscarded(recordContext.getRecord());
         finalProm.complete();
     }
 
     private void onSubscriberSuccess(
             final HttpResponse<?> response, final ConsumerRecordContext recordContext, final Promise<Void> finalProm) {
-        logDebug("Successfully sent event to subscriber", recordContext.getRecord());
+        logDebug("Successfully sent event to subscriber", recordContext);
 
         incrementEventCount(response, recordContext);
         recordDispatchLatency(response, recordContext);
@@ -260,7 +384,10 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     }
 
     private void onSubscriberFailure(
-            final Throwable failure, final ConsumerRecordContext recordContext, final Promise<Void> finalProm) {
+            final Throwable failure,
+            final ConsumerRecordContext recordContext,
+            final Target target,
+            final Promise<Void> finalProm) {
 
         var response = getResponse(failure);
         incrementEventCount(response, recordContext);
@@ -270,18 +397,52 @@ public class RecordDispatcherImpl implements RecordDispatcher {
             response = ((ResponseFailureException) failure).getResponse();
         }
 
+        if (retryTopic != null && retryTopic.shouldPark(recordContext.getRecord(), response)) {
+            parkForRetry(recordContext, response, target, finalProm);
+            return;
+        }
+
+        sendToDeadLetterSink(recordContext, response, target, finalProm);
+    }
+
+    private void parkForRetry(
+            final ConsumerRecordContext recordContext,
+            @Nullable final HttpResponse<?> response,
+            final Target target,
+            final Promise<Void> finalProm) {
+        retryTopic
+                .park(recordContext.getRecord(), recordContext.getEvent())
+                .onSuccess(v -> {
+                    logDebug("Parked record in retry topic", recordContext);
+                    recordDispatcherListener.parkedForRetry(recordContext.getRecord());
+                    finalProm.complete();
+                })
+                .onFailure(ex -> {
+                    logError(
+                            "Failed to park record in retry topic, sending it to the dead letter sink",
+                            recordContext,
+                            ex);
+                    sendToDeadLetterSink(recordContext, response, target, finalProm);
+                });
+    }
+
+    private void sendToDeadLetterSink(
+            final ConsumerRecordContext recordContext,
+            @Nullable final HttpResponse<?> response,
+            final Target target,
+            final Promise<Void> finalProm) {
         // enhance event with extension attributes prior to forwarding to the dead letter sink
-        final var transformedRecordContext = errorTransform(recordContext, response);
+        final var transformedRecordContext = errorTransform(recordContext, response, target);
 
-        dlsSender
-                .apply(transformedRecordContext.getRecord())
+        target.dlsSender
+                .apply(transformedRecordContext)
                 .onSuccess(v -> onDeadLetterSinkSuccess(transformedRecordContext, finalProm))
                 .onFailure(ex -> onDeadLetterSinkFailure(transformedRecordContext, ex, finalProm));
     }
 
     private ConsumerRecordContext errorTransform(
-            final ConsumerRecordContext recordContext, @Nullable final HttpResponse<?> response) {
-        final var destination = consumerVerticleContext.getEgress().getDestination();
+            final ConsumerRecordContext recordContext, @Nullable final HttpResponse<?> response, final Target target) {
+        final var destination = target.consumerVerticleContext.getEgress().getDestination();
         if (response == null) {
             // if response is null we still want to add destination
             return addExtensions(recordContext, Map.of(KN_ERROR_DEST_EXT_NAME, destination));
@@ -314,13 +475,10 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     // creates a new instance of ConsumerRecordContext with added extension attributes for underlying CloudEvent
     private ConsumerRecordContext addExtensions(
             final ConsumerRecordContext recordContext, final Map<String, String> extensions) {
-        final var cloudEvent = recordContext.getRecord().value();
-
-        final var builder = CloudEventBuilder.v1(cloudEvent);
-        extensions.forEach(builder::withExtension);
-        final var transformedCloudEvent = builder.build();
+        final var transformedCloudEvent = OverlayCloudEvent.of(recordContext.getEvent(), extensions);
 
-        final var cr = new ConsumerRecord<>(
+        // Listeners are notified with the record carrying the event sent to the dead letter sink.
+        final var cr = new ConsumerRecord<Object, CloudEvent>(
                 recordContext.getRecord().topic(),
                 recordContext.getRecord().partition(),
                 recordContext.getRecord().offset(),
@@ -337,7 +495,7 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     }
 
     private void onDeadLetterSinkSuccess(final ConsumerRecordContext recordContext, final Promise<Void> finalProm) {
-        logDebug("Successfully sent event to the dead letter sink", recordContext.getRecord());
+        logDebug("Successfully sent event to the dead letter sink", recordContext);
         recordDispatcherListener.successfullySentToDeadLetterSink(recordContext.getRecord());
         finalProm.complete();
     }
@@ -360,17 +518,32 @@ public class RecordDispatcherImpl implements RecordDispatcher {
         //
         // That means that we get a record with a null value and some CE
         // headers even though the record is a valid CloudEvent.
-        logDebug("Value is null", recordContext.getRecord());
+        logDebug("Value is null", recordContext);
         final var value = cloudEventDeserializer.deserialize(
                 recordContext.getRecord().topic(), recordContext.getRecord().headers(), null);
         recordContext.setRecord(KafkaConsumerRecordUtils.copyRecordAssigningValue(recordContext.getRecord(), value));
         return recordContext;
     }
 
-    private Function<ConsumerRecord<Object, CloudEvent>, Future<HttpResponse<?>>> composeSenderAndSinkHandler(
+    private ConsumerRecordContext mutate(final ConsumerRecordContext recordContext, final Target target) {
+        if (target.cloudEventMutator != null) {
+            // The record isn't copied, mutated events are only carried by the context.
+            recordContext.setEvent(target.cloudEventMutator.apply(recordContext.getRecord()));
+        }
+        return recordContext;
+    }
+
+    private Function<ConsumerRecordContext, Future<HttpResponse<?>>> composeSenderAndSinkHandler(
             CloudEventSender sender, ResponseHandler sinkHandler, String senderType) {
-        return rec -> sender.send(rec.value())
-                .onFailure(ex -> logError("Failed to send event to " + senderType, rec, ex))
+        return rec -> composeSinkHandler(sender.send(rec.getEvent()), rec, sinkHandler, senderType);
+    }
+
+    private Future<HttpResponse<?>> composeSinkHandler(
+            Future<HttpResponse<Buffer>> response,
+            ConsumerRecordContext rec,
+            ResponseHandler sinkHandler,
+            String senderType) {
+        return response.onFailure(ex -> logError("Failed to send event to " + senderType, rec, ex))
                 .compose(res -> sinkHandler
                         .handle(res)
                         .onFailure(ex -> logError("Failed to handle " + senderType + " response", rec, ex))
@@ -380,17 +553,15 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     private void incrementEventCount(
             @Nullable final HttpResponse<?> response, final ConsumerRecordContext recordContext) {
         if (meterRegistry != null) {
-            Metrics.eventCount(getTags(response, recordContext))
-                    .register(meterRegistry)
+            eventMeters
+                    .eventCount(eventType(recordContext), responseCode(response))
                     .increment();
         }
     }
 
     private void incrementDiscardedRecord(final ConsumerRecordContext recordContext) {
         if (meterRegistry != null) {
-            Metrics.discardedEventCount(getTags(recordContext))
-                    .register(meterRegistry)
-                    .increment();
+            eventMeters.discardedEventCount(eventType(recordContext)).increment();
         }
     }
 
@@ -400,8 +571,8 @@ public class RecordDispatcherImpl implements RecordDispatcher {
                 "Dispatch latency {} {}", consumerVerticleContext.getLoggingKeyValue(), keyValue("latency", latency));
 
         if (meterRegistry != null) {
-            Metrics.eventDispatchLatency(getTags(response, recordContext))
-                    .register(meterRegistry)
+            eventMeters
+                    .eventDispatchLatency(eventType(recordContext), responseCode(response))
                     .record(latency);
         }
     }
@@ -415,36 +586,32 @@ public class RecordDispatcherImpl implements RecordDispatcher {
         return null;
     }
 
-    private Tags getTags(HttpResponse<?> response, ConsumerRecordContext recordContext) {
-        Tags tags;
-        if (response == null) {
-            tags = this.noResponseResourceTags.and(Tag.of(
-                    Metrics.Tags.EVENT_TYPE, recordContext.getRecord().value().getType()));
-        } else {
-            tags = this.consumerVerticleContext
-                    .getTags()
-                    .and(
-                            Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, response.statusCode() / 100 + "xx"),
-                            Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(response.statusCode())),
-                            Tag.of(
-                                    Metrics.Tags.EVENT_TYPE,
-                                    recordContext.getRecord().value().getType()));
+    private static String eventType(final ConsumerRecordContext recordContext) {
+        if (recordContext.getEvent() instanceof InvalidCloudEvent) {
+            return INVALID_EVENT_TYPE;
         }
-        return tags;
+        return recordContext.getEvent().getType();
     }
 
-    private Tags getTags(final ConsumerRecordContext recordContext) {
-        if (recordContext.getRecord().value() instanceof InvalidCloudEvent) {
-            return this.consumerVerticleContext.getTags().and(INVALID_EVENT_TYPE_TAG);
-        }
-        return this.consumerVerticleContext
-                .getTags()
-                .and(Tag.of(
-                        Metrics.Tags.EVENT_TYPE,
-                        recordContext.getRecord().value().getType()));
+    private static int responseCode(@Nullable final HttpResponse<?> response) {
+        // When we don't have an HTTP response, due to other errors for networking, etc,
+        // we only add the code class tag in the "error" class (5xx).
+        return response == null ? EventMeters.NO_RESPONSE_CODE : response.statusCode();
+    }
+
+    private void logError(final String msg, final ConsumerRecordContext recordContext, final Throwable cause) {
+        logError(msg, recordContext.getRecord(), recordContext.getEvent(), cause);
     }
 
     private void logError(final String msg, final ConsumerRecord<Object, CloudEvent> record, final Throwable cause) {
+        logError(msg, record, record.value(), cause);
+    }
+
+    private void logError(
+            final String msg,
+            final ConsumerRecord<Object, CloudEvent> record,
+            final CloudEvent event,
+            final Throwable cause) {
 
         if (logger.isDebugEnabled()) {
             logger.error(
@@ -454,7 +621,7 @@ public class RecordDispatcherImpl implements RecordDispatcher {
                     keyValue("partition", record.partition()),
                     keyValue("offset", record.offset()),
                     keyValue("headers", record.headers()),
-                    keyValue("event", record.value()),
+                    keyValue("event", event),
                     cause);
         } else {
             logger.error(
@@ -467,7 +634,15 @@ public class RecordDispatcherImpl implements RecordDispatcher {
         }
     }
 
+    private void logDebug(final String msg, final ConsumerRecordContext recordContext) {
+        logDebug(msg, recordContext.getRecord(), recordContext.getEvent());
+    }
+
     private void logDebug(final String msg, final ConsumerRecord<Object, CloudEvent> record) {
+        logDebug(msg, record, record.value());
+    }
+
+    private void logDebug(final String msg, final ConsumerRecord<Object, CloudEvent> record, final CloudEvent event) {
 
         logger.debug(
                 msg + " {} {} {} {} {} {} {}",
@@ -477,7 +652,7 @@ public class RecordDispatcherImpl implements RecordDispatcher {
                 keyValue("headers", record.headers()),
                 keyValue("offset", record.offset()),
                 keyValue("key", record.key()),
-                keyValue("event", record.value()));
+                keyValue("event", event));
     }
 
     private ConsumerTracer.StartedSpan getStartedSpan(ConsumerRecordContext recordContext, Context context) {
@@ -488,7 +663,7 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     }
 
     private void recordHandlingCompleted(final ConsumerRecordContext recordContext) {
-        logDebug("Record handling completed", recordContext.getRecord());
+        logDebug("Record handling completed", recordContext);
         inFlightEvents.decrementAndGet();
         if (closed.get() && inFlightEvents.get() == 0) {
             closePromise.tryComplete();
@@ -496,16 +671,35 @@ public class RecordDispatcherImpl implements RecordDispatcher {
     }
 
     private void recordReceived(final ConsumerRecordContext recordContext) {
-        logDebug("Handling record", recordContext.getRecord());
+        logDebug("Handling record", recordContext);
         inFlightEvents.incrementAndGet();
     }
 
+    private Target acquireTarget() {
+        while (true) {
+            final var target = this.target;
+            target.inFlightEvents.incrementAndGet();
+            if (!target.retired) {
+                return target;
+            }
+            // The target has been swapped concurrently, pick up the new one.
+            target.release();
+        }
+    }
+
     public Future<Void> close() {
-        this.closed.set(true);
+        final Target target;
+        synchronized (this) {
+            this.closed.set(true);
+            target = this.target;
+        }
 
         Metrics.searchEgressMeters(
                         meterRegistry, consumerVerticleContext.getEgress().getReference())
                 .forEach(meterRegistry::remove);
+        if (eventMeters != null) {
+            eventMeters.clear();
+        }
 
         if (inFlightEvents.get() == 0) {
             closePromise.tryComplete();
@@ -513,8 +707,90 @@ public class RecordDispatcherImpl implements RecordDispatcher {
 
         return closePromise
                 .future()
+                .compose(v -> target.retire(), v -> target.retire())
                 .compose(v -> this.closeable.close(), v -> this.closeable.close())
                 .onComplete(
                         r -> logger.info("Record dispatcher closed {}", consumerVerticleContext.getLoggingKeyValue()));
     }
+
+    /**
+     * Parts of the dispatcher depending on the egress spec.
+     */
+    private final class Target {
+
+        private final ConsumerVerticleContext consumerVerticleContext;
+        private final Filter filter;
+        private final Function<ConsumerRecordContext, Future<HttpResponse<?>>> subscriberSender;
+        private final Function<ConsumerRecordContext, Future<HttpResponse<?>>> dlsSender;
+        // null when batch delivery is disabled.
+        private final CloudEventBatcher subscriberBatcher;
+        private final BiFunction<ConsumerRecordContext, Throwable, Future<HttpResponse<?>>>
+                subscriberBatchFallbackSender;
+        // null when there are no overrides.
+        private final CloudEventMutator cloudEventMutator;
+        private final AsyncCloseable closeable;
+
+        private final AtomicInteger inFlightEvents = new AtomicInteger(0);
+        private final Promise<Void> drained = Promise.promise();
+        private volatile boolean retired;
+        private Future<Void> retirement;
+
+        private Target(
+                final ConsumerVerticleContext consumerVerticleContext,
+                final Filter filter,
+                final CloudEventSender subscriberSender,
+                final CloudEventSender deadLetterSinkSender,
+                final ResponseHandler responseHandler,
+                @Nullable final CloudEventMutator cloudEventMutator) {
+            Objects.requireNonNull(consumerVerticleContext, "provide consumerVerticleContext");
+            Objects.requireNonNull(filter, "provide filter");
+            Objects.requireNonNull(subscriberSender, "provide subscriberSender");
+            Objects.requireNonNull(deadLetterSinkSender, "provide deadLetterSinkSender");
+            Objects.requireNonNull(responseHandler, "provide sinkResponseHandler");
+
+            this.consumerVerticleContext = consumerVerticleContext;
+            this.filter = filter;
+            this.subscriberSender = composeSenderAndSinkHandler(subscriberSender, responseHandler, "subscriber");
+            this.dlsSender = composeSenderAndSinkHandler(deadLetterSinkSender, responseHandler, "dead letter sink");
+            this.subscriberBatcher = CloudEventBatcher.isEnabled(
+                            consumerVerticleContext.getEgress(), consumerVerticleContext.getEgressConfig())
+                    ? new CloudEventBatcher(subscriberSender, consumerVerticleContext.getEgressConfig())
+                    : null;
+            this.subscriberBatchFallbackSender = (rec, batchFailure) -> composeSinkHandler(
+                    subscriberSender.sendAfterFailedBatch(rec.getEvent(), batchFailure),
+                    rec,
+                    responseHandler,
+                    "subscriber");
+            if (subscriberBatcher != null && !(responseHandler instanceof NoopResponseHandler)) {
+                logger.warn(
+                        "Batch delivery is enabled, replies of the subscriber to batches are dropped {}",
+                        consumerVerticleContext.getLoggingKeyValue());
+            }
+            this.cloudEventMutator = cloudEventMutator;
+            this.closeable = AsyncCloseable.compose(subscriberSender, deadLetterSinkSender, responseHandler);
+        }
+
+        private void release() {
+            if (inFlightEvents.decrementAndGet() == 0 && retired) {
+                drained.tryComplete();
+            }
+        }
+
+        /**
+         * Stop handing out this target and close it once the records in-flight are handled.
+         */
+        private synchronized Future<Void> retire() {
+            if (retirement == null) {
+                retired = true;
+                if (subscriberBatcher != null) {
+                    subscriberBatcher.flush();
+                }
+                if (inFlightEvents.get() == 0) {
+                    drained.tryComplete();
+                }
+                retirement = drained.future().compose(v -> closeable.close());
+            }
+            return retirement;
+        }
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaProducer;
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.http.WebClientCloudEventSender;
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.Future;
+import io.vertx.ext.web.client.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class parks events that failed to be delivered in the retry topic of an ordered trigger, so that the partition
+ * moves on instead of stalling for the whole retry schedule.
+ * <p>
+ * Parked records carry the number of the retry and the time at which they're due, and they're consumed by the same
+ * consumer as the trigger topics, which holds them back until they're due, see
+ * {@link #getDueTimeMs(ConsumerRecord)}. An event is parked again when the retry fails, until the retries configured
+ * in the delivery spec are exhausted, then it goes to the dead letter sink, if any.
+ * <p>
+ * Events that failed are delivered out of order with respect to the other events of the partition.
+ */
+public final class RetryTopic implements AsyncCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryTopic.class);
+
+    /**
+     * Consumer config to enable retry topics for ordered triggers, defaults to {@code false}.
+     * <p>
+     * The retry topic of a trigger is named after its consumer group, see {@link #topicName(ConsumerVerticleContext)},
+     * and it must exist, unless topics are created automatically.
+     */
+    public static final String ENABLED_CONFIG = "dispatcher.ordered.retry.topic.enabled";
+
+    static final String TOPIC_SUFFIX = "-retry";
+
+    static final String RETRY_HEADER = "kn-retry";
+    static final String DUE_TIME_HEADER = "kn-retry-due-ms";
+
+    private final String topic;
+    private final ReactiveKafkaProducer<String, CloudEvent> producer;
+    private final int maxRetries;
+    private final Function<Integer, Long> retryPolicy;
+    private final LongSupplier clockMs;
+    private final AsyncCloseable producerMeterBinder;
+
+    /**
+     * All args constructor.
+     *
+     * @param topic       retry topic.
+     * @param producer    producer of the retry topic.
+     * @param maxRetries  maximum number of retries of an event.
+     * @param retryPolicy delay of each retry.
+     * @param clockMs     wall clock, in milliseconds since the epoch.
+     */
+    public RetryTopic(
+            final String topic,
+            final ReactiveKafkaProducer<String, CloudEvent> producer,
+            final int maxRetries,
+            final Function<Integer, Long> retryPolicy,
+            final LongSupplier clockMs) {
+        this.topic = topic;
+        this.producer = producer;
+        this.maxRetries = maxRetries;
+        this.retryPolicy = retryPolicy;
+        this.clockMs = clockMs;
+        this.producerMeterBinder = Metrics.register(producer.unwrap());
+    }
+
+    /**
+     * @param context consumer verticle context.
+     * @return the retry topic of the trigger, or null when retry topics are disabled or the trigger isn't ordered.
+     */
+    @Nullable
+    public static String topicName(final ConsumerVerticleContext context) {
+        final var enabled = context.getConsumerConfigs().get(ENABLED_CONFIG);
+        if (enabled == null || !Boolean.parseBoolean(enabled.toString())) {
+            return null;
+        }
+        if (DeliveryOrder.fromContract(context.getEgress().getDeliveryOrder()) == DeliveryOrder.UNORDERED) {
+            return null;
+        }
+        return context.getEgress().getConsumerGroup() + TOPIC_SUFFIX;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * @param record   record that failed to be delivered.
+     * @param response response of the subscriber, if any.
+     * @return true when the record should be parked, that is when the failure is retryable and the retries of the
+     * record aren't exhausted.
+     */
+    public boolean shouldPark(final ConsumerRecord<?, ?> record, @Nullable final HttpResponse<?> response) {
+        if (response != null && !WebClientCloudEventSender.isRetryableStatusCode(response.statusCode())) {
+            return false;
+        }
+        return getRetry(record) < maxRetries;
+    }
+
+    /**
+     * Park the given record in the retry topic.
+     *
+     * @param record record that failed to be delivered.
+     * @param event  event of the record that failed to be delivered, which is the event that's parked.
+     * @return a future completed once the record is in the retry topic.
+     */
+    public Future<Void> park(final ConsumerRecord<?, ?> record, final CloudEvent event) {
+        final var retry = getRetry(record) + 1;
+        final var dueTimeMs = clockMs.getAsLong() + retryPolicy.apply(retry);
+
+        final var headers = new RecordHeaders();
+        headers.add(RETRY_HEADER, String.valueOf(retry).getBytes(StandardCharsets.UTF_8));
+        headers.add(DUE_TIME_HEADER, String.valueOf(dueTimeMs).getBytes(StandardCharsets.UTF_8));
+
+        // Keys that aren't strings can't be written by the producer, parked records are retried out of order anyway.
+        final var key = record.key() instanceof String k ? k : null;
+
+        logger.debug(
+                "Parking record in retry topic {} {} {} {} {}",
+                keyValue("topic", topic),
+                keyValue("retry", retry),
+                keyValue("dueTimeMs", dueTimeMs),
+                keyValue("sourceTopic", record.topic()),
+                keyValue("offset", record.offset()));
+
+        return producer.send(new ProducerRecord<>(topic, null, key, event, headers))
+                .mapEmpty();
+    }
+
+    /**
+     * @param record record.
+     * @return the time at which the given record is due, in milliseconds since the epoch, or 0 when the record isn't
+     * a parked record.
+     */
+    public static long getDueTimeMs(final ConsumerRecord<?, ?> record) {
+        return getLongHeader(record.headers(), DUE_TIME_HEADER);
+    }
+
+    static int getRetry(final ConsumerRecord<?, ?> record) {
+        return (int) getLongHeader(record.headers(), RETRY_HEADER);
+    }
+
+    private static long getLongHeader(final Headers headers, final String key) {
+        if (headers == null) {
+            return 0;
+        }
+        final var header = headers.lastHeader(key);
+        if (header == null || header.value() == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (final NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public Future<Void> close() {
+        return AsyncCloseable.compose(producerMeterBinder, producer::close).close();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements an AIMD (additive increase, multiplicative decrease) limit for the number of in-flight
+ * events of an egress.
+ * <p>
+ * The limit starts at the ceiling and it's multiplicatively decreased (at most once per round trip) when the
+ * subscriber signals that it's overloaded, that is when it replies with {@code 429} or {@code 5xx}, when it doesn't
+ * reply at all, or when the smoothed dispatch latency grows well above the lowest latency observed recently.
+ * Otherwise, the limit is additively increased by roughly one every {@code limit} samples, as long as the limit is
+ * actually used.
+ * <p>
+ * When the subscriber asks to back off for a period, with a {@code Retry-After} header, the limit is held at the
+ * floor for that period, see {@link #throttle(long)}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Consumer config to set the minimum number of in-flight events, defaults to {@link #DEFAULT_MIN_LIMIT}.
+     */
+    public static final String MIN_LIMIT_CONFIG = "dispatcher.concurrency.limit.min";
+
+    /**
+     * Consumer config to set the maximum number of in-flight events, defaults to {@code max.poll.records}.
+     */
+    public static final String MAX_LIMIT_CONFIG = "dispatcher.concurrency.limit.max";
+
+    static final int DEFAULT_MIN_LIMIT = 1;
+
+    static final double BACKOFF_RATIO = 0.9;
+    static final double LATENCY_TOLERANCE = 2.0;
+    static final long LATENCY_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final double LATENCY_EWMA_ALPHA = 0.1;
+    // The lowest latency is reset periodically, so that the limiter adapts to a subscriber whose "no load"
+    // latency changes over time.
+    private static final int MIN_LATENCY_WINDOW_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile double limit;
+    private volatile boolean throttled;
+    private volatile long throttledUntilNanos;
+
+    private double avgLatencyNanos = -1;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(final int minLimit, final int maxLimit) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("minLimit must be greater than 0, got " + minLimit);
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "maxLimit must be greater or equal to minLimit " + minLimit + ", got " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Create a limiter using the floor and the ceiling configured in the consumer configs of the given context.
+     *
+     * @param context consumer verticle context.
+     * @return a new limiter.
+     */
+    public static AdaptiveConcurrencyLimiter create(final ConsumerVerticleContext context) {
+        final var maxLimit = getConfig(context, MAX_LIMIT_CONFIG, context.getMaxPollRecords());
+        final var minLimit = Math.min(getConfig(context, MIN_LIMIT_CONFIG, DEFAULT_MIN_LIMIT), maxLimit);
+        return new AdaptiveConcurrencyLimiter(minLimit, maxLimit);
+    }
+
+    private static int getConfig(final ConsumerVerticleContext context, final String key, final int defaultValue) {
+        final var value = context.getConsumerConfigs().get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.toString());
+    }
+
+    /**
+     * @return the current maximum number of in-flight events.
+     */
+    public int getLimit() {
+        return getLimit(System.nanoTime());
+    }
+
+    int getLimit(final long nowNanos) {
+        if (isThrottled(nowNanos)) {
+            return minLimit;
+        }
+        return (int) limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Record the outcome of a request to the subscriber.
+     *
+     * @param latencyNanos latency of the request.
+     * @param statusCode   response status code or a negative value when no response has been received.
+     * @param inFlight     number of in-flight requests when the request completed.
+     */
+    public void onSample(final long latencyNanos, final int statusCode, final int inFlight) {
+        onSample(System.nanoTime(), latencyNanos, statusCode, inFlight);
+    }
+
+    /**
+     * Hold the limit at the floor for the given period, the limit grows back additively afterwards.
+     *
+     * @param durationMs how long the subscriber asked to back off.
+     */
+    public void throttle(final long durationMs) {
+        throttle(System.nanoTime(), durationMs);
+    }
+
+    synchronized void throttle(final long nowNanos, final long durationMs) {
+        final var untilNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(durationMs, 0));
+        if (!throttled || untilNanos - throttledUntilNanos > 0) {
+            throttledUntilNanos = untilNanos;
+            throttled = true;
+        }
+        limit = minLimit;
+    }
+
+    private boolean isThrottled(final long nowNanos) {
+        return throttled && nowNanos - throttledUntilNanos < 0;
+    }
+
+    synchronized void onSample(final long nowNanos, final long latencyNanos, final int statusCode, final int inFlight) {
+        final boolean overloaded = isOverloaded(statusCode);
+        if (!overloaded) {
+            recordLatency(latencyNanos);
+        }
+
+        if (overloaded || isLatencyDegraded()) {
+            // Decrease at most once per round trip, requests that are already in-flight have been sent with the
+            // previous limit and would otherwise decrease the limit multiple times for the same overload.
+            if (!decreased || nowNanos - lastDecreaseNanos >= Math.max(latencyNanos, (long) avgLatencyNanos)) {
+                decreased = true;
+                lastDecreaseNanos = nowNanos;
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            }
+            return;
+        }
+
+        // Don't grow the limit while throttled, or if we aren't using it.
+        if (!isThrottled(nowNanos) && inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private void recordLatency(final long latencyNanos) {
+        if (avgLatencyNanos < 0) {
+            avgLatencyNanos = latencyNanos;
+        } else {
+            avgLatencyNanos = LATENCY_EWMA_ALPHA * latencyNanos + (1 - LATENCY_EWMA_ALPHA) * avgLatencyNanos;
+        }
+
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+        if (++windowSamples >= MIN_LATENCY_WINDOW_SAMPLES) {
+            minLatencyNanos = windowMinLatencyNanos;
+            windowMinLatencyNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    private boolean isLatencyDegraded() {
+        return minLatencyNanos != Long.MAX_VALUE
+                && avgLatencyNanos > minLatencyNanos * LATENCY_TOLERANCE
+                && avgLatencyNanos - minLatencyNanos > LATENCY_SLACK_NANOS;
+    }
+
+    static boolean isOverloaded(final int statusCode) {
+        return statusCode < 0 || statusCode == 429 || statusCode >= 500;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter{" + "minLimit="
+                + minLimit + ", maxLimit="
+                + maxLimit + ", limit="
+                + limit + ", throttled="
+                + isThrottled(System.nanoTime()) + '}';
+    }
+}
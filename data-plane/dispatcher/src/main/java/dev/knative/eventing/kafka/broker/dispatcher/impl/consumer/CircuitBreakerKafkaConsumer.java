@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class pauses every assigned partition of the wrapped consumer while the {@link SubscriberCircuitBreaker} is
+ * open, and it resumes them gradually while the circuit is half-open: one partition at first, then the number of
+ * resumed partitions doubles with every successful probe, until the circuit closes.
+ * <p>
+ * Partitions paused by the circuit breaker stay paused even when other components, for example, the
+ * {@link OffsetManager} or the executors of an {@link OrderedConsumerVerticle}, resume them, and they're resumed by
+ * the circuit breaker only when they aren't paused by other components.
+ */
+public final class CircuitBreakerKafkaConsumer<K, V>
+        implements ReactiveKafkaConsumer<K, V>, SubscriberCircuitBreaker.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerKafkaConsumer.class);
+
+    private final ReactiveKafkaConsumer<K, V> consumer;
+
+    private final Set<TopicPartition> assigned;
+    // Partitions paused by other components.
+    private final Set<TopicPartition> paused;
+    // Partitions paused by the circuit breaker.
+    private final Set<TopicPartition> breakerPaused;
+    private boolean pausing;
+    private int released;
+
+    public CircuitBreakerKafkaConsumer(final ReactiveKafkaConsumer<K, V> consumer) {
+        this.consumer = consumer;
+        this.assigned = new LinkedHashSet<>();
+        this.paused = new HashSet<>();
+        this.breakerPaused = new LinkedHashSet<>();
+    }
+
+    @Override
+    public synchronized void onOpen() {
+        pausing = true;
+        released = 0;
+        breakerPaused.addAll(assigned);
+        logger.info("Pausing partitions {}", keyValue("partitions", breakerPaused));
+        pause0(breakerPaused);
+    }
+
+    @Override
+    public synchronized void onHalfOpen() {
+        release(1);
+    }
+
+    @Override
+    public synchronized void onProbeSucceeded() {
+        release(Math.max(released, 1));
+    }
+
+    @Override
+    public synchronized void onClose() {
+        pausing = false;
+        release(breakerPaused.size());
+    }
+
+    private void release(final int n) {
+        final var toResume = new ArrayList<TopicPartition>(Math.min(n, breakerPaused.size()));
+        final var it = breakerPaused.iterator();
+        while (it.hasNext() && toResume.size() < n) {
+            final var tp = it.next();
+            it.remove();
+            released++;
+            if (!paused.contains(tp)) {
+                toResume.add(tp);
+            }
+        }
+        if (!toResume.isEmpty()) {
+            logger.info("Resuming partitions {}", keyValue("partitions", toResume));
+            resume0(toResume);
+        }
+    }
+
+    @Override
+    public synchronized Future<Void> pause(final Collection<TopicPartition> partitions) {
+        paused.addAll(partitions);
+        return consumer.pause(partitions);
+    }
+
+    @Override
+    public synchronized Future<Void> resume(final Collection<TopicPartition> partitions) {
+        paused.removeAll(partitions);
+        if (breakerPaused.isEmpty()) {
+            return consumer.resume(partitions);
+        }
+        final var toResume = new ArrayList<TopicPartition>(partitions.size());
+        for (final var tp : partitions) {
+            if (!breakerPaused.contains(tp)) {
+                toResume.add(tp);
+            }
+        }
+        if (toResume.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        return consumer.resume(toResume);
+    }
+
+    @Override
+    public Future<Void> subscribe(final Collection<String> topics, final ConsumerRebalanceListener listener) {
+        return consumer.subscribe(topics, new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+                synchronized (CircuitBreakerKafkaConsumer.this) {
+                    assigned.removeAll(partitions);
+                    paused.removeAll(partitions);
+                    breakerPaused.removeAll(partitions);
+                }
+                listener.onPartitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+                synchronized (CircuitBreakerKafkaConsumer.this) {
+                    assigned.addAll(partitions);
+                    if (pausing) {
+                        breakerPaused.addAll(partitions);
+                        pause0(partitions);
+                    }
+                }
+                listener.onPartitionsAssigned(partitions);
+            }
+        });
+    }
+
+    private void pause0(final Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        consumer.pause(List.copyOf(partitions))
+                .onFailure(cause -> logger.warn("Failed to pause partitions {}", keyValue("partitions", partitions)));
+    }
+
+    private void resume0(final Collection<TopicPartition> partitions) {
+        consumer.resume(partitions)
+                .onFailure(cause -> logger.warn("Failed to resume partitions {}", keyValue("partitions", partitions)));
+    }
+
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> commit(final Map<TopicPartition, OffsetAndMetadata> offset) {
+        return consumer.commit(offset);
+    }
+
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(final Set<TopicPartition> partitions) {
+        return consumer.committed(partitions);
+    }
+
+    @Override
+    public Future<Void> close() {
+        return consumer.close();
+    }
+
+    @Override
+    public Future<ConsumerRecords<K, V>> poll(final Duration timeout) {
+        return consumer.poll(timeout);
+    }
+
+    @Override
+    public Future<Void> subscribe(final Collection<String> topics) {
+        return consumer.subscribe(topics);
+    }
+
+    @Override
+    public Consumer<K, V> unwrap() {
+        return consumer.unwrap();
+    }
+
+    @Override
+    public ReactiveKafkaConsumer<K, V> exceptionHandler(final Handler<Throwable> handler) {
+        consumer.exceptionHandler(handler);
+        return this;
+    }
+}
@@ -38,7 +38,14 @@ public class CloudEventDeserializer implements Deserializer<CloudEvent> {
 
     public static final String INVALID_CE_WRAPPER_ENABLED = "cloudevent.invalid.transformer.enabled";
 
+    /**
+     * Config to deserialize records in the binary content mode into a {@link LazyCloudEvent}, defaults to
+     * {@code false}.
+     */
+    public static final String LAZY_BINARY_ENABLED = "cloudevent.lazy.binary.enabled";
+
     private final io.cloudevents.kafka.CloudEventDeserializer internalDeserializer;
+    private boolean lazyBinary;
 
     public CloudEventDeserializer() {
         internalDeserializer = new io.cloudevents.kafka.CloudEventDeserializer();
@@ -53,6 +60,11 @@ public class CloudEventDeserializer implements Deserializer<CloudEvent> {
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
         internalDeserializer.configure(configs, isKey);
+        final var lazy = configs.get(LAZY_BINARY_ENABLED);
+        lazyBinary = lazy != null && Boolean.parseBoolean(lazy.toString());
+        if (lazyBinary) {
+            logger.info("Lazy deserialization of binary CloudEvents enabled");
+        }
     }
 
     @Override
@@ -73,6 +85,12 @@ public class CloudEventDeserializer implements Deserializer<CloudEvent> {
     @Override
     public CloudEvent deserialize(final String topic, final Headers headers, byte[] data) {
         try {
+            if (lazyBinary) {
+                final var lazy = LazyCloudEvent.of(headers, data);
+                if (lazy != null) {
+                    return lazy;
+                }
+            }
             return internalDeserializer.deserialize(topic, headers, data);
         } catch (final Throwable ignored) {
             return new InvalidCloudEvent(data);
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import io.cloudevents.CloudEvent;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * The {@link CloudEventInterceptor} is a {@link ConsumerInterceptor} that applies {@link NullCloudEventInterceptor}
+ * and {@link InvalidCloudEventInterceptor} in a single pass over the records.
+ * <p>
+ * Records are copied only when their value needs to be fixed, and the polled records are returned as they are when no
+ * record needs to be fixed.
+ */
+public class CloudEventInterceptor implements ConsumerInterceptor<Object, CloudEvent> {
+
+    private final InvalidCloudEventInterceptor invalidCloudEventInterceptor = new InvalidCloudEventInterceptor();
+
+    @Override
+    public void configure(final Map<String, ?> configs) {
+        invalidCloudEventInterceptor.configure(configs);
+    }
+
+    @Override
+    public ConsumerRecords<Object, CloudEvent> onConsume(final ConsumerRecords<Object, CloudEvent> records) {
+        return KafkaConsumerRecordUtils.mapRecords(records, this::validRecord);
+    }
+
+    @Override
+    public void onCommit(final Map<TopicPartition, OffsetAndMetadata> offsets) {
+        // Intentionally left blank.
+    }
+
+    @Override
+    public void close() {
+        // Intentionally left blank.
+    }
+
+    private ConsumerRecord<Object, CloudEvent> validRecord(final ConsumerRecord<Object, CloudEvent> record) {
+        return invalidCloudEventInterceptor.validRecord(NullCloudEventInterceptor.maybeDeserializeRecord(record));
+    }
+}
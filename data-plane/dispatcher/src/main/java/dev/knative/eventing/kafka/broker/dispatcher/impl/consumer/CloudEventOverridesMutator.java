@@ -18,7 +18,7 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import dev.knative.eventing.kafka.broker.dispatcher.CloudEventMutator;
 import io.cloudevents.CloudEvent;
-import io.cloudevents.core.builder.CloudEventBuilder;
+import java.util.LinkedHashMap;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 /**
@@ -35,18 +35,11 @@ public class CloudEventOverridesMutator implements CloudEventMutator {
 
     @Override
     public CloudEvent apply(ConsumerRecord<Object, CloudEvent> record) {
-        final var builder = CloudEventBuilder.from(record.value());
-        applyKafkaMetadata(builder, record.partition(), record.offset());
-        applyCloudEventOverrides(builder);
-        return builder.build();
-    }
-
-    private void applyCloudEventOverrides(CloudEventBuilder builder) {
-        cloudEventOverrides.getExtensionsMap().forEach(builder::withExtension);
-    }
-
-    private void applyKafkaMetadata(CloudEventBuilder builder, Number partition, Number offset) {
-        builder.withExtension("knativekafkapartition", partition);
-        builder.withExtension("knativekafkaoffset", offset);
+        // Extensions are added with an overlay, so that the event isn't copied for every record.
+        final var extensions = new LinkedHashMap<String, Object>();
+        extensions.put("knativekafkapartition", record.partition());
+        extensions.put("knativekafkaoffset", record.offset());
+        extensions.putAll(cloudEventOverrides.getExtensionsMap());
+        return OverlayCloudEvent.of(record.value(), extensions);
     }
 }
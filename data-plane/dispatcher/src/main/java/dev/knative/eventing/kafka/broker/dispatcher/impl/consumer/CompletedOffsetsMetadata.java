@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import java.util.BitSet;
+import java.util.function.LongPredicate;
+
+/**
+ * This class encodes the offsets completed above a committed offset into the metadata of the commit, so that the
+ * next owner of the partition doesn't deliver them again.
+ * <p>
+ * The committed offset itself is never completed, so the metadata describes the offsets after it as alternating
+ * lengths of runs of not completed and completed offsets, in base 36, for example:
+ *
+ * <pre>
+ *  committed offset 10, completed offsets 12, 13, 17
+ *
+ *  offsets   11 | 12 13 | 14 15 16 | 17
+ *  runs       1 |   2   |    3     |  1    --> "kc1:1.2.3.1"
+ * </pre>
+ */
+final class CompletedOffsetsMetadata {
+
+    static final String PREFIX = "kc1:";
+
+    private static final char SEPARATOR = '.';
+    private static final int RADIX = 36;
+
+    private CompletedOffsetsMetadata() {}
+
+    /**
+     * @param committed   committed offset.
+     * @param last        last offset to consider.
+     * @param isCompleted predicate returning true when the given offset is completed.
+     * @param maxLength   maximum length of the metadata, runs that don't fit are left out, so that those offsets are
+     *                    delivered again.
+     * @return the metadata or an empty string when there are no completed offsets after the committed offset.
+     */
+    static String encode(final long committed, final long last, final LongPredicate isCompleted, final int maxLength) {
+        if (last <= committed || maxLength <= PREFIX.length()) {
+            return "";
+        }
+
+        final var sb = new StringBuilder(PREFIX);
+        var runStart = committed + 1;
+        var completed = false;
+        var hasCompleted = false;
+        for (long offset = committed + 1; offset <= last + 1; offset++) {
+            // last + 1 closes the last run.
+            final var isOffsetCompleted = offset <= last && isCompleted.test(offset);
+            if (isOffsetCompleted == completed && offset <= last) {
+                continue;
+            }
+            if (!completed && offset > last) {
+                // Trailing not completed offsets don't need to be encoded.
+                break;
+            }
+
+            final var run = Long.toString(offset - runStart, RADIX);
+            if (sb.length() + run.length() + 1 > maxLength) {
+                break;
+            }
+            if (sb.length() > PREFIX.length()) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(run);
+
+            hasCompleted |= completed;
+            completed = isOffsetCompleted;
+            runStart = offset;
+        }
+
+        if (!hasCompleted) {
+            return "";
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param metadata   commit metadata.
+     * @param maxOffsets maximum number of offsets after the committed offset to decode.
+     * @return the completed offsets after the committed offset, bit {@code i} is set when offset
+     * {@code committed + 1 + i} is completed, or null when the metadata doesn't contain completed offsets.
+     */
+    static BitSet decode(final String metadata, final int maxOffsets) {
+        if (metadata == null || !metadata.startsWith(PREFIX)) {
+            return null;
+        }
+
+        final var completed = new BitSet();
+        try {
+            var position = 0L;
+            var isCompletedRun = false;
+            var start = PREFIX.length();
+            while (start < metadata.length() && position < maxOffsets) {
+                var end = metadata.indexOf(SEPARATOR, start);
+                if (end < 0) {
+                    end = metadata.length();
+                }
+                final var run = Long.parseLong(metadata, start, end, RADIX);
+                if (run < 0) {
+                    return null;
+                }
+                // position + run might overflow.
+                final var runEnd = run >= maxOffsets - position ? maxOffsets : position + run;
+                if (isCompletedRun) {
+                    completed.set((int) position, (int) runEnd);
+                }
+                position = runEnd;
+                isCompletedRun = !isCompletedRun;
+                start = end + 1;
+            }
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+
+        return completed.isEmpty() ? null : completed;
+    }
+}
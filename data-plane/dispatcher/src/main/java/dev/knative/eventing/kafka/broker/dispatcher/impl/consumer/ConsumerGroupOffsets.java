@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.GroupNotEmptyException;
+import org.apache.kafka.common.errors.RebalanceInProgressException;
+import org.apache.kafka.common.errors.UnknownMemberIdException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class reads and commits the offsets of arbitrary consumer groups using the Kafka admin client.
+ * <p>
+ * It allows a single consumer to track the progress of several consumer groups, as long as those groups don't have
+ * active members, since Kafka rejects offset commits for groups with active members from clients that aren't members
+ * of the group.
+ * <p>
+ * Commits rejected because a group has active members are retried for that group only, for example, while the
+ * consumer of a trigger that just started sharing the fetch is leaving its group.
+ */
+public final class ConsumerGroupOffsets implements AsyncCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerGroupOffsets.class);
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+    static final int COMMIT_MAX_ATTEMPTS = 5;
+    static final long COMMIT_RETRY_BACKOFF_MS = 500;
+
+    private final Vertx vertx;
+    private final Admin admin;
+    private final long retryBackoffMs;
+    // consumer group -> sequence number of the last commit
+    private final Map<String, Long> commitSequences;
+
+    public ConsumerGroupOffsets(final Vertx vertx, final Admin admin) {
+        this(vertx, admin, COMMIT_RETRY_BACKOFF_MS);
+    }
+
+    ConsumerGroupOffsets(final Vertx vertx, final Admin admin, final long retryBackoffMs) {
+        Objects.requireNonNull(vertx, "provide vertx");
+        Objects.requireNonNull(admin, "provide admin");
+
+        this.vertx = vertx;
+        this.admin = admin;
+        this.retryBackoffMs = retryBackoffMs;
+        this.commitSequences = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the committed offsets of the given consumer group.
+     *
+     * @param consumerGroup consumer group.
+     * @return the committed offsets, partitions without committed offsets aren't part of the returned map.
+     */
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(final String consumerGroup) {
+        return toFuture(admin.listConsumerGroupOffsets(consumerGroup).partitionsToOffsetAndMetadata())
+                .map(offsets -> {
+                    final var committed = new HashMap<TopicPartition, OffsetAndMetadata>(offsets.size());
+                    offsets.forEach((tp, offset) -> {
+                        if (offset != null) {
+                            committed.put(tp, offset);
+                        }
+                    });
+                    return committed;
+                });
+    }
+
+    /**
+     * Commit the given offsets for the given consumer group.
+     * <p>
+     * When the group has active members, the commit is retried with an exponential backoff up to
+     * {@link #COMMIT_MAX_ATTEMPTS} times, unless a later commit for the same group supersedes it.
+     *
+     * @param consumerGroup consumer group.
+     * @param offsets       offsets to commit.
+     * @return a future that completes when the offsets are committed.
+     */
+    public Future<Void> commit(final String consumerGroup, final Map<TopicPartition, OffsetAndMetadata> offsets) {
+        final long sequence = commitSequences.merge(consumerGroup, 1L, Long::sum);
+        return commit(consumerGroup, offsets, sequence, 1);
+    }
+
+    private Future<Void> commit(
+            final String consumerGroup,
+            final Map<TopicPartition, OffsetAndMetadata> offsets,
+            final long sequence,
+            final int attempt) {
+        return toFuture(admin.alterConsumerGroupOffsets(consumerGroup, offsets).all())
+                .recover(cause -> {
+                    if (attempt >= COMMIT_MAX_ATTEMPTS
+                            || !isGroupNotEmpty(cause)
+                            || isSuperseded(consumerGroup, sequence)) {
+                        return Future.failedFuture(cause);
+                    }
+                    final long delay = retryBackoffMs << (attempt - 1);
+                    logger.debug(
+                            "Consumer group has active members, retrying commit {} {} {}",
+                            keyValue("group", consumerGroup),
+                            keyValue("attempt", attempt),
+                            keyValue("delay", delay));
+
+                    final Promise<Void> promise = Promise.promise();
+                    vertx.setTimer(delay, v -> {
+                        if (isSuperseded(consumerGroup, sequence)) {
+                            promise.fail(cause);
+                        } else {
+                            commit(consumerGroup, offsets, sequence, attempt + 1)
+                                    .onComplete(promise);
+                        }
+                    });
+                    return promise.future();
+                });
+    }
+
+    private boolean isSuperseded(final String consumerGroup, final long sequence) {
+        return commitSequences.getOrDefault(consumerGroup, sequence) != sequence;
+    }
+
+    static boolean isGroupNotEmpty(Throwable cause) {
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof UnknownMemberIdException
+                || cause instanceof GroupNotEmptyException
+                || cause instanceof RebalanceInProgressException;
+    }
+
+    private static <T> Future<T> toFuture(final KafkaFuture<T> kafkaFuture) {
+        final Promise<T> promise = Promise.promise();
+        kafkaFuture.whenComplete((result, cause) -> {
+            if (cause != null) {
+                promise.fail(cause);
+            } else {
+                promise.complete(result);
+            }
+        });
+        return promise.future();
+    }
+
+    @Override
+    public Future<Void> close() {
+        // Closing the admin client blocks until pending requests complete or the timeout expires.
+        return vertx.executeBlocking(promise -> {
+            admin.close(CLOSE_TIMEOUT);
+            promise.complete();
+        });
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class runs a bounded number of poller threads, each one servicing many Kafka consumers in round-robin, instead
+ * of a thread per consumer.
+ * <p>
+ * Pollers never block on a single consumer: pending polls are served with non-blocking polls, see
+ * {@link MultiplexedKafkaConsumer}, and a poller parks for the idle interval only when none of its consumers made
+ * progress in a round, or until a consumer wakes it up with a new operation.
+ */
+public final class ConsumerPollerPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerPollerPool.class);
+
+    public static final long DEFAULT_IDLE_MS = 10;
+
+    private static final ThreadLocal<Boolean> POLLER_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final List<Poller> pollers;
+
+    /**
+     * @param threads number of poller threads.
+     * @param idleMs  how long pollers park when none of their consumers made progress.
+     */
+    public ConsumerPollerPool(final int threads, final long idleMs) {
+        this(threads, idleMs, pollerThreadFactory());
+    }
+
+    /**
+     * @param threads       number of poller threads.
+     * @param idleMs        how long pollers park when none of their consumers made progress.
+     * @param threadFactory factory of poller threads, for example, a factory of virtual threads.
+     */
+    public ConsumerPollerPool(final int threads, final long idleMs, final ThreadFactory threadFactory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be greater than 0, got " + threads);
+        }
+        if (idleMs <= 0) {
+            throw new IllegalArgumentException("idleMs must be greater than 0, got " + idleMs);
+        }
+        this.pollers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final var poller = new Poller(TimeUnit.MILLISECONDS.toNanos(idleMs), threadFactory);
+            this.pollers.add(poller);
+            poller.thread.start();
+        }
+    }
+
+    /**
+     * Register the given consumer to the poller servicing the least number of consumers.
+     *
+     * @param vertx    Vert.x instance, futures of the returned consumer are completed on the context of the caller.
+     * @param consumer Kafka consumer.
+     * @return a reactive consumer serviced by this pool.
+     */
+    public synchronized <K, V> MultiplexedKafkaConsumer<K, V> register(
+            final Vertx vertx, final Consumer<K, V> consumer) {
+        var poller = pollers.get(0);
+        for (final var p : pollers) {
+            if (p.consumers.size() < poller.consumers.size()) {
+                poller = p;
+            }
+        }
+        final var multiplexed = new MultiplexedKafkaConsumer<>(vertx, consumer, poller);
+        poller.consumers.add(multiplexed);
+
+        logger.debug(
+                "Registered consumer {} {}",
+                keyValue("poller", poller.thread.getName()),
+                keyValue("consumers", poller.consumers.size()));
+
+        return multiplexed;
+    }
+
+    /**
+     * @return the number of poller threads.
+     */
+    public int size() {
+        return pollers.size();
+    }
+
+    /**
+     * @return the number of consumers serviced by this pool.
+     */
+    public int consumers() {
+        return pollers.stream().mapToInt(p -> p.consumers.size()).sum();
+    }
+
+    /**
+     * Stop the poller threads, consumers serviced by this pool must be closed first.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (final var poller : pollers) {
+            poller.closed = true;
+            poller.wakeUp();
+        }
+        for (final var poller : pollers) {
+            poller.thread.join();
+        }
+    }
+
+    /**
+     * @return whether the current thread is a poller thread, for example, when a rebalance listener is called, in that
+     * case the caller must not wait for operations of other consumers of the poller.
+     */
+    public static boolean isPollerThread() {
+        return POLLER_THREAD.get();
+    }
+
+    private static ThreadFactory pollerThreadFactory() {
+        final var counter = new AtomicInteger();
+        return r -> {
+            final var thread = new Thread(r, "kafka-consumer-poller-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static final class Poller implements Runnable {
+
+        private final List<MultiplexedKafkaConsumer<?, ?>> consumers;
+        private final long idleNanos;
+        private final Thread thread;
+        private volatile boolean closed;
+
+        private Poller(final long idleNanos, final ThreadFactory threadFactory) {
+            this.consumers = new CopyOnWriteArrayList<>();
+            this.idleNanos = idleNanos;
+            this.thread = threadFactory.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            POLLER_THREAD.set(true);
+            while (!closed) {
+                var progress = false;
+                for (final var consumer : consumers) {
+                    try {
+                        progress |= consumer.runOnce();
+                    } catch (final Throwable t) {
+                        consumer.onError(t);
+                    }
+                }
+                if (!progress) {
+                    LockSupport.parkNanos(this, idleNanos);
+                }
+            }
+        }
+
+        void wakeUp() {
+            LockSupport.unpark(thread);
+        }
+
+        boolean isCurrentThread() {
+            return Thread.currentThread() == thread;
+        }
+
+        void remove(final MultiplexedKafkaConsumer<?, ?> consumer) {
+            consumers.remove(consumer);
+        }
+    }
+}
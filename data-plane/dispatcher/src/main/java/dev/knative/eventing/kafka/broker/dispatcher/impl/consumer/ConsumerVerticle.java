@@ -17,6 +17,7 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 
 import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
 import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
@@ -26,6 +27,7 @@ import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +46,7 @@ public abstract class ConsumerVerticle extends AbstractVerticle {
     ConsumerRebalanceListener consumerRebalanceListener;
     RecordDispatcher recordDispatcher;
     private AsyncCloseable closeable;
+    private volatile Function<EgressContext, Future<Void>> egressUpdater;
 
     public ConsumerVerticle(final ConsumerVerticleContext consumerVerticleContext, final Initializer initializer) {
         Objects.requireNonNull(consumerVerticleContext);
@@ -91,6 +94,33 @@ public abstract class ConsumerVerticle extends AbstractVerticle {
         this.consumerRebalanceListener = consumerRebalanceListener;
     }
 
+    public void setEgressUpdater(Function<EgressContext, Future<Void>> egressUpdater) {
+        this.egressUpdater = egressUpdater;
+    }
+
+    /**
+     * Apply the given egress to the running consumer, without tearing it down.
+     *
+     * @param egressContext updated egress.
+     * @return a future failed when the update can't be applied in place, in which case the verticle must be
+     * re-deployed.
+     */
+    public Future<Void> updateEgress(final EgressContext egressContext) {
+        final var updater = this.egressUpdater;
+        if (updater == null || context == null) {
+            return Future.failedFuture(new IllegalStateException("Consumer doesn't support in-place updates"));
+        }
+        final Promise<Void> promise = Promise.promise();
+        context.runOnContext(v -> {
+            try {
+                updater.apply(egressContext).onComplete(promise);
+            } catch (final Exception ex) {
+                promise.tryFail(ex);
+            }
+        });
+        return promise.future();
+    }
+
     void exceptionHandler(Throwable cause) {
         logger.error("Consumer exception {}", consumerVerticleContext.getLoggingKeyValue(), cause);
 
@@ -27,9 +27,6 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -100,20 +97,10 @@ public class InvalidCloudEventInterceptor implements ConsumerInterceptor<Object,
 
     @Override
     public ConsumerRecords<Object, CloudEvent> onConsume(final ConsumerRecords<Object, CloudEvent> records) {
-        if (!this.isEnabled || records == null || records.isEmpty()) {
+        if (!this.isEnabled) {
             return records;
         }
-
-        final Map<TopicPartition, List<ConsumerRecord<Object, CloudEvent>>> validRecords =
-                new HashMap<>(records.count());
-        for (final var record : records) {
-            final var tp = new TopicPartition(record.topic(), record.partition());
-            if (!validRecords.containsKey(tp)) {
-                validRecords.put(tp, new ArrayList<>());
-            }
-            validRecords.get(tp).add(validRecord(record));
-        }
-        return new ConsumerRecords<>(validRecords);
+        return KafkaConsumerRecordUtils.mapRecords(records, this::validRecord);
     }
 
     @Override
@@ -133,8 +120,12 @@ public class InvalidCloudEventInterceptor implements ConsumerInterceptor<Object,
         return null;
     }
 
-    private ConsumerRecord<Object, CloudEvent> validRecord(final ConsumerRecord<Object, CloudEvent> record) {
-        if (!(record.value() instanceof InvalidCloudEvent)) {
+    /**
+     * @return the given record, or a copy of it with a valid CloudEvent when its value is an {@link InvalidCloudEvent}
+     * and this interceptor is enabled.
+     */
+    ConsumerRecord<Object, CloudEvent> validRecord(final ConsumerRecord<Object, CloudEvent> record) {
+        if (!this.isEnabled || !(record.value() instanceof InvalidCloudEvent)) {
             return record; // Valid CloudEvent
         }
 
@@ -16,7 +16,14 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 
 import io.cloudevents.CloudEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 
 public final class KafkaConsumerRecordUtils {
 
@@ -37,4 +44,51 @@ public final class KafkaConsumerRecordUtils {
                 record.headers(),
                 record.leaderEpoch());
     }
+
+    /**
+     * Apply the given function to every record of the given batch in a single pass.
+     * <p>
+     * The given batch is returned as it is when the function returns every record as it is, which is the common case,
+     * otherwise only the partitions with records that changed are copied.
+     *
+     * @param records  batch of records.
+     * @param function function returning either the given record or a copy of it.
+     * @return the batch of records returned by the function.
+     */
+    public static <K, V> ConsumerRecords<K, V> mapRecords(
+            final ConsumerRecords<K, V> records, final UnaryOperator<ConsumerRecord<K, V>> function) {
+        if (records == null || records.isEmpty()) {
+            return records;
+        }
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> mapped = null;
+        for (final var tp : records.partitions()) {
+            final var partitionRecords = records.records(tp);
+            List<ConsumerRecord<K, V>> mappedPartition = null;
+            for (int i = 0; i < partitionRecords.size(); i++) {
+                final var record = partitionRecords.get(i);
+                final var mappedRecord = function.apply(record);
+                if (mappedPartition == null && mappedRecord != record) {
+                    mappedPartition = new ArrayList<>(partitionRecords.size());
+                    mappedPartition.addAll(partitionRecords.subList(0, i));
+                }
+                if (mappedPartition != null) {
+                    mappedPartition.add(mappedRecord);
+                }
+            }
+            if (mappedPartition != null && mapped == null) {
+                // Partitions seen so far are unchanged.
+                mapped = new HashMap<>();
+                for (final var seen : records.partitions()) {
+                    if (seen.equals(tp)) {
+                        break;
+                    }
+                    mapped.put(seen, records.records(seen));
+                }
+            }
+            if (mapped != null) {
+                mapped.put(tp, mappedPartition != null ? mappedPartition : partitionRecords);
+            }
+        }
+        return mapped == null ? records : new ConsumerRecords<>(mapped);
+    }
 }
@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.CloudEventData;
+import io.cloudevents.SpecVersion;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.data.BytesCloudEventData;
+import io.cloudevents.core.provider.EventFormatProvider;
+import io.cloudevents.types.Time;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * LazyCloudEvent is a view over a record in the binary content mode of the Kafka protocol binding for CloudEvents.
+ * <p>
+ * Attributes and extensions are read from the {@code ce_*} headers when they're accessed, so that filters can be
+ * evaluated without building the whole event, and events can be sent as they're in the record, see
+ * {@link #writeAttributes(BiConsumer)} and {@link #data()}. The event is built only when the data is accessed or when
+ * {@link #materialize()} is called, and it's equal to the event built by
+ * {@link io.cloudevents.kafka.CloudEventDeserializer}.
+ * <p>
+ * Records are checked when the view is created, see {@link #of(Headers, byte[])}, so that records that aren't valid
+ * CloudEvents are never wrapped in a view.
+ */
+public final class LazyCloudEvent implements CloudEvent {
+
+    private static final String CE_PREFIX = "ce_";
+    private static final String CONTENT_TYPE = "content-type";
+    private static final byte[] SPEC_VERSION_V1 = SpecVersion.V1.toString().getBytes(StandardCharsets.UTF_8);
+
+    private final Headers headers;
+    private final byte[] data;
+
+    private final URI source;
+    private final URI dataSchema;
+    private final OffsetDateTime time;
+
+    private String id;
+    private String type;
+    private CloudEvent materialized;
+
+    private LazyCloudEvent(
+            final Headers headers,
+            final byte[] data,
+            final URI source,
+            final URI dataSchema,
+            final OffsetDateTime time) {
+        this.headers = headers;
+        this.data = data;
+        this.source = source;
+        this.dataSchema = dataSchema;
+        this.time = time;
+    }
+
+    /**
+     * Create a view over the given record.
+     * <p>
+     * The headers are checked the same way the deserializer checks them, and {@code source}, {@code dataschema} and
+     * {@code time} are parsed right away, since they can make the record invalid.
+     *
+     * @param headers headers of the record.
+     * @param data    value of the record, may be null.
+     * @return a view over the record, or null when the record is in the structured content mode, it isn't a CloudEvent
+     * with spec version 1.0 or it isn't valid.
+     */
+    @Nullable
+    public static LazyCloudEvent of(final Headers headers, final byte[] data) {
+        if (headers == null) {
+            return null;
+        }
+        final var specVersion = headers.lastHeader(CE_PREFIX + "specversion");
+        if (specVersion == null || !Arrays.equals(specVersion.value(), SPEC_VERSION_V1)) {
+            return null;
+        }
+        final var contentTypeHeader = headers.lastHeader(CONTENT_TYPE);
+        final var contentType = contentTypeHeader == null || contentTypeHeader.value() == null
+                ? null
+                : new String(contentTypeHeader.value(), StandardCharsets.UTF_8);
+        if (contentType != null
+                && (contentType.startsWith("application/cloudevents")
+                        || EventFormatProvider.getInstance().resolveFormat(contentType) != null)) {
+            return null;
+        }
+
+        var hasId = false;
+        var hasType = false;
+        for (final Header header : headers) {
+            final var key = header.key();
+            if (header.value() == null || key.length() <= CE_PREFIX.length() || !key.startsWith(CE_PREFIX)) {
+                continue;
+            }
+            // Names are lower cased by the deserializer, and extension names are checked when the event is built.
+            for (int i = CE_PREFIX.length(); i < key.length(); i++) {
+                final var c = key.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                    return null;
+                }
+            }
+            hasId |= key.equals(CE_PREFIX + "id");
+            hasType |= key.equals(CE_PREFIX + "type");
+        }
+        final var source = lastValue(headers, CE_PREFIX + "source");
+        if (!hasId || !hasType || source == null) {
+            return null;
+        }
+
+        try {
+            final var dataSchema = lastValue(headers, CE_PREFIX + "dataschema");
+            final var time = lastValue(headers, CE_PREFIX + "time");
+            return new LazyCloudEvent(
+                    headers,
+                    data,
+                    new URI(source),
+                    dataSchema == null ? null : new URI(dataSchema),
+                    time == null ? null : Time.parseTime("time", time));
+        } catch (final URISyntaxException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Build the event, the event is built only once.
+     *
+     * @return the event.
+     */
+    public CloudEvent materialize() {
+        if (materialized != null) {
+            return materialized;
+        }
+        final var builder = CloudEventBuilder.v1()
+                .withId(getId())
+                .withSource(source)
+                .withType(getType())
+                .withDataSchema(dataSchema)
+                .withDataContentType(getDataContentType())
+                .withSubject(getSubject())
+                .withTime(time);
+        for (final Header header : headers) {
+            final var key = header.key();
+            if (header.value() != null && key.length() > CE_PREFIX.length() && key.startsWith(CE_PREFIX)) {
+                final var name = key.substring(CE_PREFIX.length());
+                if (!isAttribute(name)) {
+                    builder.withExtension(name, new String(header.value(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        if (data != null && data.length > 0) {
+            builder.withData(BytesCloudEventData.wrap(data));
+        }
+        materialized = builder.build();
+        return materialized;
+    }
+
+    /**
+     * Pass the attributes and extensions of this event to the given writer as they're in the record, without parsing
+     * or building the event.
+     * <p>
+     * Names are passed in the same order as the headers of the record, so a later value of a name replaces an earlier
+     * one.
+     *
+     * @param writer writer of attributes and extensions, it receives names without prefix and string values.
+     */
+    public void writeAttributes(final BiConsumer<String, String> writer) {
+        for (final Header header : headers) {
+            final var key = header.key();
+            if (header.value() == null) {
+                continue;
+            }
+            if (key.equals(CONTENT_TYPE)) {
+                writer.accept("datacontenttype", new String(header.value(), StandardCharsets.UTF_8));
+            } else if (key.length() > CE_PREFIX.length() && key.startsWith(CE_PREFIX)) {
+                writer.accept(key.substring(CE_PREFIX.length()), new String(header.value(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * @return the value of the record, as it's in the record, may be null.
+     */
+    @Nullable
+    public byte[] data() {
+        return data;
+    }
+
+    /**
+     * @return true when the event has been built.
+     */
+    public boolean isMaterialized() {
+        return materialized != null;
+    }
+
+    @Override
+    public CloudEventData getData() {
+        return materialize().getData();
+    }
+
+    @Override
+    public SpecVersion getSpecVersion() {
+        return SpecVersion.V1;
+    }
+
+    @Override
+    public String getId() {
+        if (id == null) {
+            id = lastValue(headers, CE_PREFIX + "id");
+        }
+        return id;
+    }
+
+    @Override
+    public String getType() {
+        if (type == null) {
+            type = lastValue(headers, CE_PREFIX + "type");
+        }
+        return type;
+    }
+
+    @Override
+    public URI getSource() {
+        return source;
+    }
+
+    @Override
+    public String getDataContentType() {
+        return lastValue(headers, CONTENT_TYPE);
+    }
+
+    @Override
+    public URI getDataSchema() {
+        return dataSchema;
+    }
+
+    @Override
+    public String getSubject() {
+        return lastValue(headers, CE_PREFIX + "subject");
+    }
+
+    @Override
+    public OffsetDateTime getTime() {
+        return time;
+    }
+
+    @Override
+    public Object getAttribute(final String attributeName) throws IllegalArgumentException {
+        return switch (attributeName) {
+            case "specversion" -> getSpecVersion();
+            case "id" -> getId();
+            case "source" -> getSource();
+            case "type" -> getType();
+            case "datacontenttype" -> getDataContentType();
+            case "dataschema" -> getDataSchema();
+            case "subject" -> getSubject();
+            case "time" -> getTime();
+            default -> throw new IllegalArgumentException(
+                    "Spec version v1 doesn't have attribute named " + attributeName);
+        };
+    }
+
+    @Override
+    public Object getExtension(final String extensionName) {
+        if (isAttribute(extensionName)) {
+            return null;
+        }
+        String value = null;
+        for (final Header header : headers) {
+            final var key = header.key();
+            if (header.value() != null
+                    && key.length() == CE_PREFIX.length() + extensionName.length()
+                    && key.startsWith(CE_PREFIX)
+                    && key.regionMatches(CE_PREFIX.length(), extensionName, 0, extensionName.length())) {
+                value = new String(header.value(), StandardCharsets.UTF_8);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Set<String> getExtensionNames() {
+        final var names = new HashSet<String>();
+        for (final Header header : headers) {
+            final var key = header.key();
+            if (header.value() != null && key.length() > CE_PREFIX.length() && key.startsWith(CE_PREFIX)) {
+                final var name = key.substring(CE_PREFIX.length());
+                if (!isAttribute(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof OverlayCloudEvent) {
+            return o.equals(this);
+        }
+        return o instanceof CloudEvent && materialize().equals(o instanceof LazyCloudEvent l ? l.materialize() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return materialize().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (materialized != null) {
+            return materialized.toString();
+        }
+        return "LazyCloudEvent{" + "id='" + getId() + '\'' + ", type='" + getType() + '\'' + ", source=" + source + '}';
+    }
+
+    private static boolean isAttribute(final String name) {
+        return switch (name) {
+            case "specversion", "id", "source", "type", "datacontenttype", "dataschema", "subject", "time" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @return the value of the last header with the given key and a value, like the deserializer, which reads headers
+     * in order.
+     */
+    @Nullable
+    private static String lastValue(final Headers headers, final String key) {
+        byte[] value = null;
+        for (final Header header : headers) {
+            if (header.value() != null && header.key().equals(key)) {
+                value = header.value();
+            }
+        }
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
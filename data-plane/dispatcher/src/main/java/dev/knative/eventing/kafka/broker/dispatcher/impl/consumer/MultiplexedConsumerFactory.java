@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.core.ReactiveConsumerFactory;
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import io.vertx.core.Vertx;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+
+/**
+ * This factory creates consumers serviced by the poller threads of a {@link ConsumerPollerPool}.
+ */
+public class MultiplexedConsumerFactory<K, V> implements ReactiveConsumerFactory<K, V> {
+
+    private final ConsumerPollerPool pool;
+
+    public MultiplexedConsumerFactory(final ConsumerPollerPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public ReactiveKafkaConsumer<K, V> create(final Vertx vertx, final Map<String, Object> configs) {
+        return pool.register(vertx, new KafkaConsumer<>(configs));
+    }
+}
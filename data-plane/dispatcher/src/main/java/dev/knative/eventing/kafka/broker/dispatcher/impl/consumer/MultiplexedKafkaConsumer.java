@@ -0,0 +1,375 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a {@link ReactiveKafkaConsumer} serviced by a poller thread of a {@link ConsumerPollerPool}.
+ * <p>
+ * Operations are queued and run by the poller, except for operations requested by the poller itself, for example,
+ * commits of a rebalance listener, which run right away. A poll doesn't block the poller: the pending poll is served
+ * with a non-blocking poll in every round of the poller, until records are returned or the poll times out.
+ * <p>
+ * Other operations that need a response from the broker don't block the poller either: commits are asynchronous,
+ * unless they're requested by the poller itself and bounded by a short timeout, committed offsets are fetched with non-blocking attempts in every
+ * round of the poller, and the consumer is closed on a worker thread once the poller stops servicing it.
+ * <p>
+ * Futures are completed on the Vert.x context of the caller, so that records are dispatched on event loops.
+ */
+public final class MultiplexedKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiplexedKafkaConsumer.class);
+
+    static final Duration POLLER_COMMIT_TIMEOUT = Duration.ofSeconds(1);
+    static final Duration COMMITTED_TIMEOUT = Duration.ofSeconds(10);
+    static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Vertx vertx;
+    private final Consumer<K, V> consumer;
+    private final ConsumerPollerPool.Poller poller;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean closed;
+    private volatile Handler<Throwable> exceptionHandler;
+
+    // Accessed only by the poller.
+    private PendingPoll<K, V> pendingPoll;
+    private final Queue<InProgress> inProgress;
+
+    private record PendingPoll<K, V>(Context context, Promise<ConsumerRecords<K, V>> promise, long deadlineNanos) {}
+
+    /**
+     * An operation that completes in a later round of the poller, {@code round} makes progress without blocking and
+     * returns true once the operation is complete.
+     */
+    private record InProgress(BooleanSupplier round, Promise<?> promise) {}
+
+    MultiplexedKafkaConsumer(final Vertx vertx, final Consumer<K, V> consumer, final ConsumerPollerPool.Poller poller) {
+        this.vertx = vertx;
+        this.consumer = consumer;
+        this.poller = poller;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.closed = new AtomicBoolean(false);
+        this.inProgress = new ArrayDeque<>();
+    }
+
+    /**
+     * Run queued operations and serve the pending poll, if any.
+     *
+     * @return true when some operation ran or records have been returned.
+     */
+    boolean runOnce() {
+        var progress = false;
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+            progress = true;
+        }
+
+        for (int i = inProgress.size(); i > 0; i--) {
+            final var operation = inProgress.poll();
+            if (runRound(operation)) {
+                progress = true;
+            } else {
+                inProgress.add(operation);
+            }
+        }
+
+        final var pending = this.pendingPoll;
+        if (pending == null) {
+            return progress;
+        }
+
+        final ConsumerRecords<K, V> records;
+        try {
+            records = consumer.poll(Duration.ZERO);
+        } catch (final Exception ex) {
+            this.pendingPoll = null;
+            pending.context().runOnContext(v -> pending.promise().fail(ex));
+            return true;
+        }
+        if (!records.isEmpty() || System.nanoTime() - pending.deadlineNanos() >= 0) {
+            this.pendingPoll = null;
+            pending.context().runOnContext(v -> pending.promise().complete(records));
+            return progress || !records.isEmpty();
+        }
+        return progress;
+    }
+
+    void onError(final Throwable cause) {
+        logger.error("Unexpected error while servicing consumer", cause);
+        final var handler = this.exceptionHandler;
+        if (handler != null) {
+            handler.handle(cause);
+        }
+    }
+
+    private <T> Future<T> submit(final Callable<T> operation) {
+        if (closed.get()) {
+            return Future.failedFuture("Consumer is closed");
+        }
+        final var context = vertx.getOrCreateContext();
+        final Promise<T> promise = Promise.promise();
+        final Runnable task = () -> {
+            try {
+                final var result = operation.call();
+                context.runOnContext(v -> promise.complete(result));
+            } catch (final Exception ex) {
+                context.runOnContext(v -> promise.fail(ex));
+            }
+        };
+        if (poller.isCurrentThread()) {
+            task.run();
+        } else {
+            tasks.add(task);
+            poller.wakeUp();
+        }
+        return promise.future();
+    }
+
+    /**
+     * Submit an operation that completes in a later round of the poller.
+     *
+     * @param operation function that starts the operation and returns the round of the operation, see
+     *                  {@link InProgress}, the operation completes the given promise.
+     * @return the result of the operation.
+     */
+    private <T> Future<T> submitInRounds(final Function<Promise<T>, BooleanSupplier> operation) {
+        if (closed.get()) {
+            return Future.failedFuture("Consumer is closed");
+        }
+        final var context = vertx.getOrCreateContext();
+        final Promise<T> promise = Promise.promise();
+        final Promise<T> result = Promise.promise();
+        result.future().onComplete(r -> context.runOnContext(v -> promise.handle(r)));
+        final Runnable task = () -> {
+            final BooleanSupplier round;
+            try {
+                round = operation.apply(result);
+            } catch (final Exception ex) {
+                result.tryFail(ex);
+                return;
+            }
+            final var operationInProgress = new InProgress(round, result);
+            if (!runRound(operationInProgress)) {
+                inProgress.add(operationInProgress);
+            }
+        };
+        if (poller.isCurrentThread()) {
+            task.run();
+        } else {
+            tasks.add(task);
+            poller.wakeUp();
+        }
+        return promise.future();
+    }
+
+    private static boolean runRound(final InProgress operation) {
+        try {
+            return operation.round().getAsBoolean();
+        } catch (final Exception ex) {
+            operation.promise().tryFail(ex);
+            return true;
+        }
+    }
+
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> commit(final Map<TopicPartition, OffsetAndMetadata> offset) {
+        if (poller.isCurrentThread()) {
+            // Commits of a rebalance listener must complete before partitions are revoked, and the listener blocks
+            // the poller anyway, the timeout bounds how long other consumers of the poller wait for an unresponsive
+            // broker, uncommitted offsets are redelivered to the new owner of the partitions.
+            return submit(() -> {
+                consumer.commitSync(offset, POLLER_COMMIT_TIMEOUT);
+                return offset;
+            });
+        }
+        return submitInRounds(promise -> {
+            consumer.commitAsync(offset, (offsets, ex) -> {
+                if (ex != null) {
+                    promise.tryFail(ex);
+                } else {
+                    promise.tryComplete(offset);
+                }
+            });
+            return () -> {
+                if (!promise.future().isComplete()) {
+                    // Commit callbacks are called by polls and commits, committing nothing calls them without
+                    // blocking, even when no poll is pending.
+                    consumer.commitSync(Map.of(), Duration.ZERO);
+                }
+                return promise.future().isComplete();
+            };
+        });
+    }
+
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(final Set<TopicPartition> partitions) {
+        final var deadlineNanos = System.nanoTime() + COMMITTED_TIMEOUT.toNanos();
+        // Every attempt waits for the request sent by the first one, so that attempts don't block the poller.
+        return submitInRounds(promise -> () -> {
+            final Map<TopicPartition, OffsetAndMetadata> offsets;
+            try {
+                offsets = consumer.committed(partitions, Duration.ZERO);
+            } catch (final TimeoutException ex) {
+                if (System.nanoTime() - deadlineNanos < 0) {
+                    return false;
+                }
+                promise.tryFail(ex);
+                return true;
+            }
+            final var committed = new HashMap<TopicPartition, OffsetAndMetadata>();
+            offsets.forEach((tp, offset) -> {
+                if (offset != null) {
+                    committed.put(tp, offset);
+                }
+            });
+            promise.tryComplete(committed);
+            return true;
+        });
+    }
+
+    @Override
+    public Future<Void> pause(final Collection<TopicPartition> partitions) {
+        return submit(() -> {
+            consumer.pause(partitions);
+            return null;
+        });
+    }
+
+    @Override
+    public Future<Void> resume(final Collection<TopicPartition> partitions) {
+        return submit(() -> {
+            consumer.resume(partitions);
+            return null;
+        });
+    }
+
+    @Override
+    public Future<Void> subscribe(final Collection<String> topics) {
+        return submit(() -> {
+            consumer.subscribe(topics);
+            return null;
+        });
+    }
+
+    @Override
+    public Future<Void> subscribe(final Collection<String> topics, final ConsumerRebalanceListener listener) {
+        return submit(() -> {
+            consumer.subscribe(topics, listener);
+            return null;
+        });
+    }
+
+    @Override
+    public Future<ConsumerRecords<K, V>> poll(final Duration timeout) {
+        if (closed.get()) {
+            return Future.failedFuture("Consumer is closed");
+        }
+        final var context = vertx.getOrCreateContext();
+        final Promise<ConsumerRecords<K, V>> promise = Promise.promise();
+        final var deadlineNanos = System.nanoTime() + timeout.toNanos();
+        // Polls are always queued, since the poller can't poll while it's polling.
+        tasks.add(() -> {
+            if (this.pendingPoll != null) {
+                context.runOnContext(v -> promise.fail(new IllegalStateException("Poll already in progress")));
+                return;
+            }
+            this.pendingPoll = new PendingPoll<>(context, promise, deadlineNanos);
+        });
+        poller.wakeUp();
+        return promise.future();
+    }
+
+    @Override
+    public Future<Void> close() {
+        if (!closed.compareAndSet(false, true)) {
+            return Future.succeededFuture();
+        }
+        final var context = vertx.getOrCreateContext();
+        final Promise<Void> promise = Promise.promise();
+        tasks.add(() -> {
+            poller.remove(this);
+            // Operations queued concurrently with closing run before the consumer is closed, since the consumer
+            // can't be used by the poller and by the worker closing it at the same time.
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            final var pending = this.pendingPoll;
+            if (pending != null) {
+                this.pendingPoll = null;
+                pending.context().runOnContext(v -> pending.promise().fail("Consumer is closed"));
+            }
+
+            // Closing blocks until pending requests, like asynchronous commits, complete or the timeout expires, so
+            // it doesn't run on the poller that services other consumers.
+            vertx.<Void>executeBlocking(
+                            p -> {
+                                try {
+                                    logger.debug("Closing underlying Kafka consumer client");
+                                    consumer.close(CLOSE_TIMEOUT);
+                                    p.complete();
+                                } finally {
+                                    InProgress operation;
+                                    while ((operation = inProgress.poll()) != null) {
+                                        operation.promise().tryFail("Consumer is closed");
+                                    }
+                                }
+                            },
+                            false)
+                    .onComplete(r -> context.runOnContext(v -> promise.handle(r)));
+        });
+        poller.wakeUp();
+        return promise.future();
+    }
+
+    @Override
+    public Consumer<K, V> unwrap() {
+        return this.consumer;
+    }
+
+    @Override
+    public ReactiveKafkaConsumer<K, V> exceptionHandler(final Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+}
@@ -17,9 +17,6 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 
 import io.cloudevents.CloudEvent;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -37,20 +34,7 @@ public class NullCloudEventInterceptor implements ConsumerInterceptor<Object, Cl
 
     @Override
     public ConsumerRecords<Object, CloudEvent> onConsume(ConsumerRecords<Object, CloudEvent> records) {
-        if (records.isEmpty()) {
-            return records;
-        }
-        final Map<TopicPartition, List<ConsumerRecord<Object, CloudEvent>>> validRecords =
-                new HashMap<>(records.count());
-        for (final var record : records) {
-            final var tp = new TopicPartition(record.topic(), record.partition());
-            if (!validRecords.containsKey(tp)) {
-                validRecords.put(tp, new ArrayList<>());
-            }
-            validRecords.get(tp).add(maybeDeserializeRecord(record));
-        }
-
-        return new ConsumerRecords<>(validRecords);
+        return KafkaConsumerRecordUtils.mapRecords(records, NullCloudEventInterceptor::maybeDeserializeRecord);
     }
 
     @Override
@@ -68,7 +52,7 @@ public class NullCloudEventInterceptor implements ConsumerInterceptor<Object, Cl
         logger.info("NullCloudEventInterceptor configured");
     }
 
-    private ConsumerRecord<Object, CloudEvent> maybeDeserializeRecord(ConsumerRecord<Object, CloudEvent> record) {
+    static ConsumerRecord<Object, CloudEvent> maybeDeserializeRecord(ConsumerRecord<Object, CloudEvent> record) {
         if (record.value() != null) {
             return record;
         }
@@ -19,17 +19,24 @@ import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
 
 import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
 import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcherListener;
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
@@ -43,11 +50,50 @@ public final class OffsetManager implements RecordDispatcherListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OffsetManager.class);
 
-    private final ReactiveKafkaConsumer<?, ?> consumer;
+    /**
+     * Consumer config to commit offsets as soon as the given number of offsets are completed, instead of waiting for
+     * the commit interval.
+     */
+    public static final String COMMIT_THRESHOLD_OFFSETS_CONFIG = "dispatcher.commit.threshold.offsets";
+
+    /**
+     * Consumer config to commit offsets as soon as the uncommitted offsets of a partition reach the given number,
+     * instead of waiting for the commit interval.
+     */
+    public static final String COMMIT_THRESHOLD_LAG_CONFIG = "dispatcher.commit.threshold.lag";
+
+    /**
+     * Consumer config for the number of offsets of a partition that can be tracked beyond the last contiguous
+     * completed offset, see {@link OffsetTracker}.
+     */
+    public static final String WINDOW_SIZE_CONFIG = "dispatcher.offset.window.size";
+
+    public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+    /**
+     * Consumer config for the maximum length of the commit metadata used to persist the offsets completed after the
+     * committed offset, disabled when {@code <= 0}, see {@link #commitCompletedOffsets(int)}.
+     */
+    public static final String COMMIT_METADATA_MAX_LENGTH_CONFIG = "dispatcher.commit.metadata.max.length";
+
+    // The broker default for offset.metadata.max.bytes is 4096.
+    public static final int DEFAULT_COMMIT_METADATA_MAX_LENGTH = 1024;
+
+    private final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer;
 
     private final Map<TopicPartition, OffsetTracker> offsetTrackers;
 
     private final Consumer<Integer> onCommit;
+    private final long commitThresholdOffsets;
+    private final long commitThresholdLag;
+    private final AtomicLong completedSinceCommit;
+    private final AtomicInteger inFlightCommits;
+    private final int windowSize;
+    private final Set<TopicPartition> pausedPartitions;
+    private volatile ReactiveKafkaConsumer<?, ?> pauser;
+    private volatile int maxCommitMetadataLength;
+    // Offsets completed by the previous owner of a partition after its committed offset.
+    private final Map<TopicPartition, RestoredOffsets> restoredOffsets;
     private final long timerId;
     private final Vertx vertx;
     private final PartitionRevokedHandler partitionRevokedHandler;
@@ -63,19 +109,66 @@ public final class OffsetManager implements RecordDispatcherListener {
             final ReactiveKafkaConsumer<?, ?> consumer,
             final Consumer<Integer> onCommit,
             final long commitIntervalMs) {
-        Objects.requireNonNull(consumer, "provide consumer");
+        this(vertx, Objects.requireNonNull(consumer, "provide consumer")::commit, onCommit, commitIntervalMs);
+    }
+
+    /**
+     * Create an offset manager that commits offsets with the given committer, for example, to commit offsets for a
+     * consumer group other than the group of the consumer that polled the records.
+     *
+     * @param committer function that commits the given offsets.
+     * @param onCommit  Callback invoked when an offset is actually committed
+     */
+    public OffsetManager(
+            final Vertx vertx,
+            final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer,
+            final Consumer<Integer> onCommit,
+            final long commitIntervalMs) {
+        this(vertx, committer, onCommit, commitIntervalMs, 0, 0, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Create an offset manager that, in addition to the periodic commit, commits early when enough offsets are
+     * completed or when the uncommitted offsets of a partition exceed a limit.
+     *
+     * @param committer              function that commits the given offsets.
+     * @param onCommit               Callback invoked when an offset is actually committed
+     * @param commitThresholdOffsets completed offsets that trigger a commit, disabled when {@code <= 0}.
+     * @param commitThresholdLag     uncommitted offsets of a partition that trigger a commit, disabled when
+     *                               {@code <= 0}.
+     * @param windowSize             offsets tracked per partition beyond the last contiguous completed offset.
+     */
+    public OffsetManager(
+            final Vertx vertx,
+            final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer,
+            final Consumer<Integer> onCommit,
+            final long commitIntervalMs,
+            final long commitThresholdOffsets,
+            final long commitThresholdLag,
+            final int windowSize) {
+        Objects.requireNonNull(committer, "provide committer");
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be greater than 0, got " + windowSize);
+        }
 
-        this.consumer = consumer;
+        this.committer = committer;
         this.offsetTrackers = new ConcurrentHashMap<>();
         this.onCommit = onCommit;
-
-        this.timerId = vertx.setPeriodic(commitIntervalMs, l -> commitAll());
+        this.commitThresholdOffsets = commitThresholdOffsets;
+        this.commitThresholdLag = commitThresholdLag;
+        this.completedSinceCommit = new AtomicLong();
+        this.inFlightCommits = new AtomicInteger();
+        this.windowSize = windowSize;
+        this.pausedPartitions = ConcurrentHashMap.newKeySet();
+        this.restoredOffsets = new ConcurrentHashMap<>();
+
+        this.timerId = vertx.setPeriodic(commitIntervalMs, l -> commit(tp -> true, false));
         this.vertx = vertx;
 
         partitionRevokedHandler = partitions -> {
             try {
                 // Async commit offsets.
-                final var commitFuture = commit(partitions);
+                final var commitFuture = commit(partitions::contains, true);
                 // Remove revoked partitions.
                 partitions.forEach(offsetTrackers::remove);
                 return commitFuture;
@@ -85,6 +178,9 @@ public final class OffsetManager implements RecordDispatcherListener {
             } finally {
                 // Remove revoked partitions in any case.
                 partitions.forEach(offsetTrackers::remove);
+                // The consumer forgets paused partitions when they're revoked.
+                pausedPartitions.removeAll(partitions);
+                partitions.forEach(restoredOffsets::remove);
                 logPartitions("revoked", partitions);
             }
         };
@@ -94,6 +190,92 @@ public final class OffsetManager implements RecordDispatcherListener {
         return partitionRevokedHandler;
     }
 
+    /**
+     * Pause partitions on the given consumer when their offset window is full, and resume them once half of the window
+     * is available again.
+     * <p>
+     * Records polled before the partition is paused are still tracked, so pausing bounds the memory used by the
+     * trackers without dropping offsets.
+     *
+     * @param consumer consumer that polls records for this offset manager.
+     */
+    public void pauseOnFullWindow(final ReactiveKafkaConsumer<?, ?> consumer) {
+        this.pauser = consumer;
+    }
+
+    /**
+     * Commit, in the metadata of each partition commit, the offsets completed after the committed offset, so that the
+     * next owner of the partition can skip them, see {@link #restoreCompletedOffsets(Map)}.
+     *
+     * @param maxMetadataLength maximum length of the commit metadata, it must not exceed the broker
+     *                          {@code offset.metadata.max.bytes}.
+     */
+    public void commitCompletedOffsets(final int maxMetadataLength) {
+        this.maxCommitMetadataLength = maxMetadataLength;
+    }
+
+    /**
+     * Restore the offsets completed by the previous owner of the given partitions, those records are not delivered
+     * again, see {@link #isCompleted(ConsumerRecord)}.
+     *
+     * @param committed committed offsets and metadata of the assigned partitions.
+     */
+    public void restoreCompletedOffsets(final Map<TopicPartition, OffsetAndMetadata> committed) {
+        for (final var entry : committed.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            final var completed =
+                    CompletedOffsetsMetadata.decode(entry.getValue().metadata(), windowSize);
+            if (completed != null) {
+                logger.debug(
+                        "Restored completed offsets {} {} {}",
+                        keyValue("topicPartition", entry.getKey()),
+                        keyValue("offset", entry.getValue().offset()),
+                        keyValue("completed", completed.cardinality()));
+                restoredOffsets.put(
+                        entry.getKey(), new RestoredOffsets(entry.getValue().offset(), completed));
+            }
+        }
+    }
+
+    /**
+     * Create a handler that restores the offsets completed by the previous owner of the assigned partitions from the
+     * metadata committed with their offsets, see {@link #restoreCompletedOffsets(Map)}.
+     * <p>
+     * The returned future never fails, when the committed offsets can't be read, records are delivered again.
+     *
+     * @param consumer consumer to read the committed offsets with.
+     * @return partition assigned handler.
+     */
+    public PartitionAssignedHandler getPartitionAssignedHandler(final ReactiveKafkaConsumer<?, ?> consumer) {
+        return partitions -> {
+            if (partitions.isEmpty()) {
+                return Future.succeededFuture();
+            }
+            return consumer.committed(Set.copyOf(partitions))
+                    .onSuccess(this::restoreCompletedOffsets)
+                    .<Void>mapEmpty()
+                    .recover(cause -> {
+                        logger.warn(
+                                "Failed to restore completed offsets {}", keyValue("partitions", partitions), cause);
+                        return Future.succeededFuture();
+                    });
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isCompleted(final ConsumerRecord<?, ?> record) {
+        if (restoredOffsets.isEmpty()) {
+            return false;
+        }
+        final var restored = restoredOffsets.get(new TopicPartition(record.topic(), record.partition()));
+        return restored != null && restored.isCompleted(record.offset());
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -102,9 +284,27 @@ public final class OffsetManager implements RecordDispatcherListener {
     @Override
     public void recordReceived(final ConsumerRecord<?, ?> record) {
         final var tp = new TopicPartition(record.topic(), record.partition());
-        if (!offsetTrackers.containsKey(tp)) {
+        var tracker = offsetTrackers.get(tp);
+        if (tracker == null) {
             // Initialize offset tracker for the given record's topic/partition.
-            offsetTrackers.putIfAbsent(tp, new OffsetTracker(record.offset()));
+            offsetTrackers.putIfAbsent(tp, newOffsetTracker(tp, record.offset()));
+            tracker = offsetTrackers.get(tp);
+        }
+        tracker.recordReceived(record.offset());
+
+        final var consumer = this.pauser;
+        if (consumer != null && tracker.isWindowFull()) {
+            if (pausedPartitions.add(tp)) {
+                logger.debug(
+                        "Offset window is full, pausing partition {} {}",
+                        keyValue("topicPartition", tp),
+                        keyValue("offsetToCommit", tracker.offsetToCommit()));
+            }
+            // Pause even when the partition is already paused, since the consumer might be shared with other offset
+            // managers that resumed it.
+            consumer.pause(List.of(tp))
+                    .onFailure(cause ->
+                            logger.warn("Failed to pause partition {}", keyValue("topicPartition", tp), cause));
         }
     }
 
@@ -124,6 +324,14 @@ public final class OffsetManager implements RecordDispatcherListener {
         commit(record);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void parkedForRetry(final ConsumerRecord<?, ?> record) {
+        commit(record);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -140,72 +348,124 @@ public final class OffsetManager implements RecordDispatcherListener {
         commit(record);
     }
 
+    private OffsetTracker newOffsetTracker(final TopicPartition tp, final long initialOffset) {
+        final var tracker = new OffsetTracker(initialOffset, windowSize);
+        final var restored = restoredOffsets.get(tp);
+        if (restored != null) {
+            // Records completed by the previous owner are skipped, so they're completed for this tracker too.
+            restored.completed().stream()
+                    .mapToLong(i -> restored.offset() + 1 + i)
+                    .filter(offset -> offset >= initialOffset)
+                    .forEach(tracker::recordNewOffset);
+        }
+        return tracker;
+    }
+
     private void commit(final ConsumerRecord<?, ?> record) {
         // We need to handle the case when the offset tracker was removed from our Map since when partitions are revoked
         // we
         // remove the associated offset tracker, however, we may get a response from the sink for a previously owned
         // partition after a partition has been revoked.
         // Note: it's not possible to commit offsets of partitions that this a particular consumer instance doesn't own.
-        final var ot = this.offsetTrackers.get(new TopicPartition(record.topic(), record.partition()));
+        final var tp = new TopicPartition(record.topic(), record.partition());
+        final var ot = this.offsetTrackers.get(tp);
         if (ot != null) {
             ot.recordNewOffset(record.offset());
+            maybeResume(tp, ot);
+            maybeCommitEarly(ot);
         }
     }
 
-    private synchronized Future<Void> commit(final TopicPartition topicPartition, final OffsetTracker tracker) {
-        long newOffset = tracker.offsetToCommit();
-        if (newOffset > tracker.getCommitted()) {
-
-            logger.debug(
-                    "Committing offset for {} offset {}",
-                    keyValue("topicPartition", topicPartition),
-                    keyValue("offset", newOffset));
+    private void maybeResume(final TopicPartition tp, final OffsetTracker tracker) {
+        final var consumer = this.pauser;
+        if (consumer == null || pausedPartitions.isEmpty() || !tracker.isWindowHalfEmpty()) {
+            return;
+        }
+        if (pausedPartitions.remove(tp)) {
+            logger.debug("Offset window is available, resuming partition {}", keyValue("topicPartition", tp));
+            consumer.resume(List.of(tp))
+                    .onFailure(cause ->
+                            logger.warn("Failed to resume partition {}", keyValue("topicPartition", tp), cause));
+        }
+    }
 
-            // Execute the actual commit
-            return consumer.commit(Map.of(topicPartition, new OffsetAndMetadata(newOffset, "")))
-                    .onSuccess(ignored -> {
-                        // Reset the state
-                        tracker.setCommitted(newOffset);
+    private void maybeCommitEarly(final OffsetTracker tracker) {
+        final var completed = completedSinceCommit.incrementAndGet();
+        final var thresholdReached = (commitThresholdOffsets > 0 && completed >= commitThresholdOffsets)
+                || (commitThresholdLag > 0 && tracker.offsetToCommit() - tracker.getCommitted() >= commitThresholdLag);
 
-                        if (onCommit != null) {
-                            onCommit.accept((int) newOffset);
-                        }
-                    })
-                    .onFailure(cause -> logger.error(
-                            "Failed to commit topic partition {} offset {}",
-                            keyValue("topicPartition", topicPartition),
-                            keyValue("offset", newOffset),
-                            cause))
-                    .mapEmpty();
+        // A commit in flight already includes most of the completed offsets, the next one is triggered by the next
+        // completed offset or by the timer.
+        if (thresholdReached && inFlightCommits.get() == 0) {
+            commit(tp -> true, false);
         }
-        return null;
     }
 
     /**
-     * Commit all tracked offsets by colling commit on every offsetTracker entry.
+     * Commit the tracked offsets of the partitions matching the given predicate with a single commit request.
      *
+     * @param partitions         partitions to commit.
+     * @param leavingPartitions  whether this is the last commit for the partitions, in that case the partitions with
+     *                           offsets completed after the offset to commit are committed even when the offset
+     *                           to commit didn't change.
      * @return succeeded or failed future.
      */
-    private Future<Void> commitAll() {
-        return CompositeFuture.all(this.offsetTrackers.entrySet().stream()
-                        .map(e -> commit(e.getKey(), e.getValue()))
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()))
+    private synchronized Future<Void> commit(
+            final Predicate<TopicPartition> partitions, final boolean leavingPartitions) {
+        completedSinceCommit.set(0);
+
+        final var maxMetadataLength = this.maxCommitMetadataLength;
+        final var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (final var entry : offsetTrackers.entrySet()) {
+            if (!partitions.test(entry.getKey())) {
+                continue;
+            }
+            final var tracker = entry.getValue();
+            final long newOffset = tracker.offsetToCommit();
+            final var advanced = newOffset > tracker.getCommitted();
+            if (!advanced && !(leavingPartitions && maxMetadataLength > 0)) {
+                continue;
+            }
+            final var metadata = maxMetadataLength > 0 ? tracker.completedMetadata(newOffset, maxMetadataLength) : "";
+            if (advanced || !metadata.isEmpty()) {
+                offsets.put(entry.getKey(), new OffsetAndMetadata(newOffset, metadata));
+            }
+        }
+        if (offsets.isEmpty()) {
+            return Future.succeededFuture();
+        }
+
+        logger.debug("Committing offsets {}", keyValue("offsets", offsets));
+
+        inFlightCommits.incrementAndGet();
+        return committer
+                .apply(offsets)
+                .onComplete(r -> inFlightCommits.decrementAndGet())
+                .onSuccess(ignored -> {
+                    for (final var entry : offsets.entrySet()) {
+                        final var newOffset = entry.getValue().offset();
+                        // The partition might have been revoked in the meantime.
+                        final var tracker = offsetTrackers.get(entry.getKey());
+                        if (tracker != null) {
+                            // Reset the state
+                            tracker.setCommitted(newOffset);
+                        }
+                        if (onCommit != null) {
+                            onCommit.accept((int) newOffset);
+                        }
+                    }
+                })
+                .onFailure(cause -> logger.error("Failed to commit offsets {}", keyValue("offsets", offsets), cause))
                 .mapEmpty();
     }
 
     /**
-     * Commit all tracked offsets by colling commit on every offsetTracker entry.
+     * Commit all tracked offsets with a single commit request.
      *
      * @return succeeded or failed future.
      */
-    private Future<Void> commit(final Collection<TopicPartition> partitions) {
-        return CompositeFuture.all(this.offsetTrackers.entrySet().stream()
-                        .filter(kv -> partitions.contains(kv.getKey()))
-                        .map(e -> commit(e.getKey(), e.getValue()))
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()))
-                .mapEmpty();
+    private Future<Void> commitAll() {
+        return commit(tp -> true, true);
     }
 
     @Override
@@ -217,93 +477,187 @@ public final class OffsetManager implements RecordDispatcherListener {
     /**
      * This offset tracker keeps track of the committed records for a
      * single partition.
+     * <p>
+     * Completed offsets are recorded without locks in a ring buffer with a fixed window of slots, so the memory used by
+     * a tracker doesn't depend on how far completed offsets are from the last contiguous completed offset.
      */
-    static class OffsetTracker {
+    static final class OffsetTracker {
 
         /*
-         * We use a BitSet as a replacement for an array of booleans.
-         * Each bit represents an offset of a partition.
+         * Each slot of the ring buffer holds the last offset completed in that slot, the slot of an offset is
+         * `offset % window`.
+         *
+         * The offset to commit (the watermark) is the first offset whose slot doesn't hold the offset itself, so only
+         * offsets in the window [watermark, watermark + window) can be recorded in the ring buffer: an offset
+         * `offset + window` can't be in the same slot of `offset` before the watermark is past `offset`.
          *
-         * A bit in the BitSet is set when an offset can be committed
-         * to Kafka.
+         * Example case (window = 4):
          *
-         * Example case:
+         *  slots               [ 0,  1,  2,  3 ]
+         *  t1 success           [ 0, -1,  2, -1 ]   <-- offsets 0 and 2 recorded
+         *  t1 to commit              &              <-- offset to commit 1
          *
-         *  partition offsets   [0, 1, 2, 3, 4, 5, 6, 7, ... ]  <-- BitSet
-         *  t1                                                  <-- time 1
-         *  t1 success           ^     ^  ^        ^            <-- offsets recorded
-         *  t1 to commit            &                           <-- offset to commit (next unset offset)
+         *  t2 success           [ 4,  1,  2, -1 ]   <-- offsets 1 and 4 recorded
+         *  t2 to commit                      &      <-- offset to commit 3
          *
-         *  t2                                                  <-- time 2
-         *  t2 success           ^  ^  ^  ^        ^            <-- offsets recorded
-         *  t2 to commit                     &                  <-- offset to commit (next unset offset)
+         * Storing the offset, instead of a single bit, makes recording an offset idempotent, and slots never need to
+         * be cleared when the watermark moves forward.
+         *
+         * Offsets beyond the window (for example, records polled before the partition was paused) are kept
+         * in an overflow set and moved to the ring buffer once the watermark gets close enough.
          */
 
-        // In order to not use a huge amount of memory we cap the BitSet to a _dynamic_ max size governed by this
-        // threshold.
-        private static final int RESET_TRACKER_THRESHOLD = 1_000_000;
+        private static final long EMPTY_SLOT = -1;
+        private static final Long MIN_OFFSET = Long.MIN_VALUE;
+        private static final long PUBLISH_MASK = 63;
+
+        private final AtomicLongArray slots;
+        private final int windowMask;
+        private final ConcurrentSkipListSet<Long> overflow;
+        private final AtomicBoolean advancing;
+
+        // First offset that is not completed, all offsets before it are completed.
+        private volatile long watermark;
+        // Highest offset received.
+        private volatile long received;
+        // Committed is the actual offset committed to stable storage.
+        private final AtomicLong committed;
+
+        OffsetTracker(final long initialOffset, final int windowSize) {
+            final var size = Integer.highestOneBit(Math.max(windowSize - 1, 1)) << 1;
+            this.slots = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                this.slots.setPlain(i, EMPTY_SLOT);
+            }
+            this.windowMask = size - 1;
+            this.overflow = new ConcurrentSkipListSet<>();
+            this.advancing = new AtomicBoolean();
+            this.committed = new AtomicLong(Math.max(initialOffset, 0));
+            this.watermark = committed.get();
+            this.received = watermark - 1;
+        }
 
-        // We store `long` offsets in a `BitSet` that is capable of handling `int` elements.
-        // The BitSet sets a committed bit for an offset `offset` in this way:
-        // bitSetOffset = offset - initialOffset
-        private BitSet committedOffsets;
+        void recordReceived(final long offset) {
+            // Records are received in order from a single thread.
+            if (offset > received) {
+                received = offset;
+            }
+        }
 
-        // InitialOffset represents the offset committed from where committedOffsets BitSet starts, which means that
-        // the state of committedOffsets[0] is equal to the state of partition[initialOffset].
-        private long initialOffset;
+        void recordNewOffset(final long offset) {
+            final var w = watermark;
+            if (offset < w) {
+                return;
+            }
+            if (offset - w > windowMask) {
+                overflow.add(offset);
+            } else {
+                slots.accumulateAndGet(slot(offset), offset, Math::max);
+            }
+            advance();
+        }
 
-        // CommittedOffsets is the actual offset committed to stable storage.
-        private long committed;
+        long offsetToCommit() {
+            return watermark;
+        }
 
-        OffsetTracker(final long initialOffset) {
-            committedOffsets = new BitSet();
-            committed = Math.max(initialOffset, 0);
-            this.initialOffset = committed;
+        void setCommitted(final long committed) {
+            // Commits complete asynchronously, so never move the committed offset backward.
+            this.committed.accumulateAndGet(committed, Math::max);
         }
 
-        synchronized void recordNewOffset(final long offset) {
-            final var bitSetOffset = (int) (offset - initialOffset);
-            committedOffsets.set(bitSetOffset);
-            maybeReset(bitSetOffset);
+        long getCommitted() {
+            return committed.get();
         }
 
-        synchronized long offsetToCommit() {
-            return initialOffset + committedOffsets.nextClearBit((int) (committed - initialOffset));
+        /**
+         * @return true when the next offset can't be recorded in the ring buffer.
+         */
+        boolean isWindowFull() {
+            return received + 1 - watermark > windowMask;
         }
 
-        synchronized void setCommitted(final long committed) {
-            this.committed = committed;
+        /**
+         * @return true when at least half of the window is available.
+         */
+        boolean isWindowHalfEmpty() {
+            return received + 1 - watermark <= (windowMask + 1) / 2;
+        }
+
+        int windowSize() {
+            return windowMask + 1;
+        }
+
+        /**
+         * @param from      offset to commit.
+         * @param maxLength maximum length of the metadata.
+         * @return the commit metadata describing the offsets completed after the given offset.
+         */
+        String completedMetadata(final long from, final int maxLength) {
+            final var last = Math.min(received, from + windowMask);
+            return CompletedOffsetsMetadata.encode(from, last, o -> slots.get(slot(o)) == o, maxLength);
         }
 
-        synchronized long getCommitted() {
-            return committed;
+        private void advance() {
+            // A single thread advances the watermark, other threads record their offset and leave, however, the
+            // advancing thread might have missed their offset, so it checks again after it's done.
+            while (advancing.compareAndSet(false, true)) {
+                try {
+                    var w = watermark;
+                    while (true) {
+                        if (slots.get(slot(w)) == w) {
+                            w++;
+                            // Publish progress while advancing, so that other threads don't move their offsets to
+                            // the overflow set because they see an old watermark.
+                            if ((w & PUBLISH_MASK) == 0) {
+                                watermark = w;
+                            }
+                        } else if (!moveOverflow(w)) {
+                            break;
+                        }
+                    }
+                    watermark = w;
+                } finally {
+                    advancing.set(false);
+                }
+                if (!canAdvance()) {
+                    return;
+                }
+            }
         }
 
-        private void maybeReset(final int offset) {
-            if (offset > RESET_TRACKER_THRESHOLD) {
-                reset();
+        private boolean canAdvance() {
+            final var w = watermark;
+            if (slots.get(slot(w)) == w) {
+                return true;
             }
+            final var first = overflow.ceiling(MIN_OFFSET);
+            return first != null && first - w <= windowMask;
         }
 
-        private void reset() {
-            // To not grow the BitSet indefinitely we create a new BitSet that starts from the committed offset.
-            // Since the delivery might be unordered we should copy the state of the current committedOffset BitSet that
-            // goes
-            // from the committed offset to the end of the BitSet.
-
-            final var prevCommittedOffsetsArr = committedOffsets.toLongArray();
-            // Calculate the word index in the long array. Long size is 64.
-            final var wordSize = 64;
-            final var relativeOffset = committed - initialOffset;
-            final var wordOfCommitted = (int) (relativeOffset / wordSize);
-
-            // Copy from wordOfCommitted to the end: [..., wordOfCommitted, ...]
-            final var newCommittedOffsetsArr =
-                    Arrays.copyOfRange(prevCommittedOffsetsArr, wordOfCommitted, prevCommittedOffsetsArr.length);
-
-            // Re-create committedOffset BitSet and reset initialOffset.
-            this.committedOffsets = BitSet.valueOf(newCommittedOffsetsArr);
-            this.initialOffset = committed - (relativeOffset % wordSize);
+        private boolean moveOverflow(final long w) {
+            var moved = false;
+            Long offset;
+            while ((offset = overflow.ceiling(MIN_OFFSET)) != null && offset - w <= windowMask) {
+                overflow.remove(offset);
+                if (offset >= w) {
+                    slots.accumulateAndGet(slot(offset), offset, Math::max);
+                    moved = true;
+                }
+            }
+            return moved;
+        }
+
+        private int slot(final long offset) {
+            return (int) (offset & windowMask);
+        }
+    }
+
+    private record RestoredOffsets(long offset, BitSet completed) {
+
+        boolean isCompleted(final long o) {
+            final var i = o - offset - 1;
+            return i >= 0 && i < completed.length() && completed.get((int) i);
         }
     }
 
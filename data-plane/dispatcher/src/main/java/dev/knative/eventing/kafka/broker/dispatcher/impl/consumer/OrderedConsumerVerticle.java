@@ -18,6 +18,9 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
 
 import dev.knative.eventing.kafka.broker.core.OrderedAsyncExecutor;
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.RetryTopic;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
 import io.github.bucket4j.Bandwidth;
@@ -25,14 +28,17 @@ import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
 import io.github.bucket4j.local.LocalBucketBuilder;
 import io.github.bucket4j.local.SynchronizationStrategy;
+import io.micrometer.core.instrument.Gauge;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -41,20 +47,37 @@ import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * This {@link io.vertx.core.Verticle} implements the ordered consumer logic, as described in
+ * {@link DeliveryOrder#ORDERED} and {@link DeliveryOrder#KEY_ORDERED}.
+ */
 public class OrderedConsumerVerticle extends ConsumerVerticle {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderedConsumerVerticle.class);
 
-    private static final long POLLING_MS = 200L;
+    // Polls are triggered when executors wait for records, when rate limiter tokens are refilled and when partitions
+    // are revoked, the periodic poll is only a safety net.
+    private static final long SAFETY_NET_POLLING_MS = 1000L;
     private static final Duration POLLING_TIMEOUT = Duration.ofMillis(1000L);
+    // Weight of the last observed poll latency in the average poll latency.
+    private static final double POLL_LATENCY_EWMA_ALPHA = 0.2;
 
     private final Map<TopicPartition, OrderedAsyncExecutor> recordDispatcherExecutors;
+    private final Set<TopicPartition> pausedPartitions;
     private final PartitionRevokedHandler partitionRevokedHandler;
     private final Bucket bucket;
+    private final boolean keyOrdered;
+    private final int maxConcurrencyPerPartition;
+    // null when retry topics are disabled.
+    private final String retryTopic;
 
     private final AtomicBoolean closed;
     private final AtomicLong pollTimer;
     private final AtomicBoolean isPollInFlight;
+    private final AtomicBoolean isRateLimiterWakeUpScheduled;
+    private long pollStartNanos;
+    private double avgPollLatencyMs;
+    private Gauge pausedPartitionsGauge;
 
     public OrderedConsumerVerticle(final ConsumerVerticleContext context, final Initializer initializer) {
         super(context, initializer);
@@ -71,14 +94,24 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
             this.bucket = null;
         }
 
+        // With key ordering, each partition dispatches up to max.poll.records records concurrently, which is the same
+        // bound an unordered consumer uses for its in-flight records.
+        this.keyOrdered =
+                DeliveryOrder.fromContract(context.getEgress().getDeliveryOrder()) == DeliveryOrder.KEY_ORDERED;
+        this.maxConcurrencyPerPartition = this.keyOrdered ? Math.max(1, context.getMaxPollRecords()) : 1;
+        this.retryTopic = RetryTopic.topicName(context);
+
         this.recordDispatcherExecutors = new ConcurrentHashMap<>();
+        this.pausedPartitions = ConcurrentHashMap.newKeySet();
         this.closed = new AtomicBoolean(false);
         this.isPollInFlight = new AtomicBoolean(false);
+        this.isRateLimiterWakeUpScheduled = new AtomicBoolean(false);
         this.pollTimer = new AtomicLong(-1);
 
         partitionRevokedHandler = partitions -> {
             // Stop executors associated with revoked partitions.
             for (final TopicPartition partition : partitions) {
+                pausedPartitions.remove(partition);
                 final var executor = recordDispatcherExecutors.remove(partition);
                 if (executor != null) {
                     logger.info(
@@ -88,6 +121,10 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
                     executor.stop();
                 }
             }
+            // Remaining partitions might be waiting for records.
+            if (this.context != null) {
+                this.context.runOnContext(v -> poll());
+            }
             return Future.succeededFuture();
         };
     }
@@ -96,14 +133,23 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
     void startConsumer(Promise<Void> startPromise) {
         Objects.requireNonNull(getConsumerRebalanceListener());
         // We need to sub first, then we can start the polling loop
+        final var topics =
+                new HashSet<>(getConsumerVerticleContext().getResource().getTopicsList());
+        if (retryTopic != null) {
+            // Records parked in the retry topic are consumed along with the other records, see RetryTopic.
+            topics.add(retryTopic);
+        }
         this.consumer
-                .subscribe(
-                        Set.copyOf(getConsumerVerticleContext().getResource().getTopicsList()),
-                        getConsumerRebalanceListener())
+                .subscribe(topics, getConsumerRebalanceListener())
                 .onFailure(startPromise::fail)
                 .onSuccess(v -> {
+                    if (getConsumerVerticleContext().getMetricsRegistry() != null) {
+                        this.pausedPartitionsGauge = Metrics.pausedPartitions(
+                                        getConsumerVerticleContext().getTags(), this.pausedPartitions::size)
+                                .register(getConsumerVerticleContext().getMetricsRegistry());
+                    }
                     if (this.pollTimer.compareAndSet(-1, 0)) {
-                        this.pollTimer.set(vertx.setPeriodic(POLLING_MS, x -> poll()));
+                        this.pollTimer.set(vertx.setPeriodic(SAFETY_NET_POLLING_MS, x -> poll()));
                     }
                     this.poll();
                     startPromise.complete();
@@ -118,13 +164,23 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
             return;
         }
 
-        // When we don't have tokens available, we just wait `POLLING_MS`
-        // before trying to poll again.
+        // When we don't have tokens available, we wait for the bucket to be
+        // refilled before trying to poll again.
         if (bucket != null && bucket.getAvailableTokens() <= 0) {
+            final var waitMs = Math.max(
+                    1L,
+                    TimeUnit.NANOSECONDS.toMillis(
+                            bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill()));
             logger.info(
                     "Rate limiter, tokens unavailable {} {}",
-                    keyValue("wait.ms", POLLING_MS),
+                    keyValue("wait.ms", waitMs),
                     getConsumerVerticleContext().getLoggingKeyValue());
+            if (this.isRateLimiterWakeUpScheduled.compareAndSet(false, true)) {
+                vertx.setTimer(waitMs, t -> {
+                    this.isRateLimiterWakeUpScheduled.set(false);
+                    poll();
+                });
+            }
             return;
         }
 
@@ -139,6 +195,7 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
         if (this.isPollInFlight.compareAndSet(false, true)) {
             logger.debug("Polling for records {}", getConsumerVerticleContext().getLoggingKeyValue());
 
+            this.pollStartNanos = System.nanoTime();
             this.consumer
                     .poll(POLLING_TIMEOUT)
                     .onSuccess(records -> vertx.runOnContext(v -> this.recordsHandler(records)))
@@ -159,6 +216,9 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
         this.closed.set(true);
         this.vertx.cancelTimer(this.pollTimer.get());
         this.recordDispatcherExecutors.values().forEach(OrderedAsyncExecutor::stop);
+        if (this.pausedPartitionsGauge != null) {
+            getConsumerVerticleContext().getMetricsRegistry().remove(this.pausedPartitionsGauge);
+        }
         // Stop the consumer
         super.stop(stopPromise);
     }
@@ -175,9 +235,12 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
         isPollInFlight.set(false);
 
         if (records == null || records.count() == 0) {
+            poll();
             return;
         }
 
+        recordPollLatency();
+
         if (bucket != null) {
             // Once we have new records, we force add them to internal per-partition queues.
             bucket.forceAddTokens(records.count());
@@ -186,8 +249,11 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
         // Put records in internal per-partition queues.
         for (var record : records) {
             final var executor = executorFor(new TopicPartition(record.topic(), record.partition()));
-            executor.offer(() -> dispatch(record));
+            executor.offer(keyOrdered ? orderingKey(record.key()) : null, () -> dispatch(record));
         }
+
+        // Poll again right away if some partitions still need records.
+        poll();
     }
 
     private Future<Void> dispatch(final ConsumerRecord<Object, CloudEvent> record) {
@@ -195,6 +261,16 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
             return Future.failedFuture("Consumer verticle closed " + getConsumerVerticleContext());
         }
 
+        if (retryTopic != null && retryTopic.equals(record.topic())) {
+            // Parked records are held back until they're due, this only stalls the partition of the retry topic.
+            final var delayMs = RetryTopic.getDueTimeMs(record) - System.currentTimeMillis();
+            if (delayMs > 0) {
+                final Promise<Void> promise = Promise.promise();
+                vertx.setTimer(delayMs, t -> dispatch(record).onComplete(promise));
+                return promise.future();
+            }
+        }
+
         return this.recordDispatcher.dispatch(record);
     }
 
@@ -206,11 +282,50 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
         executor = new OrderedAsyncExecutor(
                 topicPartition,
                 getConsumerVerticleContext().getMetricsRegistry(),
-                getConsumerVerticleContext().getEgress());
+                getConsumerVerticleContext().getEgress(),
+                maxConcurrencyPerPartition,
+                getConsumerVerticleContext().getMaxPollRecords());
+        executor.setRefillLatency(getRefillLatencyMs());
+        executor.setWaitingForTasksHandler(this::poll);
         this.recordDispatcherExecutors.put(topicPartition, executor);
         return executor;
     }
 
+    private static Object orderingKey(final Object key) {
+        // byte[] doesn't implement equals and hashCode based on its content.
+        if (key instanceof byte[] bytes) {
+            return ByteBuffer.wrap(bytes);
+        }
+        return key;
+    }
+
+    /**
+     * Only polls that returned records are accounted, since empty polls wait for the poll timeout.
+     */
+    private void recordPollLatency() {
+        final var latencyMs = (System.nanoTime() - this.pollStartNanos) / 1_000_000.0;
+        final var avg = this.avgPollLatencyMs;
+        this.avgPollLatencyMs = avg == 0 ? latencyMs : avg + POLL_LATENCY_EWMA_ALPHA * (latencyMs - avg);
+
+        final var refillLatencyMs = getRefillLatencyMs();
+        for (final var executor : this.recordDispatcherExecutors.values()) {
+            executor.setRefillLatency(refillLatencyMs);
+        }
+    }
+
+    /**
+     * Once an executor asks for new records, a poll is triggered right away, so it waits for the poll round trip.
+     */
+    private long getRefillLatencyMs() {
+        return Math.round(this.avgPollLatencyMs);
+    }
+
+    /**
+     * Partitions are paused once their executor queue reaches the high watermark and resumed once it goes down to the
+     * low watermark, so that queues are refilled before they're drained while keeping memory bounded.
+     *
+     * @return true if every partition with an executor is paused.
+     */
     private boolean areAllExecutorsBusy() {
         if (recordDispatcherExecutors.isEmpty()) {
             // No executors
@@ -225,6 +340,11 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
             if (executor.getValue().isWaitingForTasks()) {
                 toResume.add(executor.getKey());
                 res = false;
+            } else if (executor.getValue().isFull()) {
+                toPause.add(executor.getKey());
+            } else if (!pausedPartitions.contains(executor.getKey())) {
+                // Between the watermarks, the partition keeps being consumed until the high watermark is reached.
+                res = false;
             } else {
                 toPause.add(executor.getKey());
             }
@@ -232,9 +352,11 @@ public class OrderedConsumerVerticle extends ConsumerVerticle {
 
         if (!toPause.isEmpty()) {
             this.consumer.pause(toPause);
+            this.pausedPartitions.addAll(toPause);
         }
         if (!toResume.isEmpty()) {
             this.consumer.resume(toResume);
+            this.pausedPartitions.removeAll(toResume);
         }
 
         return res;
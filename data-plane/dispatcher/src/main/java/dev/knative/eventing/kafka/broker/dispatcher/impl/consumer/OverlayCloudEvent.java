@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.CloudEventData;
+import io.cloudevents.SpecVersion;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * OverlayCloudEvent is an immutable {@link CloudEvent} that adds extensions to another event without copying it.
+ * <p>
+ * Extensions of the overlay replace the extensions of the event with the same name, everything else is read from the
+ * event. Events are equal to any {@link CloudEvent} with the same attributes, extensions and data.
+ */
+public final class OverlayCloudEvent implements CloudEvent {
+
+    private final CloudEvent delegate;
+    private final Map<String, Object> extensions;
+
+    private OverlayCloudEvent(final CloudEvent delegate, final Map<String, Object> extensions) {
+        this.delegate = delegate;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Create an event with the given extensions.
+     * <p>
+     * Overlays aren't nested, extensions of an overlay are merged with the extensions of the given event when the
+     * given event is an overlay too.
+     *
+     * @param event      event.
+     * @param extensions extensions, values are strings or numbers, the map is owned by the returned event.
+     * @return an event with the given extensions.
+     */
+    public static OverlayCloudEvent of(final CloudEvent event, final Map<String, ?> extensions) {
+        Objects.requireNonNull(event, "event");
+        if (event instanceof OverlayCloudEvent overlay) {
+            final var merged = new LinkedHashMap<String, Object>(overlay.extensions);
+            merged.putAll(extensions);
+            return new OverlayCloudEvent(overlay.delegate, merged);
+        }
+        @SuppressWarnings("unchecked")
+        final var owned = (Map<String, Object>) extensions;
+        return new OverlayCloudEvent(event, owned);
+    }
+
+    /**
+     * @return the event without the extensions of the overlay.
+     */
+    public CloudEvent delegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the extensions of the overlay.
+     */
+    public Map<String, Object> extensions() {
+        return Collections.unmodifiableMap(extensions);
+    }
+
+    @Override
+    public CloudEventData getData() {
+        return delegate.getData();
+    }
+
+    @Override
+    public SpecVersion getSpecVersion() {
+        return delegate.getSpecVersion();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public URI getSource() {
+        return delegate.getSource();
+    }
+
+    @Override
+    public String getDataContentType() {
+        return delegate.getDataContentType();
+    }
+
+    @Override
+    public URI getDataSchema() {
+        return delegate.getDataSchema();
+    }
+
+    @Override
+    public String getSubject() {
+        return delegate.getSubject();
+    }
+
+    @Override
+    public OffsetDateTime getTime() {
+        return delegate.getTime();
+    }
+
+    @Override
+    public Object getAttribute(final String attributeName) throws IllegalArgumentException {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Object getExtension(final String extensionName) {
+        final var value = extensions.get(extensionName);
+        if (value != null) {
+            return value;
+        }
+        return delegate.getExtension(extensionName);
+    }
+
+    @Override
+    public Set<String> getExtensionNames() {
+        final var names = new HashSet<>(delegate.getExtensionNames());
+        names.addAll(extensions.keySet());
+        return names;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CloudEvent that)) {
+            return false;
+        }
+        if (getSpecVersion() != that.getSpecVersion()
+                || !Objects.equals(getId(), that.getId())
+                || !Objects.equals(getSource(), that.getSource())
+                || !Objects.equals(getType(), that.getType())
+                || !Objects.equals(getDataContentType(), that.getDataContentType())
+                || !Objects.equals(getDataSchema(), that.getDataSchema())
+                || !Objects.equals(getSubject(), that.getSubject())
+                || !Objects.equals(getTime(), that.getTime())) {
+            return false;
+        }
+        final var names = getExtensionNames();
+        if (!names.equals(that.getExtensionNames())) {
+            return false;
+        }
+        for (final var name : names) {
+            if (!Objects.equals(getExtension(name), that.getExtension(name))) {
+                return false;
+            }
+        }
+        return Objects.equals(getData(), that.getData());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getSource(), getType());
+    }
+
+    @Override
+    public String toString() {
+        return "OverlayCloudEvent{" + "delegate=" + delegate + ", extensions=" + extensions + '}';
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import io.vertx.core.Future;
+import java.util.Collection;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * {@link PartitionAssignedHandler} is the handler called when some partitions are assigned to a
+ * {@link org.apache.kafka.clients.consumer.Consumer}, it's called from the consumer thread before records of the
+ * given partitions are polled.
+ */
+public interface PartitionAssignedHandler {
+
+    /**
+     * @param partitions assigned partitions
+     * @return a successful or a failed future
+     */
+    Future<Void> partitionAssigned(final Collection<TopicPartition> partitions);
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class commits offsets when a single consumer fetches records on behalf of multiple consumer groups, called
+ * member groups.
+ * <p>
+ * Offsets of each member group are committed under the member group, so that every trigger keeps its own progress.
+ * The consumer group of the shared consumer, instead, commits for each partition the lowest offset committed by the
+ * member groups, so that, when the partition is assigned again, the shared consumer resumes from the slowest member
+ * and records below the committed offset of a member group are skipped for that member only.
+ * <p>
+ * The consumer group of the shared consumer doesn't change when member groups join or leave, so a member group that
+ * joins with a committed offset below the offset of the shared consumer group would miss records, in that case the
+ * shared consumer seeks back to the offset of the member group when the partition is assigned, see
+ * {@link #getPartitionAssignedHandler(Consumer)}.
+ */
+public final class SharedFetchCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedFetchCommitter.class);
+
+    private final ConsumerGroupOffsets consumerGroupOffsets;
+    private final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> sharedCommitter;
+
+    // member group -> committed offsets at startup
+    private final Map<String, Map<TopicPartition, Long>> startOffsets;
+    // partition -> member group -> committed offset
+    private final Map<TopicPartition, Map<String, Long>> committed;
+    // partition -> offset committed by the shared consumer
+    private final Map<TopicPartition, Long> sharedCommitted;
+    // partition -> offset to seek to when the partition is assigned for the first time
+    private final Map<TopicPartition, Long> rewindOffsets;
+
+    SharedFetchCommitter(
+            final ConsumerGroupOffsets consumerGroupOffsets,
+            final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> sharedCommitter,
+            final Map<String, Map<TopicPartition, Long>> startOffsets,
+            final Map<TopicPartition, Long> rewindOffsets) {
+        this.consumerGroupOffsets = consumerGroupOffsets;
+        this.sharedCommitter = sharedCommitter;
+        this.startOffsets = startOffsets;
+        this.rewindOffsets = new HashMap<>(rewindOffsets);
+        this.committed = new HashMap<>();
+        this.sharedCommitted = new HashMap<>();
+
+        startOffsets.forEach((group, offsets) -> offsets.forEach((tp, offset) ->
+                committed.computeIfAbsent(tp, k -> new HashMap<>()).put(group, offset)));
+    }
+
+    /**
+     * Create a committer for the given member groups.
+     * <p>
+     * When the shared consumer group doesn't have committed offsets, its offsets are initialized with the lowest
+     * offsets committed by the member groups, so that no member group misses records when it starts sharing the fetch.
+     * Partitions where a member group is behind the shared consumer group are rewound when they're assigned.
+     *
+     * @param consumerGroupOffsets offsets of the consumer groups.
+     * @param sharedGroup          consumer group of the shared consumer.
+     * @param memberGroups         member consumer groups.
+     * @param sharedCommitter      function that commits offsets for the shared consumer group.
+     * @return the committer.
+     */
+    public static Future<SharedFetchCommitter> create(
+            final ConsumerGroupOffsets consumerGroupOffsets,
+            final String sharedGroup,
+            final Collection<String> memberGroups,
+            final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> sharedCommitter) {
+
+        final List<String> groups = new ArrayList<>(memberGroups);
+        final List<Future> futures = new ArrayList<>(groups.size());
+        for (final var group : groups) {
+            futures.add(consumerGroupOffsets.committed(group));
+        }
+
+        return CompositeFuture.all(futures).compose(r -> {
+            final var startOffsets = new HashMap<String, Map<TopicPartition, Long>>(groups.size());
+            for (int i = 0; i < groups.size(); i++) {
+                final Map<TopicPartition, OffsetAndMetadata> offsets = r.resultAt(i);
+                final var groupOffsets = new HashMap<TopicPartition, Long>(offsets.size());
+                offsets.forEach((tp, offset) -> groupOffsets.put(tp, offset.offset()));
+                startOffsets.put(groups.get(i), groupOffsets);
+            }
+
+            final var lowestOffsets = lowestOffsets(startOffsets.values());
+            return consumerGroupOffsets.committed(sharedGroup).compose(sharedOffsets -> initializeSharedGroup(
+                            consumerGroupOffsets, sharedGroup, sharedOffsets, lowestOffsets)
+                    .map(v -> new SharedFetchCommitter(
+                            consumerGroupOffsets,
+                            sharedCommitter,
+                            startOffsets,
+                            rewindOffsets(sharedOffsets, lowestOffsets))));
+        });
+    }
+
+    private static Future<Void> initializeSharedGroup(
+            final ConsumerGroupOffsets consumerGroupOffsets,
+            final String sharedGroup,
+            final Map<TopicPartition, OffsetAndMetadata> sharedOffsets,
+            final Map<TopicPartition, Long> initialOffsets) {
+        if (!sharedOffsets.isEmpty() || initialOffsets.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        final var toCommit = new HashMap<TopicPartition, OffsetAndMetadata>(initialOffsets.size());
+        initialOffsets.forEach((tp, offset) -> toCommit.put(tp, new OffsetAndMetadata(offset, "")));
+
+        logger.info(
+                "Initializing shared consumer group offsets {} {}",
+                keyValue("group", sharedGroup),
+                keyValue("offsets", toCommit));
+
+        return consumerGroupOffsets.commit(sharedGroup, toCommit).recover(cause -> {
+            // The group might have active members already (for example, on another replica), in that case, the
+            // shared consumer seeks to the lowest offsets committed by the members when partitions are assigned.
+            logger.warn("Failed to initialize shared consumer group offsets {}", keyValue("group", sharedGroup), cause);
+            return Future.succeededFuture();
+        });
+    }
+
+    /**
+     * @param sharedOffsets offsets committed by the shared consumer group.
+     * @param lowestOffsets lowest offsets committed by the member groups.
+     * @return the offsets of partitions where some member group is behind the shared consumer group.
+     */
+    static Map<TopicPartition, Long> rewindOffsets(
+            final Map<TopicPartition, OffsetAndMetadata> sharedOffsets, final Map<TopicPartition, Long> lowestOffsets) {
+        final var rewind = new HashMap<TopicPartition, Long>();
+        lowestOffsets.forEach((tp, offset) -> {
+            final var shared = sharedOffsets.get(tp);
+            if (shared == null || offset < shared.offset()) {
+                rewind.put(tp, offset);
+            }
+        });
+        return rewind;
+    }
+
+    /**
+     * @param memberOffsets committed offsets of each member group.
+     * @return the lowest committed offset for each partition, considering only groups with a committed offset for
+     * the partition.
+     */
+    static Map<TopicPartition, Long> lowestOffsets(final Collection<Map<TopicPartition, Long>> memberOffsets) {
+        final var lowest = new HashMap<TopicPartition, Long>();
+        for (final var offsets : memberOffsets) {
+            offsets.forEach((tp, offset) -> lowest.merge(tp, offset, Math::min));
+        }
+        return lowest;
+    }
+
+    /**
+     * @param memberGroup member group.
+     * @return the offsets committed by the given member group when the shared consumer started, records below these
+     * offsets have already been handled by the member group.
+     */
+    public Map<TopicPartition, Long> getStartOffsets(final String memberGroup) {
+        return startOffsets.getOrDefault(memberGroup, Map.of());
+    }
+
+    /**
+     * Create a handler that seeks the given consumer back to the lowest offset committed by the member groups, for
+     * partitions where a member group was behind the shared consumer group at startup.
+     * <p>
+     * Partitions are rewound only the first time they're assigned, later assignments resume from the offsets
+     * committed by the shared consumer, which are never above the offsets committed by the member groups.
+     *
+     * @param consumer consumer to seek, the handler is called from the consumer thread.
+     * @return partition assigned handler.
+     */
+    public PartitionAssignedHandler getPartitionAssignedHandler(final Consumer<?, ?> consumer) {
+        return partitions -> {
+            for (final var tp : partitions) {
+                final Long offset;
+                synchronized (this) {
+                    offset = rewindOffsets.remove(tp);
+                }
+                if (offset != null) {
+                    logger.info(
+                            "Rewinding shared consumer to the lowest member offset {} {}",
+                            keyValue("topicPartition", tp),
+                            keyValue("offset", offset));
+                    consumer.seek(tp, offset);
+                }
+            }
+            return Future.succeededFuture();
+        };
+    }
+
+    /**
+     * @param memberGroup member group.
+     * @return a function that commits offsets for the given member group.
+     */
+    public Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committerFor(final String memberGroup) {
+        return offsets -> consumerGroupOffsets
+                .commit(memberGroup, offsets)
+                .onSuccess(v -> onMemberCommitted(memberGroup, offsets));
+    }
+
+    private synchronized void onMemberCommitted(
+            final String memberGroup, final Map<TopicPartition, OffsetAndMetadata> offsets) {
+        for (final var entry : offsets.entrySet()) {
+            final var tp = entry.getKey();
+            final var groupsOffsets = committed.computeIfAbsent(tp, k -> new HashMap<>());
+            // Commits of a member group might complete out of order.
+            groupsOffsets.merge(memberGroup, entry.getValue().offset(), Math::max);
+
+            // Until every member commits the partition, we don't know where the slowest member is.
+            if (groupsOffsets.size() < startOffsets.size()) {
+                continue;
+            }
+            final long lowest = groupsOffsets.values().stream()
+                    .mapToLong(Long::longValue)
+                    .min()
+                    .orElseThrow();
+            if (lowest > sharedCommitted.getOrDefault(tp, -1L)) {
+                sharedCommitted.put(tp, lowest);
+                sharedCommitter
+                        .apply(Map.of(tp, new OffsetAndMetadata(lowest, "")))
+                        .onFailure(cause -> logger.warn(
+                                "Failed to commit shared consumer group offset {} {}",
+                                keyValue("topicPartition", tp),
+                                keyValue("offset", lowest),
+                                cause));
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
+
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import io.vertx.core.Vertx;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a circuit breaker for the subscriber of an egress.
+ * <p>
+ * The circuit opens after a number of consecutive requests fail because the subscriber is unavailable or overloaded,
+ * that is when it replies with {@code 429} or {@code 5xx}, or when it doesn't reply at all. While the circuit is
+ * open, requests are held back instead of using up their retries, and the {@link Listener} pauses the partitions of
+ * the consumer.
+ * <p>
+ * After the open duration, the circuit is half-open: a single probe request is allowed, and every successful probe
+ * doubles the number of concurrent probes, until enough probes succeed and the circuit closes. A failed probe opens
+ * the circuit again.
+ */
+public class SubscriberCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberCircuitBreaker.class);
+
+    /**
+     * Consumer config to set the number of consecutive failed requests that open the circuit, the circuit breaker is
+     * disabled when it's not set or {@code <= 0}.
+     */
+    public static final String FAILURE_THRESHOLD_CONFIG = "dispatcher.circuit.breaker.failure.threshold";
+
+    /**
+     * Consumer config to set how long the circuit stays open before probing the subscriber, defaults to
+     * {@link #DEFAULT_OPEN_DURATION_MS}.
+     */
+    public static final String OPEN_DURATION_MS_CONFIG = "dispatcher.circuit.breaker.open.ms";
+
+    /**
+     * Consumer config to set the number of successful probes that close the circuit, defaults to
+     * {@link #DEFAULT_SUCCESS_THRESHOLD}.
+     */
+    public static final String SUCCESS_THRESHOLD_CONFIG = "dispatcher.circuit.breaker.success.threshold";
+
+    static final long DEFAULT_OPEN_DURATION_MS = 10_000;
+    static final int DEFAULT_SUCCESS_THRESHOLD = 8;
+
+    // Requests held back while the circuit is half-open wait for a probe to complete.
+    static final long HALF_OPEN_WAIT_MS = 100;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Permission to send a request, see {@link #tryAcquire()}.
+     */
+    public enum Permit {
+        DENIED,
+        GRANTED,
+        PROBE
+    }
+
+    /**
+     * Listener of the circuit state, its methods are called while holding the circuit breaker lock.
+     */
+    public interface Listener {
+
+        void onOpen();
+
+        void onHalfOpen();
+
+        void onProbeSucceeded();
+
+        void onClose();
+    }
+
+    private final Vertx vertx;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final int successThreshold;
+    private final Object loggingKeyValue;
+
+    private Listener listener;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int probeSuccesses;
+    private int probesInFlight;
+    private int probePermits;
+    private long openUntilMs;
+
+    public SubscriberCircuitBreaker(
+            final Vertx vertx,
+            final int failureThreshold,
+            final long openDurationMs,
+            final int successThreshold,
+            final Object loggingKeyValue) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be greater than 0, got " + failureThreshold);
+        }
+        if (openDurationMs <= 0) {
+            throw new IllegalArgumentException("openDurationMs must be greater than 0, got " + openDurationMs);
+        }
+        if (successThreshold <= 0) {
+            throw new IllegalArgumentException("successThreshold must be greater than 0, got " + successThreshold);
+        }
+        this.vertx = vertx;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.successThreshold = successThreshold;
+        this.loggingKeyValue = loggingKeyValue;
+    }
+
+    /**
+     * Create a circuit breaker using the consumer configs of the given context.
+     *
+     * @param vertx   Vert.x instance.
+     * @param context consumer verticle context.
+     * @return a new circuit breaker or null when the circuit breaker is disabled.
+     */
+    @Nullable
+    public static SubscriberCircuitBreaker create(final Vertx vertx, final ConsumerVerticleContext context) {
+        final var failureThreshold = getConfig(context, FAILURE_THRESHOLD_CONFIG, 0);
+        if (failureThreshold <= 0) {
+            return null;
+        }
+        return new SubscriberCircuitBreaker(
+                vertx,
+                (int) failureThreshold,
+                getConfig(context, OPEN_DURATION_MS_CONFIG, DEFAULT_OPEN_DURATION_MS),
+                (int) getConfig(context, SUCCESS_THRESHOLD_CONFIG, DEFAULT_SUCCESS_THRESHOLD),
+                context.getLoggingKeyValue());
+    }
+
+    private static long getConfig(final ConsumerVerticleContext context, final String key, final long defaultValue) {
+        final var value = context.getConsumerConfigs().get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.toString());
+    }
+
+    public synchronized void setListener(final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ask for permission to send a request, the outcome of a permitted request must be recorded with
+     * {@link #onResult(Permit, int)}.
+     *
+     * @return {@link Permit#DENIED} when the request must be held back, see {@link #getRetryDelayMs()}.
+     */
+    public synchronized Permit tryAcquire() {
+        return switch (state) {
+            case CLOSED -> Permit.GRANTED;
+            case OPEN -> Permit.DENIED;
+            case HALF_OPEN -> {
+                if (probesInFlight >= probePermits) {
+                    yield Permit.DENIED;
+                }
+                probesInFlight++;
+                yield Permit.PROBE;
+            }
+        };
+    }
+
+    /**
+     * @return how long a denied request should wait before asking for permission again.
+     */
+    public synchronized long getRetryDelayMs() {
+        if (state == State.OPEN) {
+            return Math.max(openUntilMs - System.currentTimeMillis(), 1);
+        }
+        return HALF_OPEN_WAIT_MS;
+    }
+
+    /**
+     * Record the outcome of a permitted request.
+     *
+     * @param permit     permit of the request.
+     * @param statusCode response status code or a negative value when no response has been received.
+     */
+    public synchronized void onResult(final Permit permit, final int statusCode) {
+        final var failed = AdaptiveConcurrencyLimiter.isOverloaded(statusCode);
+        if (permit == Permit.PROBE) {
+            probesInFlight = Math.max(probesInFlight - 1, 0);
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failed) {
+                open();
+                return;
+            }
+            probeSuccesses++;
+            if (probeSuccesses >= successThreshold) {
+                close();
+                return;
+            }
+            probePermits *= 2;
+            if (listener != null) {
+                listener.onProbeSucceeded();
+            }
+            return;
+        }
+
+        // Requests sent before the circuit opened don't change its state.
+        if (permit != Permit.GRANTED || state != State.CLOSED) {
+            return;
+        }
+        if (!failed) {
+            consecutiveFailures = 0;
+            return;
+        }
+        if (++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        logger.warn(
+                "Subscriber unavailable, opening circuit {} {}",
+                loggingKeyValue,
+                keyValue("openDurationMs", openDurationMs));
+
+        state = State.OPEN;
+        openUntilMs = System.currentTimeMillis() + openDurationMs;
+        vertx.setTimer(openDurationMs, v -> halfOpen());
+        if (listener != null) {
+            listener.onOpen();
+        }
+    }
+
+    private synchronized void halfOpen() {
+        if (state != State.OPEN) {
+            return;
+        }
+        logger.info("Probing subscriber, circuit half-open {}", loggingKeyValue);
+
+        state = State.HALF_OPEN;
+        probeSuccesses = 0;
+        // Probes sent before the circuit opened again must not hold back the probes of this half-open period.
+        probesInFlight = 0;
+        probePermits = 1;
+        if (listener != null) {
+            listener.onHalfOpen();
+        }
+    }
+
+    private void close() {
+        logger.info("Subscriber available, closing circuit {}", loggingKeyValue);
+
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        if (listener != null) {
+            listener.onClose();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberCircuitBreaker{" + "state="
+                + state + ", failureThreshold="
+                + failureThreshold + ", openDurationMs="
+                + openDurationMs + ", successThreshold="
+                + successThreshold + '}';
+    }
+}
@@ -17,17 +17,22 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 
 import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
 
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
 import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,12 +52,23 @@ public final class UnorderedConsumerVerticle extends ConsumerVerticle {
     private final AtomicBoolean closed;
     private final AtomicInteger inFlightRecords;
     private final AtomicBoolean isPollInFlight;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    // Records polled but not yet dispatched because the concurrency limit has been reached.
+    private final Queue<ConsumerRecord<Object, CloudEvent>> pendingRecords;
+
+    private boolean isDispatching;
+    // Records are dispatched once the assigned partitions are ready, see awaitBeforeDispatch.
+    private Future<Void> partitionsReady;
+    private Gauge concurrencyLimitGauge;
 
     public UnorderedConsumerVerticle(final ConsumerVerticleContext context, final Initializer initializer) {
         super(context, initializer);
         this.inFlightRecords = new AtomicInteger(0);
         this.closed = new AtomicBoolean(false);
         this.isPollInFlight = new AtomicBoolean(false);
+        this.concurrencyLimiter = AdaptiveConcurrencyLimiter.create(context);
+        this.pendingRecords = new ArrayDeque<>();
+        this.partitionsReady = Future.succeededFuture();
     }
 
     @Override
@@ -64,6 +80,13 @@ public final class UnorderedConsumerVerticle extends ConsumerVerticle {
                         Set.copyOf(getConsumerVerticleContext().getResource().getTopicsList()),
                         getConsumerRebalanceListener())
                 .onFailure(startPromise::tryFail)
+                .onSuccess(v -> {
+                    if (getConsumerVerticleContext().getMetricsRegistry() != null) {
+                        this.concurrencyLimitGauge = Metrics.concurrencyLimit(
+                                        getConsumerVerticleContext().getTags(), concurrencyLimiter::getLimit)
+                                .register(getConsumerVerticleContext().getMetricsRegistry());
+                    }
+                })
                 .onSuccess(startPromise::tryComplete)
                 .onSuccess(v -> poll());
     }
@@ -77,22 +100,23 @@ public final class UnorderedConsumerVerticle extends ConsumerVerticle {
      * in-flight requests, so we need to manually poll for new records
      * as we dispatch them to the subscriber service.
      * <p>
-     * The maximum number of outbound in-flight requests is already configurable
-     * with the consumer parameter `max.poll.records`, and it's critical to
-     * control the memory consumption of the dispatcher.
+     * The maximum number of outbound in-flight requests is adapted by the
+     * {@link AdaptiveConcurrencyLimiter} based on the subscriber latency and
+     * responses, and it's bounded by the consumer parameter `max.poll.records`
+     * (by default), which is critical to control the memory consumption of the
+     * dispatcher.
      */
     private synchronized void poll() {
         if (closed.get() || isPollInFlight.get()) {
             return;
         }
-        if (inFlightRecords.get() >= getConsumerVerticleContext().getMaxPollRecords()) {
-            logger.info(
-                    "In flight records exceeds " + ConsumerConfig.MAX_POLL_RECORDS_CONFIG
-                            + " waiting for response from subscriber before polling for new records {} {} {}",
-                    keyValue(
-                            ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
-                            getConsumerVerticleContext().getMaxPollRecords()),
+        if (!pendingRecords.isEmpty() || inFlightRecords.get() >= concurrencyLimiter.getLimit()) {
+            logger.debug(
+                    "In flight records exceeds the concurrency limit"
+                            + " waiting for response from subscriber before polling for new records {} {} {} {}",
+                    keyValue("limit", concurrencyLimiter.getLimit()),
                     keyValue("records", inFlightRecords),
+                    keyValue("pendingRecords", pendingRecords.size()),
                     getConsumerVerticleContext().getLoggingKeyValue());
             return;
         }
@@ -112,31 +136,80 @@ public final class UnorderedConsumerVerticle extends ConsumerVerticle {
         }
     }
 
-    private void handleRecords(final ConsumerRecords<Object, CloudEvent> records) {
+    private synchronized void handleRecords(final ConsumerRecords<Object, CloudEvent> records) {
         if (closed.get()) {
             isPollInFlight.compareAndSet(true, false);
             return;
         }
+        if (!partitionsReady.isComplete()) {
+            // The poll stays in flight, so that no other records are polled in the meantime.
+            partitionsReady.onComplete(v -> vertx.runOnContext(r -> handleRecords(records)));
+            return;
+        }
 
-        // We are not forcing the dispatcher to send less than `max.poll.records`
-        // requests because we don't want to keep records in-memory by waiting
-        // for responses.
-        this.inFlightRecords.addAndGet(records.count());
+        // Records over the concurrency limit are kept in memory until responses
+        // come back, they're at most `max.poll.records` since we don't poll
+        // until they have all been dispatched.
+        for (var record : records) {
+            pendingRecords.add(record);
+        }
         isPollInFlight.compareAndSet(true, false);
 
-        for (var record : records) {
-            this.recordDispatcher.dispatch(record).onComplete(v -> {
-                this.inFlightRecords.decrementAndGet();
-                poll();
-            });
+        dispatchPendingRecords();
+    }
+
+    private synchronized void dispatchPendingRecords() {
+        // Dispatch might complete synchronously (for example, when the filter doesn't match),
+        // in that case, the outer loop takes care of dispatching the remaining records.
+        if (isDispatching) {
+            return;
+        }
+        isDispatching = true;
+        try {
+            while (!closed.get()
+                    && !pendingRecords.isEmpty()
+                    && inFlightRecords.get() < concurrencyLimiter.getLimit()) {
+                final var record = pendingRecords.poll();
+                this.inFlightRecords.incrementAndGet();
+                this.recordDispatcher.dispatch(record).onComplete(v -> {
+                    this.inFlightRecords.decrementAndGet();
+                    dispatchPendingRecords();
+                });
+            }
+        } finally {
+            isDispatching = false;
         }
 
         poll();
     }
 
+    /**
+     * Wrap the given handler so that polled records are not dispatched until the future returned by the handler for
+     * the last assigned partitions completes, either successfully or not.
+     *
+     * @param handler partition assigned handler.
+     * @return partition assigned handler.
+     */
+    public PartitionAssignedHandler awaitBeforeDispatch(final PartitionAssignedHandler handler) {
+        return partitions -> {
+            final var ready = handler.partitionAssigned(partitions);
+            synchronized (this) {
+                partitionsReady = CompositeFuture.join(partitionsReady, ready).mapEmpty();
+            }
+            return ready;
+        };
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
     @Override
     public void stop(Promise<Void> stopPromise) {
         this.closed.set(true);
+        if (this.concurrencyLimitGauge != null) {
+            getConsumerVerticleContext().getMetricsRegistry().remove(this.concurrencyLimitGauge);
+        }
         // Stop the consumer
         super.stop(stopPromise);
     }
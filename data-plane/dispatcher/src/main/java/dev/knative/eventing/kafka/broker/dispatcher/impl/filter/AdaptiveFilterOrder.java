@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * This class orders the children of an ALL or ANY filter by their observed pass rate and evaluation cost.
+ * <p>
+ * One event every {@link #SAMPLE_INTERVAL} is sampled: all the children are evaluated and timed, regardless of the
+ * result. Once statistics hold {@link #SAMPLES_PER_REORDER} samples, children are sorted by the expected cost of
+ * reaching the result of the filter, that is cost divided by the rejection rate for ALL filters, so that cheap and
+ * selective children run first, and cost divided by the pass rate for ANY filters, so that cheap children that likely
+ * accept run first. Statistics are then halved, so that the order follows changes of the traffic.
+ * <p>
+ * Filters are side effect free, so the order of the children doesn't change the result.
+ */
+public final class AdaptiveFilterOrder {
+
+    /**
+     * Consumer config to order the children of ALL and ANY filters adaptively, defaults to {@code false}.
+     */
+    public static final String ENABLED_CONFIG = "dispatcher.filter.adaptive.order.enabled";
+
+    static final int SAMPLE_INTERVAL = 128;
+    static final int SAMPLES_PER_REORDER = 64;
+
+    // Avoid dividing by 0 for children that always or never pass.
+    private static final double MIN_RATE = 0.001;
+
+    private final boolean all;
+    private final long[] nanos;
+    private final long[] passes;
+    private long samples;
+
+    // Indexes of the children in evaluation order.
+    private volatile int[] order;
+    // Not thread safe on purpose, it only spreads samples.
+    private int events;
+
+    /**
+     * @param size number of children.
+     * @param all  true for ALL filters, false for ANY filters.
+     */
+    public AdaptiveFilterOrder(final int size, final boolean all) {
+        this.all = all;
+        this.nanos = new long[size];
+        this.passes = new long[size];
+        this.order = IntStream.range(0, size).toArray();
+    }
+
+    /**
+     * @return indexes of the children in evaluation order, the returned array must not be modified.
+     */
+    public int[] order() {
+        return order;
+    }
+
+    /**
+     * @return true when all the children should be evaluated for the current event and recorded with
+     * {@link #record(int, boolean, long)}, then {@link #sampled()} must be called.
+     */
+    public boolean sample() {
+        return ++events % SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * @param child  index of the child.
+     * @param passed result of the child.
+     * @param nanos  evaluation time of the child.
+     */
+    public synchronized void record(final int child, final boolean passed, final long nanos) {
+        this.nanos[child] += Math.max(nanos, 1);
+        if (passed) {
+            this.passes[child]++;
+        }
+    }
+
+    /**
+     * Complete a sample, children are reordered once statistics hold {@link #SAMPLES_PER_REORDER} samples.
+     */
+    public synchronized void sampled() {
+        if (++samples < SAMPLES_PER_REORDER) {
+            return;
+        }
+        final var rank = new double[nanos.length];
+        for (int i = 0; i < rank.length; i++) {
+            final var cost = (double) nanos[i] / samples;
+            final var passRate = (double) passes[i] / samples;
+            rank[i] = cost / Math.max(all ? 1 - passRate : passRate, MIN_RATE);
+            nanos[i] /= 2;
+            passes[i] /= 2;
+        }
+        samples /= 2;
+        // The sort is stable, so children with the same rank keep their order.
+        this.order = IntStream.range(0, rank.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> rank[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveFilterOrder{" + "all=" + all + ", order=" + Arrays.toString(order) + '}';
+    }
+}
@@ -33,8 +33,8 @@ import org.slf4j.LoggerFactory;
 public abstract class AttributesFilter implements Filter {
 
     static class AttributeEntry {
-        private final String name;
-        private final String expectedValue;
+        final String name;
+        final String expectedValue;
         // An extractor function to turn an event into a string value.
         // specversion -> 1.0
         // f(event) -> event.getSpecVersion().toString() -> 1.0
@@ -83,6 +83,13 @@ public abstract class AttributesFilter implements Filter {
                 .collect(Collectors.toUnmodifiableList());
     }
 
+    /**
+     * @return attributes to match, see {@link CompiledFilter}.
+     */
+    List<AttributeEntry> getAttributes() {
+        return attributes;
+    }
+
     /**
      * Attributes filters events by exact match on event context attributes. Each key in the map is compared with the
      * equivalent key in the event context. An event passes the filter if all values are equal to the specified values.
@@ -99,6 +106,9 @@ public abstract class AttributesFilter implements Filter {
             String wantedValue = entry.expectedValue;
             String existingValue = extractorFunc.apply(event);
             if (!this.match(existingValue, wantedValue)) {
+                if (!logger.isDebugEnabled()) {
+                    return false;
+                }
                 logger.debug(
                         "Event attributes matching failed. Attribute: {} Want: {} Got: {} Event: {}",
                         entry.name,
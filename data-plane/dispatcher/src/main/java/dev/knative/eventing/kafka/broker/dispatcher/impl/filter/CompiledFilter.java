@@ -0,0 +1,494 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
+
+import static java.time.format.DateTimeFormatter.ISO_INSTANT;
+
+import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AnyFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.NotFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.PrefixFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.SuffixFilter;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.v03.CloudEventV03;
+import io.cloudevents.core.v1.CloudEventV1;
+import java.net.URI;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class compiles a tree of {@link AllFilter}, {@link AnyFilter}, {@link NotFilter}, {@link ExactFilter},
+ * {@link PrefixFilter} and {@link SuffixFilter} into a matcher that doesn't allocate per event.
+ * <p>
+ * Attributes are read at most once per event across the whole tree, attributes tested by more than one filter are kept
+ * in a per-thread array while testing an event. They are read with the getters of the
+ * {@link CloudEvent}, without converting them to strings when possible: {@code time} is compared with the instant
+ * of the wanted value instead of being formatted, and {@code source} and {@code dataschema} rely on the string that
+ * {@link URI} keeps. Extensions that aren't strings are still converted to strings.
+ * <p>
+ * Other filters, like CESQL filters, are evaluated as they are. Children of adaptive ALL and ANY filters are evaluated
+ * in the order given by {@link AdaptiveFilterOrder}.
+ */
+public final class CompiledFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledFilter.class);
+
+    private static final String DEFAULT_STRING = "";
+
+    private final Node root;
+    private final int slots;
+    // Values of the attributes of the event being tested, indexed by slot, null when not read yet.
+    private final ThreadLocal<String[]> values;
+
+    private CompiledFilter(final Node root, final int slots) {
+        this.root = root;
+        this.slots = slots;
+        this.values = ThreadLocal.withInitial(() -> new String[slots]);
+    }
+
+    /**
+     * Compile the given filter.
+     *
+     * @param filter filter to compile.
+     * @return a filter equivalent to the given one, or the given filter when there is nothing to compile.
+     */
+    public static Filter compile(final Filter filter) {
+        if (!isCompilable(filter)) {
+            return filter;
+        }
+        final var compiler = new Compiler();
+        compiler.count(filter);
+        final var root = compiler.compile(filter);
+        logger.debug("Compiled filter {} {}", filter, compiler.slots.keySet());
+        return new CompiledFilter(root, compiler.slots.size());
+    }
+
+    @Override
+    public boolean test(final CloudEvent event) {
+        if (slots == 0) {
+            return root.test(event, null);
+        }
+        final var values = this.values.get();
+        try {
+            return root.test(event, values);
+        } finally {
+            // Don't keep attributes of the event around.
+            Arrays.fill(values, null);
+        }
+    }
+
+    private static boolean isCompilable(final Filter filter) {
+        return filter instanceof AllFilter
+                || filter instanceof AnyFilter
+                || filter instanceof NotFilter
+                || filter instanceof ExactFilter
+                || filter instanceof PrefixFilter
+                || filter instanceof SuffixFilter;
+    }
+
+    private static final class Compiler {
+
+        // attribute name -> number of filters testing it
+        private final Map<String, Integer> references = new HashMap<>();
+        // attribute name -> attribute kept in a slot
+        private final Map<String, Attribute> slots = new HashMap<>();
+
+        private void count(final Filter filter) {
+            if (filter instanceof AllFilter all) {
+                all.getFilters().forEach(this::count);
+            } else if (filter instanceof AnyFilter any) {
+                any.getFilters().forEach(this::count);
+            } else if (filter instanceof NotFilter not) {
+                count(not.getFilter());
+            } else if (filter instanceof AttributesFilter attributes) {
+                for (final var attribute : attributes.getAttributes()) {
+                    references.merge(attribute.name, 1, Integer::sum);
+                }
+            }
+        }
+
+        private Node compile(final Filter filter) {
+            if (filter instanceof AllFilter all) {
+                final var nodes = compile(all.getFilters());
+                return all.isAdaptive() && nodes.size() > 1 ? new AdaptiveAll(nodes.toArray(Node[]::new)) : all(nodes);
+            }
+            if (filter instanceof AnyFilter any) {
+                final var nodes = compile(any.getFilters());
+                return any.isAdaptive() && nodes.size() > 1 ? new AdaptiveAny(nodes.toArray(Node[]::new)) : any(nodes);
+            }
+            if (filter instanceof NotFilter not) {
+                return new Not(compile(not.getFilter()));
+            }
+            if (filter instanceof ExactFilter || filter instanceof PrefixFilter || filter instanceof SuffixFilter) {
+                final var attributes = ((AttributesFilter) filter).getAttributes();
+                final var nodes = new ArrayList<Node>(attributes.size());
+                for (final var attribute : attributes) {
+                    nodes.add(compile(filter, attribute.name, attribute.expectedValue));
+                }
+                return all(nodes);
+            }
+            return new Opaque(filter);
+        }
+
+        private List<Node> compile(final List<Filter> filters) {
+            final var nodes = new ArrayList<Node>(filters.size());
+            for (final var filter : filters) {
+                nodes.add(compile(filter));
+            }
+            return nodes;
+        }
+
+        private Node compile(final Filter filter, final String name, final String wanted) {
+            if (filter instanceof ExactFilter && CloudEventV1.TIME.equals(name)) {
+                return exactTime(wanted);
+            }
+            // Attributes tested by a single filter are read once anyway.
+            final var attribute = references.getOrDefault(name, 0) > 1
+                    ? slots.computeIfAbsent(name, n -> new Attribute(n, slots.size()))
+                    : new Attribute(name, -1);
+            if (filter instanceof ExactFilter) {
+                return new Exact(attribute, wanted);
+            }
+            if (filter instanceof PrefixFilter) {
+                return new Prefix(attribute, wanted);
+            }
+            return new Suffix(attribute, wanted);
+        }
+
+        private static Node exactTime(final String wanted) {
+            try {
+                final var instant = ISO_INSTANT.parse(wanted, Instant::from);
+                // The time of the event is formatted with ISO_INSTANT, so only the canonical form can match.
+                if (ISO_INSTANT.format(instant).equals(wanted)) {
+                    return new ExactTime(instant.getEpochSecond(), instant.getNano());
+                }
+            } catch (final DateTimeParseException ignored) {
+            }
+            return Constant.FALSE;
+        }
+
+        private static Node all(final List<Node> nodes) {
+            if (nodes.size() == 1) {
+                return nodes.get(0);
+            }
+            return nodes.isEmpty() ? Constant.TRUE : new All(nodes.toArray(Node[]::new));
+        }
+
+        private static Node any(final List<Node> nodes) {
+            if (nodes.size() == 1) {
+                return nodes.get(0);
+            }
+            return nodes.isEmpty() ? Constant.FALSE : new Any(nodes.toArray(Node[]::new));
+        }
+    }
+
+    private abstract static class Node {
+
+        abstract boolean test(CloudEvent event, String[] values);
+    }
+
+    private static final class Attribute {
+
+        private final String name;
+        private final int slot;
+        private final Extractor extractor;
+
+        private Attribute(final String name, final int slot) {
+            this.name = name;
+            this.slot = slot;
+            this.extractor = extractor(name);
+        }
+
+        private String get(final CloudEvent event, final String[] values) {
+            if (slot < 0) {
+                final var value = extractor.extract(event);
+                return value == null ? DEFAULT_STRING : value;
+            }
+            var value = values[slot];
+            if (value == null) {
+                value = extractor.extract(event);
+                values[slot] = value == null ? DEFAULT_STRING : value;
+                return values[slot];
+            }
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Extractor {
+
+        String extract(CloudEvent event);
+    }
+
+    private static Extractor extractor(final String name) {
+        return switch (name) {
+            case CloudEventV1.SPECVERSION -> event -> event.getSpecVersion().toString();
+            case CloudEventV1.ID -> CloudEvent::getId;
+            case CloudEventV1.TYPE -> CloudEvent::getType;
+            case CloudEventV1.SOURCE -> event -> toString(event.getSource());
+            case CloudEventV1.DATACONTENTTYPE -> CloudEvent::getDataContentType;
+            case CloudEventV1.DATASCHEMA, CloudEventV03.SCHEMAURL -> event -> toString(event.getDataSchema());
+            case CloudEventV1.SUBJECT -> CloudEvent::getSubject;
+            case CloudEventV1.TIME -> event ->
+                    event.getTime() == null ? null : event.getTime().format(ISO_INSTANT);
+                // Context attributes of older spec versions, see AttributesFilter.
+            case CloudEventV03.DATACONTENTENCODING -> event -> {
+                try {
+                    return toString(event.getAttribute(name));
+                } catch (final Exception ex) {
+                    return toString(event.getExtension(name));
+                }
+            };
+            default -> event -> toString(event.getExtension(name));
+        };
+    }
+
+    private static String toString(final Object value) {
+        if (value == null) {
+            return null;
+        }
+        // URI keeps the string it's created from, so this doesn't allocate for URIs of received events.
+        return value instanceof String s ? s : value.toString();
+    }
+
+    private static final class Exact extends Node {
+
+        private final Attribute attribute;
+        private final String wanted;
+
+        private Exact(final Attribute attribute, final String wanted) {
+            this.attribute = attribute;
+            this.wanted = wanted;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return attribute.get(event, values).equals(wanted);
+        }
+    }
+
+    private static final class Prefix extends Node {
+
+        private final Attribute attribute;
+        private final String wanted;
+
+        private Prefix(final Attribute attribute, final String wanted) {
+            this.attribute = attribute;
+            this.wanted = wanted;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return attribute.get(event, values).startsWith(wanted);
+        }
+    }
+
+    private static final class Suffix extends Node {
+
+        private final Attribute attribute;
+        private final String wanted;
+
+        private Suffix(final Attribute attribute, final String wanted) {
+            this.attribute = attribute;
+            this.wanted = wanted;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return attribute.get(event, values).endsWith(wanted);
+        }
+    }
+
+    private static final class ExactTime extends Node {
+
+        private final long epochSecond;
+        private final int nano;
+
+        private ExactTime(final long epochSecond, final int nano) {
+            this.epochSecond = epochSecond;
+            this.nano = nano;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            final var time = event.getTime();
+            return time != null && time.toEpochSecond() == epochSecond && time.getNano() == nano;
+        }
+    }
+
+    private static final class All extends Node {
+
+        private final Node[] nodes;
+
+        private All(final Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            for (final var node : nodes) {
+                if (!node.test(event, values)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Any extends Node {
+
+        private final Node[] nodes;
+
+        private Any(final Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            for (final var node : nodes) {
+                if (node.test(event, values)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class AdaptiveAll extends Node {
+
+        private final Node[] nodes;
+        private final AdaptiveFilterOrder order;
+
+        private AdaptiveAll(final Node[] nodes) {
+            this.nodes = nodes;
+            this.order = new AdaptiveFilterOrder(nodes.length, true);
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            final var indexes = order.order();
+            if (!order.sample()) {
+                for (final var i : indexes) {
+                    if (!nodes[i].test(event, values)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            var passed = true;
+            for (final var i : indexes) {
+                final var start = System.nanoTime();
+                final var result = nodes[i].test(event, values);
+                order.record(i, result, System.nanoTime() - start);
+                passed &= result;
+            }
+            order.sampled();
+            return passed;
+        }
+    }
+
+    private static final class AdaptiveAny extends Node {
+
+        private final Node[] nodes;
+        private final AdaptiveFilterOrder order;
+
+        private AdaptiveAny(final Node[] nodes) {
+            this.nodes = nodes;
+            this.order = new AdaptiveFilterOrder(nodes.length, false);
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            final var indexes = order.order();
+            if (!order.sample()) {
+                for (final var i : indexes) {
+                    if (nodes[i].test(event, values)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            var passed = false;
+            for (final var i : indexes) {
+                final var start = System.nanoTime();
+                final var result = nodes[i].test(event, values);
+                order.record(i, result, System.nanoTime() - start);
+                passed |= result;
+            }
+            order.sampled();
+            return passed;
+        }
+    }
+
+    private static final class Not extends Node {
+
+        private final Node node;
+
+        private Not(final Node node) {
+            this.node = node;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return !node.test(event, values);
+        }
+    }
+
+    private static final class Opaque extends Node {
+
+        private final Filter filter;
+
+        private Opaque(final Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return filter.test(event);
+        }
+    }
+
+    private static final class Constant extends Node {
+
+        private static final Constant TRUE = new Constant(true);
+        private static final Constant FALSE = new Constant(false);
+
+        private final boolean value;
+
+        private Constant(final boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean test(final CloudEvent event, final String[] values) {
+            return value;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi;
 
 import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.AdaptiveFilterOrder;
 import io.cloudevents.CloudEvent;
 import java.util.List;
 import org.slf4j.Logger;
@@ -24,14 +25,35 @@ import org.slf4j.LoggerFactory;
 public class AllFilter implements Filter {
 
     private final List<Filter> filters;
+    private final AdaptiveFilterOrder order;
     private static final Logger logger = LoggerFactory.getLogger(AllFilter.class);
 
     public AllFilter(List<Filter> filters) {
+        this(filters, false);
+    }
+
+    /**
+     * @param filters  filters.
+     * @param adaptive whether filters are evaluated in the order given by {@link AdaptiveFilterOrder}.
+     */
+    public AllFilter(List<Filter> filters, boolean adaptive) {
         this.filters = filters;
+        this.order = adaptive ? new AdaptiveFilterOrder(filters.size(), true) : null;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    public boolean isAdaptive() {
+        return order != null;
     }
 
     @Override
     public boolean test(CloudEvent cloudEvent) {
+        if (order != null) {
+            return testAdaptive(cloudEvent);
+        }
         logger.debug("Testing event against ALL filters. Event {}", cloudEvent);
         for (Filter filter : filters) {
             if (!filter.test(cloudEvent)) {
@@ -42,4 +64,25 @@ public class AllFilter implements Filter {
         logger.debug("Test ALL filters succeeded. Event {}", cloudEvent);
         return true;
     }
+
+    private boolean testAdaptive(CloudEvent cloudEvent) {
+        final var indexes = order.order();
+        if (!order.sample()) {
+            for (int i : indexes) {
+                if (!filters.get(i).test(cloudEvent)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        var passed = true;
+        for (int i : indexes) {
+            final var start = System.nanoTime();
+            final var result = filters.get(i).test(cloudEvent);
+            order.record(i, result, System.nanoTime() - start);
+            passed &= result;
+        }
+        order.sampled();
+        return passed;
+    }
 }
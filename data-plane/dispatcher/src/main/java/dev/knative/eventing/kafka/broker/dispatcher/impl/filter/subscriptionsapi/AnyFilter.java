@@ -16,6 +16,7 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi;
 
 import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.AdaptiveFilterOrder;
 import io.cloudevents.CloudEvent;
 import java.util.List;
 import org.slf4j.Logger;
@@ -26,13 +27,34 @@ public class AnyFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger(AnyFilter.class);
 
     private final List<Filter> filters;
+    private final AdaptiveFilterOrder order;
 
     public AnyFilter(List<Filter> filters) {
+        this(filters, false);
+    }
+
+    /**
+     * @param filters  filters.
+     * @param adaptive whether filters are evaluated in the order given by {@link AdaptiveFilterOrder}.
+     */
+    public AnyFilter(List<Filter> filters, boolean adaptive) {
         this.filters = filters;
+        this.order = adaptive ? new AdaptiveFilterOrder(filters.size(), false) : null;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    public boolean isAdaptive() {
+        return order != null;
     }
 
     @Override
     public boolean test(CloudEvent cloudEvent) {
+        if (order != null) {
+            return testAdaptive(cloudEvent);
+        }
         logger.debug("Testing event against ANY filter. Event {}", cloudEvent);
 
         for (Filter filter : filters) {
@@ -44,4 +66,25 @@ public class AnyFilter implements Filter {
         logger.debug("Test failed. All filters failed. Event {}", cloudEvent);
         return false;
     }
+
+    private boolean testAdaptive(CloudEvent cloudEvent) {
+        final var indexes = order.order();
+        if (!order.sample()) {
+            for (int i : indexes) {
+                if (filters.get(i).test(cloudEvent)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        var passed = false;
+        for (int i : indexes) {
+            final var start = System.nanoTime();
+            final var result = filters.get(i).test(cloudEvent);
+            order.record(i, result, System.nanoTime() - start);
+            passed |= result;
+        }
+        order.sampled();
+        return passed;
+    }
 }
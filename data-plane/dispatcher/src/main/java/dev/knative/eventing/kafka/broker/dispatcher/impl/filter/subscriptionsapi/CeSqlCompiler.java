@@ -0,0 +1,960 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.sql.EvaluationException;
+import io.cloudevents.sql.EvaluationRuntime;
+import io.cloudevents.sql.Expression;
+import io.cloudevents.sql.Type;
+import io.cloudevents.sql.impl.ExpressionInternal;
+import io.cloudevents.sql.impl.expressions.AccessAttributeExpression;
+import io.cloudevents.sql.impl.expressions.AndExpression;
+import io.cloudevents.sql.impl.expressions.BaseBinaryExpression;
+import io.cloudevents.sql.impl.expressions.BaseUnaryExpression;
+import io.cloudevents.sql.impl.expressions.EqualExpression;
+import io.cloudevents.sql.impl.expressions.ExistsExpression;
+import io.cloudevents.sql.impl.expressions.InExpression;
+import io.cloudevents.sql.impl.expressions.IntegerComparisonBinaryExpression;
+import io.cloudevents.sql.impl.expressions.LikeExpression;
+import io.cloudevents.sql.impl.expressions.NotExpression;
+import io.cloudevents.sql.impl.expressions.OrExpression;
+import io.cloudevents.sql.impl.expressions.ValueExpression;
+import io.cloudevents.sql.impl.expressions.XorExpression;
+import io.cloudevents.sql.impl.runtime.ExpressionImpl;
+import io.cloudevents.sql.impl.runtime.FailFastExceptionThrower;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class compiles a parsed CESQL expression into a tree of closures, so that events are tested without going
+ * through the generic evaluation of the CESQL runtime, which allocates an evaluation context for every operator and
+ * casts every operand.
+ * <p>
+ * Operand types known at compile time are used to pick specialized operators, constants are cast once to the types
+ * they can be compared with, {@code LIKE} patterns without single character wildcards are matched without regular
+ * expressions and {@code IN} lists of constants become sets. Subtrees that don't depend on the event are evaluated
+ * once. Function invocations, and anything the compiler doesn't know, are evaluated by the CESQL runtime.
+ * <p>
+ * The compiled tree follows the semantics of the CESQL runtime when evaluated with
+ * {@link Expression#tryEvaluate(EvaluationRuntime, CloudEvent)}: any evaluation error fails the whole evaluation, so
+ * nodes throw {@link #FAILURE} and callers are expected to evaluate the expression again with the CESQL runtime to get
+ * the actual error.
+ */
+final class CeSqlCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CeSqlCompiler.class);
+
+    /**
+     * Thrown by compiled nodes when the evaluation fails, without a stack trace since errors are reported by the CESQL
+     * runtime.
+     */
+    static final RuntimeException FAILURE = new EvaluationFailure();
+
+    // Fields the CESQL runtime doesn't expose, subtrees fall back to the runtime when they can't be read.
+    static final Field ATTRIBUTE_KEY = field(AccessAttributeExpression.class, "key");
+    static final Field LIKE_OPERAND = field(LikeExpression.class, "internal");
+    static final Field LIKE_PATTERN = field(LikeExpression.class, "pattern");
+    static final Field IN_OPERAND = field(InExpression.class, "leftExpression");
+    static final Field IN_SET = field(InExpression.class, "setExpressions");
+
+    private final EvaluationRuntime runtime;
+    // Attributes read by the compiled tree, in order of appearance.
+    private final Set<String> attributes = new LinkedHashSet<>();
+    private boolean opaque;
+
+    private CeSqlCompiler(final EvaluationRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    /**
+     * Compiled expression.
+     *
+     * @param root       root of the compiled tree.
+     * @param attributes attributes read by the expression, or null when they aren't known, that is when part of the
+     *                   expression is evaluated by the CESQL runtime.
+     */
+    record Program(Node root, @Nullable List<String> attributes) {
+
+        /**
+         * @param event event.
+         * @return the result of the expression cast to a boolean.
+         * @throws RuntimeException {@link #FAILURE} when the evaluation fails.
+         */
+        boolean test(final CloudEvent event) {
+            return toBoolean(root.evaluate(event));
+        }
+    }
+
+    /**
+     * Compile the given expression.
+     *
+     * @param expression expression parsed by {@link io.cloudevents.sql.Parser}.
+     * @param runtime    runtime used to evaluate subtrees that aren't compiled.
+     * @return the compiled expression.
+     */
+    static Program compile(final Expression expression, final EvaluationRuntime runtime) {
+        final var compiler = new CeSqlCompiler(runtime);
+        final Node root;
+        if (expression instanceof ExpressionImpl impl) {
+            root = compiler.compile(impl.getExpressionInternal());
+        } else {
+            compiler.opaque = true;
+            root = event -> {
+                try {
+                    return expression.tryEvaluate(runtime, event);
+                } catch (final EvaluationException e) {
+                    throw FAILURE;
+                }
+            };
+        }
+        return new Program(root, compiler.opaque ? null : List.copyOf(compiler.attributes));
+    }
+
+    @FunctionalInterface
+    interface Node {
+
+        /**
+         * @param event event.
+         * @return the value of this node.
+         * @throws RuntimeException {@link #FAILURE} when the evaluation fails.
+         */
+        Object evaluate(CloudEvent event);
+
+        /**
+         * @return whether evaluating this node can fail.
+         */
+        default boolean canFail() {
+            return true;
+        }
+
+        /**
+         * @return whether the value of this node depends on the event.
+         */
+        default boolean dependsOnEvent() {
+            return true;
+        }
+
+        /**
+         * @return the type of the values of this node, or null when it isn't known at compile time.
+         */
+        @Nullable
+        default Type type() {
+            return null;
+        }
+    }
+
+    private Node compile(final ExpressionInternal expression) {
+        final var node = fold(compileNode(expression));
+        return node != null ? node : runtime(expression);
+    }
+
+    @Nullable
+    private Node compileNode(final ExpressionInternal expression) {
+        if (expression instanceof ValueExpression value) {
+            return new Constant(value.getValue());
+        }
+        if (expression instanceof AccessAttributeExpression) {
+            final var key = (String) read(ATTRIBUTE_KEY, expression);
+            if (key == null) {
+                return null;
+            }
+            attributes.add(key);
+            return new Attribute(key);
+        }
+        if (expression instanceof ExistsExpression exists) {
+            attributes.add(exists.getKey());
+            return new Exists(exists.getKey());
+        }
+        if (expression instanceof LikeExpression) {
+            final var operand = (ExpressionInternal) read(LIKE_OPERAND, expression);
+            final var pattern = (Pattern) read(LIKE_PATTERN, expression);
+            if (operand == null || pattern == null) {
+                return null;
+            }
+            return new Like(compile(operand), likeMatcher(pattern));
+        }
+        if (expression instanceof InExpression) {
+            final var operand = (ExpressionInternal) read(IN_OPERAND, expression);
+            final var set = (List<?>) read(IN_SET, expression);
+            if (operand == null || set == null) {
+                return null;
+            }
+            final var nodes = new ArrayList<Node>(set.size());
+            for (final var e : set) {
+                nodes.add(compile((ExpressionInternal) e));
+            }
+            return in(compile(operand), nodes);
+        }
+        if (expression instanceof BaseUnaryExpression unary) {
+            final var operand = compile(unary.getOperand());
+            if (unary instanceof NotExpression) {
+                return new Not(operand);
+            }
+            return new Unary(operand, value -> unary.evaluate(runtime, value, FailFastExceptionThrower.getInstance()));
+        }
+        if (expression instanceof BaseBinaryExpression binary) {
+            final var left = compile(binary.getLeftOperand());
+            final var right = compile(binary.getRightOperand());
+            if (binary instanceof AndExpression) {
+                return new And(left, right);
+            }
+            if (binary instanceof OrExpression) {
+                return new Or(left, right);
+            }
+            if (binary instanceof XorExpression) {
+                return new Xor(left, right);
+            }
+            if (binary instanceof EqualExpression) {
+                return equal(left, right);
+            }
+            if (binary instanceof IntegerComparisonBinaryExpression) {
+                return new IntegerComparison(left, right, Comparison.of(binary, runtime));
+            }
+            return new Binary(
+                    left, right, (l, r) -> binary.evaluate(runtime, l, r, FailFastExceptionThrower.getInstance()));
+        }
+        return null;
+    }
+
+    private Node runtime(final ExpressionInternal expression) {
+        // The attributes read by the subtree aren't known.
+        opaque = true;
+        return event -> {
+            try {
+                return expression.evaluate(runtime, event, FailFastExceptionThrower.getInstance());
+            } catch (final EvaluationException e) {
+                throw FAILURE;
+            }
+        };
+    }
+
+    /**
+     * Evaluate nodes that don't depend on the event once.
+     */
+    @Nullable
+    private static Node fold(@Nullable final Node node) {
+        if (node == null || node.dependsOnEvent() || node instanceof Constant || node instanceof Failed) {
+            return node;
+        }
+        try {
+            return new Constant(node.evaluate(null));
+        } catch (final RuntimeException e) {
+            if (e != FAILURE) {
+                throw e;
+            }
+            return Failed.INSTANCE;
+        }
+    }
+
+    /**
+     * The CESQL runtime casts the left operand of {@code =} to the type of the right operand.
+     */
+    private static Node equal(final Node left, final Node right) {
+        if (right instanceof Constant constant && constant.value instanceof String value) {
+            return new StringEqual(left, value);
+        }
+        if (left instanceof Constant constant) {
+            return new ConstantEqual(right, constant.value);
+        }
+        return new Equal(left, right);
+    }
+
+    private static Node in(final Node operand, final List<Node> set) {
+        if (set.stream().allMatch(n -> n instanceof Constant)) {
+            final var values = set.stream().map(n -> ((Constant) n).value).toList();
+            final var strings = new HashSet<String>(values.size());
+            for (final var value : values) {
+                strings.add(toStr(value));
+            }
+            return new ConstantIn(operand, values, strings);
+        }
+        return new In(operand, set.toArray(Node[]::new));
+    }
+
+    /**
+     * The CESQL runtime translates {@code LIKE} patterns to regular expressions quoting literals with {@code \Q} and
+     * {@code \E}, where {@code %} becomes {@code .*} and {@code _} becomes {@code .}: patterns made of literals and
+     * {@code %} are matched by looking up the literals in order.
+     */
+    static Predicate<String> likeMatcher(final Pattern pattern) {
+        final var regex = pattern.pattern();
+        final var start = "^\\Q";
+        final var end = "\\E$";
+        final var any = "\\E.*\\Q";
+        if (!regex.startsWith(start) || !regex.endsWith(end) || regex.length() < start.length() + end.length()) {
+            return s -> pattern.matcher(s).matches();
+        }
+        final var body = regex.substring(start.length(), regex.length() - end.length());
+        final var parts = body.split(Pattern.quote(any), -1);
+        for (final var part : parts) {
+            if (part.contains("\\E") || part.contains("\\Q")) {
+                return s -> pattern.matcher(s).matches();
+            }
+        }
+        if (parts.length == 1) {
+            return parts[0]::equals;
+        }
+        final var prefix = parts[0];
+        final var suffix = parts[parts.length - 1];
+        final var middle = List.of(parts).subList(1, parts.length - 1).toArray(String[]::new);
+        if (middle.length == 0) {
+            final var minLength = prefix.length() + suffix.length();
+            return s -> s.length() >= minLength && s.startsWith(prefix) && s.endsWith(suffix);
+        }
+        return s -> {
+            if (!s.startsWith(prefix)) {
+                return false;
+            }
+            final var suffixStart = s.length() - suffix.length();
+            if (suffixStart < prefix.length() || !s.startsWith(suffix, suffixStart)) {
+                return false;
+            }
+            var from = prefix.length();
+            for (final var part : middle) {
+                final var i = s.indexOf(part, from);
+                if (i < 0 || i + part.length() > suffixStart) {
+                    return false;
+                }
+                from = i + part.length();
+            }
+            return true;
+        };
+    }
+
+    // Casts follow io.cloudevents.sql.impl.runtime.TypeCastingProvider.
+
+    static boolean toBoolean(final Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        if (value instanceof String s) {
+            if ("true".equalsIgnoreCase(s)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(s)) {
+                return false;
+            }
+        }
+        throw FAILURE;
+    }
+
+    static int toInteger(final Object value) {
+        if (value instanceof Integer i) {
+            return i;
+        }
+        if (value instanceof String s) {
+            try {
+                return Integer.parseInt(s);
+            } catch (final NumberFormatException e) {
+                throw FAILURE;
+            }
+        }
+        throw FAILURE;
+    }
+
+    static String toStr(final Object value) {
+        return value instanceof String s ? s : Objects.toString(value);
+    }
+
+    /**
+     * Cast the given value to the type of the given target, like the CESQL runtime does with the left operand of
+     * {@code =} and the values of {@code IN}.
+     */
+    static Object castLike(final Object value, final Object target) {
+        if (target instanceof String) {
+            return toStr(value);
+        }
+        if (target instanceof Integer) {
+            return toInteger(value);
+        }
+        if (target instanceof Boolean) {
+            return toBoolean(value);
+        }
+        return value;
+    }
+
+    @Nullable
+    private static Field field(final Class<?> clazz, final String name) {
+        try {
+            final var field = clazz.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            logger.warn(
+                    "Failed to read CESQL runtime field, expressions using it are evaluated by the runtime {}.{}",
+                    clazz.getSimpleName(),
+                    name,
+                    e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object read(@Nullable final Field field, final Object target) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(target);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class EvaluationFailure extends RuntimeException {
+
+        private EvaluationFailure() {
+            super("CESQL evaluation failed", null, false, false);
+        }
+    }
+
+    record Constant(Object value) implements Node {
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            return value;
+        }
+
+        @Override
+        public boolean canFail() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOnEvent() {
+            return false;
+        }
+
+        @Override
+        public Type type() {
+            return Type.fromValue(value);
+        }
+    }
+
+    enum Failed implements Node {
+        INSTANCE;
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            throw FAILURE;
+        }
+
+        @Override
+        public boolean dependsOnEvent() {
+            return false;
+        }
+    }
+
+    static final class Attribute implements Node {
+
+        private final Function<CloudEvent, Object> getter;
+        private final boolean required;
+        private final boolean contextAttribute;
+
+        Attribute(final String key) {
+            this.getter = getter(key);
+            // Required attributes are always set, see io.cloudevents.core.v1.CloudEventBuilder.
+            this.required = switch (key) {
+                case "id", "source", "type", "specversion" -> true;
+                default -> false;};
+            this.contextAttribute = this.required
+                    || switch (key) {
+                        case "subject", "time", "datacontenttype", "dataschema" -> true;
+                        default -> false;
+                    };
+        }
+
+        static Function<CloudEvent, Object> getter(final String key) {
+            return switch (key) {
+                case "id" -> CloudEvent::getId;
+                case "source" -> CloudEvent::getSource;
+                case "type" -> CloudEvent::getType;
+                case "specversion" -> CloudEvent::getSpecVersion;
+                case "subject" -> CloudEvent::getSubject;
+                case "time" -> CloudEvent::getTime;
+                case "datacontenttype" -> CloudEvent::getDataContentType;
+                    // The getter of the data schema of v0.3 events reads the schema URL, which isn't a v1 attribute.
+                case "dataschema" -> event -> event.getAttribute(key);
+                default -> event -> event.getExtension(key);
+            };
+        }
+
+        /**
+         * Coerce the value of an attribute like the CESQL runtime does.
+         */
+        static Object coerce(final Object value) {
+            if (value instanceof String || value instanceof Integer || value instanceof Boolean) {
+                return value;
+            }
+            if (value instanceof byte[] bytes) {
+                return Base64.getEncoder().encodeToString(bytes);
+            }
+            return Objects.toString(value);
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var value = getter.apply(event);
+            if (value == null) {
+                throw FAILURE;
+            }
+            return coerce(value);
+        }
+
+        @Override
+        public boolean canFail() {
+            return !required;
+        }
+
+        @Override
+        public Type type() {
+            // Context attributes are coerced to strings, extensions can be integers or booleans.
+            return contextAttribute ? Type.STRING : null;
+        }
+    }
+
+    record Exists(String key) implements Node {
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            return event.getAttributeNames().contains(key)
+                    || event.getExtensionNames().contains(key);
+        }
+
+        @Override
+        public boolean canFail() {
+            return false;
+        }
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    abstract static class Operator implements Node {
+
+        private final boolean canFail;
+        private final boolean dependsOnEvent;
+
+        Operator(final boolean canFail, final Node... operands) {
+            var fail = canFail;
+            var depends = false;
+            for (final var operand : operands) {
+                fail |= operand.canFail();
+                depends |= operand.dependsOnEvent();
+            }
+            this.canFail = fail;
+            this.dependsOnEvent = depends;
+        }
+
+        @Override
+        public boolean canFail() {
+            return canFail;
+        }
+
+        @Override
+        public boolean dependsOnEvent() {
+            return dependsOnEvent;
+        }
+    }
+
+    abstract static class BooleanOperator extends Operator {
+
+        BooleanOperator(final boolean canFail, final Node... operands) {
+            super(canFail, operands);
+        }
+
+        @Override
+        public Type type() {
+            return Type.BOOLEAN;
+        }
+    }
+
+    static boolean castCanFail(final Node node, final Type type) {
+        return node.type() != type;
+    }
+
+    static final class And extends BooleanOperator {
+
+        private final Node left;
+        private final Node right;
+
+        And(final Node left, final Node right) {
+            super(castCanFail(left, Type.BOOLEAN) || castCanFail(right, Type.BOOLEAN), left, right);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            if (!toBoolean(left.evaluate(event))) {
+                // Both operands are evaluated by the runtime, so errors of the right operand still count.
+                if (right.canFail()) {
+                    right.evaluate(event);
+                }
+                return Boolean.FALSE;
+            }
+            return toBoolean(right.evaluate(event));
+        }
+    }
+
+    static final class Or extends BooleanOperator {
+
+        private final Node left;
+        private final Node right;
+
+        Or(final Node left, final Node right) {
+            super(castCanFail(left, Type.BOOLEAN) || castCanFail(right, Type.BOOLEAN), left, right);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            if (toBoolean(left.evaluate(event))) {
+                if (right.canFail()) {
+                    right.evaluate(event);
+                }
+                return Boolean.TRUE;
+            }
+            return toBoolean(right.evaluate(event));
+        }
+    }
+
+    static final class Xor extends BooleanOperator {
+
+        private final Node left;
+        private final Node right;
+
+        Xor(final Node left, final Node right) {
+            super(castCanFail(left, Type.BOOLEAN) || castCanFail(right, Type.BOOLEAN), left, right);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var l = toBoolean(left.evaluate(event));
+            return l ^ toBoolean(right.evaluate(event));
+        }
+    }
+
+    static final class Not extends BooleanOperator {
+
+        private final Node operand;
+
+        Not(final Node operand) {
+            super(castCanFail(operand, Type.BOOLEAN), operand);
+            this.operand = operand;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            return !toBoolean(operand.evaluate(event));
+        }
+    }
+
+    /**
+     * Operand compared with a string, the operand is cast to a string.
+     */
+    static final class StringEqual extends BooleanOperator {
+
+        private final Node operand;
+        private final String value;
+
+        StringEqual(final Node operand, final String value) {
+            super(false, operand);
+            this.operand = operand;
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            return value.equals(toStr(operand.evaluate(event)));
+        }
+    }
+
+    /**
+     * Constant compared with an operand, the constant is cast once to each type that the operand can have.
+     */
+    static final class ConstantEqual extends BooleanOperator {
+
+        private final Node operand;
+        private final Object value;
+        private final String string;
+        // Null when the constant can't be cast to the type.
+        private final Integer integer;
+        private final Boolean bool;
+
+        ConstantEqual(final Node operand, final Object value) {
+            super(operand.type() != Type.STRING && operand.type() != Type.fromValue(value), operand);
+            this.operand = operand;
+            this.value = value;
+            this.string = toStr(value);
+            this.integer = castOrNull(() -> toInteger(value));
+            this.bool = castOrNull(() -> toBoolean(value));
+        }
+
+        @Nullable
+        private static <T> T castOrNull(final Supplier<T> cast) {
+            try {
+                return cast.get();
+            } catch (final RuntimeException e) {
+                if (e != FAILURE) {
+                    throw e;
+                }
+                return null;
+            }
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var value = operand.evaluate(event);
+            if (value instanceof String) {
+                return string.equals(value);
+            }
+            if (value instanceof Integer) {
+                return orFail(integer).equals(value);
+            }
+            if (value instanceof Boolean) {
+                return orFail(bool).equals(value);
+            }
+            return this.value.equals(value);
+        }
+
+        private static Object orFail(@Nullable final Object value) {
+            if (value == null) {
+                throw FAILURE;
+            }
+            return value;
+        }
+    }
+
+    static final class Equal extends BooleanOperator {
+
+        private final Node left;
+        private final Node right;
+
+        Equal(final Node left, final Node right) {
+            // Any value can be cast to a string.
+            super(right.type() != Type.STRING && (right.type() == null || left.type() != right.type()), left, right);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var l = left.evaluate(event);
+            final var r = right.evaluate(event);
+            return Objects.equals(castLike(l, r), r);
+        }
+    }
+
+    static final class ConstantIn extends BooleanOperator {
+
+        private final Node operand;
+        private final List<Object> values;
+        private final Set<String> strings;
+
+        ConstantIn(final Node operand, final List<Object> values, final Set<String> strings) {
+            super(operand.type() != Type.STRING, operand);
+            this.operand = operand;
+            this.values = values;
+            this.strings = strings;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var value = operand.evaluate(event);
+            if (value instanceof String s) {
+                return strings.contains(s);
+            }
+            for (final var v : values) {
+                if (Objects.equals(value, castLike(v, value))) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    }
+
+    static final class In extends BooleanOperator {
+
+        private final Node operand;
+        private final Node[] set;
+
+        In(final Node operand, final Node[] set) {
+            super(true, concat(operand, set));
+            this.operand = operand;
+            this.set = set;
+        }
+
+        private static Node[] concat(final Node operand, final Node[] set) {
+            final var nodes = new Node[set.length + 1];
+            nodes[0] = operand;
+            System.arraycopy(set, 0, nodes, 1, set.length);
+            return nodes;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var value = operand.evaluate(event);
+            // Values are evaluated until one matches.
+            for (final var node : set) {
+                if (Objects.equals(value, castLike(node.evaluate(event), value))) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    }
+
+    static final class Like extends BooleanOperator {
+
+        private final Node operand;
+        private final Predicate<String> matcher;
+
+        Like(final Node operand, final Predicate<String> matcher) {
+            super(false, operand);
+            this.operand = operand;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            return matcher.test(toStr(operand.evaluate(event)));
+        }
+    }
+
+    enum Comparison {
+        LESS,
+        LESS_OR_EQUAL,
+        GREATER,
+        GREATER_OR_EQUAL;
+
+        /**
+         * The operation of the CESQL runtime isn't exposed, so it's recognized from its results.
+         */
+        static Comparison of(final BaseBinaryExpression expression, final EvaluationRuntime runtime) {
+            final var thrower = FailFastExceptionThrower.getInstance();
+            final var less = (Boolean) expression.evaluate(runtime, 1, 2, thrower);
+            final var equal = (Boolean) expression.evaluate(runtime, 1, 1, thrower);
+            if (less) {
+                return equal ? LESS_OR_EQUAL : LESS;
+            }
+            return equal ? GREATER_OR_EQUAL : GREATER;
+        }
+
+        boolean test(final int left, final int right) {
+            return switch (this) {
+                case LESS -> left < right;
+                case LESS_OR_EQUAL -> left <= right;
+                case GREATER -> left > right;
+                case GREATER_OR_EQUAL -> left >= right;
+            };
+        }
+    }
+
+    static final class IntegerComparison extends BooleanOperator {
+
+        private final Node left;
+        private final Node right;
+        private final Comparison comparison;
+
+        IntegerComparison(final Node left, final Node right, final Comparison comparison) {
+            super(castCanFail(left, Type.INTEGER) || castCanFail(right, Type.INTEGER), left, right);
+            this.left = left;
+            this.right = right;
+            this.comparison = comparison;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var l = left.evaluate(event);
+            final var r = right.evaluate(event);
+            return comparison.test(toInteger(l), toInteger(r));
+        }
+    }
+
+    /**
+     * Unary operator evaluated by the CESQL runtime, with a compiled operand.
+     */
+    static final class Unary extends Operator {
+
+        private final Node operand;
+        private final Function<Object, Object> operator;
+
+        Unary(final Node operand, final Function<Object, Object> operator) {
+            super(true, operand);
+            this.operand = operand;
+            this.operator = operator;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var value = operand.evaluate(event);
+            try {
+                return operator.apply(value);
+            } catch (final EvaluationException e) {
+                throw FAILURE;
+            }
+        }
+    }
+
+    /**
+     * Binary operator evaluated by the CESQL runtime, with compiled operands.
+     */
+    static final class Binary extends Operator {
+
+        private final Node left;
+        private final Node right;
+        private final BinaryOperator<Object> operator;
+
+        Binary(final Node left, final Node right, final BinaryOperator<Object> operator) {
+            super(true, left, right);
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        public Object evaluate(final CloudEvent event) {
+            final var l = left.evaluate(event);
+            final var r = right.evaluate(event);
+            try {
+                return operator.apply(l, r);
+            } catch (final EvaluationException e) {
+                throw FAILURE;
+            }
+        }
+    }
+}
@@ -22,6 +22,11 @@ import io.cloudevents.sql.EvaluationRuntime;
 import io.cloudevents.sql.Expression;
 import io.cloudevents.sql.Parser;
 import io.cloudevents.sql.Type;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,22 +34,71 @@ public class CeSqlFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(CeSqlFilter.class);
 
+    /**
+     * Consumer config to set the number of results of CESQL filters to keep per trigger, defaults to {@code 0}, that is
+     * results aren't cached.
+     * <p>
+     * Results are keyed by the values of the attributes that the expression reads, so the cache pays off for
+     * expensive expressions, like {@code LIKE} with single character wildcards, over attributes with few distinct
+     * values, like {@code type} and {@code source}.
+     */
+    public static final String CACHE_SIZE_CONFIG = "dispatcher.filter.cesql.cache.size";
+
     private final Expression expression;
     private final EvaluationRuntime runtime;
+    private final CeSqlCompiler.Program program;
+    private final ResultCache cache;
 
     public CeSqlFilter(String sqlExpression) {
+        this(sqlExpression, 0);
+    }
+
+    /**
+     * @param sqlExpression CESQL expression.
+     * @param cacheSize     maximum number of results to keep, results aren't cached when it's 0 or when the attributes
+     *                      read by the expression aren't known.
+     */
+    public CeSqlFilter(String sqlExpression, int cacheSize) {
         this.expression = Parser.parseDefault(sqlExpression);
         this.runtime = EvaluationRuntime.getDefault();
+        this.program = CeSqlCompiler.compile(this.expression, this.runtime);
+        this.cache = cacheSize > 0
+                        && this.program.attributes() != null
+                        && !this.program.attributes().isEmpty()
+                ? new ResultCache(this.program.attributes(), cacheSize)
+                : null;
     }
 
     @Override
     public boolean test(CloudEvent cloudEvent) {
+        if (this.cache == null) {
+            return evaluate(cloudEvent);
+        }
+        final var key = this.cache.key(cloudEvent);
+        final var cached = this.cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final var result = evaluate(cloudEvent);
+        this.cache.put(key, result);
+        return result;
+    }
+
+    private boolean evaluate(CloudEvent cloudEvent) {
+        try {
+            return this.program.test(cloudEvent);
+        } catch (RuntimeException e) {
+            if (e != CeSqlCompiler.FAILURE) {
+                throw e;
+            }
+            // Evaluate the expression again with the CESQL runtime to report the error.
+            return interpret(cloudEvent);
+        }
+    }
+
+    private boolean interpret(CloudEvent cloudEvent) {
         try {
-            logger.debug(
-                    "Testing event against CESQL expression. Expression {} - Event {}", this.expression, cloudEvent);
             Object value = this.expression.tryEvaluate(this.runtime, cloudEvent);
-            logger.debug(
-                    "CESQL evaluation succeeded. Expression {} - Event {} - Result {}", expression, cloudEvent, value);
             return (Boolean) this.runtime.cast(value, Type.BOOLEAN);
         } catch (EvaluationException evaluationException) {
             logger.error(
@@ -54,4 +108,42 @@ public class CeSqlFilter implements Filter {
             return false;
         }
     }
+
+    /**
+     * LRU cache of results keyed by the values of the attributes read by the expression.
+     */
+    private static final class ResultCache {
+
+        private final List<Function<CloudEvent, Object>> getters;
+        private final Map<List<Object>, Boolean> results;
+
+        private ResultCache(final List<String> attributes, final int maxSize) {
+            this.getters =
+                    attributes.stream().map(CeSqlCompiler.Attribute::getter).toList();
+            this.results = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<List<Object>, Boolean> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private List<Object> key(final CloudEvent event) {
+            final var values = new Object[getters.size()];
+            for (int i = 0; i < values.length; i++) {
+                final var value = getters.get(i).apply(event);
+                // Missing attributes are keyed as null, which tells them apart for EXISTS too.
+                values[i] = value == null ? null : CeSqlCompiler.Attribute.coerce(value);
+            }
+            return Arrays.asList(values);
+        }
+
+        private synchronized Boolean get(final List<Object> key) {
+            return results.get(key);
+        }
+
+        private synchronized void put(final List<Object> key, final boolean result) {
+            results.put(key, result);
+        }
+    }
 }
@@ -30,6 +30,10 @@ public class NotFilter implements Filter {
         this.filter = filter;
     }
 
+    public Filter getFilter() {
+        return filter;
+    }
+
     @Override
     public boolean test(CloudEvent cloudEvent) {
         logger.debug("Testing NOT filter. Event {}", cloudEvent);
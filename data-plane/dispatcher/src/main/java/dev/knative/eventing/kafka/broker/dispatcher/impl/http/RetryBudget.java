@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.http;
+
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.Shareable;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * This class bounds the number of retries sent to a destination, so that retries can't multiply the load on a
+ * struggling destination.
+ * <p>
+ * Over a sliding window of {@link #WINDOW_SECONDS} seconds, retries are allowed up to a percentage of the first
+ * attempts, plus a minimum number of retries per second, so that destinations receiving a few events can still be
+ * retried. Once the budget is exhausted, failed events are not retried, and they go to the dead letter sink, if any.
+ */
+public final class RetryBudget implements Shareable {
+
+    /**
+     * Consumer config to set the ratio of retries to first attempts, for example, {@code 0.2} allows 20 retries every
+     * 100 first attempts. The retry budget is disabled when it's not set or {@code < 0}.
+     */
+    public static final String RATIO_CONFIG = "dispatcher.retry.budget.ratio";
+
+    /**
+     * Consumer config to set the number of retries per second allowed regardless of the first attempts, defaults to
+     * {@link #DEFAULT_MIN_RETRIES_PER_SECOND}.
+     */
+    public static final String MIN_RETRIES_PER_SECOND_CONFIG = "dispatcher.retry.budget.min.retries.per.second";
+
+    /**
+     * Consumer config to share the retry budget with every egress of this dispatcher sending events to the same
+     * destination host and with the same retry budget configs, defaults to {@code false}, that is a retry budget per
+     * egress.
+     */
+    public static final String PER_HOST_CONFIG = "dispatcher.retry.budget.per.host";
+
+    static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    static final int WINDOW_SECONDS = 10;
+
+    private static final String LOCAL_MAP_NAME = RetryBudget.class.getName();
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final LongSupplier clockNanos;
+
+    // Ring of one second buckets.
+    private final long[] seconds;
+    private final long[] attempts;
+    private final long[] retries;
+
+    RetryBudget(final double ratio, final int minRetriesPerSecond, final LongSupplier clockNanos) {
+        if (ratio < 0) {
+            throw new IllegalArgumentException("ratio must be greater or equal to 0, got " + ratio);
+        }
+        if (minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException(
+                    "minRetriesPerSecond must be greater or equal to 0, got " + minRetriesPerSecond);
+        }
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.clockNanos = clockNanos;
+        this.seconds = new long[WINDOW_SECONDS];
+        this.attempts = new long[WINDOW_SECONDS];
+        this.retries = new long[WINDOW_SECONDS];
+        Arrays.fill(this.seconds, Long.MIN_VALUE);
+    }
+
+    /**
+     * Create a retry budget for the given destination using the consumer configs of the given context.
+     *
+     * @param vertx   Vert.x instance.
+     * @param context consumer verticle context.
+     * @param target  destination URI.
+     * @return a retry budget or null when the retry budget is disabled.
+     */
+    @Nullable
+    public static RetryBudget create(final Vertx vertx, final ConsumerVerticleContext context, final String target) {
+        final var configs = context.getConsumerConfigs();
+        final var ratioValue = configs == null ? null : configs.get(RATIO_CONFIG);
+        if (ratioValue == null || Double.parseDouble(ratioValue.toString()) < 0) {
+            return null;
+        }
+        final var ratio = Double.parseDouble(ratioValue.toString());
+        final var minValue = configs.get(MIN_RETRIES_PER_SECOND_CONFIG);
+        final var minRetriesPerSecond =
+                minValue == null ? DEFAULT_MIN_RETRIES_PER_SECOND : Integer.parseInt(minValue.toString());
+
+        final var perHost = configs.get(PER_HOST_CONFIG);
+        if (perHost == null || !Boolean.parseBoolean(perHost.toString())) {
+            return new RetryBudget(ratio, minRetriesPerSecond, System::nanoTime);
+        }
+
+        final var uri = URI.create(target);
+        final var key = uri.getHost() + ":" + uri.getPort() + "/" + ratio + "/" + minRetriesPerSecond;
+        return vertx.sharedData()
+                .<String, RetryBudget>getLocalMap(LOCAL_MAP_NAME)
+                .computeIfAbsent(key, k -> new RetryBudget(ratio, minRetriesPerSecond, System::nanoTime));
+    }
+
+    /**
+     * Record the first attempt to send an event.
+     */
+    public synchronized void onFirstAttempt() {
+        attempts[bucket()]++;
+    }
+
+    /**
+     * Withdraw a retry from the budget.
+     *
+     * @return true when the retry is allowed, false when the budget is exhausted.
+     */
+    public synchronized boolean tryRetry() {
+        final var current = bucket();
+        long windowAttempts = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            windowAttempts += attempts[i];
+            windowRetries += retries[i];
+        }
+        final var budget = (long) (windowAttempts * ratio) + (long) minRetriesPerSecond * WINDOW_SECONDS;
+        if (windowRetries >= budget) {
+            return false;
+        }
+        retries[current]++;
+        return true;
+    }
+
+    /**
+     * @return the index of the bucket of the current second, buckets outside the window are cleared.
+     */
+    private int bucket() {
+        final var second = TimeUnit.NANOSECONDS.toSeconds(clockNanos.getAsLong());
+        final var index = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            if (seconds[i] != Long.MIN_VALUE && second - seconds[i] >= WINDOW_SECONDS) {
+                seconds[i] = Long.MIN_VALUE;
+                attempts[i] = 0;
+                retries[i] = 0;
+            }
+        }
+        if (seconds[index] != second) {
+            seconds[index] = second;
+            attempts[index] = 0;
+            retries[index] = 0;
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{" + "ratio=" + ratio + ", minRetriesPerSecond=" + minRetriesPerSecond + '}';
+    }
+}
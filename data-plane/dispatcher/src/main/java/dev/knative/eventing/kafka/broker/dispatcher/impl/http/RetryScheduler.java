@@ -0,0 +1,366 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.http;
+
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.shareddata.Shareable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * This class schedules the retries of every sender of a Vert.x instance with a single periodic timer, instead of a
+ * Vert.x timer for each retry.
+ * <p>
+ * Retries are kept in a hierarchical timing wheel: the first wheel has {@code wheelSize} buckets of {@code tickMs}
+ * each, and every other wheel has buckets as long as the previous wheel, wheels are added when a retry doesn't fit in
+ * the existing ones. Scheduling and cancelling a retry is O(1), and retries in the outer wheels move to the inner
+ * wheels as time goes by.
+ * <p>
+ * Retries expire, at the latest, a tick after their delay, the handler of a retry runs on the context that scheduled
+ * it.
+ */
+public final class RetryScheduler implements Shareable {
+
+    private static final String LOCAL_MAP_NAME = RetryScheduler.class.getName();
+
+    static final long DEFAULT_TICK_MS = 10;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Vertx vertx;
+    private final ContextInternal context;
+    private final LongSupplier clockMs;
+    private final TimingWheel wheel;
+
+    @Nullable
+    private final DistributionSummary schedulingLag;
+
+    private int pending;
+    private long timerId;
+    private boolean ticking;
+    private boolean closed;
+
+    /**
+     * Get the retry scheduler of the given Vert.x instance, it's created on first use, and it's closed when the
+     * Vert.x instance is closed.
+     *
+     * @param vertx    Vert.x instance.
+     * @param registry registry for the metrics of the retry scheduler, if any.
+     * @return the retry scheduler.
+     */
+    public static RetryScheduler get(final Vertx vertx, @Nullable final MeterRegistry registry) {
+        return vertx.sharedData()
+                .<String, RetryScheduler>getLocalMap(LOCAL_MAP_NAME)
+                .computeIfAbsent(LOCAL_MAP_NAME, k -> {
+                    final var scheduler = new RetryScheduler(
+                            vertx,
+                            DEFAULT_TICK_MS,
+                            DEFAULT_WHEEL_SIZE,
+                            () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()),
+                            registry);
+                    ((VertxInternal) vertx).addCloseHook(completion -> {
+                        scheduler.close();
+                        completion.complete();
+                    });
+                    return scheduler;
+                });
+    }
+
+    RetryScheduler(
+            final Vertx vertx,
+            final long tickMs,
+            final int wheelSize,
+            final LongSupplier clockMs,
+            @Nullable final MeterRegistry registry) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be greater than 0, got " + tickMs);
+        }
+        if (wheelSize <= 1) {
+            throw new IllegalArgumentException("wheelSize must be greater than 1, got " + wheelSize);
+        }
+
+        // Ticks run on their own context, so that they're not cancelled when the verticle that scheduled the first
+        // retry is undeployed.
+        this.vertx = vertx;
+        this.context = ((VertxInternal) vertx).createEventLoopContext();
+        this.clockMs = clockMs;
+        this.wheel = new TimingWheel(tickMs, wheelSize, clockMs.getAsLong());
+
+        if (registry != null) {
+            Metrics.retryPendingCount(Tags.empty(), this::pending).register(registry);
+            this.schedulingLag = Metrics.retrySchedulingLag(Tags.empty()).register(registry);
+        } else {
+            this.schedulingLag = null;
+        }
+    }
+
+    /**
+     * Schedule a retry.
+     *
+     * @param owner   owner of the retry, see {@link #cancel(Object)}.
+     * @param delayMs delay of the retry.
+     * @param handler handler called, on the current context, with {@code true} when the retry expires, or with
+     *                {@code false} when it is cancelled.
+     */
+    public void schedule(final Object owner, final long delayMs, final Handler<Boolean> handler) {
+        final var timeout = new Timeout(owner, vertx.getOrCreateContext(), handler);
+        synchronized (this) {
+            if (closed) {
+                timeout.context.runOnContext(v -> handler.handle(false));
+                return;
+            }
+            if (pending == 0) {
+                // The wheels don't move while there are no pending retries.
+                wheel.reset(clockMs.getAsLong());
+            }
+            timeout.deadline = clockMs.getAsLong() + Math.max(delayMs, 0);
+            // Round up to the next tick, so that retries never expire before their delay.
+            timeout.expiration = ((timeout.deadline + wheel.tickMs - 1) / wheel.tickMs) * wheel.tickMs;
+            if (!wheel.add(timeout)) {
+                expired(timeout, timeout.deadline);
+                return;
+            }
+            pending++;
+            if (!ticking) {
+                ticking = true;
+                context.runOnContext(v -> startTicking());
+            }
+        }
+    }
+
+    /**
+     * Cancel the pending retries of the given owner, their handlers are called with {@code false}.
+     *
+     * @param owner owner of the retries.
+     * @return the number of cancelled retries.
+     */
+    public synchronized int cancel(final Object owner) {
+        return cancel(t -> t.owner == owner);
+    }
+
+    private int cancel(final Predicate<Timeout> predicate) {
+        final var cancelled = wheel.removeAll(predicate);
+        pending -= cancelled.size();
+        for (final var timeout : cancelled) {
+            timeout.context.runOnContext(v -> timeout.handler.handle(false));
+        }
+        return cancelled.size();
+    }
+
+    /**
+     * @return the number of pending retries.
+     */
+    public synchronized int pending() {
+        return pending;
+    }
+
+    private synchronized void startTicking() {
+        if (closed || !ticking) {
+            return;
+        }
+        timerId = context.setPeriodic(wheel.tickMs, v -> tick());
+    }
+
+    synchronized void tick() {
+        final var now = clockMs.getAsLong();
+        final var expired = new ArrayList<Timeout>();
+        wheel.advance(now, expired);
+        pending -= expired.size();
+        for (final var timeout : expired) {
+            expired(timeout, now);
+        }
+
+        if (pending == 0 && ticking) {
+            ticking = false;
+            context.owner().cancelTimer(timerId);
+        }
+    }
+
+    private void expired(final Timeout timeout, final long now) {
+        if (schedulingLag != null) {
+            schedulingLag.record(Math.max(now - timeout.deadline, 0));
+        }
+        timeout.context.runOnContext(v -> timeout.handler.handle(true));
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cancel(t -> true);
+        if (ticking) {
+            ticking = false;
+            context.owner().cancelTimer(timerId);
+        }
+    }
+
+    private static final class Timeout {
+
+        private final Object owner;
+        private final Context context;
+        private final Handler<Boolean> handler;
+        private long deadline;
+        private long expiration;
+
+        // Intrusive doubly linked list of the bucket the timeout is in.
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(final Object owner, final Context context, final Handler<Boolean> handler) {
+            this.owner = owner;
+            this.context = context;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Bucket {
+
+        private Timeout head;
+
+        void add(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(final Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout drain() {
+            final var timeouts = head;
+            for (var t = head; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            head = null;
+            return timeouts;
+        }
+    }
+
+    private static final class TimingWheel {
+
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private TimingWheel overflow;
+
+        TimingWheel(final long tickMs, final int wheelSize, final long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        /**
+         * @return false when the timeout is already expired.
+         */
+        boolean add(final Timeout timeout) {
+            if (timeout.expiration < currentTime + tickMs) {
+                return false;
+            }
+            if (timeout.expiration < currentTime + interval) {
+                buckets[(int) ((timeout.expiration / tickMs) % wheelSize)].add(timeout);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new TimingWheel(interval, wheelSize, currentTime);
+            }
+            return overflow.add(timeout);
+        }
+
+        void reset(final long now) {
+            for (var w = this; w != null; w = w.overflow) {
+                w.currentTime = now - (now % w.tickMs);
+            }
+        }
+
+        /**
+         * Move the wheels to the given time, one tick at a time, expired timeouts are added to the given list.
+         */
+        void advance(final long now, final List<Timeout> expired) {
+            while (currentTime + tickMs <= now) {
+                final var time = currentTime + tickMs;
+                for (var w = this; w != null; w = w.overflow) {
+                    w.currentTime = time - (time % w.tickMs);
+                }
+                // Timeouts of outer wheels, whose bucket starts now, move to the inner wheels, or they expire.
+                for (var w = this; w != null && time % w.tickMs == 0; w = w.overflow) {
+                    var t = w.buckets[(int) ((time / w.tickMs) % wheelSize)].drain();
+                    while (t != null) {
+                        final var next = t.next;
+                        t.prev = null;
+                        t.next = null;
+                        if (!add(t)) {
+                            expired.add(t);
+                        }
+                        t = next;
+                    }
+                }
+            }
+        }
+
+        List<Timeout> removeAll(final Predicate<Timeout> predicate) {
+            final var removed = new ArrayList<Timeout>();
+            for (var w = this; w != null; w = w.overflow) {
+                for (final var bucket : w.buckets) {
+                    var t = bucket.head;
+                    while (t != null) {
+                        final var next = t.next;
+                        if (predicate.test(t)) {
+                            bucket.remove(t);
+                            removed.add(t);
+                        }
+                        t = next;
+                    }
+                }
+            }
+            return removed;
+        }
+    }
+}
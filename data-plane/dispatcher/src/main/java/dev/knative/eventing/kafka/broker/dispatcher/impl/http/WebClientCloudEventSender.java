@@ -22,25 +22,40 @@ import dev.knative.eventing.kafka.broker.core.NamespacedName;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
 import dev.knative.eventing.kafka.broker.core.oidc.TokenProvider;
 import dev.knative.eventing.kafka.broker.core.tracing.TracingSpan;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventBatch;
 import dev.knative.eventing.kafka.broker.dispatcher.CloudEventSender;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.ResponseFailureException;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.LazyCloudEvent;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.OverlayCloudEvent;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SubscriberCircuitBreaker;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SubscriberCircuitBreaker.Permit;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.http.vertx.VertxMessageFactory;
 import io.cloudevents.rw.CloudEventRWException;
 import io.micrometer.core.instrument.Tags;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +65,20 @@ public final class WebClientCloudEventSender implements CloudEventSender {
 
     public static final long DEFAULT_TIMEOUT_MS = 600_000L;
 
+    // Upper bound of the back off period a subscriber can ask for with a Retry-After header.
+    static final long MAX_RETRY_AFTER_MS = 300_000L;
+
+    private static final String CE_HEADER_PREFIX = "ce-";
+    private static final Map<String, String> ATTRIBUTE_HEADERS = Map.of(
+            "specversion", CE_HEADER_PREFIX + "specversion",
+            "id", CE_HEADER_PREFIX + "id",
+            "source", CE_HEADER_PREFIX + "source",
+            "type", CE_HEADER_PREFIX + "type",
+            "datacontenttype", HttpHeaders.CONTENT_TYPE.toString(),
+            "dataschema", CE_HEADER_PREFIX + "dataschema",
+            "subject", CE_HEADER_PREFIX + "subject",
+            "time", CE_HEADER_PREFIX + "time");
+
     private final WebClient client;
     private final String target;
     private final String targetOIDCAudience;
@@ -58,11 +87,59 @@ public final class WebClientCloudEventSender implements CloudEventSender {
 
     private final Promise<Void> closePromise = Promise.promise();
     private final Function<Integer, Long> retryPolicyFunc;
-    private final Vertx vertx;
+    private final long backoffDelayMs;
+    private final RetryScheduler retryScheduler;
+    private final RetryBudget retryBudget;
 
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final AtomicInteger inFlightRequests = new AtomicInteger(0);
     private final TokenProvider tokenProvider;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final SubscriberCircuitBreaker circuitBreaker;
+    private final int maxRetries;
+
+    public WebClientCloudEventSender(
+            final Vertx vertx,
+            final WebClient client,
+            final String target,
+            final String targetOIDCAudience,
+            final NamespacedName oidcServiceAccount,
+            final ConsumerVerticleContext consumerVerticleContext,
+            final Tags additionalTags) {
+        this(
+                vertx,
+                client,
+                target,
+                targetOIDCAudience,
+                oidcServiceAccount,
+                consumerVerticleContext,
+                additionalTags,
+                null,
+                null);
+    }
+
+    public WebClientCloudEventSender(
+            final Vertx vertx,
+            final WebClient client,
+            final String target,
+            final String targetOIDCAudience,
+            final NamespacedName oidcServiceAccount,
+            final ConsumerVerticleContext consumerVerticleContext,
+            final Tags additionalTags,
+            @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Nullable final SubscriberCircuitBreaker circuitBreaker) {
+        this(
+                vertx,
+                client,
+                target,
+                targetOIDCAudience,
+                oidcServiceAccount,
+                consumerVerticleContext,
+                additionalTags,
+                concurrencyLimiter,
+                circuitBreaker,
+                consumerVerticleContext.getEgressConfig().getRetry());
+    }
 
     /**
      * All args constructor.
@@ -71,6 +148,9 @@ public final class WebClientCloudEventSender implements CloudEventSender {
      * @param client                  http client.
      * @param target                  subscriber URI
      * @param consumerVerticleContext consumer verticle context
+     * @param concurrencyLimiter      limiter to notify with the latency and the status code of each request, if any
+     * @param circuitBreaker          circuit breaker of the target, if any
+     * @param maxRetries              maximum number of retries of an event
      */
     public WebClientCloudEventSender(
             final Vertx vertx,
@@ -79,7 +159,10 @@ public final class WebClientCloudEventSender implements CloudEventSender {
             final String targetOIDCAudience,
             final NamespacedName oidcServiceAccount,
             final ConsumerVerticleContext consumerVerticleContext,
-            final Tags additionalTags) {
+            final Tags additionalTags,
+            @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Nullable final SubscriberCircuitBreaker circuitBreaker,
+            final int maxRetries) {
         Objects.requireNonNull(vertx);
         Objects.requireNonNull(client, "provide client");
         Objects.requireNonNull(additionalTags, "provide additional tags");
@@ -90,14 +173,21 @@ public final class WebClientCloudEventSender implements CloudEventSender {
             throw new IllegalArgumentException("provide a valid target, provided target: " + target);
         }
 
-        this.vertx = vertx;
         this.client = client;
         this.target = target;
         this.targetOIDCAudience = targetOIDCAudience;
         this.oidcServiceAccount = oidcServiceAccount;
         this.consumerVerticleContext = consumerVerticleContext;
         this.retryPolicyFunc = computeRetryPolicy(consumerVerticleContext.getEgressConfig());
+        this.backoffDelayMs = consumerVerticleContext.getEgressConfig() != null
+                ? Math.max(consumerVerticleContext.getEgressConfig().getBackoffDelay(), 0)
+                : 0;
+        this.retryScheduler = RetryScheduler.get(vertx, consumerVerticleContext.getMetricsRegistry());
+        this.retryBudget = RetryBudget.create(vertx, consumerVerticleContext, target);
         this.tokenProvider = new TokenProvider(vertx);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.maxRetries = maxRetries;
 
         Metrics.eventDispatchInFlightCount(
                         additionalTags.and(consumerVerticleContext.getTags()), this.inFlightRequests::get)
@@ -105,10 +195,14 @@ public final class WebClientCloudEventSender implements CloudEventSender {
     }
 
     public Future<HttpResponse<Buffer>> send(final CloudEvent event) {
-        return send(event, 0);
+        if (retryBudget != null) {
+            retryBudget.onFirstAttempt();
+        }
+        return send(event, 0, backoffDelayMs);
     }
 
-    private Future<HttpResponse<Buffer>> send(final CloudEvent event, final int retryCounter) {
+    private Future<HttpResponse<Buffer>> send(
+            final CloudEvent event, final int retryCounter, final long previousDelayMs) {
         logger.debug(
                 "Sending event {} {} {}",
                 keyValue("id", event.getId()),
@@ -117,6 +211,12 @@ public final class WebClientCloudEventSender implements CloudEventSender {
 
         final Promise<HttpResponse<Buffer>> promise = Promise.promise();
 
+        final var permit = circuitBreaker != null && !closed.get() ? circuitBreaker.tryAcquire() : Permit.GRANTED;
+        if (permit == Permit.DENIED) {
+            // The subscriber is unavailable, hold the event back without using up a retry.
+            return schedule(event, retryCounter, circuitBreaker.getRetryDelayMs(), previousDelayMs);
+        }
+
         if (closed.get()) {
             // Once sender is closed, return a successful future to avoid retrying.
             promise.tryComplete(null);
@@ -126,7 +226,7 @@ public final class WebClientCloudEventSender implements CloudEventSender {
                 TracingSpan.decorateCurrentWithConsumer(consumerVerticleContext.getEgress());
                 requestEmitted();
                 // here we send the event
-                send(event, promise).onComplete(v -> requestCompleted());
+                send(event, permit, promise).onComplete(v -> requestCompleted());
             } catch (CloudEventRWException e) {
                 logger.error(
                         "failed to write event to the request {} {}",
@@ -150,29 +250,114 @@ public final class WebClientCloudEventSender implements CloudEventSender {
                         cause -> {
                             if (cause instanceof ResponseFailureException) {
                                 final var response = ((ResponseFailureException) cause).getResponse();
-                                if (isRetryableStatusCode(response.statusCode())
-                                        && retryCounter
-                                                < consumerVerticleContext
-                                                        .getEgressConfig()
-                                                        .getRetry()) {
-                                    return retry(retryCounter, event);
+                                final var retryAfterMs = onRetryAfter(response);
+                                if (isRetryableStatusCode(response.statusCode()) && retryCounter < maxRetries) {
+                                    return retry(retryCounter, event, previousDelayMs, retryAfterMs, cause);
                                 }
                                 return Future.failedFuture(cause);
                             }
 
-                            if (retryCounter
-                                    < consumerVerticleContext.getEgressConfig().getRetry()) {
-                                return retry(retryCounter, event);
+                            if (retryCounter < maxRetries) {
+                                return retry(retryCounter, event, previousDelayMs, -1, cause);
                             }
 
                             return Future.failedFuture(cause);
                         });
     }
 
-    private Future<HttpResponse<Buffer>> retry(int retryCounter, CloudEvent event) {
+    private Future<HttpResponse<Buffer>> retry(
+            final int retryCounter,
+            final CloudEvent event,
+            final long previousDelayMs,
+            final long retryAfterMs,
+            final Throwable cause) {
+        if (retryBudget != null && !retryBudget.tryRetry()) {
+            logger.debug(
+                    "Retry budget exhausted, not retrying event {} {} {}",
+                    consumerVerticleContext.getLoggingKeyValue(),
+                    keyValue("target", target),
+                    keyValue("id", event.getId()));
+            return Future.failedFuture(cause);
+        }
+        final var delay = decorrelatedJitter(
+                backoffDelayMs,
+                retryPolicyFunc.apply(retryCounter + 1),
+                previousDelayMs,
+                ThreadLocalRandom.current().nextDouble());
+        // The subscriber asked not to receive the event again before Retry-After.
+        return schedule(event, retryCounter + 1, Math.max(delay, retryAfterMs), delay);
+    }
+
+    /**
+     * When the subscriber is overloaded or unavailable, and it replies with a Retry-After header, throttle the egress
+     * for the requested period through the concurrency limiter, so that the other events are held back as well.
+     *
+     * @return the requested back off period or -1 when it's not requested.
+     */
+    private long onRetryAfter(final HttpResponse<?> response) {
+        final var retryAfterMs = getRetryAfterMs(response);
+        if (retryAfterMs < 0) {
+            return -1;
+        }
+        logger.debug(
+                "Subscriber asked to back off {} {} {}",
+                consumerVerticleContext.getLoggingKeyValue(),
+                keyValue("target", target),
+                keyValue("retryAfterMs", retryAfterMs));
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.throttle(retryAfterMs);
+        }
+        return retryAfterMs;
+    }
+
+    private static long getRetryAfterMs(final HttpResponse<?> response) {
+        if (response.statusCode() != 429 && response.statusCode() != 503) {
+            return -1;
+        }
+        return parseRetryAfterMs(response.getHeader("Retry-After"), System.currentTimeMillis());
+    }
+
+    /**
+     * Parse the value of a Retry-After header, either a number of seconds or an HTTP date.
+     *
+     * @param value  header value, if any.
+     * @param nowMs  current time, in milliseconds since the epoch.
+     * @return the back off period in milliseconds, capped to {@link #MAX_RETRY_AFTER_MS}, or -1 when the value is
+     * missing or invalid.
+     */
+    static long parseRetryAfterMs(@Nullable final String value, final long nowMs) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        final var trimmed = value.trim();
+        long retryAfterMs;
+        try {
+            final var seconds = Long.parseLong(trimmed);
+            if (seconds < 0) {
+                return -1;
+            }
+            retryAfterMs = seconds > MAX_RETRY_AFTER_MS / 1000 ? MAX_RETRY_AFTER_MS : seconds * 1000;
+        } catch (final NumberFormatException ignored) {
+            try {
+                final var date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+                retryAfterMs = Math.max(date.toInstant().toEpochMilli() - nowMs, 0);
+            } catch (final DateTimeParseException e) {
+                return -1;
+            }
+        }
+        return Math.min(retryAfterMs, MAX_RETRY_AFTER_MS);
+    }
+
+    private Future<HttpResponse<Buffer>> schedule(
+            final CloudEvent event, final int retryCounter, final long delay, final long previousDelayMs) {
         Promise<HttpResponse<Buffer>> r = Promise.promise();
-        final var delay = retryPolicyFunc.apply(retryCounter + 1);
-        vertx.setTimer(delay, v -> send(event, retryCounter + 1).onComplete(r));
+        retryScheduler.schedule(this, delay, expired -> {
+            if (expired) {
+                send(event, retryCounter, previousDelayMs).onComplete(r);
+            } else {
+                r.tryFail("Sender closed for target=" + target);
+            }
+        });
         return r.future();
     }
 
@@ -187,45 +372,21 @@ public final class WebClientCloudEventSender implements CloudEventSender {
         inFlightRequests.incrementAndGet();
     }
 
-    private Future<?> send(final CloudEvent event, final Promise<HttpResponse<Buffer>> breaker) {
-        Future<String> requestToken;
-        if (this.targetOIDCAudience.isEmpty()) {
-            requestToken = Future.succeededFuture(null);
-        } else {
-            requestToken = this.tokenProvider.getToken(this.oidcServiceAccount, this.targetOIDCAudience);
-        }
+    private Future<?> send(final CloudEvent event, final Permit permit, final Promise<HttpResponse<Buffer>> breaker) {
+        final long startNanos = System.nanoTime();
+        final Future<String> requestToken = getRequestToken();
 
         return requestToken
-                .compose(token -> {
-                    HttpRequest<Buffer> req = client.postAbs(target)
-                            .timeout(
-                                    this.consumerVerticleContext
-                                                            .getEgressConfig()
-                                                            .getTimeout()
-                                                    <= 0
-                                            ? DEFAULT_TIMEOUT_MS
-                                            : this.consumerVerticleContext
-                                                    .getEgressConfig()
-                                                    .getTimeout())
-                            .putHeader("Prefer", "reply")
-                            .putHeader(
-                                    "Kn-Namespace",
-                                    this.consumerVerticleContext
-                                            .getEgress()
-                                            .getReference()
-                                            .getNamespace());
-
-                    if (token != null && !token.isEmpty()) {
-                        req.putHeader("Authorization", "Bearer " + token);
-                    }
-
-                    return VertxMessageFactory.createWriter(req).writeBinary(event);
-                })
+                .compose(token -> writeBinary(createRequest(token).putHeader("Prefer", "reply"), event))
                 .onFailure(ex -> {
+                    recordSample(startNanos, -1);
+                    recordResult(permit, -1);
                     logError(event, ex);
                     breaker.tryFail(ex);
                 })
                 .onSuccess(response -> {
+                    recordSample(startNanos, response.statusCode());
+                    recordResult(permit, response.statusCode());
                     if (response.statusCode() >= 300) {
                         logError("Received a failure status code that is not 2xx.", event, response);
                         breaker.tryFail(new ResponseFailureException(
@@ -237,6 +398,160 @@ public final class WebClientCloudEventSender implements CloudEventSender {
                 });
     }
 
+    /**
+     * Send the given event in the binary content mode.
+     * <p>
+     * Events read lazily from records in the binary content mode are passed through: attributes and extensions are
+     * copied from the headers of the record, followed by the extensions of an {@link OverlayCloudEvent}, and the value
+     * of the record is sent without copying it.
+     *
+     * @param request request.
+     * @param event   event.
+     * @return the response.
+     */
+    static Future<HttpResponse<Buffer>> writeBinary(final HttpRequest<Buffer> request, final CloudEvent event) {
+        final var overlay = event instanceof OverlayCloudEvent o ? o : null;
+        final var delegate = overlay != null ? overlay.delegate() : event;
+        if (!(delegate instanceof LazyCloudEvent lazy)) {
+            return VertxMessageFactory.createWriter(request).writeBinary(event);
+        }
+        final var headers = request.headers();
+        final BiConsumer<String, String> writer = (name, value) -> {
+            final var header = ATTRIBUTE_HEADERS.get(name);
+            headers.set(header != null ? header : CE_HEADER_PREFIX + name, value);
+        };
+        lazy.writeAttributes(writer);
+        if (overlay != null) {
+            overlay.extensions().forEach((name, value) -> writer.accept(name, String.valueOf(value)));
+        }
+        final var data = lazy.data();
+        if (data == null || data.length == 0) {
+            return request.send();
+        }
+        return request.sendBuffer(Buffer.buffer(Unpooled.wrappedBuffer(data)));
+    }
+
+    @Override
+    public Future<HttpResponse<Buffer>> sendBatch(final CloudEventBatch batch) {
+        logger.debug("Sending batch {} {}", keyValue("size", batch.size()), keyValue("subscriberURI", target));
+
+        if (closed.get()) {
+            return Future.failedFuture("Sender closed for target=" + target);
+        }
+
+        if (retryBudget != null) {
+            // Every event of the batch is sent for the first time, so that sending them on their own after the batch
+            // failed is bounded by the budget like retries.
+            for (int i = 0; i < batch.size(); i++) {
+                retryBudget.onFirstAttempt();
+            }
+        }
+
+        final var permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : Permit.GRANTED;
+        if (permit == Permit.DENIED) {
+            return Future.failedFuture(new SubscriberUnavailableException(target));
+        }
+
+        final long startNanos = System.nanoTime();
+        requestEmitted();
+        return getRequestToken()
+                .compose(token -> createRequest(token)
+                        .putHeader(HttpHeaders.CONTENT_TYPE.toString(), CloudEventBatch.CONTENT_TYPE)
+                        .sendBuffer(batch.toBuffer()))
+                .transform(ar -> {
+                    requestCompleted();
+                    if (ar.failed()) {
+                        recordSample(startNanos, -1);
+                        recordResult(permit, -1);
+                        logger.error(
+                                "failed to send batch to subscriber {} {} {}",
+                                consumerVerticleContext.getLoggingKeyValue(),
+                                keyValue("target", target),
+                                keyValue("size", batch.size()),
+                                ar.cause());
+                        return Future.failedFuture(ar.cause());
+                    }
+                    final var response = ar.result();
+                    recordSample(startNanos, response.statusCode());
+                    recordResult(permit, response.statusCode());
+                    if (response.statusCode() >= 300) {
+                        logger.error(
+                                "Received a failure status code that is not 2xx, failed to send batch to subscriber {} {} {} {}",
+                                consumerVerticleContext.getLoggingKeyValue(),
+                                keyValue("target", target),
+                                keyValue("statusCode", response.statusCode()),
+                                keyValue("size", batch.size()));
+                        onRetryAfter(response);
+                        return Future.failedFuture(new ResponseFailureException(
+                                response, "Received failure response, status code: " + response.statusCode()));
+                    }
+                    return Future.succeededFuture(response);
+                });
+    }
+
+    /**
+     * The failed batch is the first attempt of the event: the event is held back while the circuit breaker is open,
+     * it's retried after the back off period, or after Retry-After when the subscriber asked for it, and within the
+     * retry budget. Events of a batch rejected with a non retryable status code are sent right away, since the
+     * subscriber might reject a single event of the batch.
+     */
+    @Override
+    public Future<HttpResponse<Buffer>> sendAfterFailedBatch(final CloudEvent event, final Throwable batchFailure) {
+        if (batchFailure instanceof SubscriberUnavailableException) {
+            // The batch wasn't sent, so it doesn't use up a retry.
+            return schedule(event, 0, circuitBreaker.getRetryDelayMs(), backoffDelayMs);
+        }
+        if (batchFailure instanceof ResponseFailureException rfe) {
+            final var response = rfe.getResponse();
+            if (!isRetryableStatusCode(response.statusCode())) {
+                return send(event, 0, backoffDelayMs);
+            }
+            if (maxRetries > 0) {
+                return retry(0, event, backoffDelayMs, getRetryAfterMs(response), batchFailure);
+            }
+            return Future.failedFuture(batchFailure);
+        }
+        if (maxRetries > 0) {
+            return retry(0, event, backoffDelayMs, -1, batchFailure);
+        }
+        return Future.failedFuture(batchFailure);
+    }
+
+    private Future<String> getRequestToken() {
+        if (this.targetOIDCAudience.isEmpty()) {
+            return Future.succeededFuture(null);
+        }
+        return this.tokenProvider.getToken(this.oidcServiceAccount, this.targetOIDCAudience);
+    }
+
+    private HttpRequest<Buffer> createRequest(final String token) {
+        final HttpRequest<Buffer> req = client.postAbs(target)
+                .timeout(
+                        this.consumerVerticleContext.getEgressConfig().getTimeout() <= 0
+                                ? DEFAULT_TIMEOUT_MS
+                                : this.consumerVerticleContext.getEgressConfig().getTimeout())
+                .putHeader(
+                        "Kn-Namespace",
+                        this.consumerVerticleContext.getEgress().getReference().getNamespace());
+
+        if (token != null && !token.isEmpty()) {
+            req.putHeader("Authorization", "Bearer " + token);
+        }
+        return req;
+    }
+
+    private void recordSample(final long startNanos, final int statusCode) {
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.onSample(System.nanoTime() - startNanos, statusCode, inFlightRequests.get());
+        }
+    }
+
+    private void recordResult(final Permit permit, final int statusCode) {
+        if (circuitBreaker != null) {
+            circuitBreaker.onResult(permit, statusCode);
+        }
+    }
+
     private void logError(final String prefix, final CloudEvent event, final HttpResponse<Buffer> response) {
         if (logger.isDebugEnabled()) {
             logger.error(
@@ -275,11 +590,15 @@ public final class WebClientCloudEventSender implements CloudEventSender {
     public Future<Void> close() {
         this.closed.set(true);
 
+        // Events waiting for a retry fail right away.
+        final var cancelledRetries = retryScheduler.cancel(this);
+
         logger.info(
-                "Close {} {} {}",
+                "Close {} {} {} {}",
                 consumerVerticleContext.getLoggingKeyValue(),
                 keyValue("target", target),
-                keyValue("inFlightRequests", inFlightRequests.get()));
+                keyValue("inFlightRequests", inFlightRequests.get()),
+                keyValue("cancelledRetries", cancelledRetries));
 
         if (inFlightRequests.get() == 0) {
             closePromise.tryComplete(null);
@@ -293,7 +612,7 @@ public final class WebClientCloudEventSender implements CloudEventSender {
         return closePromise.future().compose(v -> closeF.apply(null), v -> closeF.apply(null));
     }
 
-    static boolean isRetryableStatusCode(final int statusCode) {
+    public static boolean isRetryableStatusCode(final int statusCode) {
         // From
         // https://github.com/knative/specs/blob/c348f501de9eb998b4fd010c54d9127033ee41be/specs/eventing/data-plane.md#event-acknowledgement-and-delivery-retry
         return statusCode >= 500
@@ -307,6 +626,28 @@ public final class WebClientCloudEventSender implements CloudEventSender {
                 statusCode == 429; // Too Many Requests / Overloaded
     }
 
+    /**
+     * Compute the delay of a retry with decorrelated jitter, that is a random delay between the base delay and three
+     * times the previous delay, so that retries of events that failed together don't hit the subscriber in lockstep.
+     * <p>
+     * The delay is capped by the backoff policy, see {@link #computeRetryPolicy(DataPlaneContract.EgressConfig)},
+     * which is therefore still an upper bound for the time spent retrying an event.
+     *
+     * @param baseMs          backoff delay.
+     * @param capMs           delay of the retry according to the backoff policy.
+     * @param previousDelayMs delay of the previous retry, or the base delay for the first retry.
+     * @param random          random number in [0, 1).
+     * @return the delay of the retry.
+     */
+    static long decorrelatedJitter(
+            final long baseMs, final long capMs, final long previousDelayMs, final double random) {
+        if (capMs <= baseMs) {
+            return capMs;
+        }
+        final var upperMs = Math.max(previousDelayMs * 3, baseMs);
+        return Math.min(capMs, baseMs + (long) ((upperMs - baseMs) * random));
+    }
+
     public static Function<Integer, Long> computeRetryPolicy(final DataPlaneContract.EgressConfig egress) {
         if (egress != null && egress.getBackoffDelay() > 0) {
             final var delay = egress.getBackoffDelay();
@@ -317,4 +658,14 @@ public final class WebClientCloudEventSender implements CloudEventSender {
         }
         return retry -> 0L; // Default Vert.x retry policy, it means don't retry
     }
+
+    /**
+     * Failure of a batch held back by the circuit breaker of the subscriber.
+     */
+    private static final class SubscriberUnavailableException extends RuntimeException {
+
+        private SubscriberUnavailableException(final String target) {
+            super("Subscriber unavailable, circuit breaker open for target=" + target, null, false, false);
+        }
+    }
 }
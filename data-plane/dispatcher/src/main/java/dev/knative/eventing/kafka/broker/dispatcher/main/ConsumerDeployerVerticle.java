@@ -21,11 +21,16 @@ import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.core.reconciler.EgressReconcilerListener;
 import dev.knative.eventing.kafka.broker.core.reconciler.ResourcesReconciler;
 import dev.knative.eventing.kafka.broker.dispatcher.ConsumerVerticleFactory;
+import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
+import dev.knative.eventing.kafka.broker.dispatcher.SharedConsumerVerticleFactory;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerVerticle;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.eventbus.MessageConsumer;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,13 +39,29 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This verticle listens on Egress reconciliations by deploying/undeploying new consumer verticles.
+ * <p>
+ * When shared fetch is enabled, unordered egresses of the same resource (with the same key type) share a single
+ * consumer verticle (see {@link SharedConsumerVerticleFactory#getShared}), which is re-deployed when egresses are added,
+ * updated or removed.
+ * <p>
+ * Updates of other egresses are applied to the running consumer when possible (see
+ * {@link ConsumerVerticle#updateEgress}), otherwise the consumer is re-deployed.
  */
 public final class ConsumerDeployerVerticle extends AbstractVerticle implements EgressReconcilerListener {
 
     private static final Logger logger = LoggerFactory.getLogger(ConsumerDeployerVerticle.class);
 
     private final Map<String, String> deployedDispatchers;
+    // egress uid -> deployed verticle
+    private final Map<String, AbstractVerticle> deployedVerticles;
     private final ConsumerVerticleFactory consumerFactory;
+    // null when shared fetch is disabled.
+    private final SharedConsumerVerticleFactory sharedConsumerFactory;
+    private final boolean sharedFetchEnabled;
+    // shared consumer key -> shared consumer
+    private final Map<String, SharedConsumer> sharedConsumers;
+    // egress uid -> shared consumer key
+    private final Map<String, String> sharedEgresses;
 
     private MessageConsumer<Object> messageConsumer;
 
@@ -51,12 +72,36 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
      * @param egressesInitialCapacity egresses container initial capacity.
      */
     public ConsumerDeployerVerticle(final ConsumerVerticleFactory consumerFactory, final int egressesInitialCapacity) {
+        this(consumerFactory, egressesInitialCapacity, false);
+    }
+
+    /**
+     * All args constructor.
+     *
+     * @param consumerFactory         consumer factory.
+     * @param egressesInitialCapacity egresses container initial capacity.
+     * @param sharedFetchEnabled      whether unordered egresses of the same resource share a single consumer, it's
+     *                                ignored when the consumer factory isn't a {@link SharedConsumerVerticleFactory}.
+     */
+    public ConsumerDeployerVerticle(
+            final ConsumerVerticleFactory consumerFactory,
+            final int egressesInitialCapacity,
+            final boolean sharedFetchEnabled) {
         Objects.requireNonNull(consumerFactory, "provide consumer factory");
         if (egressesInitialCapacity <= 0) {
             throw new IllegalArgumentException("egressesInitialCapacity cannot be negative or 0");
         }
         this.consumerFactory = consumerFactory;
         this.deployedDispatchers = new ConcurrentHashMap<>(egressesInitialCapacity);
+        this.deployedVerticles = new ConcurrentHashMap<>(egressesInitialCapacity);
+        this.sharedConsumerFactory =
+                sharedFetchEnabled && consumerFactory instanceof SharedConsumerVerticleFactory f ? f : null;
+        this.sharedFetchEnabled = this.sharedConsumerFactory != null;
+        if (sharedFetchEnabled && !this.sharedFetchEnabled) {
+            logger.warn("Shared fetch is enabled but the consumer factory doesn't support it, ignoring it");
+        }
+        this.sharedConsumers = new HashMap<>();
+        this.sharedEgresses = new HashMap<>(egressesInitialCapacity);
     }
 
     @Override
@@ -71,6 +116,10 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
 
     @Override
     public Future<Void> onNewEgress(final EgressContext egressContext) {
+        if (isShared(egressContext)) {
+            return addSharedEgress(egressContext);
+        }
+
         // TODO we should check if the consumer is still running
         if (this.deployedDispatchers.containsKey(egressContext.egress().getUid())) {
             return Future.succeededFuture();
@@ -84,6 +133,7 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
             return vertx.deployVerticle(verticle, deploymentOptions)
                     .onSuccess(deploymentId -> {
                         this.deployedDispatchers.put(egressContext.egress().getUid(), deploymentId);
+                        this.deployedVerticles.put(egressContext.egress().getUid(), verticle);
                         logger.info(
                                 "Verticle deployed {} {} {}",
                                 keyValue("egress.uid", egressContext.egress().getUid()),
@@ -113,11 +163,37 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
 
     @Override
     public Future<Void> onUpdateEgress(final EgressContext egressContext) {
+        final var verticle = this.deployedVerticles.get(egressContext.egress().getUid());
+        if (!isShared(egressContext) && verticle instanceof ConsumerVerticle consumerVerticle) {
+            return consumerVerticle
+                    .updateEgress(egressContext)
+                    .onSuccess(v -> logger.info(
+                            "Egress updated in place {} {}",
+                            keyValue("egress.uid", egressContext.egress().getUid()),
+                            keyValue("resource.uid", egressContext.resource().getUid())))
+                    .recover(cause -> {
+                        logger.info(
+                                "Re-deploying verticle to update egress {} {} {}",
+                                keyValue("egress.uid", egressContext.egress().getUid()),
+                                keyValue(
+                                        "resource.uid", egressContext.resource().getUid()),
+                                keyValue("reason", cause.getMessage()));
+                        return restart(egressContext);
+                    });
+        }
+        return restart(egressContext);
+    }
+
+    private Future<Void> restart(final EgressContext egressContext) {
         return onDeleteEgress(egressContext).compose(v -> onNewEgress(egressContext));
     }
 
     @Override
     public Future<Void> onDeleteEgress(final EgressContext egressContext) {
+        if (isSharedEgressDeployed(egressContext)) {
+            return removeSharedEgress(egressContext);
+        }
+
         if (!this.deployedDispatchers.containsKey(egressContext.egress().getUid())) {
             return Future.succeededFuture();
         }
@@ -129,6 +205,8 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
                             v -> {
                                 this.deployedDispatchers.remove(
                                         egressContext.egress().getUid());
+                                this.deployedVerticles.remove(
+                                        egressContext.egress().getUid());
                                 logger.info(
                                         "Removed egress {} {}",
                                         keyValue(
@@ -144,6 +222,8 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
                                 if (cause instanceof IllegalStateException) {
                                     this.deployedDispatchers.remove(
                                             egressContext.egress().getUid());
+                                    this.deployedVerticles.remove(
+                                            egressContext.egress().getUid());
                                     return Future.succeededFuture();
                                 }
                                 logger.error(
@@ -161,4 +241,124 @@ public final class ConsumerDeployerVerticle extends AbstractVerticle implements
             return Future.failedFuture(ex);
         }
     }
+
+    private boolean isShared(final EgressContext egressContext) {
+        return sharedFetchEnabled
+                && DeliveryOrder.fromContract(egressContext.egress().getDeliveryOrder()) == DeliveryOrder.UNORDERED;
+    }
+
+    private synchronized boolean isSharedEgressDeployed(final EgressContext egressContext) {
+        return sharedEgresses.containsKey(egressContext.egress().getUid());
+    }
+
+    private static String sharedConsumerKey(final EgressContext egressContext) {
+        // Records are deserialized once, so egresses must agree on the key type.
+        return egressContext.resource().getUid() + "/" + egressContext.egress().getKeyType();
+    }
+
+    private synchronized Future<Void> addSharedEgress(final EgressContext egressContext) {
+        final var key = sharedConsumerKey(egressContext);
+        final var sharedConsumer = sharedConsumers.computeIfAbsent(key, k -> new SharedConsumer());
+        if (!egressContext.equals(
+                sharedConsumer.egresses.get(egressContext.egress().getUid()))) {
+            sharedConsumer.egresses.put(egressContext.egress().getUid(), egressContext);
+            sharedEgresses.put(egressContext.egress().getUid(), key);
+        } else if (sharedConsumer.deploymentId != null && sharedConsumer.pendingRedeploy == null) {
+            return Future.succeededFuture();
+        }
+        return scheduleRedeploy(key, sharedConsumer);
+    }
+
+    private synchronized Future<Void> removeSharedEgress(final EgressContext egressContext) {
+        final var key = sharedEgresses.remove(egressContext.egress().getUid());
+        final var sharedConsumer = sharedConsumers.get(key);
+        sharedConsumer.egresses.remove(egressContext.egress().getUid());
+        return scheduleRedeploy(key, sharedConsumer);
+    }
+
+    /**
+     * The reconciler notifies every egress change of a contract at once, so changes to the egresses of a shared
+     * consumer are applied together with a single re-deployment, and re-deployments of the same shared consumer
+     * never overlap.
+     */
+    private Future<Void> scheduleRedeploy(final String key, final SharedConsumer sharedConsumer) {
+        if (sharedConsumer.pendingRedeploy != null) {
+            return sharedConsumer.pendingRedeploy.future();
+        }
+        final Promise<Void> promise = Promise.promise();
+        sharedConsumer.pendingRedeploy = promise;
+        context.runOnContext(v -> {
+            sharedConsumer.lastRedeploy =
+                    sharedConsumer.lastRedeploy.transform(ignored -> redeploy(key, sharedConsumer));
+            sharedConsumer.lastRedeploy.onComplete(promise);
+        });
+        return promise.future();
+    }
+
+    private Future<Void> redeploy(final String key, final SharedConsumer sharedConsumer) {
+        final List<EgressContext> egresses;
+        synchronized (this) {
+            // Changes from now on are applied by the next re-deployment.
+            sharedConsumer.pendingRedeploy = null;
+            egresses = List.copyOf(sharedConsumer.egresses.values());
+        }
+
+        final Future<Void> undeployed = sharedConsumer.deploymentId == null
+                ? Future.succeededFuture()
+                : vertx.undeploy(sharedConsumer.deploymentId).recover(cause -> {
+                    // IllegalStateException is thrown when a verticle is already un-deployed.
+                    if (cause instanceof IllegalStateException) {
+                        return Future.succeededFuture();
+                    }
+                    logger.error("Failed to un-deploy shared verticle {}", keyValue("key", key), cause);
+                    return Future.failedFuture(cause);
+                });
+
+        return undeployed.compose(v -> {
+            sharedConsumer.deploymentId = null;
+            if (egresses.isEmpty()) {
+                synchronized (this) {
+                    if (sharedConsumer.egresses.isEmpty() && sharedConsumer.pendingRedeploy == null) {
+                        sharedConsumers.remove(key);
+                    }
+                }
+                logger.info("Removed shared verticle {}", keyValue("key", key));
+                return Future.succeededFuture();
+            }
+
+            final AbstractVerticle verticle;
+            try {
+                verticle = sharedConsumerFactory.getShared(egresses);
+            } catch (final Exception e) {
+                logger.error("Potential control-plane bug: failed to get shared verticle {}", keyValue("key", key), e);
+                return Future.failedFuture(
+                        new IllegalStateException("Potential control-plane bug: failed to get shared verticle", e));
+            }
+
+            return vertx.deployVerticle(verticle, new DeploymentOptions().setWorker(true))
+                    .onSuccess(deploymentId -> {
+                        sharedConsumer.deploymentId = deploymentId;
+                        logger.info(
+                                "Shared verticle deployed {} {} {}",
+                                keyValue("key", key),
+                                keyValue(
+                                        "egresses",
+                                        egresses.stream()
+                                                .map(e -> e.egress().getUid())
+                                                .toList()),
+                                keyValue("deploymentId", deploymentId));
+                    })
+                    .onFailure(cause -> logger.error("failed to start shared verticle {}", keyValue("key", key), cause))
+                    .mapEmpty();
+        });
+    }
+
+    private static final class SharedConsumer {
+
+        // egress uid -> egress
+        private final Map<String, EgressContext> egresses = new HashMap<>();
+        private volatile String deploymentId;
+        private Promise<Void> pendingRedeploy;
+        private Future<Void> lastRedeploy = Future.succeededFuture();
+    }
 }
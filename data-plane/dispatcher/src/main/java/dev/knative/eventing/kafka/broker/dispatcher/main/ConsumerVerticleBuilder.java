@@ -22,24 +22,34 @@ import dev.knative.eventing.kafka.broker.core.NamespacedName;
 import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
 import dev.knative.eventing.kafka.broker.core.ReactiveKafkaProducer;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.core.security.Credentials;
 import dev.knative.eventing.kafka.broker.core.security.KafkaClientsAuth;
 import dev.knative.eventing.kafka.broker.core.tracing.kafka.ConsumerTracer;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventMutator;
 import dev.knative.eventing.kafka.broker.dispatcher.CloudEventSender;
 import dev.knative.eventing.kafka.broker.dispatcher.DeliveryOrder;
 import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcherListener;
 import dev.knative.eventing.kafka.broker.dispatcher.ResponseHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.NoopResponseHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.RecordDispatcherImpl;
-import dev.knative.eventing.kafka.broker.dispatcher.impl.RecordDispatcherMutatorChain;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.ResponseToHttpEndpointHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.ResponseToKafkaTopicHandler;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.RetryTopic;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.CircuitBreakerKafkaConsumer;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.CloudEventOverridesMutator;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerPollerPool;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerVerticle;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.OffsetManager;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.OrderedConsumerVerticle;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.PartitionAssignedHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.PartitionRevokedHandler;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SubscriberCircuitBreaker;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.UnorderedConsumerVerticle;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.AdaptiveFilterOrder;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.CompiledFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AnyFilter;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.CeSqlFilter;
@@ -60,11 +70,16 @@ import io.vertx.ext.web.client.WebClientOptions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 
 public class ConsumerVerticleBuilder {
@@ -93,47 +108,166 @@ public class ConsumerVerticleBuilder {
         KafkaClientsAuth.attachCredentials(consumerVerticleContext.getConsumerConfigs(), credentials);
         KafkaClientsAuth.attachCredentials(consumerVerticleContext.getProducerConfigs(), credentials);
 
-        final ReactiveKafkaConsumer<Object, CloudEvent> consumer = this.consumerVerticleContext
-                .getConsumerFactory()
-                .create(vertx, consumerVerticleContext.getConsumerConfigs());
+        final var circuitBreaker = SubscriberCircuitBreaker.create(vertx, consumerVerticleContext);
+        final ReactiveKafkaConsumer<Object, CloudEvent> consumer = withCircuitBreaker(
+                this.consumerVerticleContext
+                        .getConsumerFactory()
+                        .create(vertx, consumerVerticleContext.getConsumerConfigs()),
+                circuitBreaker);
         consumerVerticle.setConsumer(consumer);
 
         final var metricsCloser = Metrics.register(consumer.unwrap());
         consumerVerticle.setCloser(metricsCloser);
 
-        // setting up cloud events sender
-        final var egressSubscriberSender = createConsumerRecordSender(vertx);
-        final var egressDeadLetterSender = createDeadLetterSinkRecordSender(vertx);
-        final var responseHandler = createResponseHandler(vertx);
+        final var concurrencyLimiter = consumerVerticle instanceof UnorderedConsumerVerticle unordered
+                ? unordered.getConcurrencyLimiter()
+                : null;
+
+        final var offsetManager = createOffsetManager(vertx, consumer::commit);
+        final var partitionAssignedHandlers = new ArrayList<PartitionAssignedHandler>(1);
+        if (consumerVerticle instanceof UnorderedConsumerVerticle unordered) {
+            offsetManager.pauseOnFullWindow(consumer);
+            if (getCommitMetadataMaxLength() > 0) {
+                // Ordered consumers deliver records of a partition in order, so there is nothing to restore.
+                partitionAssignedHandlers.add(
+                        unordered.awaitBeforeDispatch(offsetManager.getPartitionAssignedHandler(consumer)));
+            }
+        }
 
-        final var offsetManager = new OffsetManager(vertx, consumer, (v) -> {}, getCommitIntervalMs());
-
-        final var recordDispatcher = new RecordDispatcherMutatorChain(
-                new RecordDispatcherImpl(
-                        consumerVerticleContext,
-                        getFilter(),
-                        egressSubscriberSender,
-                        egressDeadLetterSender,
-                        responseHandler,
-                        offsetManager,
-                        ConsumerTracer.create(
-                                ((VertxInternal) vertx).tracer(),
-                                consumerVerticleContext.getConsumerConfigs(),
-                                TracingPolicy.PROPAGATE),
-                        Metrics.getRegistry()),
-                new CloudEventOverridesMutator(
-                        consumerVerticleContext.getResource().getCloudEventOverrides()));
+        final var recordDispatcher = createRecordDispatcher(vertx, offsetManager, concurrencyLimiter, circuitBreaker);
         consumerVerticle.setRecordDispatcher(recordDispatcher);
+        consumerVerticle.setEgressUpdater(new EgressUpdater(
+                vertx, consumerVerticleContext, recordDispatcher, concurrencyLimiter, circuitBreaker));
 
         final var partitionRevokedHandlers =
                 List.of(consumerVerticle.getPartitionRevokedHandler(), offsetManager.getPartitionRevokedHandler());
-        consumerVerticle.setRebalanceListener(createRebalanceListener(partitionRevokedHandlers));
+        consumerVerticle.setRebalanceListener(
+                createRebalanceListener(consumerVerticleContext, partitionRevokedHandlers, partitionAssignedHandlers));
+    }
+
+    private static <K, V> ReactiveKafkaConsumer<K, V> withCircuitBreaker(
+            final ReactiveKafkaConsumer<K, V> consumer, @Nullable final SubscriberCircuitBreaker circuitBreaker) {
+        if (circuitBreaker == null) {
+            return consumer;
+        }
+        // Partitions are paused while the subscriber is unavailable.
+        final var circuitBreakerConsumer = new CircuitBreakerKafkaConsumer<>(consumer);
+        circuitBreaker.setListener(circuitBreakerConsumer);
+        return circuitBreakerConsumer;
+    }
+
+    RecordDispatcherImpl createRecordDispatcher(
+            final Vertx vertx,
+            final RecordDispatcherListener recordDispatcherListener,
+            @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Nullable final SubscriberCircuitBreaker circuitBreaker) {
+        final var retryTopic = createRetryTopic(vertx);
+        // setting up cloud events sender, events are retried through the retry topic, if any
+        final var egressSubscriberSender = createConsumerRecordSender(
+                vertx,
+                concurrencyLimiter,
+                circuitBreaker,
+                retryTopic != null
+                        ? 0
+                        : consumerVerticleContext.getEgressConfig().getRetry());
+        final var egressDeadLetterSender = createDeadLetterSinkRecordSender(vertx);
+        final var responseHandler = createResponseHandler(vertx);
+
+        return new RecordDispatcherImpl(
+                consumerVerticleContext,
+                getFilter(),
+                egressSubscriberSender,
+                egressDeadLetterSender,
+                responseHandler,
+                recordDispatcherListener,
+                ConsumerTracer.create(
+                        ((VertxInternal) vertx).tracer(),
+                        consumerVerticleContext.getConsumerConfigs(),
+                        TracingPolicy.PROPAGATE),
+                Metrics.getRegistry(),
+                retryTopic,
+                createCloudEventMutator());
+    }
+
+    /**
+     * Swap the parts of the given dispatcher depending on the egress spec with the ones of this builder's egress.
+     */
+    private Future<Void> updateRecordDispatcher(
+            final Vertx vertx,
+            final RecordDispatcherImpl recordDispatcher,
+            @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Nullable final SubscriberCircuitBreaker circuitBreaker) {
+        final var egressSubscriberSender = createConsumerRecordSender(
+                vertx,
+                concurrencyLimiter,
+                circuitBreaker,
+                RetryTopic.topicName(consumerVerticleContext) != null
+                        ? 0
+                        : consumerVerticleContext.getEgressConfig().getRetry());
+
+        return recordDispatcher.update(
+                consumerVerticleContext,
+                getFilter(),
+                egressSubscriberSender,
+                createDeadLetterSinkRecordSender(vertx),
+                createResponseHandler(vertx),
+                createCloudEventMutator());
+    }
+
+    /**
+     * An egress update can be applied to a running consumer when it only changes the filters, the destination, the
+     * reply strategy, the delivery spec or the CloudEvent overrides, any other change, like the consumer group, the
+     * bootstrap servers or the auth, requires restarting the consumer.
+     *
+     * @param current consumer verticle context of the running consumer.
+     * @param next    consumer verticle context of the updated egress.
+     * @return true when the update can be applied to the running consumer.
+     */
+    static boolean canUpdateInPlace(final ConsumerVerticleContext current, final ConsumerVerticleContext next) {
+        if (!withoutSwappableFields(current.getEgress()).equals(withoutSwappableFields(next.getEgress()))) {
+            return false;
+        }
+        if (!withoutSwappableFields(current.getResource()).equals(withoutSwappableFields(next.getResource()))) {
+            return false;
+        }
+        // The consumer is configured with a max poll interval computed from the retries of the delivery spec, which
+        // also configure the retry topic, if any.
+        return Objects.equals(
+                current.getConsumerConfigs().get(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG),
+                next.getConsumerConfigs().get(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG));
+    }
+
+    private static DataPlaneContract.Egress withoutSwappableFields(final DataPlaneContract.Egress egress) {
+        return DataPlaneContract.Egress.newBuilder(egress)
+                .clearFilter()
+                .clearDialectedFilter()
+                .clearDestination()
+                .clearDestinationCACerts()
+                .clearDestinationAudience()
+                .clearReplyStrategy()
+                .clearReplyUrlCACerts()
+                .clearReplyUrlAudience()
+                .clearEgressConfig()
+                .build();
+    }
+
+    private static DataPlaneContract.Resource withoutSwappableFields(final DataPlaneContract.Resource resource) {
+        return DataPlaneContract.Resource.newBuilder(resource)
+                .clearEgresses()
+                .clearEgressConfig()
+                .clearCloudEventOverrides()
+                .build();
+    }
+
+    private CloudEventMutator createCloudEventMutator() {
+        return new CloudEventOverridesMutator(
+                consumerVerticleContext.getResource().getCloudEventOverrides());
     }
 
     private ConsumerVerticle createConsumerVerticle(final ConsumerVerticle.Initializer initializer) {
         return switch (DeliveryOrder.fromContract(
                 consumerVerticleContext.getEgress().getDeliveryOrder())) {
-            case ORDERED -> new OrderedConsumerVerticle(consumerVerticleContext, initializer);
+            case ORDERED, KEY_ORDERED -> new OrderedConsumerVerticle(consumerVerticleContext, initializer);
             case UNORDERED -> new UnorderedConsumerVerticle(consumerVerticleContext, initializer);
         };
     }
@@ -141,11 +275,30 @@ public class ConsumerVerticleBuilder {
     /**
      * For each handler call partitionRevoked and wait for the future to complete.
      *
+     * @param consumerVerticleContext  consumer verticle context used for logging
      * @param partitionRevokedHandlers partition revoked handlers
      * @return ConsumerRebalanceListener object with the partition revoked handler running on onPartitionsRevoked
      */
-    private ConsumerRebalanceListener createRebalanceListener(
+    static ConsumerRebalanceListener createRebalanceListener(
+            final ConsumerVerticleContext consumerVerticleContext,
             final List<PartitionRevokedHandler> partitionRevokedHandlers) {
+        return createRebalanceListener(consumerVerticleContext, partitionRevokedHandlers, List.of());
+    }
+
+    /**
+     * For each revoked handler call partitionRevoked and wait for the future to complete, for each assigned handler
+     * call partitionAssigned without waiting, since assigned handlers are awaited by the consumer verticle.
+     *
+     * @param consumerVerticleContext   consumer verticle context used for logging
+     * @param partitionRevokedHandlers  partition revoked handlers
+     * @param partitionAssignedHandlers partition assigned handlers
+     * @return ConsumerRebalanceListener object with the handlers running on onPartitionsRevoked and
+     * onPartitionsAssigned
+     */
+    static ConsumerRebalanceListener createRebalanceListener(
+            final ConsumerVerticleContext consumerVerticleContext,
+            final List<PartitionRevokedHandler> partitionRevokedHandlers,
+            final List<PartitionAssignedHandler> partitionAssignedHandlers) {
         return new ConsumerRebalanceListener() {
             @Override
             public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
@@ -159,6 +312,19 @@ public class ConsumerVerticleBuilder {
                     futures.add(partitionRevokedHandler.partitionRevoked(partitions));
                 }
 
+                if (ConsumerPollerPool.isPollerThread()) {
+                    // Commits requested by the poller run right away, waiting for their futures, completed on Vert.x
+                    // contexts, would stall every other consumer of the poller.
+                    for (final var future : futures) {
+                        future.onFailure(cause -> ConsumerVerticleContext.logger.warn(
+                                "Partition revoked handler failed {} {}",
+                                consumerVerticleContext.getLoggingKeyValue(),
+                                keyValue("partitions", partitions),
+                                cause));
+                    }
+                    return;
+                }
+
                 for (final var future : futures) {
                     try {
                         future.toCompletionStage().toCompletableFuture().get(1, TimeUnit.SECONDS);
@@ -177,6 +343,16 @@ public class ConsumerVerticleBuilder {
                         "Received assign partitions for consumer {} {}",
                         consumerVerticleContext.getLoggingKeyValue(),
                         keyValue("partitions", partitions));
+
+                for (final var partitionAssignedHandler : partitionAssignedHandlers) {
+                    partitionAssignedHandler
+                            .partitionAssigned(partitions)
+                            .onFailure(cause -> ConsumerVerticleContext.logger.warn(
+                                    "Partition assigned handler failed {} {}",
+                                    consumerVerticleContext.getLoggingKeyValue(),
+                                    keyValue("partitions", partitions),
+                                    cause));
+                }
             }
         };
     }
@@ -184,32 +360,37 @@ public class ConsumerVerticleBuilder {
     private Filter getFilter() {
         // Dialected filters should override the attributes filter
         if (consumerVerticleContext.getEgress().getDialectedFilterCount() > 0) {
-            return getFilter(consumerVerticleContext.getEgress().getDialectedFilterList());
+            return CompiledFilter.compile(
+                    getFilter(consumerVerticleContext.getEgress().getDialectedFilterList()));
         } else if (consumerVerticleContext.getEgress().hasFilter()) {
-            return new ExactFilter(
-                    consumerVerticleContext.getEgress().getFilter().getAttributesMap());
+            return CompiledFilter.compile(new ExactFilter(
+                    consumerVerticleContext.getEgress().getFilter().getAttributesMap()));
         }
         return Filter.noop();
     }
 
-    private static Filter getFilter(List<DataPlaneContract.DialectedFilter> filters) {
+    private Filter getFilter(List<DataPlaneContract.DialectedFilter> filters) {
         return new AllFilter(
-                filters.stream().map(ConsumerVerticleBuilder::getFilter).collect(Collectors.toList()));
+                filters.stream().map(this::getFilter).collect(Collectors.toList()), isAdaptiveFilterOrder());
     }
 
-    private static Filter getFilter(DataPlaneContract.DialectedFilter filter) {
+    private Filter getFilter(DataPlaneContract.DialectedFilter filter) {
         return switch (filter.getFilterCase()) {
             case EXACT -> new ExactFilter(filter.getExact().getAttributesMap());
             case PREFIX -> new PrefixFilter(filter.getPrefix().getAttributesMap());
             case SUFFIX -> new SuffixFilter(filter.getSuffix().getAttributesMap());
             case NOT -> new NotFilter(getFilter(filter.getNot().getFilter()));
-            case ANY -> new AnyFilter(filter.getAny().getFiltersList().stream()
-                    .map(ConsumerVerticleBuilder::getFilter)
-                    .collect(Collectors.toList()));
-            case ALL -> new AllFilter(filter.getAll().getFiltersList().stream()
-                    .map(ConsumerVerticleBuilder::getFilter)
-                    .collect(Collectors.toList()));
-            case CESQL -> new CeSqlFilter(filter.getCesql().getExpression());
+            case ANY -> new AnyFilter(
+                    filter.getAny().getFiltersList().stream()
+                            .map(this::getFilter)
+                            .collect(Collectors.toList()),
+                    isAdaptiveFilterOrder());
+            case ALL -> new AllFilter(
+                    filter.getAll().getFiltersList().stream()
+                            .map(this::getFilter)
+                            .collect(Collectors.toList()),
+                    isAdaptiveFilterOrder());
+            case CESQL -> new CeSqlFilter(filter.getCesql().getExpression(), getCeSqlCacheSize());
             default -> Filter.noop();
         };
     }
@@ -255,7 +436,29 @@ public class ConsumerVerticleBuilder {
                 producer, consumerVerticleContext.getResource().getTopics(0));
     }
 
-    private CloudEventSender createConsumerRecordSender(final Vertx vertx) {
+    @Nullable
+    private RetryTopic createRetryTopic(final Vertx vertx) {
+        final var topic = RetryTopic.topicName(consumerVerticleContext);
+        if (topic == null) {
+            return null;
+        }
+
+        final Properties producerConfigs = new Properties();
+        producerConfigs.putAll(consumerVerticleContext.getProducerConfigs());
+
+        return new RetryTopic(
+                topic,
+                this.consumerVerticleContext.getProducerFactory().create(vertx, producerConfigs),
+                consumerVerticleContext.getEgressConfig().getRetry(),
+                WebClientCloudEventSender.computeRetryPolicy(consumerVerticleContext.getEgressConfig()),
+                System::currentTimeMillis);
+    }
+
+    private CloudEventSender createConsumerRecordSender(
+            final Vertx vertx,
+            @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Nullable final SubscriberCircuitBreaker circuitBreaker,
+            final int maxRetries) {
         return new WebClientCloudEventSender(
                 vertx,
                 WebClient.create(
@@ -268,7 +471,10 @@ public class ConsumerVerticleBuilder {
                         consumerVerticleContext.getResource().getReference().getNamespace(),
                         consumerVerticleContext.getEgress().getOidcServiceAccountName()),
                 consumerVerticleContext,
-                Metrics.Tags.senderContext("subscriber"));
+                Metrics.Tags.senderContext("subscriber"),
+                concurrencyLimiter,
+                circuitBreaker,
+                maxRetries);
     }
 
     private CloudEventSender createDeadLetterSinkRecordSender(final Vertx vertx) {
@@ -296,6 +502,58 @@ public class ConsumerVerticleBuilder {
         return NO_DEAD_LETTER_SINK_SENDER;
     }
 
+    OffsetManager createOffsetManager(
+            final Vertx vertx, final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer) {
+        final var offsetManager = new OffsetManager(
+                vertx,
+                committer,
+                (v) -> {},
+                getCommitIntervalMs(),
+                getLongConfig(OffsetManager.COMMIT_THRESHOLD_OFFSETS_CONFIG),
+                getLongConfig(OffsetManager.COMMIT_THRESHOLD_LAG_CONFIG),
+                getOffsetWindowSize());
+        offsetManager.commitCompletedOffsets(getCommitMetadataMaxLength());
+        return offsetManager;
+    }
+
+    private int getCommitMetadataMaxLength() {
+        final var value =
+                consumerVerticleContext.getConsumerConfigs().get(OffsetManager.COMMIT_METADATA_MAX_LENGTH_CONFIG);
+        if (value == null) {
+            return OffsetManager.DEFAULT_COMMIT_METADATA_MAX_LENGTH;
+        }
+        return Integer.parseInt(String.valueOf(value));
+    }
+
+    private int getOffsetWindowSize() {
+        final var value = consumerVerticleContext.getConsumerConfigs().get(OffsetManager.WINDOW_SIZE_CONFIG);
+        if (value == null) {
+            return OffsetManager.DEFAULT_WINDOW_SIZE;
+        }
+        return Integer.parseInt(String.valueOf(value));
+    }
+
+    private boolean isAdaptiveFilterOrder() {
+        final var value = consumerVerticleContext.getConsumerConfigs().get(AdaptiveFilterOrder.ENABLED_CONFIG);
+        return value != null && Boolean.parseBoolean(String.valueOf(value));
+    }
+
+    private int getCeSqlCacheSize() {
+        final var value = consumerVerticleContext.getConsumerConfigs().get(CeSqlFilter.CACHE_SIZE_CONFIG);
+        if (value == null) {
+            return 0;
+        }
+        return Integer.parseInt(String.valueOf(value));
+    }
+
+    private long getLongConfig(final String key) {
+        final var value = consumerVerticleContext.getConsumerConfigs().get(key);
+        if (value == null) {
+            return 0;
+        }
+        return Long.parseLong(String.valueOf(value));
+    }
+
     private int getCommitIntervalMs() {
         final var commitInterval =
                 consumerVerticleContext.getConsumerConfigs().get(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG);
@@ -308,4 +566,57 @@ public class ConsumerVerticleBuilder {
     private static boolean hasDeadLetterSink(final DataPlaneContract.EgressConfig egressConfig) {
         return !(egressConfig == null || egressConfig.getDeadLetter().isEmpty());
     }
+
+    /**
+     * This class applies egress updates to a running consumer, see {@link #canUpdateInPlace}.
+     */
+    private static final class EgressUpdater implements Function<EgressContext, Future<Void>> {
+
+        private final Vertx vertx;
+        private final RecordDispatcherImpl recordDispatcher;
+        private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private final SubscriberCircuitBreaker circuitBreaker;
+        private ConsumerVerticleContext consumerVerticleContext;
+
+        private EgressUpdater(
+                final Vertx vertx,
+                final ConsumerVerticleContext consumerVerticleContext,
+                final RecordDispatcherImpl recordDispatcher,
+                @Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter,
+                @Nullable final SubscriberCircuitBreaker circuitBreaker) {
+            this.vertx = vertx;
+            this.consumerVerticleContext = consumerVerticleContext;
+            this.recordDispatcher = recordDispatcher;
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        @Override
+        public synchronized Future<Void> apply(final EgressContext egressContext) {
+            // Configs of the running consumer already have the credentials attached.
+            final var next = new ConsumerVerticleContext()
+                    .withConsumerConfigs(consumerVerticleContext.getConsumerConfigs())
+                    .withProducerConfigs(consumerVerticleContext.getProducerConfigs())
+                    .withAuthProvider(consumerVerticleContext.getAuthProvider())
+                    .withMeterRegistry(consumerVerticleContext.getMetricsRegistry())
+                    .withMaxEventTypes(consumerVerticleContext.getMaxEventTypes())
+                    .withWebClientOptions(consumerVerticleContext.getWebClientOptions())
+                    .withConsumerFactory(consumerVerticleContext.getConsumerFactory())
+                    .withProducerFactory(consumerVerticleContext.getProducerFactory())
+                    .withResource(egressContext);
+
+            if (!canUpdateInPlace(consumerVerticleContext, next)) {
+                return Future.failedFuture(new IllegalStateException("Egress update requires restarting the consumer"));
+            }
+
+            new ConsumerVerticleBuilder(next)
+                    .updateRecordDispatcher(vertx, recordDispatcher, concurrencyLimiter, circuitBreaker)
+                    .onFailure(cause -> ConsumerVerticleContext.logger.warn(
+                            "Failed to close previous egress {}", next.getLoggingKeyValue(), cause));
+            this.consumerVerticleContext = next;
+
+            // Records in-flight are delivered using the previous egress, so there is no need to wait for them.
+            return Future.succeededFuture();
+        }
+    }
 }
@@ -20,6 +20,7 @@ import static dev.knative.eventing.kafka.broker.core.utils.Logging.keyValue;
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import dev.knative.eventing.kafka.broker.core.ReactiveConsumerFactory;
 import dev.knative.eventing.kafka.broker.core.ReactiveProducerFactory;
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
 import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.core.security.AuthProvider;
@@ -53,6 +54,7 @@ public class ConsumerVerticleContext {
 
     private AuthProvider authProvider;
     private MeterRegistry metricsRegistry;
+    private int maxEventTypes = EventMeters.DEFAULT_MAX_EVENT_TYPES;
 
     private Map<String, Object> consumerConfigs;
     private Map<String, Object> producerConfigs;
@@ -146,6 +148,11 @@ public class ConsumerVerticleContext {
         return this;
     }
 
+    public ConsumerVerticleContext withMaxEventTypes(final int maxEventTypes) {
+        this.maxEventTypes = maxEventTypes;
+        return this;
+    }
+
     public ConsumerVerticleContext withWebClientOptions(final WebClientOptions webClientOptions) {
         this.webClientOptions = new WebClientOptions(webClientOptions);
         return this;
@@ -199,6 +206,13 @@ public class ConsumerVerticleContext {
         return metricsRegistry;
     }
 
+    /**
+     * @return the number of event types tagging the event meters of the egress.
+     */
+    public int getMaxEventTypes() {
+        return maxEventTypes;
+    }
+
     public Map<String, Object> getConsumerConfigs() {
         return consumerConfigs;
     }
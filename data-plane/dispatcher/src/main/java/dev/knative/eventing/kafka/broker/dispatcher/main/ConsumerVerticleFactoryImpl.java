@@ -17,20 +17,22 @@ package dev.knative.eventing.kafka.broker.dispatcher.main;
 
 import dev.knative.eventing.kafka.broker.core.ReactiveConsumerFactory;
 import dev.knative.eventing.kafka.broker.core.ReactiveProducerFactory;
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.core.security.AuthProvider;
-import dev.knative.eventing.kafka.broker.dispatcher.ConsumerVerticleFactory;
+import dev.knative.eventing.kafka.broker.dispatcher.SharedConsumerVerticleFactory;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerVerticle;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.ext.web.client.WebClientOptions;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
-public class ConsumerVerticleFactoryImpl implements ConsumerVerticleFactory {
+public class ConsumerVerticleFactoryImpl implements SharedConsumerVerticleFactory {
 
     private final Map<String, Object> consumerConfigs;
     private final WebClientOptions webClientOptions;
@@ -39,9 +41,10 @@ public class ConsumerVerticleFactoryImpl implements ConsumerVerticleFactory {
     private final MeterRegistry metricsRegistry;
     private final ReactiveConsumerFactory reactiveConsumerFactory;
     private final ReactiveProducerFactory reactiveProducerFactory;
+    private final int maxEventTypes;
 
     /**
-     * All args constructor.
+     * Constructor admitting the default number of event types, see {@link EventMeters#DEFAULT_MAX_EVENT_TYPES}.
      *
      * @param consumerConfigs  base consumer configurations.
      * @param webClientOptions web client options.
@@ -57,6 +60,36 @@ public class ConsumerVerticleFactoryImpl implements ConsumerVerticleFactory {
             final MeterRegistry metricsRegistry,
             final ReactiveConsumerFactory reactiveConsumerFactory,
             final ReactiveProducerFactory reactiveProducerFactory) {
+        this(
+                consumerConfigs,
+                webClientOptions,
+                producerConfigs,
+                authProvider,
+                metricsRegistry,
+                reactiveConsumerFactory,
+                reactiveProducerFactory,
+                EventMeters.DEFAULT_MAX_EVENT_TYPES);
+    }
+
+    /**
+     * All args constructor.
+     *
+     * @param consumerConfigs  base consumer configurations.
+     * @param webClientOptions web client options.
+     * @param producerConfigs  base producer configurations.
+     * @param authProvider     auth provider.
+     * @param metricsRegistry  meter registry to use to create metricsRegistry.
+     * @param maxEventTypes    number of event types tagging the event meters of an egress.
+     */
+    public ConsumerVerticleFactoryImpl(
+            final Properties consumerConfigs,
+            final WebClientOptions webClientOptions,
+            final Properties producerConfigs,
+            final AuthProvider authProvider,
+            final MeterRegistry metricsRegistry,
+            final ReactiveConsumerFactory reactiveConsumerFactory,
+            final ReactiveProducerFactory reactiveProducerFactory,
+            final int maxEventTypes) {
 
         Objects.requireNonNull(consumerConfigs, "provide consumerConfigs");
         Objects.requireNonNull(webClientOptions, "provide webClientOptions");
@@ -75,6 +108,7 @@ public class ConsumerVerticleFactoryImpl implements ConsumerVerticleFactory {
         this.metricsRegistry = metricsRegistry;
         this.reactiveConsumerFactory = reactiveConsumerFactory;
         this.reactiveProducerFactory = reactiveProducerFactory;
+        this.maxEventTypes = maxEventTypes;
     }
 
     /**
@@ -85,15 +119,40 @@ public class ConsumerVerticleFactoryImpl implements ConsumerVerticleFactory {
         Objects.requireNonNull(egressContext.resource(), "provide resource");
         Objects.requireNonNull(egressContext.egress(), "provide egress");
 
-        return new ConsumerVerticleBuilder(new ConsumerVerticleContext()
-                        .withConsumerConfigs(consumerConfigs)
-                        .withProducerConfigs(producerConfigs)
-                        .withWebClientOptions(webClientOptions)
-                        .withAuthProvider(authProvider)
-                        .withMeterRegistry(metricsRegistry)
-                        .withResource(egressContext)
-                        .withConsumerFactory(reactiveConsumerFactory)
-                        .withProducerFactory(reactiveProducerFactory))
+        return new ConsumerVerticleBuilder(createContext(egressContext)).build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConsumerVerticle getShared(final List<EgressContext> egressContexts) {
+        if (egressContexts == null || egressContexts.isEmpty()) {
+            throw new IllegalArgumentException("provide at least one egress");
+        }
+        final var first = egressContexts.get(0);
+        Objects.requireNonNull(first.resource(), "provide resource");
+
+        final var sharedEgress = SharedFetchConsumerVerticleBuilder.sharedEgress(
+                first.resource(),
+                egressContexts.stream().map(EgressContext::egress).toList());
+
+        return new SharedFetchConsumerVerticleBuilder(
+                        createContext(new EgressContext(first.resource(), sharedEgress, first.trustBundles())),
+                        egressContexts.stream().map(this::createContext).toList())
                 .build();
     }
+
+    private ConsumerVerticleContext createContext(final EgressContext egressContext) {
+        return new ConsumerVerticleContext()
+                .withConsumerConfigs(consumerConfigs)
+                .withProducerConfigs(producerConfigs)
+                .withWebClientOptions(webClientOptions)
+                .withAuthProvider(authProvider)
+                .withMeterRegistry(metricsRegistry)
+                .withMaxEventTypes(maxEventTypes)
+                .withResource(egressContext)
+                .withConsumerFactory(reactiveConsumerFactory)
+                .withProducerFactory(reactiveProducerFactory);
+    }
 }
@@ -18,6 +18,7 @@ package dev.knative.eventing.kafka.broker.dispatcher.main;
 import static java.util.Objects.requireNonNull;
 
 import dev.knative.eventing.kafka.broker.core.utils.BaseEnv;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerPollerPool;
 import java.util.function.Function;
 
 public class DispatcherEnv extends BaseEnv {
@@ -31,12 +32,27 @@ public class DispatcherEnv extends BaseEnv {
     public static final String EGRESSES_INITIAL_CAPACITY = "EGRESSES_INITIAL_CAPACITY";
     private final int egressesInitialCapacity;
 
+    public static final String SHARED_FETCH_ENABLED = "SHARED_FETCH_ENABLED";
+    private final boolean sharedFetchEnabled;
+
+    public static final String CONSUMER_POLLER_THREADS = "CONSUMER_POLLER_THREADS";
+    private final int consumerPollerThreads;
+
+    public static final String CONSUMER_POLLER_IDLE_MS = "CONSUMER_POLLER_IDLE_MS";
+    private final long consumerPollerIdleMs;
+
     public DispatcherEnv(Function<String, String> envProvider) {
         super(envProvider);
 
         this.consumerConfigFilePath = requireNonNull(envProvider.apply(CONSUMER_CONFIG_FILE_PATH));
         this.webClientConfigFilePath = requireNonNull(envProvider.apply(WEBCLIENT_CONFIG_FILE_PATH));
         this.egressesInitialCapacity = Integer.parseInt(requireNonNull(envProvider.apply(EGRESSES_INITIAL_CAPACITY)));
+        this.sharedFetchEnabled = Boolean.parseBoolean(envProvider.apply(SHARED_FETCH_ENABLED));
+        final var pollerThreads = envProvider.apply(CONSUMER_POLLER_THREADS);
+        this.consumerPollerThreads = pollerThreads == null ? 0 : Integer.parseInt(pollerThreads);
+        final var pollerIdleMs = envProvider.apply(CONSUMER_POLLER_IDLE_MS);
+        this.consumerPollerIdleMs =
+                pollerIdleMs == null ? ConsumerPollerPool.DEFAULT_IDLE_MS : Long.parseLong(pollerIdleMs);
     }
 
     public String getConsumerConfigFilePath() {
@@ -51,12 +67,36 @@ public class DispatcherEnv extends BaseEnv {
         return egressesInitialCapacity;
     }
 
+    /**
+     * @return whether unordered triggers of the same resource share a single consumer.
+     */
+    public boolean isSharedFetchEnabled() {
+        return sharedFetchEnabled;
+    }
+
+    /**
+     * @return the number of threads polling every consumer of the dispatcher, or 0 for a thread per consumer.
+     */
+    public int getConsumerPollerThreads() {
+        return consumerPollerThreads;
+    }
+
+    /**
+     * @return how long poller threads wait when none of their consumers made progress.
+     */
+    public long getConsumerPollerIdleMs() {
+        return consumerPollerIdleMs;
+    }
+
     @Override
     public String toString() {
         return "DispatcherEnv{" + "consumerConfigFilePath='"
                 + consumerConfigFilePath + '\'' + ", webClientConfigFilePath='"
                 + webClientConfigFilePath + '\'' + ", egressesInitialCapacity="
-                + egressesInitialCapacity + "} "
+                + egressesInitialCapacity + ", sharedFetchEnabled="
+                + sharedFetchEnabled + ", consumerPollerThreads="
+                + consumerPollerThreads + ", consumerPollerIdleMs="
+                + consumerPollerIdleMs + "} "
                 + super.toString();
     }
 }
@@ -29,9 +29,10 @@ import dev.knative.eventing.kafka.broker.core.tracing.TracingConfig;
 import dev.knative.eventing.kafka.broker.core.utils.Configurations;
 import dev.knative.eventing.kafka.broker.core.utils.Shutdown;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.CloudEventDeserializer;
-import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.InvalidCloudEventInterceptor;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.CloudEventInterceptor;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerPollerPool;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.KeyDeserializer;
-import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.NullCloudEventInterceptor;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.MultiplexedConsumerFactory;
 import io.cloudevents.kafka.CloudEventSerializer;
 import io.cloudevents.kafka.PartitionKeyExtensionInterceptor;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
@@ -82,9 +83,7 @@ public class Main {
         Properties consumerConfig = Configurations.readPropertiesSync(env.getConsumerConfigFilePath());
         consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, KeyDeserializer.class.getName());
         consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, CloudEventDeserializer.class.getName());
-        consumerConfig.put(
-                ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG,
-                NullCloudEventInterceptor.class.getName() + "," + InvalidCloudEventInterceptor.class.getName());
+        consumerConfig.put(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, CloudEventInterceptor.class.getName());
 
         // Read WebClient config
         JsonObject webClientConfig = Configurations.readPropertiesAsJsonSync(env.getWebClientConfigFilePath());
@@ -103,6 +102,13 @@ public class Main {
                 .setMetricsOptions(Metrics.getOptions(env))
                 .setTracingOptions(new OpenTelemetryOptions(openTelemetry)));
 
+        // Many consumers share a bounded pool of poller threads instead of a thread per consumer.
+        ReactiveConsumerFactory consumerFactory = reactiveConsumerFactory;
+        if (env.getConsumerPollerThreads() > 0) {
+            consumerFactory = new MultiplexedConsumerFactory<>(
+                    new ConsumerPollerPool(env.getConsumerPollerThreads(), env.getConsumerPollerIdleMs()));
+        }
+
         // Register Contract message codec
         ContractMessageCodec.register(vertx.eventBus());
 
@@ -115,9 +121,11 @@ public class Main {
                             producerConfig,
                             AuthProvider.kubernetes(vertx),
                             Metrics.getRegistry(),
-                            reactiveConsumerFactory,
-                            reactiveProducerFactory),
-                    env.getEgressesInitialCapacity());
+                            consumerFactory,
+                            reactiveProducerFactory,
+                            env.getMetricsMaxEventTypes()),
+                    env.getEgressesInitialCapacity(),
+                    env.isSharedFetchEnabled());
 
             // Deploy the consumer deployer
             vertx.deployVerticle(consumerDeployerVerticle)
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.main;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.AsyncCloseable;
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.core.security.Credentials;
+import dev.knative.eventing.kafka.broker.core.security.KafkaClientsAuth;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.FanOutRecordDispatcher;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerGroupOffsets;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerVerticle;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.PartitionAssignedHandler;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.PartitionRevokedHandler;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SharedFetchCommitter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.UnorderedConsumerVerticle;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+/**
+ * This class builds a consumer verticle that fetches and deserializes records once for multiple triggers of the same
+ * resource, and it fans out every record to a record dispatcher for each trigger.
+ * <p>
+ * The shared consumer uses its own consumer group, while the offsets of each trigger are tracked and committed
+ * under the trigger consumer group, see {@link SharedFetchCommitter}.
+ */
+public class SharedFetchConsumerVerticleBuilder {
+
+    static final String SHARED_CONSUMER_GROUP_PREFIX = "knative-shared-fetch-";
+
+    private final ConsumerVerticleContext consumerVerticleContext;
+    private final List<ConsumerVerticleContext> memberContexts;
+    private final Function<Map<String, Object>, Admin> adminFactory;
+
+    /**
+     * @param consumerVerticleContext context of the shared consumer, see {@link #sharedEgress(DataPlaneContract.Resource, Collection)}.
+     * @param memberContexts          contexts of the triggers sharing the consumer.
+     */
+    public SharedFetchConsumerVerticleBuilder(
+            final ConsumerVerticleContext consumerVerticleContext, final List<ConsumerVerticleContext> memberContexts) {
+        this(consumerVerticleContext, memberContexts, Admin::create);
+    }
+
+    SharedFetchConsumerVerticleBuilder(
+            final ConsumerVerticleContext consumerVerticleContext,
+            final List<ConsumerVerticleContext> memberContexts,
+            final Function<Map<String, Object>, Admin> adminFactory) {
+        Objects.requireNonNull(consumerVerticleContext, "provide consumerVerticleContext");
+        if (memberContexts == null || memberContexts.isEmpty()) {
+            throw new IllegalArgumentException("provide at least one member context");
+        }
+
+        this.consumerVerticleContext = consumerVerticleContext;
+        this.memberContexts = List.copyOf(memberContexts);
+        this.adminFactory = adminFactory;
+    }
+
+    /**
+     * Create the egress of the shared consumer.
+     * <p>
+     * The consumer group of the shared consumer depends only on the resource and on the key type, so that it's
+     * stable when triggers are added or removed, triggers joining the shared consumer start from the offsets
+     * committed under their own consumer group, see {@link SharedFetchCommitter}.
+     *
+     * @param resource resource.
+     * @param egresses egresses sharing the consumer.
+     * @return the egress of the shared consumer.
+     */
+    public static DataPlaneContract.Egress sharedEgress(
+            final DataPlaneContract.Resource resource, final Collection<DataPlaneContract.Egress> egresses) {
+        final var egress = egresses.iterator().next();
+        final var consumerGroup = SHARED_CONSUMER_GROUP_PREFIX
+                + resource.getUid()
+                + "-"
+                + String.join("-", resource.getTopicsList())
+                + "-"
+                + egress.getKeyType().name().toLowerCase(Locale.ROOT);
+
+        return DataPlaneContract.Egress.newBuilder()
+                .setUid(consumerGroup)
+                .setConsumerGroup(consumerGroup)
+                .setKeyType(egress.getKeyType())
+                .setDeliveryOrder(DataPlaneContract.DeliveryOrder.UNORDERED)
+                .setEgressConfig(egress.hasEgressConfig() ? egress.getEgressConfig() : resource.getEgressConfig())
+                .setReference(DataPlaneContract.Reference.newBuilder(egress.getReference())
+                        .setName(consumerGroup)
+                        .build())
+                .build();
+    }
+
+    public ConsumerVerticle build() {
+        // The shared consumer must be able to wait for the slowest trigger.
+        final var maxPollInterval = memberContexts.stream()
+                .mapToInt(c -> Integer.parseInt(
+                        String.valueOf(c.getConsumerConfigs().get(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG))))
+                .max()
+                .orElseThrow();
+        consumerVerticleContext.getConsumerConfigs().put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollInterval);
+
+        return new UnorderedConsumerVerticle(consumerVerticleContext, getInitializer());
+    }
+
+    private ConsumerVerticle.Initializer getInitializer() {
+        return (vertx, consumerVerticle) -> consumerVerticleContext
+                .getAuthProvider()
+                .getCredentials(consumerVerticleContext.getResource())
+                .compose(credentials -> build(vertx, consumerVerticle, credentials));
+    }
+
+    private Future<Void> build(
+            final Vertx vertx, final ConsumerVerticle consumerVerticle, final Credentials credentials) {
+        KafkaClientsAuth.attachCredentials(consumerVerticleContext.getConsumerConfigs(), credentials);
+        for (final var memberContext : memberContexts) {
+            KafkaClientsAuth.attachCredentials(memberContext.getConsumerConfigs(), credentials);
+            KafkaClientsAuth.attachCredentials(memberContext.getProducerConfigs(), credentials);
+        }
+
+        final ReactiveKafkaConsumer<Object, CloudEvent> consumer = consumerVerticleContext
+                .getConsumerFactory()
+                .create(vertx, consumerVerticleContext.getConsumerConfigs());
+        consumerVerticle.setConsumer(consumer);
+
+        final var consumerGroupOffsets =
+                new ConsumerGroupOffsets(vertx, adminFactory.apply(consumerVerticleContext.getConsumerConfigs()));
+        // Member offsets are committed while closing the record dispatcher, so the admin client is closed after it.
+        consumerVerticle.setCloser(AsyncCloseable.compose(Metrics.register(consumer.unwrap()), consumerGroupOffsets));
+
+        final var memberGroups = memberContexts.stream()
+                .map(c -> c.getEgress().getConsumerGroup())
+                .toList();
+
+        return SharedFetchCommitter.create(
+                        consumerGroupOffsets,
+                        consumerVerticleContext.getEgress().getConsumerGroup(),
+                        memberGroups,
+                        consumer::commit)
+                .onFailure(cause -> consumerGroupOffsets.close())
+                .map(committer -> {
+                    final var members = new ArrayList<FanOutRecordDispatcher.Member>(memberContexts.size());
+                    final var partitionRevokedHandlers = new ArrayList<PartitionRevokedHandler>();
+                    partitionRevokedHandlers.add(consumerVerticle.getPartitionRevokedHandler());
+
+                    for (final var memberContext : memberContexts) {
+                        final var consumerGroup = memberContext.getEgress().getConsumerGroup();
+                        final var builder = new ConsumerVerticleBuilder(memberContext);
+                        final var offsetManager =
+                                builder.createOffsetManager(vertx, committer.committerFor(consumerGroup));
+                        offsetManager.pauseOnFullWindow(consumer);
+                        final var concurrencyLimiter = AdaptiveConcurrencyLimiter.create(memberContext);
+
+                        members.add(new FanOutRecordDispatcher.Member(
+                                // Triggers share the consumer, so a trigger can't pause partitions when its
+                                // subscriber is unavailable.
+                                builder.createRecordDispatcher(vertx, offsetManager, concurrencyLimiter, null),
+                                committer.getStartOffsets(consumerGroup),
+                                concurrencyLimiter));
+                        partitionRevokedHandlers.add(offsetManager.getPartitionRevokedHandler());
+                    }
+
+                    consumerVerticle.setRecordDispatcher(new FanOutRecordDispatcher(members));
+                    consumerVerticle.setRebalanceListener(ConsumerVerticleBuilder.createRebalanceListener(
+                            consumerVerticleContext,
+                            partitionRevokedHandlers,
+                            List.<PartitionAssignedHandler>of(
+                                    committer.getPartitionAssignedHandler(consumer.unwrap()))));
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import io.cloudevents.jackson.JsonFormat;
+import org.junit.jupiter.api.Test;
+
+public class CloudEventBatchTest {
+
+    @Test
+    public void shouldSerializeEventsAsJsonArray() {
+        final var batch = new CloudEventBatch(Long.MAX_VALUE);
+
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(batch.toBuffer().toString()).isEqualTo("[]");
+
+        assertThat(batch.tryAdd(CoreObjects.event())).isTrue();
+        assertThat(batch.tryAdd(CoreObjects.event())).isTrue();
+
+        final var body = batch.toBuffer();
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.sizeInBytes()).isEqualTo(body.length());
+        final var json = body.toJsonArray();
+        assertThat(json.size()).isEqualTo(2);
+        for (int i = 0; i < json.size(); i++) {
+            assertThat(new JsonFormat()
+                            .deserialize(json.getJsonObject(i).toBuffer().getBytes()))
+                    .isEqualTo(CoreObjects.event());
+        }
+    }
+
+    @Test
+    public void shouldNotExceedMaxBytes() {
+        final var eventBytes = new JsonFormat().serialize(CoreObjects.event()).length;
+        final var batch = new CloudEventBatch(2L * eventBytes + 3);
+
+        assertThat(batch.tryAdd(CoreObjects.event())).isTrue();
+        assertThat(batch.tryAdd(CoreObjects.event())).isTrue();
+        assertThat(batch.tryAdd(CoreObjects.event())).isFalse();
+
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.sizeInBytes()).isLessThanOrEqualTo(2 * eventBytes + 3);
+    }
+
+    @Test
+    public void shouldAcceptAnyEventWhenEmpty() {
+        final var batch = new CloudEventBatch(1);
+
+        assertThat(batch.tryAdd(CoreObjects.event())).isTrue();
+        assertThat(batch.tryAdd(CoreObjects.event())).isFalse();
+    }
+}
@@ -26,14 +26,29 @@ public class CloudEventSenderMock implements CloudEventSender {
 
     private final Supplier<Future<Void>> onClose;
     private final Function<CloudEvent, Future<HttpResponse<Buffer>>> onSend;
+    private final Function<CloudEventBatch, Future<HttpResponse<Buffer>>> onSendBatch;
 
     public CloudEventSenderMock(final Function<CloudEvent, Future<HttpResponse<Buffer>>> onSend) {
-        this(onSend, null);
+        this(onSend, (Supplier<Future<Void>>) null);
     }
 
     public CloudEventSenderMock(
             final Function<CloudEvent, Future<HttpResponse<Buffer>>> onSend, final Supplier<Future<Void>> onClose) {
+        this(onSend, null, onClose);
+    }
+
+    public CloudEventSenderMock(
+            final Function<CloudEvent, Future<HttpResponse<Buffer>>> onSend,
+            final Function<CloudEventBatch, Future<HttpResponse<Buffer>>> onSendBatch) {
+        this(onSend, onSendBatch, null);
+    }
+
+    public CloudEventSenderMock(
+            final Function<CloudEvent, Future<HttpResponse<Buffer>>> onSend,
+            final Function<CloudEventBatch, Future<HttpResponse<Buffer>>> onSendBatch,
+            final Supplier<Future<Void>> onClose) {
         this.onSend = onSend;
+        this.onSendBatch = onSendBatch;
         this.onClose = onClose != null ? onClose : Future::succeededFuture;
     }
 
@@ -42,6 +57,14 @@ public class CloudEventSenderMock implements CloudEventSender {
         return this.onSend.apply(event);
     }
 
+    @Override
+    public Future<HttpResponse<Buffer>> sendBatch(CloudEventBatch batch) {
+        if (this.onSendBatch == null) {
+            return CloudEventSender.super.sendBatch(batch);
+        }
+        return this.onSendBatch.apply(batch);
+    }
+
     @Override
     public Future<Void> close() {
         return this.onClose.get();
@@ -33,5 +33,8 @@ class DeliveryOrderTest {
 
         assertThat(DeliveryOrder.fromContract(DataPlaneContract.DeliveryOrder.ORDERED))
                 .isEqualTo(DeliveryOrder.ORDERED);
+
+        assertThat(DeliveryOrder.fromContract(DataPlaneContract.DeliveryOrder.KEY_ORDERED))
+                .isEqualTo(DeliveryOrder.KEY_ORDERED);
     }
 }
@@ -23,7 +23,9 @@ import io.vertx.core.Vertx;
 import io.vertx.core.impl.ContextInternal;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -49,6 +51,17 @@ public class MockReactiveKafkaConsumer<K, V> implements ReactiveKafkaConsumer<K,
         return Future.succeededFuture(offset);
     }
 
+    @Override
+    public Future<Map<TopicPartition, OffsetAndMetadata>> committed(Set<TopicPartition> partitions) {
+        final var committed = new HashMap<TopicPartition, OffsetAndMetadata>();
+        consumer.committed(partitions).forEach((tp, offset) -> {
+            if (offset != null) {
+                committed.put(tp, offset);
+            }
+        });
+        return Future.succeededFuture(committed);
+    }
+
     @Override
     public Future<Void> close() {
         consumer.close();
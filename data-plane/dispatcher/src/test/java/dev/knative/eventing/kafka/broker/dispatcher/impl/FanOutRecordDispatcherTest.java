@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcher;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import io.cloudevents.CloudEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class FanOutRecordDispatcherTest {
+
+    @Test
+    public void shouldDispatchToAllMembers() {
+        final var first = mock(RecordDispatcher.class);
+        final var second = mock(RecordDispatcher.class);
+        when(first.dispatch(any())).thenReturn(Future.succeededFuture());
+        final Promise<Void> secondDispatched = Promise.promise();
+        when(second.dispatch(any())).thenReturn(secondDispatched.future());
+
+        final var dispatcher = new FanOutRecordDispatcher(List.of(
+                new FanOutRecordDispatcher.Member(first, Map.of()),
+                new FanOutRecordDispatcher.Member(second, Map.of())));
+
+        final var record = record(0, 10);
+        final var dispatched = dispatcher.dispatch(record);
+
+        verify(first, times(1)).dispatch(record);
+        verify(second, times(1)).dispatch(record);
+        // The record is dispatched once every member has started dispatching it.
+        assertThat(dispatched.succeeded()).isTrue();
+    }
+
+    @Test
+    public void shouldNotHoldBackMembersWhileAnotherMemberIsSlow() {
+        final var fast = mock(RecordDispatcher.class);
+        final var slow = mock(RecordDispatcher.class);
+        when(fast.dispatch(any())).thenReturn(Future.succeededFuture());
+        final var slowDispatches = new ArrayList<Promise<Void>>();
+        when(slow.dispatch(any())).thenAnswer(invocation -> {
+            final Promise<Void> promise = Promise.promise();
+            slowDispatches.add(promise);
+            return promise.future();
+        });
+
+        final var dispatcher = new FanOutRecordDispatcher(List.of(
+                new FanOutRecordDispatcher.Member(fast, Map.of(), new AdaptiveConcurrencyLimiter(2, 2)),
+                new FanOutRecordDispatcher.Member(slow, Map.of(), new AdaptiveConcurrencyLimiter(2, 2))));
+
+        final var dispatched = IntStream.range(0, 5)
+                .mapToObj(i -> dispatcher.dispatch(record(0, i)))
+                .toList();
+
+        // The fast member dispatches every record, while the slow one is limited to its own in-flight records.
+        verify(fast, times(5)).dispatch(any());
+        verify(slow, times(2)).dispatch(any());
+        assertThat(dispatched).map(Future::succeeded).containsExactly(true, true, false, false, false);
+
+        slowDispatches.get(0).complete();
+        verify(slow, times(3)).dispatch(any());
+        assertThat(dispatched.get(2).succeeded()).isTrue();
+        assertThat(dispatched.get(3).isComplete()).isFalse();
+
+        slowDispatches.get(1).fail("subscriber failure");
+        slowDispatches.get(2).complete();
+        verify(slow, times(5)).dispatch(any());
+        assertThat(dispatched).map(Future::succeeded).containsOnly(true);
+    }
+
+    @Test
+    public void shouldFailRecordsNotDispatchedOnClose() {
+        final var slow = mock(RecordDispatcher.class);
+        when(slow.dispatch(any())).thenReturn(Promise.<Void>promise().future());
+        when(slow.close()).thenReturn(Future.succeededFuture());
+
+        final var dispatcher = new FanOutRecordDispatcher(
+                List.of(new FanOutRecordDispatcher.Member(slow, Map.of(), new AdaptiveConcurrencyLimiter(1, 1))));
+
+        final var inFlight = dispatcher.dispatch(record(0, 0));
+        final var pending = dispatcher.dispatch(record(0, 1));
+        assertThat(dispatcher.close().succeeded()).isTrue();
+
+        assertThat(inFlight.succeeded()).isTrue();
+        assertThat(pending.failed()).isTrue();
+        verify(slow, times(1)).dispatch(any());
+    }
+
+    @Test
+    public void shouldSkipRecordsBelowMemberStartOffset() {
+        final var first = mock(RecordDispatcher.class);
+        final var second = mock(RecordDispatcher.class);
+        when(first.dispatch(any())).thenReturn(Future.succeededFuture());
+        when(second.dispatch(any())).thenReturn(Future.succeededFuture());
+
+        final var dispatcher = new FanOutRecordDispatcher(List.of(
+                new FanOutRecordDispatcher.Member(first, Map.of()),
+                new FanOutRecordDispatcher.Member(second, Map.of(new TopicPartition("topic", 0), 10L))));
+
+        final var skipped = record(0, 9);
+        final var otherPartition = record(1, 9);
+        final var dispatched = record(0, 10);
+        assertThat(dispatcher.dispatch(skipped).succeeded()).isTrue();
+        assertThat(dispatcher.dispatch(otherPartition).succeeded()).isTrue();
+        assertThat(dispatcher.dispatch(dispatched).succeeded()).isTrue();
+
+        verify(first, times(3)).dispatch(any());
+        verify(second, never()).dispatch(skipped);
+        verify(second, times(1)).dispatch(otherPartition);
+        verify(second, times(1)).dispatch(dispatched);
+    }
+
+    @Test
+    public void shouldCloseAllMembers() {
+        final var first = mock(RecordDispatcher.class);
+        final var second = mock(RecordDispatcher.class);
+        when(first.close()).thenReturn(Future.succeededFuture());
+        when(second.close()).thenReturn(Future.succeededFuture());
+
+        final var dispatcher = new FanOutRecordDispatcher(List.of(
+                new FanOutRecordDispatcher.Member(first, Map.of()),
+                new FanOutRecordDispatcher.Member(second, Map.of())));
+
+        assertThat(dispatcher.close().succeeded()).isTrue();
+        verify(first, times(1)).close();
+        verify(second, times(1)).close();
+    }
+
+    private static ConsumerRecord<Object, CloudEvent> record(final int partition, final long offset) {
+        return new ConsumerRecord<>("topic", partition, offset, null, CoreObjects.event());
+    }
+}
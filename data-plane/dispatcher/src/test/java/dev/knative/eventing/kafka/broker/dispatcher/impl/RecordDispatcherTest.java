@@ -18,6 +18,7 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,24 +39,35 @@ import dev.knative.eventing.kafka.broker.dispatcher.RecordDispatcherListener;
 import dev.knative.eventing.kafka.broker.dispatcher.ResponseHandler;
 import dev.knative.eventing.kafka.broker.dispatcher.ResponseHandlerMock;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.InvalidCloudEvent;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.LazyCloudEvent;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import dev.knative.eventing.kafka.broker.dispatcher.main.FakeConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.KafkaMessageFactory;
 import io.micrometer.core.instrument.search.MeterNotFoundException;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.impl.HttpResponseImpl;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -115,6 +127,61 @@ public class RecordDispatcherTest {
         assertNoDiscardedEventCount();
     }
 
+    @Test
+    public void shouldNotBuildLazyEvents() {
+
+        final var sent = new ArrayList<CloudEvent>();
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                resourceContext,
+                value -> "match".equals(value.getExtension("filter")),
+                new CloudEventSenderMock(event -> {
+                    sent.add(event);
+                    return Future.succeededFuture();
+                }),
+                CloudEventSender.noop("DLS send called"),
+                new ResponseHandlerMock(),
+                offsetManagerMock(),
+                null,
+                registry);
+
+        final var matching = lazyRecord("match");
+        final var notMatching = lazyRecord("no-match");
+        dispatcherHandler.dispatch(matching);
+        dispatcherHandler.dispatch(notMatching);
+
+        // Events are sent as they're in the record.
+        assertThat(sent).containsExactly(matching.value());
+        assertThat(((LazyCloudEvent) matching.value()).isMaterialized()).isFalse();
+        assertThat(((LazyCloudEvent) notMatching.value()).isMaterialized()).isFalse();
+    }
+
+    @Test
+    public void shouldSkipCompletedRecords() {
+
+        final RecordDispatcherListener receiver = offsetManagerMock();
+        when(receiver.isCompleted(any())).thenReturn(true);
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                resourceContext,
+                value -> true,
+                CloudEventSender.noop("subscriber send called"),
+                CloudEventSender.noop("DLS send called"),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry);
+
+        final var record = record();
+        assertTrue(dispatcherHandler.dispatch(record).succeeded());
+
+        verify(receiver, never()).recordReceived(any());
+        verify(receiver, never()).recordDiscarded(any());
+        verify(receiver, never()).successfullySentToSubscriber(any());
+
+        assertNoEventCount();
+        assertNoEventDispatchLatency();
+    }
+
     @Test
     public void shouldSendOnlyToSubscriberIfValueMatches() {
 
@@ -193,6 +260,40 @@ public class RecordDispatcherTest {
         assertNoDiscardedEventCount();
     }
 
+    @Test
+    public void shouldParkForRetryInsteadOfSendingToDeadLetterSinkIfSubscriberSenderFails() {
+
+        final var dlsSenderSendCalled = new AtomicBoolean(false);
+        final RecordDispatcherListener receiver = offsetManagerMock();
+        final var retryTopic = mock(RetryTopic.class);
+        when(retryTopic.shouldPark(any(), any())).thenReturn(true);
+        when(retryTopic.park(any(), any())).thenReturn(Future.succeededFuture());
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                resourceContext,
+                value -> true,
+                new CloudEventSenderMock(record -> Future.failedFuture("")),
+                new CloudEventSenderMock(record -> {
+                    dlsSenderSendCalled.set(true);
+                    return Future.succeededFuture();
+                }),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry,
+                retryTopic);
+        final var record = record();
+        assertTrue(dispatcherHandler.dispatch(record).succeeded());
+
+        assertFalse(dlsSenderSendCalled.get());
+        verify(retryTopic, times(1)).park(record, record.value());
+        verify(receiver, times(1)).recordReceived(record);
+        verify(receiver, times(1)).parkedForRetry(record);
+        verify(receiver, never()).successfullySentToDeadLetterSink(any());
+        verify(receiver, never()).failedToSendToDeadLetterSink(any(), any());
+        verify(receiver, never()).successfullySentToSubscriber(any());
+    }
+
     @Test
     public void shouldCallFailedToSendToDeadLetterSinkIfValueMatchesAndSubscriberAndDeadLetterSinkSenderFail() {
 
@@ -501,6 +602,67 @@ public class RecordDispatcherTest {
                 }));
     }
 
+    @Test
+    public void shouldUpdateEgressWithoutDroppingRecordsInFlight() {
+
+        final Promise<HttpResponse<Buffer>> inFlight = Promise.promise();
+        final var previousSendCalled = new AtomicInteger(0);
+        final var previousClosed = new AtomicBoolean(false);
+        final var nextSendCalled = new AtomicInteger(0);
+        final RecordDispatcherListener receiver = offsetManagerMock();
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                resourceContext,
+                value -> true,
+                new CloudEventSenderMock(
+                        record -> {
+                            previousSendCalled.incrementAndGet();
+                            return inFlight.future();
+                        },
+                        () -> {
+                            previousClosed.set(true);
+                            return Future.succeededFuture();
+                        }),
+                new CloudEventSenderMock(record -> Future.failedFuture("no DLS")),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry);
+
+        final var first = record();
+        final var firstDispatched = dispatcherHandler.dispatch(first);
+        assertThat(previousSendCalled.get()).isEqualTo(1);
+
+        final var updated = dispatcherHandler.update(
+                resourceContext,
+                value -> false,
+                new CloudEventSenderMock(record -> {
+                    nextSendCalled.incrementAndGet();
+                    return Future.succeededFuture();
+                }),
+                new CloudEventSenderMock(record -> Future.failedFuture("no DLS")),
+                new ResponseHandlerMock(),
+                null);
+
+        // Records received after the update go through the new filter.
+        final var second = new ConsumerRecord<Object, CloudEvent>("", 0, 1L, "", CoreObjects.event());
+        dispatcherHandler.dispatch(second);
+        verify(receiver, times(1)).recordDiscarded(second);
+        assertThat(nextSendCalled.get()).isZero();
+
+        // The previous sender is closed only once the record in-flight is delivered.
+        assertThat(updated.isComplete()).isFalse();
+        assertThat(previousClosed.get()).isFalse();
+
+        inFlight.complete();
+
+        assertThat(firstDispatched.succeeded()).isTrue();
+        verify(receiver, times(1)).successfullySentToSubscriber(first);
+        assertThat(updated.succeeded()).isTrue();
+        assertThat(previousClosed.get()).isTrue();
+        assertThat(previousSendCalled.get()).isEqualTo(1);
+    }
+
     @Test
     public void shouldDiscardRecordIfInvalidCloudEvent() {
 
@@ -530,10 +692,130 @@ public class RecordDispatcherTest {
         assertNoEventDispatchLatency();
     }
 
+    @Test
+    public void shouldSendMatchingRecordsInBatches(final Vertx vertx, final VertxTestContext context) {
+        final var batchSizes = new ArrayList<Integer>();
+        final RecordDispatcherListener receiver = offsetManagerMock();
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                batchingContext(3),
+                value -> true,
+                new CloudEventSenderMock(event -> Future.failedFuture("subscriber send called"), batch -> {
+                    batchSizes.add(batch.size());
+                    return Future.succeededFuture();
+                }),
+                CloudEventSender.noop("DLS send called"),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry);
+
+        final var records = List.of(record(), record(), record(), record());
+        vertx.runOnContext(v -> CompositeFuture.all(
+                        records.stream().map(dispatcherHandler::dispatch).collect(Collectors.toList()))
+                .onComplete(context.succeeding(r -> context.verify(() -> {
+                    assertThat(batchSizes).containsExactly(3, 1);
+                    for (final var record : records) {
+                        verify(receiver, times(1)).successfullySentToSubscriber(record);
+                    }
+                    verify(receiver, never()).successfullySentToDeadLetterSink(any());
+                    context.completeNow();
+                }))));
+    }
+
+    @Test
+    public void shouldSendRecordsOnTheirOwnWhenBatchFails(final Vertx vertx, final VertxTestContext context) {
+        final var sent = new AtomicInteger();
+        final RecordDispatcherListener receiver = offsetManagerMock();
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                batchingContext(10),
+                value -> true,
+                new CloudEventSenderMock(
+                        event -> {
+                            sent.incrementAndGet();
+                            return Future.succeededFuture();
+                        },
+                        batch -> Future.failedFuture("batch failed")),
+                CloudEventSender.noop("DLS send called"),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry);
+
+        final var records = List.of(record(), record());
+        vertx.runOnContext(v -> CompositeFuture.all(
+                        records.stream().map(dispatcherHandler::dispatch).collect(Collectors.toList()))
+                .onComplete(context.succeeding(r -> context.verify(() -> {
+                    assertThat(sent.get()).isEqualTo(2);
+                    for (final var record : records) {
+                        verify(receiver, times(1)).successfullySentToSubscriber(record);
+                    }
+                    verify(receiver, never()).successfullySentToDeadLetterSink(any());
+                    context.completeNow();
+                }))));
+    }
+
+    @Test
+    public void shouldNotBatchOrderedEgress(final Vertx vertx, final VertxTestContext context) {
+        final var sent = new AtomicInteger();
+        final RecordDispatcherListener receiver = offsetManagerMock();
+
+        final var dispatcherHandler = new RecordDispatcherImpl(
+                batchingContext(10, DataPlaneContract.DeliveryOrder.ORDERED),
+                value -> true,
+                new CloudEventSenderMock(
+                        event -> {
+                            sent.incrementAndGet();
+                            return Future.succeededFuture();
+                        },
+                        batch -> Future.failedFuture("batch send called")),
+                CloudEventSender.noop("DLS send called"),
+                new ResponseHandlerMock(),
+                receiver,
+                null,
+                registry);
+
+        final var record = record();
+        vertx.runOnContext(v -> dispatcherHandler
+                .dispatch(record)
+                .onComplete(context.succeeding(r -> context.verify(() -> {
+                    assertThat(sent.get()).isEqualTo(1);
+                    verify(receiver, times(1)).successfullySentToSubscriber(record);
+                    context.completeNow();
+                }))));
+    }
+
+    private static ConsumerVerticleContext batchingContext(final int batchMaxEvents) {
+        return batchingContext(batchMaxEvents, DataPlaneContract.DeliveryOrder.UNORDERED);
+    }
+
+    private static ConsumerVerticleContext batchingContext(
+            final int batchMaxEvents, final DataPlaneContract.DeliveryOrder deliveryOrder) {
+        return FakeConsumerVerticleContext.get(
+                resourceContext.getResource(),
+                DataPlaneContract.Egress.newBuilder(resourceContext.getEgress())
+                        .setDeliveryOrder(deliveryOrder)
+                        .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder()
+                                .setBatchMaxEvents(batchMaxEvents)
+                                .setBatchLinger(10)
+                                .build())
+                        .build());
+    }
+
     private static ConsumerRecord<Object, CloudEvent> record() {
         return new ConsumerRecord<>("", 0, 0L, "", CoreObjects.event());
     }
 
+    private static ConsumerRecord<Object, CloudEvent> lazyRecord(final String filter) {
+        final var event = CloudEventBuilder.from(CoreObjects.event())
+                .withExtension("filter", filter)
+                .build();
+        final var headers =
+                KafkaMessageFactory.createWriter("").writeBinary(event).headers();
+        return new ConsumerRecord<>("", 0, 0L, "", LazyCloudEvent.of(headers, null));
+    }
+
     private static ConsumerRecord<Object, CloudEvent> invalidRecord() {
         return new ConsumerRecord<>("", 0, 0L, "", new InvalidCloudEvent(new byte[] {1, 4}));
     }
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.core.testing.CloudEventSerializerMock;
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import dev.knative.eventing.kafka.broker.dispatcher.main.FakeConsumerVerticleContext;
+import dev.knative.eventing.kafka.broker.receiver.MockReactiveKafkaProducer;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+public class RetryTopicTest {
+
+    static {
+        BackendRegistries.setupBackend(new MicrometerMetricsOptions().setRegistryName(Metrics.METRICS_REGISTRY_NAME));
+    }
+
+    private static final String TOPIC = "group-retry";
+
+    private static final CloudEvent EVENT = CloudEventBuilder.v1()
+            .withId("1")
+            .withSource(URI.create("/hello"))
+            .withType("type")
+            .build();
+
+    @Test
+    public void shouldParkRecordsWithRetryAndDueTime() {
+        final var clock = new AtomicLong(1_000);
+        final var producer = new MockProducer<>(true, new StringSerializer(), new CloudEventSerializerMock());
+        final var retryTopic =
+                new RetryTopic(TOPIC, new MockReactiveKafkaProducer<>(producer), 3, retry -> retry * 100L, clock::get);
+
+        final var record = new ConsumerRecord<Object, CloudEvent>("topic", 0, 10, "key", EVENT);
+        assertThat(retryTopic.park(record, record.value()).succeeded()).isTrue();
+
+        assertThat(producer.history()).hasSize(1);
+        final var parked = toConsumerRecord(producer.history().get(0));
+        assertThat(parked.topic()).isEqualTo(TOPIC);
+        assertThat(parked.key()).isEqualTo("key");
+        assertThat(parked.value()).isEqualTo(EVENT);
+        assertThat(RetryTopic.getRetry(parked)).isEqualTo(1);
+        assertThat(RetryTopic.getDueTimeMs(parked)).isEqualTo(1_100);
+
+        clock.set(2_000);
+        assertThat(retryTopic.park(parked, parked.value()).succeeded()).isTrue();
+
+        final var reparked = toConsumerRecord(producer.history().get(1));
+        assertThat(RetryTopic.getRetry(reparked)).isEqualTo(2);
+        assertThat(RetryTopic.getDueTimeMs(reparked)).isEqualTo(2_200);
+    }
+
+    @Test
+    public void shouldParkRetryableFailuresUntilRetriesAreExhausted() {
+        final var producer = new MockProducer<>(true, new StringSerializer(), new CloudEventSerializerMock());
+        final var retryTopic =
+                new RetryTopic(TOPIC, new MockReactiveKafkaProducer<>(producer), 1, retry -> 0L, () -> 0);
+
+        final var record = new ConsumerRecord<Object, CloudEvent>("topic", 0, 10, null, EVENT);
+        assertThat(retryTopic.shouldPark(record, null)).isTrue();
+        assertThat(retryTopic.shouldPark(record, response(503))).isTrue();
+        assertThat(retryTopic.shouldPark(record, response(400))).isFalse();
+
+        retryTopic.park(record, record.value());
+        final var parked = toConsumerRecord(producer.history().get(0));
+        assertThat(retryTopic.shouldPark(parked, response(503))).isFalse();
+    }
+
+    @Test
+    public void shouldNameRetryTopicOfOrderedTriggers() {
+        final var ordered = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setDeliveryOrder(DataPlaneContract.DeliveryOrder.ORDERED)
+                .build();
+        final var unordered = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setDeliveryOrder(DataPlaneContract.DeliveryOrder.UNORDERED)
+                .build();
+
+        final var disabled = FakeConsumerVerticleContext.get(CoreObjects.resource1(), ordered);
+        assertThat(RetryTopic.topicName(disabled)).isNull();
+
+        final var enabled = FakeConsumerVerticleContext.get(CoreObjects.resource1(), ordered);
+        enabled.getConsumerConfigs().put(RetryTopic.ENABLED_CONFIG, "true");
+        assertThat(RetryTopic.topicName(enabled)).isEqualTo(ordered.getConsumerGroup() + "-retry");
+
+        final var enabledUnordered = FakeConsumerVerticleContext.get(CoreObjects.resource1(), unordered);
+        enabledUnordered.getConsumerConfigs().put(RetryTopic.ENABLED_CONFIG, "true");
+        assertThat(RetryTopic.topicName(enabledUnordered)).isNull();
+    }
+
+    @Test
+    public void shouldNotHaveDueTimeWhenNotParked() {
+        final var record = new ConsumerRecord<Object, CloudEvent>("topic", 0, 10, null, EVENT);
+        assertThat(RetryTopic.getDueTimeMs(record)).isEqualTo(0);
+
+        record.headers().add(RetryTopic.DUE_TIME_HEADER, "nan".getBytes(StandardCharsets.UTF_8));
+        assertThat(RetryTopic.getDueTimeMs(record)).isEqualTo(0);
+    }
+
+    private static ConsumerRecord<Object, CloudEvent> toConsumerRecord(
+            final ProducerRecord<String, CloudEvent> producerRecord) {
+        final var record = new ConsumerRecord<Object, CloudEvent>(
+                producerRecord.topic(), 0, 0, producerRecord.key(), producerRecord.value());
+        producerRecord.headers().forEach(h -> record.headers().add(h));
+        return record;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<?> response(final int statusCode) {
+        final HttpResponse<Object> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        return response;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void shouldStartAtMaxLimit() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 100);
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldDecreaseOnOverloadOncePerRoundTrip() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 100);
+
+        long now = 0;
+        limiter.onSample(now, LATENCY, 429, 100);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        // Responses to requests sent with the previous limit don't decrease the limit again.
+        limiter.onSample(now + 1, LATENCY, 503, 100);
+        limiter.onSample(now + 2, LATENCY, -1, 100);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        now += LATENCY;
+        limiter.onSample(now, LATENCY, 500, 100);
+        assertThat(limiter.getLimit()).isEqualTo(81);
+    }
+
+    @Test
+    public void shouldNotDecreaseOnNonOverloadFailures() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 100);
+
+        limiter.onSample(0, LATENCY, 404, 100);
+        limiter.onSample(LATENCY, LATENCY, 400, 100);
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldNotGoBelowMinLimit() {
+        final var limiter = new AdaptiveConcurrencyLimiter(5, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(i * LATENCY, LATENCY, 429, 100);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldIncreaseUpToMaxLimitWhenLimitIsUsed() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 20);
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(i * LATENCY, LATENCY, 429, 20);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(1);
+
+        long now = 1000 * LATENCY;
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(now + i * LATENCY, LATENCY, 200, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void shouldNotIncreaseWhenLimitIsNotUsed() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 100);
+        limiter.onSample(0, LATENCY, 429, 100);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        for (int i = 1; i < 1000; i++) {
+            limiter.onSample(i * LATENCY, LATENCY, 200, 10);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    public void shouldDecreaseWhenLatencyGrows() {
+        final var limiter = new AdaptiveConcurrencyLimiter(1, 100);
+
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            now += LATENCY;
+            limiter.onSample(now, LATENCY, 200, 100);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+
+        final var slowLatency = 10 * LATENCY;
+        for (int i = 0; i < 100; i++) {
+            now += slowLatency;
+            limiter.onSample(now, slowLatency, 200, 100);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(100);
+    }
+
+    @Test
+    public void shouldHoldMinLimitWhileThrottled() {
+        final var limiter = new AdaptiveConcurrencyLimiter(2, 20);
+        final var throttleNanos = TimeUnit.SECONDS.toNanos(1);
+
+        limiter.throttle(0, 1000);
+        assertThat(limiter.getLimit(0)).isEqualTo(2);
+
+        // Successful responses don't grow the limit while throttled.
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(i * 1000, LATENCY, 200, 20);
+        }
+        assertThat(limiter.getLimit(throttleNanos - 1)).isEqualTo(2);
+
+        // A shorter Retry-After doesn't shorten the throttle period.
+        limiter.throttle(10, 1);
+        assertThat(limiter.getLimit(throttleNanos - 1)).isEqualTo(2);
+
+        // Then the limit grows back additively.
+        assertThat(limiter.getLimit(throttleNanos)).isEqualTo(2);
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(throttleNanos + i * LATENCY, LATENCY, 200, 20);
+        }
+        assertThat(limiter.getLimit(throttleNanos + 1000 * LATENCY)).isEqualTo(20);
+    }
+
+    @Test
+    public void shouldCreateFromConsumerConfigs() {
+        final var limiter = AdaptiveConcurrencyLimiter.create(context(Map.of(
+                AdaptiveConcurrencyLimiter.MIN_LIMIT_CONFIG, "10",
+                AdaptiveConcurrencyLimiter.MAX_LIMIT_CONFIG, "200")));
+
+        assertThat(limiter.getMinLimit()).isEqualTo(10);
+        assertThat(limiter.getMaxLimit()).isEqualTo(200);
+        assertThat(limiter.getLimit()).isEqualTo(200);
+    }
+
+    @Test
+    public void shouldDefaultMaxLimitToMaxPollRecords() {
+        final var limiter =
+                AdaptiveConcurrencyLimiter.create(context(Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "30")));
+
+        assertThat(limiter.getMinLimit()).isEqualTo(AdaptiveConcurrencyLimiter.DEFAULT_MIN_LIMIT);
+        assertThat(limiter.getMaxLimit()).isEqualTo(30);
+    }
+
+    @Test
+    public void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(10, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ConsumerVerticleContext context(final Map<String, Object> consumerConfigs) {
+        return new ConsumerVerticleContext()
+                .withProducerConfigs(new HashMap<>())
+                .withConsumerConfigs(consumerConfigs)
+                .withResource(new EgressContext(CoreObjects.resource1(), CoreObjects.egress1(), Set.of()));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.knative.eventing.kafka.broker.core.ReactiveKafkaConsumer;
+import io.vertx.core.Future;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerKafkaConsumerTest {
+
+    private static final TopicPartition TP0 = new TopicPartition("t", 0);
+    private static final TopicPartition TP1 = new TopicPartition("t", 1);
+    private static final TopicPartition TP2 = new TopicPartition("t", 2);
+    private static final TopicPartition TP3 = new TopicPartition("t", 3);
+
+    private Set<TopicPartition> paused;
+    private AtomicReference<ConsumerRebalanceListener> rebalanceListener;
+    private CircuitBreakerKafkaConsumer<Object, Object> consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        paused = new HashSet<>();
+        rebalanceListener = new AtomicReference<>();
+
+        final ReactiveKafkaConsumer<Object, Object> delegate = mock(ReactiveKafkaConsumer.class);
+        when(delegate.pause(anyCollection())).thenAnswer(invocation -> {
+            paused.addAll(invocation.getArgument(0));
+            return Future.succeededFuture();
+        });
+        when(delegate.resume(anyCollection())).thenAnswer(invocation -> {
+            paused.removeAll(invocation.<Collection<TopicPartition>>getArgument(0));
+            return Future.succeededFuture();
+        });
+        when(delegate.subscribe(anyCollection(), any())).thenAnswer(invocation -> {
+            rebalanceListener.set(invocation.getArgument(1));
+            return Future.succeededFuture();
+        });
+
+        consumer = new CircuitBreakerKafkaConsumer<>(delegate);
+        consumer.subscribe(List.of("t"), mock(ConsumerRebalanceListener.class));
+        rebalanceListener.get().onPartitionsAssigned(List.of(TP0, TP1, TP2, TP3));
+    }
+
+    @Test
+    public void shouldPauseWhileOpenAndResumeGradually() {
+        consumer.onOpen();
+        assertThat(paused).containsExactlyInAnyOrder(TP0, TP1, TP2, TP3);
+
+        consumer.onHalfOpen();
+        assertThat(paused).hasSize(3);
+
+        consumer.onProbeSucceeded();
+        assertThat(paused).hasSize(2);
+
+        consumer.onProbeSucceeded();
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    public void shouldResumeEveryPartitionOnClose() {
+        consumer.onOpen();
+        consumer.onHalfOpen();
+        consumer.onClose();
+
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    public void shouldNotResumePartitionsPausedByCircuitBreaker() {
+        consumer.onOpen();
+
+        consumer.resume(List.of(TP0, TP1));
+
+        assertThat(paused).containsExactlyInAnyOrder(TP0, TP1, TP2, TP3);
+    }
+
+    @Test
+    public void shouldNotResumePartitionsPausedByOthers() {
+        consumer.pause(List.of(TP0));
+        consumer.onOpen();
+
+        consumer.onClose();
+        assertThat(paused).containsExactly(TP0);
+
+        consumer.resume(List.of(TP0));
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    public void shouldPauseAssignedPartitionsWhileOpen() {
+        consumer.onOpen();
+        rebalanceListener.get().onPartitionsRevoked(List.of(TP0, TP1, TP2, TP3));
+        paused.clear();
+
+        final var tp = new TopicPartition("t", 4);
+        rebalanceListener.get().onPartitionsAssigned(List.of(tp));
+        assertThat(paused).containsExactly(tp);
+
+        consumer.onClose();
+        assertThat(paused).isEmpty();
+    }
+}
@@ -58,6 +58,23 @@ public class CloudEventDeserializerTest {
         assertThat(outEvent).isEqualTo(event);
     }
 
+    @Test
+    public void shouldDeserializeValidCloudEventBinaryLazily() {
+        final var topic = "test";
+
+        final var record = KafkaMessageFactory.createWriter(topic).writeBinary(event);
+
+        final var deserializer = new CloudEventDeserializer();
+        final var configs = new HashMap<String, String>();
+        configs.put(CloudEventDeserializer.LAZY_BINARY_ENABLED, "true");
+        deserializer.configure(configs, false);
+        final var outEvent = deserializer.deserialize(topic, record.headers(), record.value());
+
+        assertThat(outEvent).isInstanceOf(LazyCloudEvent.class);
+        assertThat(outEvent.getType()).isEqualTo(event.getType());
+        assertThat(((LazyCloudEvent) outEvent).materialize()).isEqualTo(event);
+    }
+
     @Test
     public void shouldDeserializeValidCloudEventStructured() {
         final var topic = "test";
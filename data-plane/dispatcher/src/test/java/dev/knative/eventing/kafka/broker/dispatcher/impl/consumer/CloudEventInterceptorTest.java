@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class CloudEventInterceptorTest {
+
+    private static final TopicPartition TP0 = new TopicPartition("t1", 0);
+    private static final TopicPartition TP1 = new TopicPartition("t1", 1);
+
+    private static final CloudEvent EVENT = CloudEventBuilder.v1()
+            .withId("1")
+            .withType("example.event.type")
+            .withSource(URI.create("localhost"))
+            .build();
+
+    @Test
+    public void shouldReturnRecordsWhenNoRecordNeedsFixing() {
+        final var interceptor = interceptor();
+        final var records = new ConsumerRecords<>(Map.of(
+                TP0, List.of(record(TP0, 0, EVENT), record(TP0, 1, EVENT)),
+                TP1, List.of(record(TP1, 0, EVENT))));
+
+        assertThat(interceptor.onConsume(records)).isSameAs(records);
+    }
+
+    @Test
+    public void shouldFixOnlyAffectedRecords() {
+        final var interceptor = interceptor();
+        final var valid = record(TP0, 0, EVENT);
+        final var otherPartition = List.of(record(TP1, 0, EVENT));
+        final var records = new ConsumerRecords<>(Map.of(
+                TP0,
+                List.of(valid, record(TP0, 1, new InvalidCloudEvent(new byte[] {1})), record(TP0, 2, null)),
+                TP1,
+                otherPartition));
+
+        final var got = interceptor.onConsume(records);
+
+        assertThat(got.count()).isEqualTo(4);
+        assertThat(got.records(TP1)).isEqualTo(otherPartition);
+        final var partition = got.records(TP0);
+        assertThat(partition.get(0)).isSameAs(valid);
+        assertThat(partition.get(1).offset()).isEqualTo(1);
+        assertThat(partition.get(1).value().getType()).isEqualTo(InvalidCloudEventInterceptor.TYPE);
+        assertThat(partition.get(1).value().getData().toBytes()).isEqualTo(new byte[] {1});
+        assertThat(partition.get(2).offset()).isEqualTo(2);
+        assertThat(partition.get(2).value().getType()).isEqualTo(InvalidCloudEventInterceptor.TYPE);
+        assertThat(partition.get(2).value().getData()).isNull();
+    }
+
+    @Test
+    public void shouldOnlyDeserializeNullRecordsWhenInvalidEventsAreNotTransformed() {
+        final var interceptor = new CloudEventInterceptor();
+        interceptor.configure(Map.of());
+        final var records = new ConsumerRecords<>(Map.of(TP0, List.of(record(TP0, 0, EVENT), record(TP0, 1, null))));
+
+        final var got = interceptor.onConsume(records).records(TP0);
+
+        assertThat(got.get(0).value()).isSameAs(EVENT);
+        assertThat(got.get(1).value()).isInstanceOf(InvalidCloudEvent.class);
+    }
+
+    private static CloudEventInterceptor interceptor() {
+        final var interceptor = new CloudEventInterceptor();
+        interceptor.configure(Map.of(
+                InvalidCloudEventInterceptor.KIND_PLURAL_CONFIG, "kafkasources",
+                InvalidCloudEventInterceptor.SOURCE_NAME_CONFIG, "ks",
+                InvalidCloudEventInterceptor.SOURCE_NAMESPACE_CONFIG, "knative-ns",
+                CloudEventDeserializer.INVALID_CE_WRAPPER_ENABLED, "true"));
+        return interceptor;
+    }
+
+    private static ConsumerRecord<Object, CloudEvent> record(
+            final TopicPartition tp, final long offset, final CloudEvent value) {
+        return new ConsumerRecord<>(tp.topic(), tp.partition(), offset, "key", value);
+    }
+}
@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.KafkaMessageFactory;
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.util.Map;
@@ -80,4 +81,38 @@ public class CloudEventOverridesMutatorTest {
 
         assertThat(got).isEqualTo(expected);
     }
+
+    @Test
+    public void shouldKeepLazyEventsLazy() {
+        final var ceOverrides = DataPlaneContract.CloudEventOverrides.newBuilder()
+                .putAllExtensions(Map.of("a", "foo"))
+                .build();
+
+        final var mutator = new CloudEventOverridesMutator(ceOverrides);
+
+        final var given = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("/v1/api"))
+                .withTime(OffsetDateTime.MIN)
+                .withType("foo")
+                .build();
+        final var headers = KafkaMessageFactory.createWriter("test-topic")
+                .writeBinary(given)
+                .headers();
+        final var lazy = LazyCloudEvent.of(headers, null);
+
+        final var expected = CloudEventBuilder.from(given)
+                .withExtension("a", "foo")
+                .withExtension("knativekafkaoffset", 1L)
+                .withExtension("knativekafkapartition", 1)
+                .build();
+
+        final var got = mutator.apply(new ConsumerRecord<>("test-topic", 1, 1, "key", lazy));
+
+        assertThat(got).isInstanceOf(OverlayCloudEvent.class);
+        assertThat(((OverlayCloudEvent) got).delegate()).isSameAs(lazy);
+        assertThat(got.getExtension("a")).isEqualTo("foo");
+        assertThat(lazy.isMaterialized()).isFalse();
+        assertThat(got).isEqualTo(expected);
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CompletedOffsetsMetadataTest {
+
+    @Test
+    public void shouldEncodeRuns() {
+        final var completed = Set.of(12L, 13L, 17L);
+        assertThat(CompletedOffsetsMetadata.encode(10, 20, completed::contains, 1024))
+                .isEqualTo("kc1:1.2.3.1");
+    }
+
+    @Test
+    public void shouldEncodeNothingWhenNoOffsetIsCompleted() {
+        assertThat(CompletedOffsetsMetadata.encode(10, 20, o -> false, 1024)).isEmpty();
+        assertThat(CompletedOffsetsMetadata.encode(10, 10, o -> true, 1024)).isEmpty();
+    }
+
+    @Test
+    public void shouldRoundTrip() {
+        final var committed = 1_000L;
+        final var completed = new BitSet();
+        for (int i = 0; i < 2000; i++) {
+            if (i % 3 != 0 && i % 7 != 0) {
+                completed.set(i);
+            }
+        }
+
+        final var metadata = CompletedOffsetsMetadata.encode(
+                committed, committed + 2000, o -> completed.get((int) (o - committed - 1)), 100_000);
+
+        assertThat(CompletedOffsetsMetadata.decode(metadata, 4096)).isEqualTo(completed);
+    }
+
+    @Test
+    public void shouldTruncateToMaxLength() {
+        final var metadata = CompletedOffsetsMetadata.encode(0, 10_000, o -> o % 2 == 0, 20);
+
+        assertThat(metadata).hasSizeLessThanOrEqualTo(20).startsWith(CompletedOffsetsMetadata.PREFIX);
+        final var decoded = CompletedOffsetsMetadata.decode(metadata, 4096);
+        assertThat(decoded).isNotNull();
+        // Offsets left out are not completed.
+        assertThat(decoded.stream().allMatch(i -> (i + 1) % 2 == 0)).isTrue();
+    }
+
+    @Test
+    public void shouldDecodeUpToMaxOffsets() {
+        final var decoded = CompletedOffsetsMetadata.decode("kc1:2.10", 5);
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.length()).isEqualTo(5);
+        assertThat(decoded.cardinality()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldDecodeRunsLongerThanMaxOffsets() {
+        final var metadata =
+                CompletedOffsetsMetadata.PREFIX + "2." + Long.toString(Long.MAX_VALUE, 36) + "." + Long.toString(7, 36);
+
+        final var decoded = CompletedOffsetsMetadata.decode(metadata, 5);
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.length()).isEqualTo(5);
+        assertThat(decoded.cardinality()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNotDecodeInvalidMetadata() {
+        assertThat(CompletedOffsetsMetadata.decode(null, 4096)).isNull();
+        assertThat(CompletedOffsetsMetadata.decode("", 4096)).isNull();
+        assertThat(CompletedOffsetsMetadata.decode("some metadata", 4096)).isNull();
+        assertThat(CompletedOffsetsMetadata.decode("kc1:1.!", 4096)).isNull();
+        assertThat(CompletedOffsetsMetadata.decode("kc1:1.-2", 4096)).isNull();
+        assertThat(CompletedOffsetsMetadata.decode("kc1:3", 4096)).isNull();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AlterConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InvalidGroupIdException;
+import org.apache.kafka.common.errors.UnknownMemberIdException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class ConsumerGroupOffsetsTest {
+
+    private static final Map<TopicPartition, OffsetAndMetadata> OFFSETS =
+            Map.of(new TopicPartition("topic", 0), new OffsetAndMetadata(10, ""));
+
+    @Test
+    public void shouldRetryCommitWhileGroupHasActiveMembers(final Vertx vertx) throws Exception {
+        final var admin = mock(Admin.class);
+        final var busy = result(KafkaFuture.completedFuture(null));
+        when(busy.all())
+                .thenReturn(failed(new UnknownMemberIdException("active members")))
+                .thenReturn(failed(new UnknownMemberIdException("active members")))
+                .thenReturn(KafkaFuture.completedFuture(null));
+        when(admin.alterConsumerGroupOffsets(eq("a"), anyMap())).thenReturn(busy);
+
+        final var offsets = new ConsumerGroupOffsets(vertx, admin, 1);
+
+        offsets.commit("a", OFFSETS).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        verify(admin, times(3)).alterConsumerGroupOffsets("a", OFFSETS);
+    }
+
+    @Test
+    public void shouldFailCommitAfterMaxAttempts(final Vertx vertx) {
+        final var admin = mock(Admin.class);
+        final var busy = result(failed(new UnknownMemberIdException("active members")));
+        when(admin.alterConsumerGroupOffsets(eq("a"), anyMap())).thenReturn(busy);
+
+        final var offsets = new ConsumerGroupOffsets(vertx, admin, 1);
+
+        assertThatThrownBy(() -> offsets.commit("a", OFFSETS)
+                        .toCompletionStage()
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(UnknownMemberIdException.class);
+        verify(admin, times(ConsumerGroupOffsets.COMMIT_MAX_ATTEMPTS)).alterConsumerGroupOffsets("a", OFFSETS);
+    }
+
+    @Test
+    public void shouldNotRetryOtherFailures(final Vertx vertx) {
+        final var admin = mock(Admin.class);
+        final var invalid = result(failed(new InvalidGroupIdException("invalid")));
+        when(admin.alterConsumerGroupOffsets(eq("a"), anyMap())).thenReturn(invalid);
+
+        final var offsets = new ConsumerGroupOffsets(vertx, admin, 1);
+
+        assertThatThrownBy(() -> offsets.commit("a", OFFSETS)
+                        .toCompletionStage()
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(InvalidGroupIdException.class);
+        verify(admin, times(1)).alterConsumerGroupOffsets("a", OFFSETS);
+    }
+
+    @Test
+    public void shouldRetryGroupsIndependently(final Vertx vertx) throws Exception {
+        final var admin = mock(Admin.class);
+        final var busy = result(failed(new UnknownMemberIdException("active members")));
+        final var empty = result(KafkaFuture.completedFuture(null));
+        when(admin.alterConsumerGroupOffsets(eq("a"), anyMap())).thenReturn(busy);
+        when(admin.alterConsumerGroupOffsets(eq("b"), anyMap())).thenReturn(empty);
+
+        final var offsets = new ConsumerGroupOffsets(vertx, admin, 1);
+
+        final var a = offsets.commit("a", OFFSETS);
+        offsets.commit("b", OFFSETS).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> a.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(UnknownMemberIdException.class);
+        verify(admin, times(1)).alterConsumerGroupOffsets("b", OFFSETS);
+    }
+
+    @Test
+    public void shouldNotRetrySupersededCommit(final Vertx vertx) throws Exception {
+        final var admin = mock(Admin.class);
+        final var busy = result(failed(new UnknownMemberIdException("active members")));
+        final var newOffsets = Map.of(new TopicPartition("topic", 0), new OffsetAndMetadata(20, ""));
+        when(admin.alterConsumerGroupOffsets("a", OFFSETS)).thenReturn(busy);
+        final var empty = result(KafkaFuture.completedFuture(null));
+        when(admin.alterConsumerGroupOffsets("a", newOffsets)).thenReturn(empty);
+
+        // Retry the first commit after the second one has been issued.
+        final var offsets = new ConsumerGroupOffsets(vertx, admin, 100);
+
+        final var first = offsets.commit("a", OFFSETS);
+        offsets.commit("a", newOffsets)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> first.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(UnknownMemberIdException.class);
+        verify(admin, times(1)).alterConsumerGroupOffsets("a", OFFSETS);
+    }
+
+    @Test
+    public void shouldDetectGroupWithActiveMembers() {
+        assertThat(ConsumerGroupOffsets.isGroupNotEmpty(new UnknownMemberIdException("active members")))
+                .isTrue();
+        assertThat(ConsumerGroupOffsets.isGroupNotEmpty(
+                        new ExecutionException(new UnknownMemberIdException("active members"))))
+                .isTrue();
+        assertThat(ConsumerGroupOffsets.isGroupNotEmpty(new InvalidGroupIdException("invalid")))
+                .isFalse();
+    }
+
+    private static AlterConsumerGroupOffsetsResult result(final KafkaFuture<Void> all) {
+        final var result = mock(AlterConsumerGroupOffsetsResult.class);
+        when(result.all()).thenReturn(all);
+        return result;
+    }
+
+    private static KafkaFuture<Void> failed(final Throwable cause) {
+        final var future = new KafkaFutureImpl<Void>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+}
@@ -19,7 +19,6 @@ package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
 import io.cloudevents.CloudEvent;
@@ -146,7 +145,8 @@ public class InvalidCloudEventInterceptorTest {
 
         var got = interceptor.onConsume(want);
 
-        assertNotSame(want, got);
+        // Records are returned as they are when no record needs to be transformed.
+        assertSame(want, got);
 
         for (final var r : want) {
             var tp = new TopicPartition(r.topic(), r.partition());
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.jackson.JsonFormat;
+import io.cloudevents.kafka.KafkaMessageFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+
+public class LazyCloudEventTest {
+
+    private static final String TOPIC = "test";
+
+    private static final CloudEvent event = CloudEventBuilder.v1()
+            .withId("123-42")
+            .withDataSchema(URI.create("/api/schema"))
+            .withSource(URI.create("/api/some-source"))
+            .withSubject("a-subject-42")
+            .withType("type")
+            .withDataContentType("application/json")
+            .withData("{\"a\": 1}".getBytes(StandardCharsets.UTF_8))
+            .withTime(OffsetDateTime.of(1985, 4, 12, 23, 20, 50, 0, ZoneOffset.UTC))
+            .withExtension("ext", "value")
+            .build();
+
+    @Test
+    public void shouldReadAttributesFromHeaders() {
+        final var record = KafkaMessageFactory.createWriter(TOPIC).writeBinary(event);
+
+        final var lazy = LazyCloudEvent.of(record.headers(), record.value());
+
+        assertThat(lazy).isNotNull();
+        assertThat(lazy.getSpecVersion()).isEqualTo(event.getSpecVersion());
+        assertThat(lazy.getId()).isEqualTo(event.getId());
+        assertThat(lazy.getSource()).isEqualTo(event.getSource());
+        assertThat(lazy.getType()).isEqualTo(event.getType());
+        assertThat(lazy.getSubject()).isEqualTo(event.getSubject());
+        assertThat(lazy.getDataSchema()).isEqualTo(event.getDataSchema());
+        assertThat(lazy.getDataContentType()).isEqualTo(event.getDataContentType());
+        assertThat(lazy.getTime()).isEqualTo(event.getTime());
+        assertThat(lazy.getAttribute("subject")).isEqualTo(event.getAttribute("subject"));
+        assertThat(lazy.getExtension("ext")).isEqualTo("value");
+        assertThat(lazy.getExtension("type")).isNull();
+        assertThat(lazy.getExtension("missing")).isNull();
+        assertThat(lazy.getExtensionNames()).containsExactly("ext");
+        assertThat(lazy.isMaterialized()).isFalse();
+
+        assertThat(lazy.materialize()).isEqualTo(event);
+        assertThat(lazy.isMaterialized()).isTrue();
+        assertThat(lazy.getData()).isEqualTo(event.getData());
+    }
+
+    @Test
+    public void shouldNotWrapStructuredRecords() {
+        final var record = KafkaMessageFactory.createWriter(TOPIC).writeStructured(event, JsonFormat.CONTENT_TYPE);
+
+        assertThat(LazyCloudEvent.of(record.headers(), record.value())).isNull();
+    }
+
+    @Test
+    public void shouldNotWrapInvalidRecords() {
+        assertThat(LazyCloudEvent.of(binaryHeaders().remove("ce_id"), null)).isNull();
+        assertThat(LazyCloudEvent.of(binaryHeaders().remove("ce_specversion"), null))
+                .isNull();
+        assertThat(LazyCloudEvent.of(replace(binaryHeaders(), "ce_specversion", "0.3"), null))
+                .isNull();
+        assertThat(LazyCloudEvent.of(replace(binaryHeaders(), "ce_time", "yesterday"), null))
+                .isNull();
+        assertThat(LazyCloudEvent.of(replace(binaryHeaders(), "ce_source", "not a uri"), null))
+                .isNull();
+        assertThat(LazyCloudEvent.of(replace(binaryHeaders(), "ce_my-ext", "value"), null))
+                .isNull();
+        // Upper case names are valid, but they're left to the deserializer.
+        assertThat(LazyCloudEvent.of(replace(binaryHeaders(), "ce_Ext", "value"), null))
+                .isNull();
+    }
+
+    private static Headers binaryHeaders() {
+        return KafkaMessageFactory.createWriter(TOPIC).writeBinary(event).headers();
+    }
+
+    private static Headers replace(final Headers headers, final String key, final String value) {
+        return headers.remove(key).add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class MultiplexedKafkaConsumerTest {
+
+    private static final TopicPartition TP = new TopicPartition("t", 0);
+
+    private ConsumerPollerPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ConsumerPollerPool(2, 5);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        pool.close();
+    }
+
+    @Test
+    public void shouldServeManyConsumersWithBoundedPollers(final Vertx vertx) throws Exception {
+        final var consumers = new ArrayList<MultiplexedKafkaConsumer<String, String>>();
+        for (int i = 0; i < 20; i++) {
+            final var mock = mockConsumer();
+            mock.addRecord(new ConsumerRecord<>(TP.topic(), TP.partition(), 0, "key", "value-" + i));
+            consumers.add(pool.register(vertx, mock));
+        }
+        assertThat(pool.size()).isEqualTo(2);
+        assertThat(pool.consumers()).isEqualTo(20);
+
+        final var context = vertx.getOrCreateContext();
+        final var started = new CompletableFuture<List<Future<ConsumerRecords<String, String>>>>();
+        context.runOnContext(v -> started.complete(consumers.stream()
+                .map(consumer -> consumer.poll(Duration.ofSeconds(5)).map(records -> {
+                    // Records are handed to the context of the caller.
+                    assertThat(Vertx.currentContext()).isSameAs(context);
+                    return records;
+                }))
+                .toList()));
+
+        final var polls = started.get(5, TimeUnit.SECONDS);
+        Future.all(polls).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 20; i++) {
+            final var records = polls.get(i).result();
+            assertThat(records.count()).isEqualTo(1);
+            assertThat(records.iterator().next().value()).isEqualTo("value-" + i);
+        }
+
+        for (final var consumer : consumers) {
+            consumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+        assertThat(pool.consumers()).isZero();
+    }
+
+    @Test
+    public void shouldCompleteEmptyPollOnTimeout(final Vertx vertx) throws Exception {
+        final var consumer = pool.register(vertx, mockConsumer());
+
+        final var start = System.nanoTime();
+        final var records = consumer.poll(Duration.ofMillis(200))
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(records.isEmpty()).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200);
+
+        consumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldCommitAndFailOperationsOnceClosed(final Vertx vertx) throws Exception {
+        final var mock = mockConsumer();
+        final var consumer = pool.register(vertx, mock);
+
+        final var offsets = Map.of(TP, new OffsetAndMetadata(10));
+        consumer.commit(offsets).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(consumer.committed(Set.of(TP))
+                        .toCompletionStage()
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS))
+                .isEqualTo(offsets);
+
+        consumer.pause(List.of(TP)).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(mock.paused()).containsExactly(TP);
+
+        consumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(mock.closed()).isTrue();
+        assertThat(consumer.poll(Duration.ofMillis(100)).failed()).isTrue();
+        assertThat(consumer.commit(offsets).failed()).isTrue();
+    }
+
+    @Test
+    public void shouldServeOtherConsumersWhileWaitingForTheBroker(final Vertx vertx) throws Exception {
+        final var singlePollerPool = new ConsumerPollerPool(1, 5);
+        try {
+            final var slow = new SlowBrokerConsumer();
+            slow.assign(List.of(TP));
+            final var consumer = singlePollerPool.register(vertx, slow);
+            final var other = mockConsumer();
+            other.addRecord(new ConsumerRecord<>(TP.topic(), TP.partition(), 0, "key", "value"));
+            final var otherConsumer = singlePollerPool.register(vertx, other);
+
+            final var offsets = Map.of(TP, new OffsetAndMetadata(10));
+            final var commit = consumer.commit(offsets);
+            final var committed = consumer.committed(Set.of(TP));
+
+            final var records = otherConsumer
+                    .poll(Duration.ofSeconds(5))
+                    .toCompletionStage()
+                    .toCompletableFuture()
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(records.count()).isEqualTo(1);
+            assertThat(commit.isComplete()).isFalse();
+            assertThat(committed.isComplete()).isFalse();
+
+            slow.respond();
+            commit.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            // Committed offsets are read after the commit, since they wait for the same response.
+            assertThat(committed.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS))
+                    .isEqualTo(offsets);
+
+            consumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            otherConsumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertThat(slow.closed()).isTrue();
+        } finally {
+            singlePollerPool.close();
+        }
+    }
+
+    private static MockConsumer<String, String> mockConsumer() {
+        final var mock = new MockConsumer<String, String>(OffsetResetStrategy.EARLIEST);
+        mock.assign(List.of(TP));
+        mock.updateBeginningOffsets(Map.of(TP, 0L));
+        return mock;
+    }
+
+    /**
+     * Consumer of a broker that doesn't respond until {@link #respond()} is called.
+     */
+    private static final class SlowBrokerConsumer extends MockConsumer<String, String> {
+
+        private final List<Runnable> callbacks = new ArrayList<>();
+        private volatile boolean responding;
+
+        SlowBrokerConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        void respond() {
+            responding = true;
+        }
+
+        @Override
+        public synchronized void commitAsync(
+                final Map<TopicPartition, OffsetAndMetadata> offsets, final OffsetCommitCallback callback) {
+            // MockConsumer commits synchronously through commitAsync without a callback.
+            if (callback == null) {
+                super.commitAsync(offsets, null);
+                return;
+            }
+            callbacks.add(() -> {
+                super.commitAsync(offsets, null);
+                callback.onComplete(offsets, null);
+            });
+        }
+
+        @Override
+        public synchronized void commitSync(
+                final Map<TopicPartition, OffsetAndMetadata> offsets, final Duration timeout) {
+            if (!offsets.isEmpty()) {
+                super.commitSync(offsets, timeout);
+            } else if (responding) {
+                callbacks.forEach(Runnable::run);
+                callbacks.clear();
+            }
+        }
+
+        @Override
+        public synchronized Map<TopicPartition, OffsetAndMetadata> committed(
+                final Set<TopicPartition> partitions, final Duration timeout) {
+            if (!responding || !callbacks.isEmpty()) {
+                throw new TimeoutException("No response from the broker");
+            }
+            return super.committed(partitions, timeout);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,9 +32,14 @@ import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.Test;
@@ -372,4 +378,215 @@ public class OffsetManagerTest extends AbstractOffsetManagerTest {
         await().timeout(Duration.ofSeconds(1))
                 .untilAsserted(() -> assertThat(offset.getCommitted()).isEqualTo(0));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCommitAllPartitionsWithASingleCommit(final Vertx vertx) {
+        final var commits = new CopyOnWriteArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer = offsets -> {
+            commits.add(offsets);
+            return Future.succeededFuture();
+        };
+
+        final var offsetManager = new OffsetManager(vertx, committer, null, 100L);
+        for (int p = 0; p < 3; p++) {
+            final var r = record("aaa", p, 0);
+            offsetManager.recordReceived(r);
+            offsetManager.successfullySentToSubscriber(r);
+        }
+
+        await().timeout(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(commits.size()).isEqualTo(1));
+        assertThat(commits.get(0))
+                .isEqualTo(Map.of(
+                        new TopicPartition("aaa", 0), new OffsetAndMetadata(1, ""),
+                        new TopicPartition("aaa", 1), new OffsetAndMetadata(1, ""),
+                        new TopicPartition("aaa", 2), new OffsetAndMetadata(1, "")));
+        for (final var tracker : offsetManager.getOffsetTrackers().values()) {
+            assertThat(tracker.getCommitted()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldCommitEarlyWhenCompletedOffsetsThresholdIsReached(final Vertx vertx) {
+        final var commits = new CopyOnWriteArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer = offsets -> {
+            commits.add(offsets);
+            return Future.succeededFuture();
+        };
+
+        final var offsetManager =
+                new OffsetManager(vertx, committer, null, 100_000L, 3, 0, OffsetManager.DEFAULT_WINDOW_SIZE);
+        offsetManager.recordReceived(record("aaa", 0, 0));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 0));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 1));
+        assertThat(commits.size()).isEqualTo(0);
+
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 2));
+        assertThat(commits.size()).isEqualTo(1);
+        assertThat(commits.get(0)).isEqualTo(Map.of(new TopicPartition("aaa", 0), new OffsetAndMetadata(3, "")));
+    }
+
+    @Test
+    public void shouldCommitEarlyWhenUncommittedLagThresholdIsReached(final Vertx vertx) {
+        final var commits = new CopyOnWriteArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer = offsets -> {
+            commits.add(offsets);
+            return Future.succeededFuture();
+        };
+
+        final var offsetManager =
+                new OffsetManager(vertx, committer, null, 100_000L, 0, 2, OffsetManager.DEFAULT_WINDOW_SIZE);
+        offsetManager.recordReceived(record("aaa", 0, 0));
+        // Offset 0 is still in flight, so nothing can be committed.
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 1));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 2));
+        assertThat(commits.size()).isEqualTo(0);
+
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 0));
+        assertThat(commits.size()).isEqualTo(1);
+        assertThat(commits.get(0)).isEqualTo(Map.of(new TopicPartition("aaa", 0), new OffsetAndMetadata(3, "")));
+    }
+
+    @Test
+    public void shouldTrackOffsetsBeyondTheWindow() {
+        final var tracker = new OffsetManager.OffsetTracker(0, 4);
+        for (int i = 9; i > 0; i--) {
+            tracker.recordNewOffset(i);
+        }
+        assertThat(tracker.offsetToCommit()).isEqualTo(0);
+
+        tracker.recordNewOffset(0);
+        assertThat(tracker.offsetToCommit()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldIgnoreDuplicatedOffsets() {
+        final var tracker = new OffsetManager.OffsetTracker(0, 4);
+        tracker.recordNewOffset(0);
+        tracker.recordNewOffset(1);
+        tracker.recordNewOffset(1);
+        tracker.recordNewOffset(0);
+        assertThat(tracker.offsetToCommit()).isEqualTo(2);
+
+        // Offsets 5 and 6 use the slots of offsets 1 and 2.
+        tracker.recordNewOffset(6);
+        tracker.recordNewOffset(5);
+        assertThat(tracker.offsetToCommit()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRoundWindowSizeToPowerOfTwo() {
+        assertThat(new OffsetManager.OffsetTracker(0, 1).windowSize()).isEqualTo(2);
+        assertThat(new OffsetManager.OffsetTracker(0, 4).windowSize()).isEqualTo(4);
+        assertThat(new OffsetManager.OffsetTracker(0, 1000).windowSize()).isEqualTo(1024);
+    }
+
+    @Test
+    public void shouldAdvanceWatermarkWithConcurrentWriters() throws Exception {
+        final int threads = 8;
+        final int offsetsPerThread = 50_000;
+        final var tracker = new OffsetManager.OffsetTracker(0, 1024);
+
+        final var executor = Executors.newFixedThreadPool(threads);
+        try {
+            final var futures = new ArrayList<java.util.concurrent.Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                // Threads record interleaved offsets, so the watermark depends on all of them.
+                futures.add(executor.submit(() -> {
+                    for (long o = thread; o < (long) threads * offsetsPerThread; o += threads) {
+                        tracker.recordNewOffset(o);
+                    }
+                }));
+            }
+            for (final var f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(tracker.offsetToCommit()).isEqualTo((long) threads * offsetsPerThread);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPausePartitionWhenWindowIsFull(final Vertx vertx) {
+        final ReactiveKafkaConsumer<String, CloudEvent> consumer = mock(ReactiveKafkaConsumer.class);
+        when(consumer.commit((Map<TopicPartition, OffsetAndMetadata>) any())).thenReturn(Future.succeededFuture());
+        when(consumer.pause(any())).thenReturn(Future.succeededFuture());
+        when(consumer.resume(any())).thenReturn(Future.succeededFuture());
+
+        final var offsetManager = new OffsetManager(vertx, consumer::commit, null, 100_000L, 0, 0, 4);
+        offsetManager.pauseOnFullWindow(consumer);
+
+        final var tp = new TopicPartition("aaa", 0);
+        for (int i = 0; i < 3; i++) {
+            offsetManager.recordReceived(record("aaa", 0, i));
+        }
+        verify(consumer, never()).pause(any());
+
+        offsetManager.recordReceived(record("aaa", 0, 3));
+        verify(consumer, times(1)).pause(List.of(tp));
+
+        // Records polled before pausing the partition are still tracked.
+        offsetManager.recordReceived(record("aaa", 0, 4));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 4));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 1));
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 0));
+        verify(consumer, never()).resume(any());
+
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 2));
+        verify(consumer, times(1)).resume(List.of(tp));
+
+        offsetManager.successfullySentToSubscriber(record("aaa", 0, 3));
+        assertThat(offsetManager.getOffsetTrackers().get(tp).offsetToCommit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldCommitCompletedOffsetsInMetadataWhenPartitionsAreRevoked(final Vertx vertx) {
+        final var commits = new CopyOnWriteArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final Function<Map<TopicPartition, OffsetAndMetadata>, Future<?>> committer = offsets -> {
+            commits.add(offsets);
+            return Future.succeededFuture();
+        };
+
+        final var offsetManager = new OffsetManager(vertx, committer, null, 100_000L);
+        offsetManager.commitCompletedOffsets(OffsetManager.DEFAULT_COMMIT_METADATA_MAX_LENGTH);
+        for (int i = 0; i < 6; i++) {
+            offsetManager.recordReceived(record("aaa", 0, i));
+        }
+        for (final var i : List.of(0, 2, 3, 5)) {
+            offsetManager.successfullySentToSubscriber(record("aaa", 0, i));
+        }
+
+        final var tp = new TopicPartition("aaa", 0);
+        offsetManager.getPartitionRevokedHandler().partitionRevoked(List.of(tp));
+
+        assertThat(commits.size()).isEqualTo(1);
+        assertThat(commits.get(0)).isEqualTo(Map.of(tp, new OffsetAndMetadata(1, "kc1:0.2.1.1")));
+    }
+
+    @Test
+    public void shouldSkipRestoredCompletedOffsets(final Vertx vertx) {
+        final var offsetManager = new OffsetManager(vertx, offsets -> Future.succeededFuture(), null, 100_000L);
+        final var tp = new TopicPartition("aaa", 0);
+        offsetManager.restoreCompletedOffsets(Map.of(tp, new OffsetAndMetadata(1, "kc1:0.2.1.1")));
+
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 1))).isFalse();
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 2))).isTrue();
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 3))).isTrue();
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 4))).isFalse();
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 5))).isTrue();
+        assertThat(offsetManager.isCompleted(record("aaa", 0, 6))).isFalse();
+        assertThat(offsetManager.isCompleted(record("aaa", 1, 2))).isFalse();
+
+        // Skipped records are not received, but they're completed.
+        for (final var i : List.of(1, 4, 6)) {
+            offsetManager.recordReceived(record("aaa", 0, i));
+            offsetManager.successfullySentToSubscriber(record("aaa", 0, i));
+        }
+        assertThat(offsetManager.getOffsetTrackers().get(tp).offsetToCommit()).isEqualTo(7);
+    }
 }
@@ -16,6 +16,7 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -24,6 +25,7 @@ import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
 import dev.knative.eventing.kafka.broker.dispatcher.MockReactiveKafkaConsumer;
 import dev.knative.eventing.kafka.broker.dispatcher.impl.RecordDispatcherImpl;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.RetryTopic;
 import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
 import dev.knative.eventing.kafka.broker.dispatcher.main.FakeConsumerVerticleContext;
 import io.cloudevents.CloudEvent;
@@ -31,12 +33,15 @@ import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -49,6 +54,7 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.MockConsumer;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -179,6 +185,70 @@ public class OrderedConsumerVerticleTest extends AbstractConsumerVerticleTest {
         assertThat(receivedRecords.values().stream().mapToInt(List::size).sum()).isEqualTo(tasks);
     }
 
+    @Test
+    public void shouldHoldBackParkedRecordsUntilDue(final Vertx vertx) throws InterruptedException {
+        final var topic = "topic1";
+        final var egress = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setDeliveryOrder(DataPlaneContract.DeliveryOrder.ORDERED)
+                .build();
+        final var retryTopic = egress.getConsumerGroup() + "-retry";
+        final var context = FakeConsumerVerticleContext.get(
+                DataPlaneContract.Resource.newBuilder(CoreObjects.resource1())
+                        .clearTopics()
+                        .addTopics(topic)
+                        .build(),
+                egress);
+        context.getConsumerConfigs().put(RetryTopic.ENABLED_CONFIG, "true");
+
+        final var consumer = new MockConsumer<Object, CloudEvent>(OffsetResetStrategy.LATEST);
+        final var dispatched = new ConcurrentHashMap<String, Long>();
+        final var recordDispatcher = mock(RecordDispatcherImpl.class);
+        when(recordDispatcher.dispatch(any())).then(invocation -> {
+            final ConsumerRecord<Object, CloudEvent> record = invocation.getArgument(0);
+            dispatched.put(record.topic(), System.currentTimeMillis());
+            return Future.succeededFuture();
+        });
+        when(recordDispatcher.close()).thenReturn(Future.succeededFuture());
+
+        final var verticle = createConsumerVerticle(context, (vx, consumerVerticle) -> {
+            consumerVerticle.setConsumer(new MockReactiveKafkaConsumer<>(consumer));
+            consumerVerticle.setRecordDispatcher(recordDispatcher);
+            consumerVerticle.setCloser(Future::succeededFuture);
+            consumerVerticle.setRebalanceListener(new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {}
+
+                @Override
+                public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {}
+            });
+            return Future.succeededFuture();
+        });
+
+        final var deployLatch = new CountDownLatch(1);
+        vertx.deployVerticle(verticle).onComplete(v -> deployLatch.countDown());
+        deployLatch.await();
+
+        assertThat(consumer.subscription()).containsExactlyInAnyOrder(topic, retryTopic);
+
+        final var partitions = List.of(new TopicPartition(topic, 0), new TopicPartition(retryTopic, 0));
+        consumer.updateEndOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), v -> 0L)));
+        consumer.rebalance(partitions);
+
+        final var dueTimeMs = System.currentTimeMillis() + 3000;
+        final var parked = new ConsumerRecord<Object, CloudEvent>(retryTopic, 0, 0, null, null);
+        parked.headers().add("kn-retry", "1".getBytes(StandardCharsets.UTF_8));
+        parked.headers().add("kn-retry-due-ms", String.valueOf(dueTimeMs).getBytes(StandardCharsets.UTF_8));
+        consumer.addRecord(parked);
+        consumer.addRecord(record(topic, 0, 0));
+
+        // The partition of the trigger topic moves on while the parked record waits.
+        await().atMost(Duration.ofSeconds(5)).until(() -> dispatched.containsKey(topic));
+        assertThat(dispatched.get(topic)).isLessThan(dueTimeMs);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> dispatched.containsKey(retryTopic));
+        assertThat(dispatched.get(retryTopic)).isGreaterThanOrEqualTo(dueTimeMs);
+    }
+
     ConsumerVerticle createConsumerVerticle(
             final ConsumerVerticleContext context, final ConsumerVerticle.Initializer initializer) {
         return new OrderedConsumerVerticle(context, initializer);
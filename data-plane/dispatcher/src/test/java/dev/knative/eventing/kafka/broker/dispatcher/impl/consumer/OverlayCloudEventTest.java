@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.KafkaMessageFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class OverlayCloudEventTest {
+
+    private static final CloudEvent event = CloudEventBuilder.v1()
+            .withId("123-42")
+            .withSource(URI.create("/api/some-source"))
+            .withType("type")
+            .withDataContentType("application/json")
+            .withData("{\"a\": 1}".getBytes(StandardCharsets.UTF_8))
+            .withExtension("ext", "value")
+            .build();
+
+    @Test
+    public void shouldOverrideExtensions() {
+        final var overlay = OverlayCloudEvent.of(event, Map.of("knativekafkaoffset", 42L, "ext", "override"));
+
+        assertThat(overlay.delegate()).isSameAs(event);
+        assertThat(overlay.getId()).isEqualTo(event.getId());
+        assertThat(overlay.getData()).isEqualTo(event.getData());
+        assertThat(overlay.getExtension("knativekafkaoffset")).isEqualTo(42L);
+        assertThat(overlay.getExtension("ext")).isEqualTo("override");
+        assertThat(overlay.getExtension("missing")).isNull();
+        assertThat(overlay.getExtensionNames()).containsExactlyInAnyOrder("ext", "knativekafkaoffset");
+
+        final var expected = CloudEventBuilder.from(event)
+                .withExtension("knativekafkaoffset", 42L)
+                .withExtension("ext", "override")
+                .build();
+        assertThat(overlay).isEqualTo(expected);
+        assertThat(overlay).isNotEqualTo(event);
+        assertThat(overlay.hashCode())
+                .isEqualTo(OverlayCloudEvent.of(expected, Map.of()).hashCode());
+    }
+
+    @Test
+    public void shouldMergeOverlays() {
+        final var overlay =
+                OverlayCloudEvent.of(OverlayCloudEvent.of(event, Map.of("a", "1", "b", "1")), Map.of("b", "2"));
+
+        assertThat(overlay.delegate()).isSameAs(event);
+        assertThat(overlay.extensions()).isEqualTo(Map.of("a", "1", "b", "2"));
+    }
+
+    @Test
+    public void shouldNotBuildLazyEvents() {
+        final var record = KafkaMessageFactory.createWriter("test").writeBinary(event);
+        final var lazy = LazyCloudEvent.of(record.headers(), record.value());
+
+        final var overlay = OverlayCloudEvent.of(lazy, Map.of("knativekafkapartition", 1));
+
+        assertThat(overlay.getType()).isEqualTo(event.getType());
+        assertThat(overlay.getExtension("ext")).isEqualTo("value");
+        assertThat(overlay.getExtension("knativekafkapartition")).isEqualTo(1);
+        assertThat(lazy.isMaterialized()).isFalse();
+        assertThat(lazy).isEqualTo(OverlayCloudEvent.of(event, Map.of()));
+    }
+}
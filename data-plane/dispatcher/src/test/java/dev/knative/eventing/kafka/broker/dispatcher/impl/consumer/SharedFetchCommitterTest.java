@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class SharedFetchCommitterTest {
+
+    private static final String SHARED_GROUP = "shared";
+    private static final TopicPartition TP0 = new TopicPartition("topic", 0);
+    private static final TopicPartition TP1 = new TopicPartition("topic", 1);
+
+    @Test
+    public void shouldInitializeSharedGroupWithLowestMemberOffsets() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed("a")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(10), TP1, offset(5))));
+        when(offsets.committed("b")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(3))));
+        when(offsets.committed(SHARED_GROUP)).thenReturn(Future.succeededFuture(Map.of()));
+        when(offsets.commit(any(), anyMap())).thenReturn(Future.succeededFuture());
+
+        final var committer = create(offsets, List.of("a", "b"), new ArrayList<>());
+
+        verify(offsets).commit(SHARED_GROUP, Map.of(TP0, offset(3), TP1, offset(5)));
+        assertThat(committer.getStartOffsets("a")).isEqualTo(Map.of(TP0, 10L, TP1, 5L));
+        assertThat(committer.getStartOffsets("b")).isEqualTo(Map.of(TP0, 3L));
+    }
+
+    @Test
+    public void shouldNotInitializeSharedGroupWithCommittedOffsets() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed("a")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(10))));
+        when(offsets.committed(SHARED_GROUP)).thenReturn(Future.succeededFuture(Map.of(TP0, offset(7))));
+
+        create(offsets, List.of("a"), new ArrayList<>());
+
+        verify(offsets, never()).commit(eq(SHARED_GROUP), anyMap());
+    }
+
+    @Test
+    public void shouldCommitLowestOffsetForSharedGroup() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed(any())).thenReturn(Future.succeededFuture(Map.of()));
+        when(offsets.commit(any(), anyMap())).thenReturn(Future.succeededFuture());
+
+        final var sharedCommits = new ArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final var committer = create(offsets, List.of("a", "b"), sharedCommits);
+
+        committer.committerFor("a").apply(Map.of(TP0, offset(10)));
+        // The shared group waits for every member to commit the partition.
+        assertThat(sharedCommits).isEmpty();
+        verify(offsets).commit("a", Map.of(TP0, offset(10)));
+
+        committer.committerFor("b").apply(Map.of(TP0, offset(4)));
+        assertThat(sharedCommits).containsExactly(Map.of(TP0, offset(4)));
+
+        committer.committerFor("b").apply(Map.of(TP0, offset(20)));
+        assertThat(sharedCommits).containsExactly(Map.of(TP0, offset(4)), Map.of(TP0, offset(10)));
+    }
+
+    @Test
+    public void shouldConsiderStartOffsetsAsCommitted() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed("a")).thenReturn(Future.succeededFuture(Map.of()));
+        when(offsets.committed("b")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(50))));
+        when(offsets.committed(SHARED_GROUP)).thenReturn(Future.succeededFuture(Map.of(TP0, offset(50))));
+        when(offsets.commit(any(), anyMap())).thenReturn(Future.succeededFuture());
+
+        final var sharedCommits = new ArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final var committer = create(offsets, List.of("a", "b"), sharedCommits);
+
+        committer.committerFor("a").apply(Map.of(TP0, offset(60)));
+
+        assertThat(sharedCommits).containsExactly(Map.of(TP0, offset(50)));
+    }
+
+    @Test
+    public void shouldNotCommitSharedGroupWhenMemberCommitFails() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed(any())).thenReturn(Future.succeededFuture(Map.of()));
+        when(offsets.commit(any(), anyMap())).thenReturn(Future.failedFuture(new IllegalStateException()));
+
+        final var sharedCommits = new ArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final var committer = create(offsets, List.of("a"), sharedCommits);
+
+        final var result = committer.committerFor("a").apply(Map.of(TP0, offset(60)));
+
+        assertThat(result.failed()).isTrue();
+        assertThat(sharedCommits).isEmpty();
+    }
+
+    @Test
+    public void shouldRewindPartitionsWhereMemberIsBehindSharedGroup() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed("a")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(50), TP1, offset(50))));
+        // "b" just joined the shared consumer.
+        when(offsets.committed("b")).thenReturn(Future.succeededFuture(Map.of(TP0, offset(20), TP1, offset(70))));
+        when(offsets.committed(SHARED_GROUP))
+                .thenReturn(Future.succeededFuture(Map.of(TP0, offset(50), TP1, offset(50))));
+
+        final var committer = create(offsets, List.of("a", "b"), new ArrayList<>());
+
+        final var consumer = new MockConsumer<String, String>(OffsetResetStrategy.LATEST);
+        consumer.assign(List.of(TP0, TP1));
+        consumer.seek(TP0, 50);
+        consumer.seek(TP1, 50);
+
+        final var handler = committer.getPartitionAssignedHandler(consumer);
+        assertThat(handler.partitionAssigned(List.of(TP0, TP1)).succeeded()).isTrue();
+        assertThat(consumer.position(TP0)).isEqualTo(20);
+        assertThat(consumer.position(TP1)).isEqualTo(50);
+
+        // Partitions are rewound only the first time they're assigned.
+        consumer.seek(TP0, 40);
+        handler.partitionAssigned(List.of(TP0, TP1));
+        assertThat(consumer.position(TP0)).isEqualTo(40);
+        verify(offsets, never()).commit(eq(SHARED_GROUP), anyMap());
+    }
+
+    @Test
+    public void shouldComputeRewindOffsets() {
+        assertThat(SharedFetchCommitter.rewindOffsets(
+                        Map.of(TP0, offset(10), TP1, offset(10)), Map.of(TP0, 5L, TP1, 15L)))
+                .isEqualTo(Map.of(TP0, 5L));
+        assertThat(SharedFetchCommitter.rewindOffsets(Map.of(), Map.of(TP0, 5L)))
+                .isEqualTo(Map.of(TP0, 5L));
+    }
+
+    @Test
+    public void shouldIgnoreMemberCommitsCompletedOutOfOrder() throws Exception {
+        final var offsets = mock(ConsumerGroupOffsets.class);
+        when(offsets.committed(any())).thenReturn(Future.succeededFuture(Map.of()));
+        final Promise<Void> older = Promise.promise();
+        when(offsets.commit("a", Map.of(TP0, offset(10)))).thenReturn(older.future());
+        when(offsets.commit("a", Map.of(TP0, offset(20)))).thenReturn(Future.succeededFuture());
+        when(offsets.commit("b", Map.of(TP0, offset(30)))).thenReturn(Future.succeededFuture());
+
+        final var sharedCommits = new ArrayList<Map<TopicPartition, OffsetAndMetadata>>();
+        final var committer = create(offsets, List.of("a", "b"), sharedCommits);
+
+        committer.committerFor("a").apply(Map.of(TP0, offset(10)));
+        committer.committerFor("a").apply(Map.of(TP0, offset(20)));
+        older.complete();
+        committer.committerFor("b").apply(Map.of(TP0, offset(30)));
+
+        assertThat(sharedCommits).containsExactly(Map.of(TP0, offset(20)));
+    }
+
+    @Test
+    public void shouldComputeLowestOffsets() {
+        assertThat(SharedFetchCommitter.lowestOffsets(List.of(Map.of(TP0, 3L, TP1, 9L), Map.of(TP0, 5L), Map.of())))
+                .isEqualTo(Map.of(TP0, 3L, TP1, 9L));
+    }
+
+    private static SharedFetchCommitter create(
+            final ConsumerGroupOffsets offsets,
+            final List<String> memberGroups,
+            final List<Map<TopicPartition, OffsetAndMetadata>> sharedCommits)
+            throws Exception {
+        return SharedFetchCommitter.create(offsets, SHARED_GROUP, memberGroups, o -> {
+                    sharedCommits.add(o);
+                    return Future.succeededFuture();
+                })
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(1, TimeUnit.SECONDS);
+    }
+
+    private static OffsetAndMetadata offset(final long offset) {
+        return new OffsetAndMetadata(offset, "");
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SubscriberCircuitBreaker.Permit;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.SubscriberCircuitBreaker.State;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class SubscriberCircuitBreakerTest {
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailures(final Vertx vertx) {
+        final var breaker = new SubscriberCircuitBreaker(vertx, 3, 60_000, 1, "test");
+
+        breaker.onResult(breaker.tryAcquire(), 503);
+        breaker.onResult(breaker.tryAcquire(), 503);
+        breaker.onResult(breaker.tryAcquire(), 200);
+        breaker.onResult(breaker.tryAcquire(), 500);
+        breaker.onResult(breaker.tryAcquire(), -1);
+        // Client errors don't count as failures.
+        breaker.onResult(breaker.tryAcquire(), 400);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        breaker.onResult(breaker.tryAcquire(), 429);
+        breaker.onResult(breaker.tryAcquire(), 502);
+        breaker.onResult(breaker.tryAcquire(), 504);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.DENIED);
+        assertThat(breaker.getRetryDelayMs()).isGreaterThan(50_000);
+    }
+
+    @Test
+    public void shouldProbeAndClose(final Vertx vertx) {
+        final var breaker = new SubscriberCircuitBreaker(vertx, 1, 50, 3, "test");
+        final var events = new CopyOnWriteArrayList<String>();
+        breaker.setListener(new RecordingListener(events));
+
+        breaker.onResult(breaker.tryAcquire(), 503);
+        // The circuit might be half-open already.
+        assertThat(events).startsWith("open");
+
+        await().timeout(Duration.ofSeconds(5)).until(() -> breaker.getState() == State.HALF_OPEN);
+        assertThat(events).containsExactly("open", "half-open");
+
+        // A single probe at first.
+        final var probe = breaker.tryAcquire();
+        assertThat(probe).isEqualTo(Permit.PROBE);
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.DENIED);
+        breaker.onResult(probe, 202);
+
+        // Then 2 concurrent probes.
+        final var probes = List.of(breaker.tryAcquire(), breaker.tryAcquire());
+        assertThat(probes).containsOnly(Permit.PROBE);
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.DENIED);
+        probes.forEach(p -> breaker.onResult(p, 200));
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.GRANTED);
+        assertThat(events).containsExactly("open", "half-open", "probe-succeeded", "probe-succeeded", "close");
+    }
+
+    @Test
+    public void shouldReopenWhenProbeFails(final Vertx vertx) {
+        final var breaker = new SubscriberCircuitBreaker(vertx, 1, 50, 3, "test");
+        final var events = new CopyOnWriteArrayList<String>();
+        breaker.setListener(new RecordingListener(events));
+
+        breaker.onResult(breaker.tryAcquire(), 503);
+        await().timeout(Duration.ofSeconds(5)).until(() -> breaker.getState() == State.HALF_OPEN);
+
+        breaker.onResult(breaker.tryAcquire(), 503);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(events).containsExactly("open", "half-open", "open");
+        await().timeout(Duration.ofSeconds(5)).until(() -> breaker.getState() == State.HALF_OPEN);
+    }
+
+    @Test
+    public void shouldProbeAgainWhileProbesOfThePreviousHalfOpenAreInFlight(final Vertx vertx) {
+        final var breaker = new SubscriberCircuitBreaker(vertx, 1, 50, 3, "test");
+
+        breaker.onResult(breaker.tryAcquire(), 503);
+        await().timeout(Duration.ofSeconds(5)).until(() -> breaker.getState() == State.HALF_OPEN);
+        breaker.onResult(breaker.tryAcquire(), 200);
+
+        final var failed = breaker.tryAcquire();
+        final var inFlight = breaker.tryAcquire();
+        assertThat(inFlight).isEqualTo(Permit.PROBE);
+        breaker.onResult(failed, 503);
+        await().timeout(Duration.ofSeconds(5)).until(() -> breaker.getState() == State.HALF_OPEN);
+
+        // The probe sent before the circuit opened again doesn't hold back new probes.
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.PROBE);
+        assertThat(breaker.tryAcquire()).isEqualTo(Permit.DENIED);
+    }
+
+    @Test
+    public void shouldIgnoreRequestsSentBeforeOpening(final Vertx vertx) {
+        final var breaker = new SubscriberCircuitBreaker(vertx, 1, 60_000, 1, "test");
+
+        final var inFlight = breaker.tryAcquire();
+        breaker.onResult(breaker.tryAcquire(), 503);
+        breaker.onResult(inFlight, 200);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private record RecordingListener(List<String> events) implements SubscriberCircuitBreaker.Listener {
+
+        @Override
+        public void onOpen() {
+            events.add("open");
+        }
+
+        @Override
+        public void onHalfOpen() {
+            events.add("half-open");
+        }
+
+        @Override
+        public void onProbeSucceeded() {
+            events.add("probe-succeeded");
+        }
+
+        @Override
+        public void onClose() {
+            events.add("close");
+        }
+    }
+}
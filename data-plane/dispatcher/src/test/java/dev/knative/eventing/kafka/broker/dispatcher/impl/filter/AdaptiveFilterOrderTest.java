@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AnyFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.NotFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.PrefixFilter;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveFilterOrderTest {
+
+    private static final int EVENTS_PER_REORDER =
+            AdaptiveFilterOrder.SAMPLE_INTERVAL * AdaptiveFilterOrder.SAMPLES_PER_REORDER;
+
+    @Test
+    public void shouldOrderByCostAndRejectionRateForAll() {
+        final var order = new AdaptiveFilterOrder(3, true);
+        assertThat(order.order()).containsExactly(0, 1, 2);
+
+        for (int i = 0; i < AdaptiveFilterOrder.SAMPLES_PER_REORDER; i++) {
+            // Expensive, rejects half of the events.
+            order.record(0, i % 2 == 0, 1000);
+            // Never rejects.
+            order.record(1, true, 10);
+            // Cheap, rejects half of the events.
+            order.record(2, i % 2 == 0, 10);
+            order.sampled();
+        }
+
+        assertThat(order.order()).containsExactly(2, 0, 1);
+    }
+
+    @Test
+    public void shouldOrderByCostAndPassRateForAny() {
+        final var order = new AdaptiveFilterOrder(3, false);
+
+        for (int i = 0; i < AdaptiveFilterOrder.SAMPLES_PER_REORDER; i++) {
+            // Never passes.
+            order.record(0, false, 10);
+            // Expensive, passes half of the events.
+            order.record(1, i % 2 == 0, 1000);
+            // Cheap, passes half of the events.
+            order.record(2, i % 2 == 0, 10);
+            order.sampled();
+        }
+
+        assertThat(order.order()).containsExactly(2, 1, 0);
+    }
+
+    @Test
+    public void shouldRunRejectingFiltersFirst() {
+        final var expensive = new AtomicInteger();
+        final var filter = new AllFilter(
+                List.of(counting(expensive, event -> true), new ExactFilter(Map.of("type", "other"))), true);
+
+        final var event = event("type", "source");
+        for (int i = 0; i < EVENTS_PER_REORDER; i++) {
+            assertThat(filter.test(event)).isFalse();
+        }
+        expensive.set(0);
+        for (int i = 0; i < EVENTS_PER_REORDER; i++) {
+            assertThat(filter.test(event)).isFalse();
+        }
+
+        // Only sampled events reach the filter that never rejects.
+        assertThat(expensive.get()).isEqualTo(AdaptiveFilterOrder.SAMPLES_PER_REORDER);
+    }
+
+    @Test
+    public void shouldRunAcceptingFiltersFirst() {
+        final var neverPasses = new AtomicInteger();
+        final var filter = CompiledFilter.compile(new AnyFilter(
+                List.of(
+                        new NotFilter(counting(neverPasses, event -> true)),
+                        new PrefixFilter(Map.of("type", "dev.knative"))),
+                true));
+
+        final var event = event("dev.knative.type", "source");
+        for (int i = 0; i < EVENTS_PER_REORDER; i++) {
+            assertThat(filter.test(event)).isTrue();
+        }
+        neverPasses.set(0);
+        for (int i = 0; i < EVENTS_PER_REORDER; i++) {
+            assertThat(filter.test(event)).isTrue();
+        }
+
+        assertThat(neverPasses.get()).isEqualTo(AdaptiveFilterOrder.SAMPLES_PER_REORDER);
+    }
+
+    @Test
+    public void shouldMatchLikeFiltersInContractOrder() {
+        final var random = new Random(42);
+        final var types = List.of("a", "b", "c", "dev.knative.a", "dev.knative.b");
+        final var sources = List.of("/x", "/y", "/z");
+
+        final var filters = new ArrayList<Filter>();
+        for (final var adaptive : List.of(false, true)) {
+            filters.add(new AllFilter(
+                    List.of(
+                            new AnyFilter(
+                                    List.of(
+                                            new ExactFilter(Map.of("type", "a")),
+                                            new PrefixFilter(Map.of("type", "dev.knative"))),
+                                    adaptive),
+                            new NotFilter(new ExactFilter(Map.of("source", "/z"))),
+                            new AnyFilter(
+                                    List.of(
+                                            new ExactFilter(Map.of("source", "/x")),
+                                            new ExactFilter(Map.of("type", "dev.knative.b"))),
+                                    adaptive)),
+                    adaptive));
+        }
+        final var compiled = CompiledFilter.compile(filters.get(1));
+
+        for (int i = 0; i < 4 * EVENTS_PER_REORDER; i++) {
+            final var event =
+                    event(types.get(random.nextInt(types.size())), sources.get(random.nextInt(sources.size())));
+            final var expected = filters.get(0).test(event);
+            assertThat(filters.get(1).test(event)).isEqualTo(expected);
+            assertThat(compiled.test(event)).isEqualTo(expected);
+        }
+    }
+
+    private static Filter counting(final AtomicInteger counter, final Filter filter) {
+        return event -> {
+            counter.incrementAndGet();
+            return filter.test(event);
+        };
+    }
+
+    private static CloudEvent event(final String type, final String source) {
+        return CloudEventBuilder.v1()
+                .withId("1")
+                .withType(type)
+                .withSource(URI.create(source))
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.knative.eventing.kafka.broker.dispatcher.Filter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AnyFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.CeSqlFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.NotFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.PrefixFilter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.SuffixFilter;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class CompiledFilterTest {
+
+    private static final CloudEvent event = CloudEventBuilder.v1()
+            .withId("123-42")
+            .withDataContentType("application/cloudevents+json")
+            .withDataSchema(URI.create("/api/schema"))
+            .withSource(URI.create("/api/some-source"))
+            .withSubject("a-subject-42")
+            .withType("type")
+            .withTime(OffsetDateTime.of(1985, 4, 12, 23, 20, 50, 520_000_000, ZoneOffset.ofHours(2)))
+            .withExtension("ext", "ext-value")
+            .withExtension("number", 42)
+            .build();
+
+    @ParameterizedTest
+    @MethodSource(
+            value = {
+                "dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AllFilterTest#testCases",
+                "dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.AnyFilterTest#testCases",
+                "dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.NotFilterTest#testCases",
+                "testCases"
+            })
+    public void shouldMatchLikeTheFilterItCompiles(CloudEvent event, Filter filter, boolean shouldMatch) {
+        assertThat(filter.test(event)).isEqualTo(shouldMatch);
+        assertThat(CompiledFilter.compile(filter).test(event)).isEqualTo(shouldMatch);
+    }
+
+    @ParameterizedTest
+    @MethodSource(
+            value = {
+                "dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi.ExactFilterTest#testCases"
+            })
+    public void shouldMatchLikeExactFilter(Map<String, String> attributes, CloudEvent event, boolean shouldMatch) {
+        assertThat(CompiledFilter.compile(new ExactFilter(attributes)).test(event))
+                .isEqualTo(shouldMatch);
+    }
+
+    @Test
+    public void shouldReadAttributesOnceAcrossTheTree() {
+        final var event = mock(CloudEvent.class);
+        when(event.getType()).thenReturn("dev.knative.event");
+        when(event.getSource()).thenReturn(URI.create("/api/source"));
+
+        final var filter = CompiledFilter.compile(new AllFilter(List.of(
+                new PrefixFilter(Map.of("type", "dev.knative")),
+                new NotFilter(new ExactFilter(Map.of("type", "dev.knative.other"))),
+                new AnyFilter(List.of(
+                        new SuffixFilter(Map.of("type", ".other")), new SuffixFilter(Map.of("source", "source")))))));
+
+        assertThat(filter.test(event)).isTrue();
+        verify(event, times(1)).getType();
+        verify(event, times(1)).getSource();
+
+        // Values of an event aren't used for the next one.
+        when(event.getType()).thenReturn("other");
+        assertThat(filter.test(event)).isFalse();
+    }
+
+    @Test
+    public void shouldNotCompileOtherFilters() {
+        final var filter = new CeSqlFilter("type = 'type'");
+
+        assertThat(CompiledFilter.compile(filter)).isSameAs(filter);
+    }
+
+    static Stream<Arguments> testCases() {
+        final var time = "1985-04-12T21:20:50.520Z";
+        return Stream.of(
+                Arguments.of(event, new ExactFilter(Map.of("time", time)), true),
+                Arguments.of(event, new ExactFilter(Map.of("time", "1985-04-12T21:20:50.52Z")), false),
+                Arguments.of(event, new ExactFilter(Map.of("time", "1985-04-12T23:20:50.520+02:00")), false),
+                Arguments.of(event, new ExactFilter(Map.of("time", "not a time")), false),
+                Arguments.of(event, new PrefixFilter(Map.of("time", "1985-04-12T21")), true),
+                Arguments.of(event, new ExactFilter(Map.of("ext", "ext-value", "number", "42")), true),
+                Arguments.of(event, new SuffixFilter(Map.of("number", "3")), false),
+                Arguments.of(event, new ExactFilter(Map.of("missing", "value")), false),
+                Arguments.of(event, new ExactFilter(Map.of("missing", "")), true),
+                Arguments.of(
+                        event,
+                        new AllFilter(List.of(
+                                new ExactFilter(Map.of("type", "type")),
+                                new CeSqlFilter("subject = 'a-subject-42'"),
+                                new AnyFilter(List.of()))),
+                        false),
+                Arguments.of(
+                        event,
+                        new AnyFilter(List.of(
+                                new CeSqlFilter("subject = 'other'"),
+                                new AllFilter(List.of()),
+                                new ExactFilter(Map.of("type", "other")))),
+                        true));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.filter.subscriptionsapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.sql.EvaluationException;
+import io.cloudevents.sql.EvaluationRuntime;
+import io.cloudevents.sql.Parser;
+import io.cloudevents.sql.Type;
+import java.net.URI;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class CeSqlCompilerTest {
+
+    static final CloudEvent event = CloudEventBuilder.v1(CeSqlFilterTest.event)
+            .withExtension("number", 42)
+            .withExtension("flag", true)
+            .withExtension("text", "hello")
+            .withExtension("numbertext", "7")
+            .withExtension("bytes", new byte[] {1, 2, 3})
+            .build();
+
+    static final CloudEvent minimalEvent = CloudEventBuilder.v1()
+            .withId("1")
+            .withSource(URI.create("/s"))
+            .withType("t")
+            .build();
+
+    static final List<String> expressions = List.of(
+            "TRUE",
+            "'TRUE'",
+            "'yes'",
+            "0",
+            "id = '123-42'",
+            "'123-42' = id",
+            "ID = '123-42'",
+            "id != '123-42'",
+            "id <> 'x'",
+            "source = '/api/some-source'",
+            "dataschema = '/api/schema'",
+            "time = '1985-04-12T23:20:50Z'",
+            "specversion = '1.0'",
+            "subject = 'a-subject-42' AND type = 'type'",
+            "subject = 'nope' OR type = 'type'",
+            "subject = 'nope' XOR type = 'type'",
+            "type = 'type' AND missing = 'x'",
+            "type = 'nope' AND missing = 'x'",
+            "type = 'type' OR missing = 'x'",
+            "missing = 'x' OR TRUE",
+            "number = 42",
+            "number = '42'",
+            "number = 'abc'",
+            "'42' = number",
+            "flag = TRUE",
+            "TRUE = flag",
+            "'true' = flag",
+            "1 = flag",
+            "42 = numbertext",
+            "number = text",
+            "text = number",
+            "flag = 'true'",
+            "flag = 'maybe'",
+            "flag",
+            "NOT flag",
+            "text",
+            "numbertext = 7",
+            "number > 40",
+            "number >= 42",
+            "number < 42",
+            "number <= 41",
+            "numbertext < 10",
+            "text > 1",
+            "id LIKE '123%'",
+            "id LIKE '%42'",
+            "id LIKE '%3-4%'",
+            "id LIKE '1%-%2'",
+            "id LIKE '1%4%3'",
+            "id LIKE '123-42'",
+            "id LIKE '123_42'",
+            "id LIKE '123\\%%'",
+            "id NOT LIKE '123%'",
+            "number LIKE '4%'",
+            "missing LIKE '%'",
+            "EXISTS subject",
+            "EXISTS number",
+            "EXISTS missing",
+            "NOT EXISTS missing",
+            "type IN ('a', 'type', 'b')",
+            "type NOT IN ('a', 'b')",
+            "number IN (1, 42)",
+            "number IN ('42', 'x')",
+            "number IN ('x', 42)",
+            "flag IN (FALSE, TRUE)",
+            "type IN (subject, text, type)",
+            "number + 1 = 43",
+            "-number = -42",
+            "number / 0 = 1",
+            "number % 5 = 2",
+            "LENGTH(id) = 6",
+            "UPPER(type) = 'TYPE'",
+            "CONCAT(type, subject) LIKE 'type%'",
+            "bytes = 'AQID'",
+            "1 = 1 AND id = '123-42'",
+            "(1 + 1 = 2) AND (id LIKE '12%' OR number > 100)");
+
+    static Stream<Arguments> testCases() {
+        return Stream.of(event, minimalEvent)
+                .flatMap(e -> expressions.stream().map(expression -> Arguments.of(e, expression)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("testCases")
+    public void shouldEvaluateLikeTheRuntime(final CloudEvent event, final String expression) {
+        final var parsed = Parser.parseDefault(expression);
+        final var runtime = EvaluationRuntime.getDefault();
+        final var program = CeSqlCompiler.compile(parsed, runtime);
+
+        Boolean expected;
+        try {
+            expected = (Boolean) runtime.cast(parsed.tryEvaluate(runtime, event), Type.BOOLEAN);
+        } catch (final EvaluationException e) {
+            expected = null;
+        }
+
+        Boolean actual;
+        try {
+            actual = program.test(event);
+        } catch (final RuntimeException e) {
+            assertThat(e).isSameAs(CeSqlCompiler.FAILURE);
+            actual = null;
+        }
+
+        assertThat(actual).as(expression).isEqualTo(expected);
+        assertThat(new CeSqlFilter(expression).test(event)).isEqualTo(expected != null && expected);
+        assertThat(new CeSqlFilter(expression, 16).test(event)).isEqualTo(expected != null && expected);
+    }
+
+    @Test
+    public void shouldReadCeSqlRuntimeFields() {
+        // The compiler reads private fields of the CESQL runtime, they might be renamed by new versions.
+        assertThat(List.of(
+                        CeSqlCompiler.ATTRIBUTE_KEY,
+                        CeSqlCompiler.LIKE_OPERAND,
+                        CeSqlCompiler.LIKE_PATTERN,
+                        CeSqlCompiler.IN_OPERAND,
+                        CeSqlCompiler.IN_SET))
+                .doesNotContainNull();
+    }
+
+    @Test
+    public void shouldCompileKnownExpressions() {
+        final var runtime = EvaluationRuntime.getDefault();
+
+        final var program = CeSqlCompiler.compile(
+                Parser.parseDefault(
+                        "type IN ('a', 'b') AND (id LIKE '123%' OR EXISTS subject) AND number >= 42 AND NOT flag"),
+                runtime);
+        assertThat(program.attributes()).containsExactly("type", "id", "subject", "number", "flag");
+
+        // Functions are evaluated by the runtime, so the attributes they read aren't known.
+        assertThat(CeSqlCompiler.compile(Parser.parseDefault("LENGTH(id) = 6"), runtime)
+                        .attributes())
+                .isNull();
+
+        // Subtrees that don't depend on the event are folded.
+        assertThat(CeSqlCompiler.compile(Parser.parseDefault("'abc' LIKE 'a%'"), runtime)
+                        .root())
+                .isEqualTo(new CeSqlCompiler.Constant(true));
+    }
+
+    @Test
+    public void shouldMatchLikePatterns() {
+        assertLike("abc%", "abcdef", true);
+        assertLike("abc%", "xabc", false);
+        assertLike("%def", "abcdef", true);
+        assertLike("%def", "defx", false);
+        assertLike("%cd%", "abcdef", true);
+        assertLike("a%c%f", "abcdef", true);
+        assertLike("a%c%f", "acf", true);
+        assertLike("a%c%f", "af", false);
+        assertLike("ab%bc", "abc", false);
+        assertLike("ab%bc", "abbc", true);
+        assertLike("a_c", "abc", true);
+        assertLike("a_c", "abbc", false);
+        assertLike("%", "", true);
+        assertLike("a\\%b", "a%b", true);
+        assertLike("a\\%b", "axb", false);
+        assertLike("a.b", "axb", false);
+    }
+
+    private static void assertLike(final String like, final String value, final boolean expected) {
+        final var runtime = EvaluationRuntime.getDefault();
+        final var expression = Parser.parseDefault("'" + value + "' LIKE '" + like + "'");
+        assertThat((Boolean) expression.tryEvaluate(runtime, null)).as(like).isEqualTo(expected);
+
+        final var regex = "^\\Q"
+                + like.replace("\\%", "\u0000")
+                        .replace("%", "\\E.*\\Q")
+                        .replace("_", "\\E.\\Q")
+                        .replace("\u0000", "%") + "\\E$";
+        assertThat(CeSqlCompiler.likeMatcher(Pattern.compile(regex)).test(value))
+                .as(like)
+                .isEqualTo(expected);
+    }
+}
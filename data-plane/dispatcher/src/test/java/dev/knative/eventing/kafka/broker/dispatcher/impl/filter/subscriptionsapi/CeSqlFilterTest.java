@@ -23,6 +23,7 @@ import java.net.URI;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -55,4 +56,18 @@ public class CeSqlFilterTest {
                 Arguments.of(event, "id LIKE '123%'", true),
                 Arguments.of(event, "NOT(id LIKE '123%')", false));
     }
+
+    @Test
+    public void shouldCacheResultsByAttributeValues() {
+        final var filter = new CeSqlFilter("id LIKE '1_3%' AND EXISTS subject", 1);
+        final var other = CloudEventBuilder.v1(event).withId("321").build();
+        final var noSubject = CloudEventBuilder.v1(event).withSubject(null).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(filter.test(event)).isTrue();
+            assertThat(filter.test(event)).isTrue();
+            assertThat(filter.test(other)).isFalse();
+            assertThat(filter.test(noSubject)).isFalse();
+        }
+    }
 }
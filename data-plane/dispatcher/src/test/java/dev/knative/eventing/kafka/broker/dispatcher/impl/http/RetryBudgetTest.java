@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import dev.knative.eventing.kafka.broker.dispatcher.main.ConsumerVerticleContext;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class RetryBudgetTest {
+
+    @Test
+    public void shouldAllowRetriesUpToRatioPlusMinimum() {
+        final var clock = new AtomicLong(0);
+        final var budget = new RetryBudget(0.1, 1, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            budget.onFirstAttempt();
+        }
+
+        // 10% of 100 first attempts, plus 1 retry per second over the window.
+        for (int i = 0; i < 10 + RetryBudget.WINDOW_SECONDS; i++) {
+            assertThat(budget.tryRetry()).isTrue();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+
+        // 10 more first attempts allow another retry.
+        for (int i = 0; i < 10; i++) {
+            budget.onFirstAttempt();
+        }
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    @Test
+    public void shouldSlideWindow() {
+        final var clock = new AtomicLong(0);
+        final var budget = new RetryBudget(0, 1, clock::get);
+
+        for (int i = 0; i < RetryBudget.WINDOW_SECONDS; i++) {
+            assertThat(budget.tryRetry()).isTrue();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(RetryBudget.WINDOW_SECONDS - 1));
+        assertThat(budget.tryRetry()).isFalse();
+
+        // Retries of the first second leave the window.
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < RetryBudget.WINDOW_SECONDS; i++) {
+            assertThat(budget.tryRetry()).isTrue();
+        }
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    @Test
+    public void shouldCreateFromConsumerConfigs(final Vertx vertx) {
+        assertThat(RetryBudget.create(vertx, context(Map.of()), "http://localhost:8080"))
+                .isNull();
+
+        final var perEgress = Map.<String, Object>of(RetryBudget.RATIO_CONFIG, "0.2");
+        assertThat(RetryBudget.create(vertx, context(perEgress), "http://localhost:8080"))
+                .isNotNull()
+                .isNotSameAs(RetryBudget.create(vertx, context(perEgress), "http://localhost:8080"));
+
+        final var perHost =
+                Map.<String, Object>of(RetryBudget.RATIO_CONFIG, "0.2", RetryBudget.PER_HOST_CONFIG, "true");
+        assertThat(RetryBudget.create(vertx, context(perHost), "http://localhost:8080/a"))
+                .isNotNull()
+                .isSameAs(RetryBudget.create(vertx, context(perHost), "http://localhost:8080/b"))
+                .isNotSameAs(RetryBudget.create(vertx, context(perHost), "http://localhost:8081/a"));
+    }
+
+    private static ConsumerVerticleContext context(final Map<String, Object> consumerConfigs) {
+        return new ConsumerVerticleContext()
+                .withProducerConfigs(new HashMap<>())
+                .withConsumerConfigs(consumerConfigs)
+                .withResource(new EgressContext(CoreObjects.resource1(), CoreObjects.egress1(), Set.of()));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.impl.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class RetrySchedulerTest {
+
+    @Test
+    public void shouldExpireRetriesInOrderAcrossWheels(final Vertx vertx) {
+        final var clock = new AtomicLong(1_000);
+        // Wheels of 40ms, 160ms, 640ms, ...
+        final var scheduler = new RetryScheduler(vertx, 10, 4, clock::get, null);
+
+        final var delays = List.of(500L, 5L, 35L, 150L, 40L, 2_000L);
+        final var expired = new CopyOnWriteArrayList<Long>();
+        for (final var delay : delays) {
+            scheduler.schedule(this, delay, e -> expired.add(delay));
+        }
+        assertThat(scheduler.pending()).isEqualTo(6);
+
+        for (int i = 0; i < 250; i++) {
+            clock.addAndGet(10);
+            scheduler.tick();
+            final var elapsed = clock.get() - 1_000;
+            // Retries never expire before their delay, and at most a tick later.
+            final var due = delays.stream().filter(d -> d + 10 <= elapsed).toList();
+            await().pollDelay(Duration.ZERO)
+                    .pollInterval(Duration.ofMillis(1))
+                    .timeout(Duration.ofSeconds(1))
+                    .untilAsserted(() -> assertThat(expired).containsAll(due).allMatch(d -> d <= elapsed));
+        }
+
+        await().timeout(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(expired).containsExactlyInAnyOrderElementsOf(delays));
+        assertThat(scheduler.pending()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCancelRetriesOfOwner(final Vertx vertx) {
+        final var clock = new AtomicLong(0);
+        final var scheduler = new RetryScheduler(vertx, 10, 4, clock::get, null);
+
+        final var first = new Object();
+        final var second = new Object();
+        final var results = new ConcurrentHashMap<String, Boolean>();
+        scheduler.schedule(first, 20, e -> results.put("first-20", e));
+        scheduler.schedule(first, 1_000, e -> results.put("first-1000", e));
+        scheduler.schedule(second, 20, e -> results.put("second-20", e));
+
+        assertThat(scheduler.cancel(first)).isEqualTo(2);
+        assertThat(scheduler.pending()).isEqualTo(1);
+
+        clock.set(30);
+        scheduler.tick();
+
+        await().timeout(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(results)
+                .isEqualTo(Map.of("first-20", false, "first-1000", false, "second-20", true)));
+    }
+
+    @Test
+    public void shouldCancelRetriesOnClose(final Vertx vertx) {
+        final var scheduler = new RetryScheduler(vertx, 10, 4, () -> 0, null);
+
+        final var results = new CopyOnWriteArrayList<Boolean>();
+        scheduler.schedule(this, 100, results::add);
+        scheduler.close();
+        scheduler.schedule(this, 100, results::add);
+
+        await().timeout(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(results).containsExactly(false, false));
+        assertThat(scheduler.pending()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldExposeMetrics(final Vertx vertx) {
+        final var registry = new SimpleMeterRegistry();
+        final var clock = new AtomicLong(0);
+        final var scheduler = new RetryScheduler(vertx, 10, 4, clock::get, registry);
+
+        scheduler.schedule(this, 10, e -> {});
+        scheduler.schedule(this, 10, e -> {});
+        assertThat(registry.get("retry_pending_count").gauge().value()).isEqualTo(2);
+
+        clock.set(50);
+        scheduler.tick();
+
+        assertThat(registry.get("retry_pending_count").gauge().value()).isEqualTo(0);
+        final var lag = registry.get("retry_scheduling_lag").summary();
+        assertThat(lag.count()).isEqualTo(2);
+        assertThat(lag.max()).isEqualTo(40);
+    }
+
+    @Test
+    public void shouldShareSchedulerPerVertx(final Vertx vertx) {
+        assertThat(RetryScheduler.get(vertx, null)).isSameAs(RetryScheduler.get(vertx, null));
+    }
+
+    @Test
+    public void shouldRetryWithRealTimers(final Vertx vertx) {
+        final var scheduler = RetryScheduler.get(vertx, null);
+        final var start = System.nanoTime();
+        final var elapsedMs = new AtomicLong(-1);
+        scheduler.schedule(this, 100, e -> elapsedMs.set((System.nanoTime() - start) / 1_000_000));
+
+        await().timeout(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(elapsedMs.get()).isGreaterThanOrEqualTo(100));
+        await().timeout(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(scheduler.pending()).isEqualTo(0));
+    }
+}
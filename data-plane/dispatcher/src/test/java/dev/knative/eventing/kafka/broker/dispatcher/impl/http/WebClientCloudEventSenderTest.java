@@ -16,7 +16,9 @@
 package dev.knative.eventing.kafka.broker.dispatcher.impl.http;
 
 import static dev.knative.eventing.kafka.broker.dispatcher.impl.http.WebClientCloudEventSender.computeRetryPolicy;
+import static dev.knative.eventing.kafka.broker.dispatcher.impl.http.WebClientCloudEventSender.decorrelatedJitter;
 import static dev.knative.eventing.kafka.broker.dispatcher.impl.http.WebClientCloudEventSender.isRetryableStatusCode;
+import static dev.knative.eventing.kafka.broker.dispatcher.impl.http.WebClientCloudEventSender.parseRetryAfterMs;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.equalTo;
@@ -29,11 +31,20 @@ import static org.mockito.Mockito.verify;
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import dev.knative.eventing.kafka.broker.core.NamespacedName;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
+import dev.knative.eventing.kafka.broker.dispatcher.CloudEventBatch;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.ResponseFailureException;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.AdaptiveConcurrencyLimiter;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.LazyCloudEvent;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.OverlayCloudEvent;
 import dev.knative.eventing.kafka.broker.dispatcher.main.FakeConsumerVerticleContext;
+import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.http.vertx.VertxMessageFactory;
+import io.cloudevents.kafka.KafkaMessageFactory;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.junit5.VertxExtension;
@@ -41,10 +52,18 @@ import io.vertx.junit5.VertxTestContext;
 import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -87,6 +106,50 @@ public class WebClientCloudEventSenderTest {
                 }));
     }
 
+    @Test
+    public void shouldPassThroughLazyEvents(final Vertx vertx, final VertxTestContext context) throws Exception {
+        final var event = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("/api/v1/orders"))
+                .withType("dev.knative.eventing.created")
+                .withTime(OffsetDateTime.parse("2024-01-01T10:00:00Z"))
+                .withDataContentType("application/json")
+                .withExtension("ext", "value")
+                .withData("{\"order\": 42}".getBytes(StandardCharsets.UTF_8))
+                .build();
+        final var record = KafkaMessageFactory.createWriter("topic").writeBinary(event);
+        final var overlay = OverlayCloudEvent.of(
+                LazyCloudEvent.of(record.headers(), record.value()),
+                Map.of("ext", "override", "knativekafkaoffset", 1L));
+
+        final var server = vertx.createHttpServer()
+                .requestHandler(r -> VertxMessageFactory.createReader(r)
+                        .onSuccess(reader -> {
+                            context.verify(() -> {
+                                // Extensions are strings in HTTP headers.
+                                assertThat(reader.toEvent())
+                                        .isEqualTo(CloudEventBuilder.from(event)
+                                                .withExtension("ext", "override")
+                                                .withExtension("knativekafkaoffset", "1")
+                                                .build());
+                            });
+                            r.response().setStatusCode(202).end();
+                        })
+                        .onFailure(context::failNow))
+                .listen(0, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        WebClientCloudEventSender.writeBinary(
+                        WebClient.create(vertx).postAbs("http://localhost:" + server.actualPort()), overlay)
+                .onFailure(context::failNow)
+                .onSuccess(response -> context.verify(() -> {
+                    assertThat(response.statusCode()).isEqualTo(202);
+                    context.completeNow();
+                }));
+    }
+
     @Test
     @Timeout(value = 20000)
     public void shouldRetry(final Vertx vertx, final VertxTestContext context)
@@ -276,6 +339,62 @@ public class WebClientCloudEventSenderTest {
         sender.close().onSuccess(v -> context.completeNow());
     }
 
+    @Test
+    @Timeout(value = 20000)
+    public void shouldFailPendingRetriesOnClose(final Vertx vertx) throws ExecutionException, InterruptedException {
+
+        final var port = 12346;
+        final var event = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("/api/v1/orders"))
+                .withType("dev.knative.eventing.created")
+                .build();
+
+        final var counter = new LongAdder();
+
+        vertx.createHttpServer()
+                .requestHandler(r -> {
+                    counter.increment();
+                    r.response().setStatusCode(503).end();
+                })
+                .listen(port, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var sender = new WebClientCloudEventSender(
+                vertx,
+                WebClient.create(vertx),
+                "http://localhost:" + port,
+                "",
+                new NamespacedName("", ""),
+                FakeConsumerVerticleContext.get(
+                        FakeConsumerVerticleContext.get().getResource(),
+                        DataPlaneContract.Egress.newBuilder(
+                                        FakeConsumerVerticleContext.get().getEgress())
+                                .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder()
+                                        .setBackoffDelay(60_000L)
+                                        .setBackoffPolicy(DataPlaneContract.BackoffPolicy.Linear)
+                                        .setRetry(3)
+                                        .build())
+                                .build()),
+                Tags.empty());
+
+        final var failed = new AtomicBoolean(false);
+        sender.send(event).onFailure(v -> failed.set(true));
+
+        await().untilAdder(counter, is(equalTo(1L)));
+        await().untilAsserted(() ->
+                assertThat(RetryScheduler.get(vertx, null).pending()).isEqualTo(1));
+
+        sender.close();
+
+        // The retry is cancelled instead of waiting for the backoff delay.
+        await().untilTrue(failed);
+        assertThat(counter.intValue()).isEqualTo(1);
+        assertThat(RetryScheduler.get(vertx, null).pending()).isEqualTo(0);
+    }
+
     @Test
     @Timeout(value = 20000)
     public void shouldNotRetryAndFail(final Vertx vertx, final VertxTestContext context)
@@ -401,6 +520,292 @@ public class WebClientCloudEventSenderTest {
         sender.close().onSuccess(v -> context.completeNow());
     }
 
+    @Test
+    @Timeout(value = 20000)
+    public void shouldSendBatch(final Vertx vertx, final VertxTestContext context)
+            throws ExecutionException, InterruptedException {
+
+        final var port = 12345;
+        final var events = IntStream.range(0, 2)
+                .mapToObj(i -> CloudEventBuilder.v1()
+                        .withId(UUID.randomUUID().toString())
+                        .withSource(URI.create("/api/v1/orders"))
+                        .withType("dev.knative.eventing.created")
+                        .build())
+                .collect(Collectors.toList());
+
+        final var received = new ArrayList<String>();
+
+        vertx.createHttpServer()
+                .requestHandler(r -> r.body().onSuccess(body -> {
+                    context.verify(
+                            () -> assertThat(r.getHeader("Content-Type")).isEqualTo(CloudEventBatch.CONTENT_TYPE));
+                    final var json = body.toJsonArray();
+                    for (int i = 0; i < json.size(); i++) {
+                        received.add(json.getJsonObject(i).getString("id"));
+                    }
+                    r.response().setStatusCode(202).end();
+                }))
+                .listen(port, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var sender = new WebClientCloudEventSender(
+                vertx,
+                WebClient.create(vertx),
+                "http://localhost:" + port,
+                "",
+                new NamespacedName("", ""),
+                FakeConsumerVerticleContext.get(),
+                Tags.empty());
+
+        final var batch = new CloudEventBatch(1024 * 1024);
+        events.forEach(batch::tryAdd);
+
+        sender.sendBatch(batch)
+                .onComplete(context.succeeding(response -> context.verify(() -> {
+                    assertThat(response.statusCode()).isEqualTo(202);
+                    assertThat(received)
+                            .containsExactlyElementsOf(
+                                    events.stream().map(CloudEvent::getId).collect(Collectors.toList()));
+                    sender.close().onSuccess(v -> context.completeNow());
+                })));
+    }
+
+    @Test
+    @Timeout(value = 20000)
+    public void shouldBackOffBeforeSendingEventsOfABatchRejectedWithRetryAfter(
+            final Vertx vertx, final VertxTestContext context) throws ExecutionException, InterruptedException {
+
+        final var port = 12349;
+        final var events = IntStream.range(0, 2)
+                .mapToObj(i -> CloudEventBuilder.v1()
+                        .withId(UUID.randomUUID().toString())
+                        .withSource(URI.create("/api/v1/orders"))
+                        .withType("dev.knative.eventing.created")
+                        .build())
+                .collect(Collectors.toList());
+
+        final var batchRequests = new ArrayList<Long>();
+        final var eventRequests = new ArrayList<Long>();
+
+        vertx.createHttpServer()
+                .requestHandler(r -> {
+                    if (CloudEventBatch.CONTENT_TYPE.equals(r.getHeader("Content-Type"))) {
+                        batchRequests.add(System.nanoTime());
+                        r.response()
+                                .setStatusCode(429)
+                                .putHeader("Retry-After", "1")
+                                .end();
+                    } else {
+                        eventRequests.add(System.nanoTime());
+                        r.response().setStatusCode(200).end();
+                    }
+                })
+                .listen(port, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var limiter = new AdaptiveConcurrencyLimiter(2, 100);
+        final var sender = new WebClientCloudEventSender(
+                vertx,
+                WebClient.create(vertx),
+                "http://localhost:" + port,
+                "",
+                new NamespacedName("", ""),
+                FakeConsumerVerticleContext.get(
+                        FakeConsumerVerticleContext.get().getResource(),
+                        DataPlaneContract.Egress.newBuilder(
+                                        FakeConsumerVerticleContext.get().getEgress())
+                                .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder()
+                                        .setBackoffDelay(10L)
+                                        .setTimeout(1000L)
+                                        .setBackoffPolicy(DataPlaneContract.BackoffPolicy.Linear)
+                                        .setRetry(3)
+                                        .build())
+                                .build()),
+                Tags.empty(),
+                limiter,
+                null);
+
+        final var batch = new CloudEventBatch(1024 * 1024);
+        events.forEach(batch::tryAdd);
+
+        sender.sendBatch(batch)
+                .recover(batchFailure -> {
+                    context.verify(() -> {
+                        assertThat(batchFailure).isInstanceOf(ResponseFailureException.class);
+                        // The egress is throttled while waiting for Retry-After.
+                        assertThat(limiter.getLimit()).isEqualTo(2);
+                    });
+                    return Future.all(events.stream()
+                                    .map(event -> sender.sendAfterFailedBatch(event, batchFailure))
+                                    .collect(Collectors.toList()))
+                            .map(v -> null);
+                })
+                .onComplete(context.succeeding(v -> context.verify(() -> {
+                    assertThat(batchRequests).hasSize(1);
+                    assertThat(eventRequests).hasSize(2);
+                    // Events are sent on their own after Retry-After instead of right away.
+                    for (final var eventRequest : eventRequests) {
+                        assertThat(eventRequest - batchRequests.get(0)).isGreaterThanOrEqualTo(900_000_000L);
+                    }
+                    sender.close().onSuccess(r -> context.completeNow());
+                })));
+    }
+
+    @Test
+    @Timeout(value = 20000)
+    public void shouldHonorRetryAfter(final Vertx vertx, final VertxTestContext context)
+            throws ExecutionException, InterruptedException {
+
+        final var port = 12347;
+        final var event = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("/api/v1/orders"))
+                .withType("dev.knative.eventing.created")
+                .build();
+
+        final var requests = new ArrayList<Long>();
+
+        vertx.createHttpServer()
+                .requestHandler(r -> {
+                    requests.add(System.nanoTime());
+                    if (requests.size() == 1) {
+                        r.response()
+                                .setStatusCode(429)
+                                .putHeader("Retry-After", "1")
+                                .end();
+                    } else {
+                        r.response().setStatusCode(200).end();
+                    }
+                })
+                .listen(port, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var limiter = new AdaptiveConcurrencyLimiter(2, 100);
+        final var sender = new WebClientCloudEventSender(
+                vertx,
+                WebClient.create(vertx),
+                "http://localhost:" + port,
+                "",
+                new NamespacedName("", ""),
+                FakeConsumerVerticleContext.get(
+                        FakeConsumerVerticleContext.get().getResource(),
+                        DataPlaneContract.Egress.newBuilder(
+                                        FakeConsumerVerticleContext.get().getEgress())
+                                .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder()
+                                        .setBackoffDelay(10L)
+                                        .setTimeout(1000L)
+                                        .setBackoffPolicy(DataPlaneContract.BackoffPolicy.Linear)
+                                        .setRetry(3)
+                                        .build())
+                                .build()),
+                Tags.empty(),
+                limiter,
+                null);
+
+        sender.send(event)
+                .onComplete(context.succeeding(response -> context.verify(() -> {
+                    assertThat(requests).hasSize(2);
+                    // The retry waits for Retry-After instead of the backoff delay.
+                    assertThat(requests.get(1) - requests.get(0)).isGreaterThanOrEqualTo(900_000_000L);
+                    sender.close().onSuccess(v -> context.completeNow());
+                })));
+
+        // The egress is throttled while waiting for Retry-After.
+        await().untilAsserted(() -> assertThat(requests).hasSize(1));
+        await().untilAsserted(() -> assertThat(limiter.getLimit()).isEqualTo(2));
+    }
+
+    @Test
+    @Timeout(value = 20000)
+    public void shouldNotRetryWhenRetryBudgetIsExhausted(final Vertx vertx, final VertxTestContext context)
+            throws ExecutionException, InterruptedException {
+
+        final var port = 12348;
+        final var event = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("/api/v1/orders"))
+                .withType("dev.knative.eventing.created")
+                .build();
+
+        final var counter = new LongAdder();
+
+        vertx.createHttpServer()
+                .requestHandler(r -> {
+                    counter.increment();
+                    r.response().setStatusCode(500).end();
+                })
+                .listen(port, "localhost")
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var consumerConfigs = new HashMap<String, Object>();
+        consumerConfigs.put(RetryBudget.RATIO_CONFIG, "0");
+        consumerConfigs.put(RetryBudget.MIN_RETRIES_PER_SECOND_CONFIG, "0");
+
+        final var sender = new WebClientCloudEventSender(
+                vertx,
+                WebClient.create(vertx),
+                "http://localhost:" + port,
+                "",
+                new NamespacedName("", ""),
+                FakeConsumerVerticleContext.get(
+                                FakeConsumerVerticleContext.get().getResource(),
+                                DataPlaneContract.Egress.newBuilder(FakeConsumerVerticleContext.get()
+                                                .getEgress())
+                                        .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder()
+                                                .setBackoffDelay(10L)
+                                                .setTimeout(1000L)
+                                                .setRetry(5)
+                                                .build())
+                                        .build())
+                        .withConsumerConfigs(consumerConfigs),
+                Tags.empty());
+
+        sender.send(event)
+                .onComplete(context.failing(cause -> context.verify(() -> {
+                    assertThat(counter.intValue()).isEqualTo(1);
+                    sender.close().onSuccess(v -> context.completeNow());
+                })));
+    }
+
+    @Test
+    public void shouldApplyDecorrelatedJitter() {
+        // First retry between the base delay and three times the base delay.
+        assertThat(decorrelatedJitter(100, 1000, 100, 0)).isEqualTo(100);
+        assertThat(decorrelatedJitter(100, 1000, 100, 0.5)).isEqualTo(200);
+        // Then up to three times the previous delay.
+        assertThat(decorrelatedJitter(100, 1000, 200, 0.99)).isBetween(590L, 600L);
+        // Capped by the backoff policy.
+        assertThat(decorrelatedJitter(100, 400, 200, 0.99)).isEqualTo(400);
+        assertThat(decorrelatedJitter(0, 0, 0, 0.5)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldParseRetryAfter() {
+        final var now = ZonedDateTime.parse("Wed, 21 Oct 2015 07:28:00 GMT", DateTimeFormatter.RFC_1123_DATE_TIME)
+                .toInstant()
+                .toEpochMilli();
+
+        assertThat(parseRetryAfterMs("120", now)).isEqualTo(120_000);
+        assertThat(parseRetryAfterMs(" 0 ", now)).isEqualTo(0);
+        assertThat(parseRetryAfterMs("Wed, 21 Oct 2015 07:28:30 GMT", now)).isEqualTo(30_000);
+        assertThat(parseRetryAfterMs("Wed, 21 Oct 2015 07:27:00 GMT", now)).isEqualTo(0);
+        assertThat(parseRetryAfterMs(String.valueOf(Long.MAX_VALUE), now))
+                .isEqualTo(WebClientCloudEventSender.MAX_RETRY_AFTER_MS);
+        assertThat(parseRetryAfterMs(null, now)).isEqualTo(-1);
+        assertThat(parseRetryAfterMs("", now)).isEqualTo(-1);
+        assertThat(parseRetryAfterMs("-1", now)).isEqualTo(-1);
+        assertThat(parseRetryAfterMs("soon", now)).isEqualTo(-1);
+    }
+
     @ParameterizedTest
     @MethodSource("retryableStatusCodes")
     public void shouldRetryRetryableStatusCodes(final Integer statusCode) {
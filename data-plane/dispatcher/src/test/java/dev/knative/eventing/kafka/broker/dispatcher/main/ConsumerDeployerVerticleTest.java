@@ -26,7 +26,9 @@ import static dev.knative.eventing.kafka.broker.core.testing.CoreObjects.resourc
 import static org.assertj.core.api.Assertions.assertThat;
 
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
 import dev.knative.eventing.kafka.broker.core.reconciler.ResourcesReconciler;
+import dev.knative.eventing.kafka.broker.dispatcher.SharedConsumerVerticleFactory;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
@@ -34,6 +36,8 @@ import io.vertx.junit5.VertxTestContext;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -77,6 +81,37 @@ public class ConsumerDeployerVerticleTest {
                 .onFailure(context::failNow);
     }
 
+    @Test
+    @Timeout(value = 2)
+    public void shouldDeployVerticlePerEgressWhenFactoryDoesNotCreateSharedVerticles(
+            final Vertx vertx, final VertxTestContext context) throws ExecutionException, InterruptedException {
+        final var resources = List.of(resource1(), resource2());
+        final var numEgresses = numEgresses(resources);
+        final var checkpoints = context.checkpoint(1);
+
+        // The factory isn't a SharedConsumerVerticleFactory, so shared fetch is ignored.
+        final var consumerDeployer =
+                new ConsumerDeployerVerticle(egressContext -> new AbstractVerticle() {}, 100, true);
+
+        vertx.deployVerticle(consumerDeployer)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var reconciler =
+                ResourcesReconciler.builder().watchEgress(consumerDeployer).build();
+
+        reconciler
+                .reconcile(DataPlaneContract.Contract.newBuilder()
+                        .addAllResources(resources)
+                        .build())
+                .onSuccess(ignored -> context.verify(() -> {
+                    assertThat(vertx.deploymentIDs()).hasSize(numEgresses + NUM_SYSTEM_VERTICLES);
+                    checkpoints.flag();
+                }))
+                .onFailure(context::failNow);
+    }
+
     @Test
     @Timeout(value = 2)
     public void shouldNotDeployWhenFailedToGetVerticle(final Vertx vertx, final VertxTestContext context)
@@ -355,6 +390,102 @@ public class ConsumerDeployerVerticleTest {
                 .onFailure(context::failNow);
     }
 
+    @Test
+    @Timeout(value = 2)
+    public void shouldDeploySharedVerticlePerResource(final Vertx vertx, final VertxTestContext context)
+            throws ExecutionException, InterruptedException {
+
+        final var resourcesOld = List.of(
+                DataPlaneContract.Resource.newBuilder()
+                        .setUid("1-1234")
+                        .addTopics("1-12345")
+                        .addAllEgresses(Arrays.asList(egress1(), egress2()))
+                        .build(),
+                DataPlaneContract.Resource.newBuilder()
+                        .setUid("2-1234")
+                        .addTopics("2-12345")
+                        .addAllEgresses(Arrays.asList(
+                                egress4(),
+                                egress5(),
+                                DataPlaneContract.Egress.newBuilder(egress6())
+                                        .setDeliveryOrder(DataPlaneContract.DeliveryOrder.ORDERED)
+                                        .build()))
+                        .build());
+
+        final var resourcesNew = List.of(DataPlaneContract.Resource.newBuilder()
+                .setUid("1-1234")
+                .addTopics("1-12345")
+                .addAllEgresses(Arrays.asList(egress1(), egress3()))
+                .build());
+
+        final var checkpoints = context.checkpoint(2);
+        // resource uid -> egresses of the last deployed shared verticle
+        final var sharedEgresses = new ConcurrentHashMap<String, List<String>>();
+
+        final var consumerDeployer = new ConsumerDeployerVerticle(
+                new SharedConsumerVerticleFactory() {
+                    @Override
+                    public AbstractVerticle get(final EgressContext egressContext) {
+                        return new AbstractVerticle() {};
+                    }
+
+                    @Override
+                    public AbstractVerticle getShared(final List<EgressContext> egressContexts) {
+                        sharedEgresses.put(
+                                egressContexts.get(0).resource().getUid(),
+                                egressContexts.stream()
+                                        .map(e -> e.egress().getUid())
+                                        .sorted()
+                                        .toList());
+                        return new AbstractVerticle() {};
+                    }
+                },
+                100,
+                true);
+
+        vertx.deployVerticle(consumerDeployer)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        final var reconciler =
+                ResourcesReconciler.builder().watchEgress(consumerDeployer).build();
+
+        reconciler
+                .reconcile(DataPlaneContract.Contract.newBuilder()
+                        .addAllResources(resourcesOld)
+                        .build())
+                .onSuccess(ignored -> {
+                    context.verify(() -> {
+                        // One shared verticle per resource and one for the ordered egress.
+                        assertThat(vertx.deploymentIDs()).hasSize(3 + NUM_SYSTEM_VERTICLES);
+                        final var expected = Map.of(
+                                "1-1234", List.of(egress1().getUid(), egress2().getUid()),
+                                "2-1234", List.of(egress4().getUid(), egress5().getUid()));
+                        assertThat(sharedEgresses).containsExactlyInAnyOrderEntriesOf(expected);
+                        checkpoints.flag();
+                    });
+                    sharedEgresses.clear();
+
+                    reconciler
+                            .reconcile(DataPlaneContract.Contract.newBuilder()
+                                    .addAllResources(resourcesNew)
+                                    .build())
+                            .onSuccess(ok -> context.verify(() -> {
+                                assertThat(vertx.deploymentIDs()).hasSize(1 + NUM_SYSTEM_VERTICLES);
+                                assertThat(sharedEgresses)
+                                        .containsExactlyEntriesOf(Map.of(
+                                                "1-1234",
+                                                List.of(
+                                                        egress1().getUid(),
+                                                        egress3().getUid())));
+                                checkpoints.flag();
+                            }))
+                            .onFailure(context::failNow);
+                })
+                .onFailure(context::failNow);
+    }
+
     @Test
     public void shouldThrowIfEgressesInitialCapacityIsLessOrEqualToZero(final Vertx vertx) {
         Assertions.assertThrows(
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2018 Knative Authors (knative-dev@googlegroups.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.knative.eventing.kafka.broker.dispatcher.main;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
+import dev.knative.eventing.kafka.broker.core.reconciler.EgressContext;
+import dev.knative.eventing.kafka.broker.core.testing.CoreObjects;
+import dev.knative.eventing.kafka.broker.dispatcher.impl.consumer.ConsumerPollerPool;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+public class ConsumerVerticleBuilderTest {
+
+    @Test
+    public void shouldUpdateInPlaceWhenOnlySwappableFieldsChange() {
+        final var current = context(CoreObjects.resource1(), CoreObjects.egress1(), Map.of());
+
+        final var egress = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setDestination("http://localhost:1234/updated")
+                .setReplyUrl("http://localhost:1234/reply")
+                .clearFilter()
+                .addDialectedFilter(DataPlaneContract.DialectedFilter.newBuilder()
+                        .setPrefix(DataPlaneContract.Prefix.newBuilder().putAttributes("type", "dev.")))
+                .build();
+        final var resource = DataPlaneContract.Resource.newBuilder(CoreObjects.resource1())
+                .setCloudEventOverrides(
+                        DataPlaneContract.CloudEventOverrides.newBuilder().putExtensions("ext", "value"))
+                .build();
+
+        assertThat(ConsumerVerticleBuilder.canUpdateInPlace(current, context(resource, egress, Map.of())))
+                .isTrue();
+    }
+
+    @Test
+    public void shouldRestartWhenConsumerGroupOrBootstrapServersChange() {
+        final var current = context(CoreObjects.resource1(), CoreObjects.egress1(), Map.of());
+
+        final var egress = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setConsumerGroup("other")
+                .build();
+        assertThat(ConsumerVerticleBuilder.canUpdateInPlace(
+                        current, context(CoreObjects.resource1(), egress, Map.of())))
+                .isFalse();
+
+        final var resource = DataPlaneContract.Resource.newBuilder(CoreObjects.resource1())
+                .setBootstrapServers("other:9092")
+                .build();
+        assertThat(ConsumerVerticleBuilder.canUpdateInPlace(
+                        current, context(resource, CoreObjects.egress1(), Map.of())))
+                .isFalse();
+    }
+
+    @Test
+    public void shouldRestartWhenMaxPollIntervalChanges() {
+        final var current = context(CoreObjects.resource1(), CoreObjects.egress1(), Map.of());
+
+        final var egress = DataPlaneContract.Egress.newBuilder(CoreObjects.egress1())
+                .setEgressConfig(DataPlaneContract.EgressConfig.newBuilder(
+                                CoreObjects.egress1().getEgressConfig())
+                        .setRetry(5))
+                .build();
+
+        assertThat(ConsumerVerticleBuilder.canUpdateInPlace(
+                        current, context(CoreObjects.resource1(), egress, Map.of())))
+                .isFalse();
+    }
+
+    @Test
+    public void shouldNotStallOtherConsumersOfThePollerWhileRevokingPartitions(final Vertx vertx) throws Exception {
+        final var tp = new TopicPartition("t1", 0);
+        final var pool = new ConsumerPollerPool(1, 5);
+        try {
+            final var revoking = new UnresponsiveBrokerConsumer();
+            revoking.assign(List.of(tp));
+            revoking.updateBeginningOffsets(Map.of(tp, 0L));
+            final var revokingConsumer = pool.register(vertx, revoking);
+
+            final var other = new MockConsumer<String, String>(OffsetResetStrategy.EARLIEST);
+            other.assign(List.of(tp));
+            other.updateBeginningOffsets(Map.of(tp, 0L));
+            other.addRecord(new ConsumerRecord<>(tp.topic(), tp.partition(), 0, "key", "value"));
+            final var otherConsumer = pool.register(vertx, other);
+
+            final Promise<Void> revokedCommit = Promise.promise();
+            final var listener = ConsumerVerticleBuilder.createRebalanceListener(
+                    FakeConsumerVerticleContext.get(),
+                    List.of(partitions -> {
+                        final var commit = revokingConsumer
+                                .commit(Map.of(tp, new OffsetAndMetadata(1)))
+                                .<Void>mapEmpty();
+                        commit.onComplete(revokedCommit);
+                        return commit;
+                    }),
+                    List.of());
+            // The Kafka consumer calls the rebalance listener in a poll, on the poller thread.
+            revoking.schedulePollTask(() -> listener.onPartitionsRevoked(List.of(tp)));
+            revokingConsumer.poll(Duration.ofSeconds(5));
+
+            final var startNanos = System.nanoTime();
+            final var records = otherConsumer
+                    .poll(Duration.ofSeconds(5))
+                    .toCompletionStage()
+                    .toCompletableFuture()
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(records.count()).isEqualTo(1);
+            assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(5));
+
+            assertThatThrownBy(() -> revokedCommit
+                            .future()
+                            .toCompletionStage()
+                            .toCompletableFuture()
+                            .get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+
+            revokingConsumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            otherConsumer.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static ConsumerVerticleContext context(
+            final DataPlaneContract.Resource resource,
+            final DataPlaneContract.Egress egress,
+            final Map<String, Object> consumerConfigs) {
+        return new ConsumerVerticleContext()
+                .withConsumerConfigs(new HashMap<>(consumerConfigs))
+                .withProducerConfigs(new HashMap<>())
+                .withResource(new EgressContext(resource, egress, Set.of()));
+    }
+
+    /**
+     * Consumer of a broker that never responds to commits, synchronous commits time out like the Kafka consumer does.
+     */
+    private static final class UnresponsiveBrokerConsumer extends MockConsumer<String, String> {
+
+        private static final Duration DEFAULT_API_TIMEOUT = Duration.ofSeconds(60);
+
+        UnresponsiveBrokerConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public void commitSync(final Map<TopicPartition, OffsetAndMetadata> offsets) {
+            commitSync(offsets, DEFAULT_API_TIMEOUT);
+        }
+
+        @Override
+        public void commitSync(final Map<TopicPartition, OffsetAndMetadata> offsets, final Duration timeout) {
+            try {
+                Thread.sleep(timeout.toMillis());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            throw new TimeoutException("No response from the broker");
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZE
 import static org.apache.kafka.clients.producer.ProducerConfig.INTERCEPTOR_CLASSES_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.Mockito.mock;
 
@@ -41,6 +42,7 @@ import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import org.apache.kafka.clients.consumer.StickyAssignor;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -186,4 +188,56 @@ public class ConsumerVerticleFactoryImplTest {
 
         assertDoesNotThrow(() -> verticleFactory.get(new EgressContext(resource, egress, Collections.emptySet())));
     }
+
+    @Test
+    public void shouldCreateSharedConsumerVerticle() {
+
+        final var consumerProperties = new Properties();
+        consumerProperties.setProperty(BOOTSTRAP_SERVERS_CONFIG, "0.0.0.0:9092");
+        consumerProperties.setProperty(KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        consumerProperties.setProperty(VALUE_DESERIALIZER_CLASS_CONFIG, CloudEventDeserializer.class.getName());
+
+        final var producerConfigs = new Properties();
+        producerConfigs.setProperty(BOOTSTRAP_SERVERS_CONFIG, "0.0.0.0:9092");
+        producerConfigs.setProperty(KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        producerConfigs.setProperty(VALUE_SERIALIZER_CLASS_CONFIG, CloudEventSerializer.class.getName());
+
+        final var verticleFactory = new ConsumerVerticleFactoryImpl(
+                consumerProperties,
+                new WebClientOptions(),
+                producerConfigs,
+                mock(AuthProvider.class),
+                mock(MeterRegistry.class),
+                new MockReactiveConsumerFactory<>(),
+                new MockReactiveProducerFactory<>());
+
+        final var egress1 = DataPlaneContract.Egress.newBuilder()
+                .setConsumerGroup("1234")
+                .setUid("1234")
+                .setDestination("http://localhost:43256")
+                .setDiscardReply(DataPlaneContract.Empty.newBuilder().build())
+                .build();
+        final var egress2 = DataPlaneContract.Egress.newBuilder(egress1)
+                .setConsumerGroup("5678")
+                .setUid("5678")
+                .build();
+        final var resource = DataPlaneContract.Resource.newBuilder()
+                .setUid("123456")
+                .setBootstrapServers("0.0.0.0:9092")
+                .addTopics("t1")
+                .addEgresses(egress1)
+                .addEgresses(egress2)
+                .build();
+
+        final var sharedEgress = SharedFetchConsumerVerticleBuilder.sharedEgress(resource, List.of(egress2, egress1));
+        // The shared consumer group doesn't change when triggers join or leave.
+        assertThat(sharedEgress.getConsumerGroup())
+                .isEqualTo(SharedFetchConsumerVerticleBuilder.SHARED_CONSUMER_GROUP_PREFIX + "123456-t1-string")
+                .isEqualTo(SharedFetchConsumerVerticleBuilder.sharedEgress(resource, List.of(egress1))
+                        .getConsumerGroup());
+
+        assertDoesNotThrow(() -> verticleFactory.getShared(List.of(
+                new EgressContext(resource, egress1, Collections.emptySet()),
+                new EgressContext(resource, egress2, Collections.emptySet()))));
+    }
 }
@@ -22,6 +22,7 @@ import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE
 
 import dev.knative.eventing.kafka.broker.contract.DataPlaneContract;
 import dev.knative.eventing.kafka.broker.core.eventtype.EventTypeCreator;
+import dev.knative.eventing.kafka.broker.core.metrics.EventMeters;
 import dev.knative.eventing.kafka.broker.core.metrics.Metrics;
 import dev.knative.eventing.kafka.broker.core.tracing.TracingConfig;
 import dev.knative.eventing.kafka.broker.core.tracing.TracingSpan;
@@ -31,11 +32,11 @@ import dev.knative.eventing.kafka.broker.receiver.RequestContext;
 import dev.knative.eventing.kafka.broker.receiver.RequestToRecordMapper;
 import io.cloudevents.CloudEvent;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
-import io.micrometer.core.instrument.Tags;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.context.Context;
 import io.vertx.core.Future;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
@@ -48,28 +49,18 @@ import org.slf4j.LoggerFactory;
  */
 public class IngressRequestHandlerImpl implements IngressRequestHandler {
 
-    static final Tag UNKNOWN_EVENT_TYPE_TAG = Tag.of(Metrics.Tags.EVENT_TYPE, "unknown");
+    static final String UNKNOWN_EVENT_TYPE = "unknown";
 
     static final int MAPPER_FAILED = BAD_REQUEST.code();
-    static final Tags MAPPER_FAILED_COMMON_TAGS = Tags.of(
-            Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "4xx"),
-            Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(MAPPER_FAILED)),
-            UNKNOWN_EVENT_TYPE_TAG);
-
     static final int RECORD_PRODUCED = ACCEPTED.code();
-    static final Tags RECORD_PRODUCED_COMMON_TAGS = Tags.of(
-            Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(RECORD_PRODUCED)),
-            Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "2xx"));
-
     static final int FAILED_TO_PRODUCE = SERVICE_UNAVAILABLE.code();
-    static final Tags FAILED_TO_PRODUCE_COMMON_TAGS = Tags.of(
-            Tag.of(Metrics.Tags.RESPONSE_CODE, Integer.toString(FAILED_TO_PRODUCE)),
-            Tag.of(Metrics.Tags.RESPONSE_CODE_CLASS, "5xx"));
 
     private static final Logger logger = LoggerFactory.getLogger(IngressRequestHandlerImpl.class);
 
     private final RequestToRecordMapper requestToRecordMapper;
     private final MeterRegistry meterRegistry;
+    private final Map<DataPlaneContract.Reference, EventMeters> eventMeters;
+    private final int maxEventTypes;
 
     private final EventTypeCreator eventTypeCreator;
 
@@ -77,15 +68,28 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
             final RequestToRecordMapper requestToRecordMapper,
             final MeterRegistry meterRegistry,
             final EventTypeCreator eventTypeCreator) {
+        this(requestToRecordMapper, meterRegistry, eventTypeCreator, EventMeters.DEFAULT_MAX_EVENT_TYPES);
+    }
+
+    /**
+     * @param maxEventTypes number of event types tagging the event meters of an ingress, see {@link EventMeters}.
+     */
+    public IngressRequestHandlerImpl(
+            final RequestToRecordMapper requestToRecordMapper,
+            final MeterRegistry meterRegistry,
+            final EventTypeCreator eventTypeCreator,
+            final int maxEventTypes) {
         this.requestToRecordMapper = requestToRecordMapper;
         this.meterRegistry = meterRegistry;
+        this.eventMeters = new ConcurrentHashMap<>();
+        this.maxEventTypes = maxEventTypes;
         this.eventTypeCreator = eventTypeCreator;
     }
 
     @Override
     public void handle(final RequestContext requestContext, final IngressProducer producer) {
 
-        final Tags resourceTags = Metrics.resourceRefTags(producer.getReference());
+        final var meters = eventMeters(producer.getReference());
 
         requestToRecordMapper
                 .requestToRecord(requestContext.getRequest(), producer.getTopic())
@@ -97,9 +101,9 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
                             .setStatusCode(MAPPER_FAILED)
                             .end();
 
-                    final var tags = MAPPER_FAILED_COMMON_TAGS.and(resourceTags);
-                    Metrics.eventDispatchLatency(tags).register(meterRegistry).record(requestContext.performLatency());
-                    Metrics.eventCount(tags).register(meterRegistry).increment();
+                    meters.eventDispatchLatency(UNKNOWN_EVENT_TYPE, MAPPER_FAILED)
+                            .record(requestContext.performLatency());
+                    meters.eventCount(UNKNOWN_EVENT_TYPE, MAPPER_FAILED).increment();
 
                     logger.warn(
                             "Failed to convert request to record {}",
@@ -125,8 +129,7 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
                     // Decorate the span with event specific attributed
                     TracingSpan.decorateCurrentWithEvent(record.value());
 
-                    final var eventTypeTag =
-                            Tag.of(Metrics.Tags.EVENT_TYPE, record.value().getType());
+                    final var eventType = record.value().getType();
 
                     return publishRecord(producer, record)
                             .onSuccess(m -> {
@@ -136,13 +139,9 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
                                         .setStatusCode(RECORD_PRODUCED)
                                         .end();
 
-                                final var tags = RECORD_PRODUCED_COMMON_TAGS
-                                        .and(resourceTags)
-                                        .and(eventTypeTag);
-                                Metrics.eventDispatchLatency(tags)
-                                        .register(meterRegistry)
+                                meters.eventDispatchLatency(eventType, RECORD_PRODUCED)
                                         .record(requestContext.performLatency());
-                                Metrics.eventCount(tags).register(meterRegistry).increment();
+                                meters.eventCount(eventType, RECORD_PRODUCED).increment();
                             })
                             .onFailure(cause -> {
                                 requestContext
@@ -151,13 +150,9 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
                                         .setStatusCode(FAILED_TO_PRODUCE)
                                         .end();
 
-                                final var tags = FAILED_TO_PRODUCE_COMMON_TAGS
-                                        .and(resourceTags)
-                                        .and(eventTypeTag);
-                                Metrics.eventDispatchLatency(tags)
-                                        .register(meterRegistry)
+                                meters.eventDispatchLatency(eventType, FAILED_TO_PRODUCE)
                                         .record(requestContext.performLatency());
-                                Metrics.eventCount(tags).register(meterRegistry).increment();
+                                meters.eventCount(eventType, FAILED_TO_PRODUCE).increment();
 
                                 logger.warn(
                                         "Failed to produce record {}",
@@ -186,6 +181,15 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
                 });
     }
 
+    private EventMeters eventMeters(final DataPlaneContract.Reference reference) {
+        final var meters = eventMeters.get(reference);
+        if (meters != null) {
+            return meters;
+        }
+        return eventMeters.computeIfAbsent(
+                reference, ref -> new EventMeters(meterRegistry, Metrics.resourceRefTags(ref), maxEventTypes));
+    }
+
     private static Future<RecordMetadata> publishRecord(
             final IngressProducer ingress, final ProducerRecord<String, CloudEvent> record) {
         return ingress.send(record).onComplete(ar -> {
@@ -217,6 +221,8 @@ public class IngressRequestHandlerImpl implements IngressRequestHandler {
 
     @Override
     public Future<Void> onDeleteIngress(DataPlaneContract.Resource resource, DataPlaneContract.Ingress ingress) {
+        // Cached meters are removed from the registry, so they can't be used anymore.
+        eventMeters.remove(resource.getReference());
         Metrics.searchResourceMeters(meterRegistry, resource.getReference()).forEach(meterRegistry::remove);
         return Future.succeededFuture();
     }
@@ -15,6 +15,7 @@
  */
 package dev.knative.eventing.kafka.broker.receiver.impl.handler;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -30,6 +31,7 @@ import dev.knative.eventing.kafka.broker.receiver.MockReactiveKafkaProducer;
 import dev.knative.eventing.kafka.broker.receiver.RequestContext;
 import dev.knative.eventing.kafka.broker.receiver.RequestToRecordMapper;
 import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import io.vertx.core.Future;
@@ -144,6 +146,55 @@ public class IngressRequestHandlerImplTest {
         verifySetStatusCodeAndTerminateResponse(IngressRequestHandlerImpl.MAPPER_FAILED, response);
     }
 
+    @Test
+    public void shouldRegisterMetersAgainAfterIngressIsDeleted() {
+        final var registry = new SimpleMeterRegistry();
+        final var reference = DataPlaneContract.Reference.newBuilder()
+                .setName("name")
+                .setNamespace("ns")
+                .build();
+        final var producer = mockProducer();
+
+        final RequestToRecordMapper mapper = (request, topic) -> Future.failedFuture("");
+        final var handler = new IngressRequestHandlerImpl(mapper, registry, ((event, reference1) -> null));
+        final var ingressProducer = new IngressProducer() {
+            @Override
+            public ReactiveKafkaProducer<String, CloudEvent> getKafkaProducer() {
+                return producer;
+            }
+
+            @Override
+            public String getTopic() {
+                return "1-12345";
+            }
+
+            @Override
+            public DataPlaneContract.Reference getReference() {
+                return reference;
+            }
+
+            @Override
+            public String getAudience() {
+                return "";
+            }
+        };
+
+        final HttpServerRequest request = mockHttpServerRequest("/hello");
+        mockResponse(request, IngressRequestHandlerImpl.MAPPER_FAILED);
+
+        handler.handle(new RequestContext(request), ingressProducer);
+        handler.handle(new RequestContext(request), ingressProducer);
+        assertThat(registry.get(Metrics.EVENTS_COUNT).counter().count()).isEqualTo(2);
+
+        handler.onDeleteIngress(
+                DataPlaneContract.Resource.newBuilder().setReference(reference).build(),
+                DataPlaneContract.Ingress.getDefaultInstance());
+        assertThat(registry.getMeters()).isEmpty();
+
+        handler.handle(new RequestContext(request), ingressProducer);
+        assertThat(registry.get(Metrics.EVENTS_COUNT).counter().count()).isEqualTo(1);
+    }
+
     private static void verifySetStatusCodeAndTerminateResponse(
             final int statusCode, final HttpServerResponse response) {
         verify(response, times(1)).setStatusCode(statusCode);